@@ -0,0 +1,134 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.asic;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+
+import eu.europa.esig.dss.CommonDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.MimeType;
+
+/**
+ * Document representing an entry of a ZIP container stored on file-system. The content of the entry is not kept in memory: it is
+ * read from the container (using its central directory) each time the document is opened.
+ *
+ */
+public class ZipEntryDocument extends CommonDocument {
+
+	private final File zipFile;
+
+	private final String entryName;
+
+	/**
+	 * Creates dss document representing the given entry of a ZIP container
+	 *
+	 * @param zipFile   the ZIP container
+	 * @param entryName the name of the entry within the container
+	 */
+	public ZipEntryDocument(final File zipFile, final String entryName) {
+		if ((zipFile == null) || (entryName == null)) {
+			throw new NullPointerException();
+		}
+		this.zipFile = zipFile;
+		this.entryName = entryName;
+		this.name = entryName;
+		this.mimeType = MimeType.fromFileName(entryName);
+	}
+
+	/**
+	 * @return the name of the entry within the container
+	 */
+	public String getEntryName() {
+		return entryName;
+	}
+
+	/**
+	 * The returned stream must be closed in order to release the underlying container.
+	 */
+	@Override
+	public InputStream openStream() throws DSSException {
+		ZipFile zip = null;
+		try {
+			zip = new ZipFile(zipFile);
+			final ZipArchiveEntry entry = zip.getEntry(entryName);
+			if (entry == null) {
+				throw new DSSException("The entry '" + entryName + "' cannot be found in the container: " + zipFile.getAbsolutePath());
+			}
+			final InputStream entryInputStream = zip.getInputStream(entry);
+			final ZipFile openedZip = zip;
+			zip = null;
+			return new FilterInputStream(entryInputStream) {
+
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						openedZip.close();
+					}
+				}
+			};
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			ZipFile.closeQuietly(zip);
+		}
+	}
+
+	@Override
+	public byte[] getBytes() throws DSSException {
+		final InputStream inputStream = openStream();
+		final byte[] bytes = DSSUtils.toByteArray(inputStream);
+		IOUtils.closeQuietly(inputStream);
+		return bytes;
+	}
+
+	@Override
+	public void save(final String path) throws IOException {
+		final InputStream inputStream = openStream();
+		DSSUtils.saveToFile(inputStream, path);
+		IOUtils.closeQuietly(inputStream);
+	}
+
+	@Override
+	public String getDigest(final DigestAlgorithm digestAlgorithm) {
+		final InputStream inputStream = openStream();
+		final byte[] digestBytes = DSSUtils.digest(digestAlgorithm, inputStream);
+		IOUtils.closeQuietly(inputStream);
+		final String base64Encode = Base64.encodeBase64String(digestBytes);
+		return base64Encode;
+	}
+
+	@Override
+	public String getBase64Encoded() {
+		return Base64.encodeBase64String(getBytes());
+	}
+}
@@ -0,0 +1,260 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.asic.signature;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.MimeType;
+import eu.europa.esig.dss.TemporaryFileDocument;
+
+/**
+ * This class writes an ASiC container to a temporary file. The entries are streamed into the container and the ZIP64 extensions
+ * are used when an entry or the container exceeds the limits of the ZIP format. The entries copied from an existing container are
+ * transferred as they are, without being decompressed and compressed again.
+ *
+ * An instance must be released with {@code close()}, which discards the temporary file if the container was not finished. Once
+ * finished, the temporary file belongs to the caller through the returned {@code TemporaryFileDocument}.
+ */
+class ASiCContainerWriter {
+
+	private final File containerFile;
+
+	private final ZipArchiveOutputStream zipOutputStream;
+
+	private final Set<String> entryNames = new HashSet<String>();
+
+	private boolean entryOpened;
+
+	private boolean finished;
+
+	ASiCContainerWriter() throws DSSException {
+		try {
+			containerFile = File.createTempFile("sd-dss-", ".asic");
+			zipOutputStream = new ZipArchiveOutputStream(containerFile);
+			zipOutputStream.setUseZip64(Zip64Mode.AsNeeded);
+		} catch (IOException e) {
+			throw new DSSException("The process has no rights to write or to access 'java.io.tmpdir': " + System.getProperty("java.io.tmpdir"), e);
+		}
+	}
+
+	/**
+	 * @param entryName the name of the entry
+	 * @return true if an entry with the given name was already written
+	 */
+	boolean containsEntry(final String entryName) {
+		return entryNames.contains(entryName);
+	}
+
+	void setComment(final String comment) {
+		zipOutputStream.setComment(comment);
+	}
+
+	/**
+	 * Writes an uncompressed entry (without any extra field) with the given content.
+	 *
+	 * @param entryName the name of the entry
+	 * @param bytes     the content of the entry
+	 * @throws DSSException
+	 */
+	void putStoredEntry(final String entryName, final byte[] bytes) throws DSSException {
+		final ZipArchiveEntry entry = new ZipArchiveEntry(entryName);
+		entry.setMethod(ZipArchiveEntry.STORED);
+		entry.setSize(bytes.length);
+		entry.setCompressedSize(bytes.length);
+		final CRC32 crc = new CRC32();
+		crc.update(bytes);
+		entry.setCrc(crc.getValue());
+		try {
+			putArchiveEntry(entry);
+			zipOutputStream.write(bytes);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	/**
+	 * Starts a new compressed entry. The content of the entry is written to the returned {@code OutputStream}, which must not be
+	 * closed.
+	 *
+	 * @param entryName the name of the entry
+	 * @return the {@code OutputStream} receiving the content of the entry
+	 * @throws DSSException
+	 */
+	OutputStream putNextEntry(final String entryName) throws DSSException {
+		final ZipArchiveEntry entry = new ZipArchiveEntry(entryName);
+		entry.setMethod(ZipArchiveEntry.DEFLATED);
+		try {
+			putArchiveEntry(entry);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+		return zipOutputStream;
+	}
+
+	/**
+	 * Writes a compressed entry with the content of the given document. The document is streamed.
+	 *
+	 * @param entryName the name of the entry
+	 * @param document  the content of the entry
+	 * @throws DSSException
+	 */
+	void putEntry(final String entryName, final DSSDocument document) throws DSSException {
+		final OutputStream outputStream = putNextEntry(entryName);
+		final InputStream inputStream = document.openStream();
+		try {
+			IOUtils.copyLarge(inputStream, outputStream);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
+	/**
+	 * Copies the given entry of an existing container. The compressed data is copied as it is.
+	 *
+	 * @param zipFile the source container
+	 * @param entry   the entry to copy
+	 * @throws DSSException
+	 */
+	void copyEntry(final ZipFile zipFile, final ZipArchiveEntry entry) throws DSSException {
+		closeEntry();
+		InputStream rawInputStream = null;
+		try {
+			rawInputStream = zipFile.getRawInputStream(entry);
+			zipOutputStream.addRawArchiveEntry(entry, rawInputStream);
+			entryNames.add(entry.getName());
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(rawInputStream);
+		}
+	}
+
+	/**
+	 * Completes the container.
+	 *
+	 * @param mimeType the mime-type of the container
+	 * @return the container backed by the temporary file, to be deleted by the caller
+	 * @throws DSSException
+	 */
+	TemporaryFileDocument finish(final MimeType mimeType) throws DSSException {
+		try {
+			closeEntry();
+			zipOutputStream.finish();
+			zipOutputStream.close();
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+		finished = true;
+		final TemporaryFileDocument container = new TemporaryFileDocument(containerFile);
+		container.setMimeType(mimeType);
+		return container;
+	}
+
+	/**
+	 * Releases the resources held by this writer. If the container was not finished, the temporary file is deleted.
+	 */
+	void close() {
+		if (!finished) {
+			IOUtils.closeQuietly(zipOutputStream);
+			DSSUtils.delete(containerFile);
+		}
+	}
+
+	private void putArchiveEntry(final ZipArchiveEntry entry) throws IOException {
+		closeEntry();
+		zipOutputStream.putArchiveEntry(entry);
+		entryOpened = true;
+		entryNames.add(entry.getName());
+	}
+
+	private void closeEntry() throws DSSException {
+		if (entryOpened) {
+			try {
+				zipOutputStream.closeArchiveEntry();
+			} catch (IOException e) {
+				throw new DSSException(e);
+			}
+			entryOpened = false;
+		}
+	}
+
+	/**
+	 * Returns the file holding the given container. A container which is not stored on file-system is first copied to a temporary
+	 * file, to be released with {@code releaseContainerFile()}.
+	 *
+	 * @param container the ASiC container
+	 * @return the {@code File} of the container
+	 * @throws DSSException
+	 */
+	static File getContainerFile(final DSSDocument container) throws DSSException {
+		if (container instanceof FileDocument) {
+			return new File(container.getAbsolutePath());
+		}
+		final File file;
+		try {
+			file = File.createTempFile("sd-dss-", ".asic");
+		} catch (IOException e) {
+			throw new DSSException("The process has no rights to write or to access 'java.io.tmpdir': " + System.getProperty("java.io.tmpdir"), e);
+		}
+		InputStream inputStream = null;
+		OutputStream outputStream = null;
+		boolean copied = false;
+		try {
+			inputStream = container.openStream();
+			outputStream = DSSUtils.toFileOutputStream(file.getAbsolutePath());
+			IOUtils.copyLarge(inputStream, outputStream);
+			copied = true;
+			return file;
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+			IOUtils.closeQuietly(outputStream);
+			if (!copied) {
+				DSSUtils.delete(file);
+			}
+		}
+	}
+
+	static void releaseContainerFile(final DSSDocument container, final File containerFile) {
+		if (!(container instanceof FileDocument)) {
+			DSSUtils.delete(containerFile);
+		}
+	}
+}
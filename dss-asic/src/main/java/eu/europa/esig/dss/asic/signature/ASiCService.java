@@ -21,24 +21,20 @@
 package eu.europa.esig.dss.asic.signature;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
-import java.util.zip.CRC32;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipException;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 import javax.xml.crypto.dsig.XMLSignature;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
-import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,6 +73,7 @@ import eu.europa.esig.dss.xades.signature.XAdESService;
 
 /**
  * Implementation of {@code DocumentSignatureService} for ASiC-S and -E containers. It allows the creation of containers based on XAdES or CAdES standard.
+ * The signed and extended containers are returned as {@code TemporaryFileDocument}: the caller deletes them once saved.
  *
  */
 public class ASiCService extends AbstractSignatureService<ASiCSignatureParameters> {
@@ -172,7 +169,7 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 					contextToSignDocument = parameters.getDetachedContent();
 				}
 			}
-			final InMemoryDocument asicSignature = buildASiCContainer(contextToSignDocument, asicContainer, parameters, signature);
+			final DSSDocument asicSignature = buildASiCContainer(contextToSignDocument, asicContainer, parameters, signature);
 			asicSignature.setName(DSSUtils.getFinalFileName(toSignDocument, SigningOperation.SIGN, parameters.getSignatureLevel()));
 			parameters.reinitDeterministicId();
 			return asicSignature;
@@ -198,34 +195,40 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 			final DSSDocument signature = subordinatedValidator.getDocument();
 			final DSSDocument signedDocument = specificService.extendDocument(signature, underlyingParameters);
 
-			final ByteArrayOutputStream output = new ByteArrayOutputStream();
-			final ZipOutputStream zipOutputStream = new ZipOutputStream(output);
-			final ZipInputStream zipInputStream = new ZipInputStream(toExtendDocument.openStream());
-			ZipEntry entry;
-			while ((entry = getNextZipEntry(zipInputStream)) != null) {
+			// Only the META-INF entries are rewritten, the other entries are copied without being recompressed
+			final File containerFile = ASiCContainerWriter.getContainerFile(toExtendDocument);
+			ASiCContainerWriter containerWriter = null;
+			ZipFile zipFile = null;
+			try {
 
-				final String name = entry.getName();
-				final ZipEntry newEntry = new ZipEntry(name);
-				if (ASiCContainerValidator.isMimetype(name)) {
+				containerWriter = new ASiCContainerWriter();
+				zipFile = new ZipFile(containerFile);
+				final Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+				while (entries.hasMoreElements()) {
 
-					storeMimetype(parameters.aSiC(), zipOutputStream);
-				} else if (ASiCContainerValidator.isXAdES(name) || ASiCContainerValidator.isCAdES(name)) {
+					final ZipArchiveEntry entry = entries.nextElement();
+					final String name = entry.getName();
+					if (ASiCContainerValidator.isMimetype(name)) {
 
-					createZipEntry(zipOutputStream, newEntry);
-					final InputStream inputStream = signedDocument.openStream();
-					IOUtils.copy(inputStream, zipOutputStream);
-					IOUtils.closeQuietly(inputStream);
-				} else {
+						storeMimetype(parameters.aSiC(), containerWriter);
+					} else if (ASiCContainerValidator.isXAdES(name) || ASiCContainerValidator.isCAdES(name)) {
+
+						containerWriter.putEntry(name, signedDocument);
+					} else {
 
-					createZipEntry(zipOutputStream, newEntry);
-					IOUtils.copy(zipInputStream, zipOutputStream);
+						containerWriter.copyEntry(zipFile, entry);
+					}
+				}
+				final DSSDocument asicSignature = containerWriter.finish(getMimeType(parameters.aSiC().getContainerForm()));
+				asicSignature.setName(DSSUtils.getFinalFileName(toExtendDocument, SigningOperation.EXTEND, parameters.getSignatureLevel()));
+				return asicSignature;
+			} finally {
+				ZipFile.closeQuietly(zipFile);
+				ASiCContainerWriter.releaseContainerFile(toExtendDocument, containerFile);
+				if (containerWriter != null) {
+					containerWriter.close();
 				}
 			}
-			IOUtils.closeQuietly(zipInputStream);
-			IOUtils.closeQuietly(zipOutputStream);
-			DSSDocument asicSignature = new InMemoryDocument(output.toByteArray(), null, getMimeType(parameters.aSiC().getContainerForm()));
-			asicSignature.setName(DSSUtils.getFinalFileName(toExtendDocument, SigningOperation.EXTEND, parameters.getSignatureLevel()));
-			return asicSignature;
 		} catch(IOException e) {
 			throw new DSSException(e);
 		}
@@ -265,7 +268,7 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 		return null;
 	}
 
-	private InMemoryDocument buildASiCContainer(final DSSDocument toSignDocument, DSSDocument signDocument, final ASiCSignatureParameters parameters,
+	private DSSDocument buildASiCContainer(final DSSDocument toSignDocument, DSSDocument signDocument, final ASiCSignatureParameters parameters,
 			final DSSDocument signature) throws IOException {
 
 		ASiCParameters asicParameters = parameters.aSiC();
@@ -275,43 +278,50 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 
 		final String toSignDocumentName = toSignDocument.getName();
 
-		final ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
-		ZipOutputStream zipOutputStream = new ZipOutputStream(outBytes);
-		if (asice && (signDocument != null)) {
+		final ASiCContainerWriter containerWriter = new ASiCContainerWriter();
+		try {
 
-			copyZipContent(signDocument, zipOutputStream);
-		} else {
+			if (asice && (signDocument != null)) {
 
-			storeZipComment(asicParameters, zipOutputStream, toSignDocumentName);
+				copyZipContent(signDocument, containerWriter);
+			} else {
 
-			storeMimetype(asicParameters, zipOutputStream);
-		}
-		storeSignedFiles(toSignDocument, zipOutputStream);
+				storeZipComment(asicParameters, containerWriter, toSignDocumentName);
 
-		storesSignature(asicParameters, signature, zipOutputStream);
+				storeMimetype(asicParameters, containerWriter);
+			}
+			storeSignedFiles(toSignDocument, containerWriter);
 
-		if (asice && cadesForm) {
-			storeAsicManifest(parameters, toSignDocument, zipOutputStream);
-		}
-		DSSUtils.close(zipOutputStream);
+			storesSignature(asicParameters, signature, containerWriter);
 
-		final InMemoryDocument asicContainer = createASiCContainer(asicParameters, outBytes);
-		return asicContainer;
+			if (asice && cadesForm) {
+				storeAsicManifest(parameters, toSignDocument, containerWriter);
+			}
+			return containerWriter.finish(getMimeType(asicParameters.getContainerForm()));
+		} finally {
+			containerWriter.close();
+		}
 	}
 
-	private void copyZipContent(DSSDocument toSignAsicContainer, ZipOutputStream zipOutputStream) throws IOException {
+	private void copyZipContent(DSSDocument toSignAsicContainer, ASiCContainerWriter containerWriter) throws IOException {
+
+		final File containerFile = ASiCContainerWriter.getContainerFile(toSignAsicContainer);
+		ZipFile zipFile = null;
+		try {
 
-		final InputStream inputStream = toSignAsicContainer.openStream();
-		final ZipInputStream zipInputStream = new ZipInputStream(inputStream);
-		for (ZipEntry entry = getNextZipEntry(zipInputStream); entry != null; entry = getNextZipEntry(zipInputStream)) {
+			zipFile = new ZipFile(containerFile);
+			final Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+			while (entries.hasMoreElements()) {
 
-			createZipEntry(zipOutputStream, entry);
-			IOUtils.copy(zipInputStream, zipOutputStream);
+				containerWriter.copyEntry(zipFile, entries.nextElement());
+			}
+		} finally {
+			ZipFile.closeQuietly(zipFile);
+			ASiCContainerWriter.releaseContainerFile(toSignAsicContainer, containerFile);
 		}
-		IOUtils.closeQuietly(zipInputStream);
 	}
 
-	private void storeAsicManifest(ASiCSignatureParameters parameters, final DSSDocument detachedDocument, final ZipOutputStream outZip) {
+	private void storeAsicManifest(ASiCSignatureParameters parameters, final DSSDocument detachedDocument, final ASiCContainerWriter containerWriter) {
 
 		ASiCParameters asicParameters = parameters.aSiC();
 
@@ -321,10 +331,9 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 		final int lastIndexOf = suffix.lastIndexOf(".");
 		suffix = suffix.substring(0, lastIndexOf);
 		final String asicManifestZipEntryName = META_INF + "ASiCManifest" + suffix + ".xml";
-		final ZipEntry entrySignature = new ZipEntry(asicManifestZipEntryName);
-		createZipEntry(outZip, entrySignature);
+		final OutputStream outputStream = containerWriter.putNextEntry(asicManifestZipEntryName);
 
-		buildAsicManifest(parameters, detachedDocument, outZip);
+		buildAsicManifest(parameters, detachedDocument, outputStream);
 	}
 
 	private void buildAsicManifest(final ASiCSignatureParameters underlyingParameters, final DSSDocument detachedDocument, final OutputStream outputStream) {
@@ -352,8 +361,8 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 			digestMethodDom.setAttribute("Algorithm", digestAlgorithm.getXmlId());
 
 			final Element digestValueDom = DSSXMLUtils.addElement(documentDom, dataObjectReferenceDom, XMLSignature.XMLNS, "DigestValue");
-			final byte[] digest = DSSUtils.digest(digestAlgorithm, currentDetachedDocument.getBytes());
-			final String base64Encoded = Base64.encodeBase64String(digest);
+			// The document is digested on the fly, its content is not loaded in memory
+			final String base64Encoded = currentDetachedDocument.getDigest(digestAlgorithm);
 			final Text textNode = documentDom.createTextNode(base64Encoded);
 			digestValueDom.appendChild(textNode);
 
@@ -363,29 +372,16 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 		storeXmlDom(outputStream, documentDom);
 	}
 
-	private void createZipEntry(final ZipOutputStream outZip, final ZipEntry entrySignature) throws DSSException {
-		try {
-			outZip.putNextEntry(entrySignature);
-		} catch (IOException e) {
-			throw new DSSException(e);
-		}
-	}
-
-	private InMemoryDocument createASiCContainer(final ASiCParameters asicParameters, final ByteArrayOutputStream outBytes) {
-		SignatureForm containerForm = asicParameters.getContainerForm();
-		return new InMemoryDocument(outBytes.toByteArray(), null, getMimeType(containerForm));
-	}
-
 	private MimeType getMimeType(SignatureForm containerForm) {
 		boolean asics = SignatureForm.ASiC_S.equals(containerForm);
 		return asics ? MimeType.ASICS : MimeType.ASICE;
 	}
 
-	private void storesSignature(final ASiCParameters asicParameters, final DSSDocument signature, final ZipOutputStream outZip) {
+	private void storesSignature(final ASiCParameters asicParameters, final DSSDocument signature, final ASiCContainerWriter containerWriter) {
 		if (isXAdESForm(asicParameters)) {
-			buildXAdES(asicParameters, signature, outZip);
+			buildXAdES(asicParameters, signature, containerWriter);
 		} else if (isCAdESForm(asicParameters)) {
-			buildCAdES(asicParameters, signature, outZip);
+			buildCAdES(asicParameters, signature, containerWriter);
 		} else {
 			throw new DSSException("ASiC signature form must be XAdES or CAdES!");
 		}
@@ -401,9 +397,9 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 		return SignatureForm.XAdES.equals(underlyingForm);
 	}
 
-	private void storeZipComment(final ASiCParameters asicParameters, final ZipOutputStream outZip, final String toSignDocumentName) {
+	private void storeZipComment(final ASiCParameters asicParameters, final ASiCContainerWriter containerWriter, final String toSignDocumentName) {
 		if (asicParameters.isZipComment() && StringUtils.isNotEmpty(toSignDocumentName)) {
-			outZip.setComment("mimetype=" + getMimeTypeBytes(asicParameters));
+			containerWriter.setComment("mimetype=" + getMimeTypeBytes(asicParameters));
 		}
 	}
 
@@ -453,14 +449,6 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 		return result;
 	}
 
-	private ZipEntry getNextZipEntry(final ZipInputStream zipInputStream) throws DSSException {
-		try {
-			return zipInputStream.getNextEntry();
-		} catch (IOException e) {
-			throw new DSSException(e);
-		}
-	}
-
 	private DSSDocument getDetachedContents(final DocumentValidator subordinatedValidator, DSSDocument originalDocument) {
 
 		final List<DSSDocument> detachedContents = subordinatedValidator.getDetachedContents();
@@ -587,19 +575,9 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 		parameters.setArchiveTimestampParameters(originalParameters.getArchiveTimestampParameters());
 	}
 
-	private void buildCAdES(final ASiCParameters asicParameters, final DSSDocument signature, final ZipOutputStream outZip) throws DSSException {
+	private void buildCAdES(final ASiCParameters asicParameters, final DSSDocument signature, final ASiCContainerWriter containerWriter) throws DSSException {
 		final String signatureZipEntryName = getSignatureFileName(asicParameters);
-		final ZipEntry entrySignature = new ZipEntry(signatureZipEntryName);
-		createZipEntry(outZip, entrySignature);
-		zipWriteBytes(outZip, signature.getBytes());
-	}
-
-	private void zipWriteBytes(final ZipOutputStream outZip, final byte[] bytes) throws DSSException {
-		try {
-			outZip.write(bytes);
-		} catch (IOException e) {
-			throw new DSSException(e);
-		}
+		containerWriter.putEntry(signatureZipEntryName, signature);
 	}
 
 	private String getSignatureFileName(final ASiCParameters asicParameters) {
@@ -616,35 +594,20 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 		}
 	}
 
-	private void storeMimetype(final ASiCParameters asicParameters, final ZipOutputStream outZip) throws DSSException {
+	private void storeMimetype(final ASiCParameters asicParameters, final ASiCContainerWriter containerWriter) throws DSSException {
 		final byte[] mimeTypeBytes = getMimeTypeBytes(asicParameters).getBytes();
-		final ZipEntry entryMimetype = getZipEntryMimeType(mimeTypeBytes);
-
-		writeZipEntry(outZip, mimeTypeBytes, entryMimetype);
-	}
-
-	private void writeZipEntry(final ZipOutputStream outZip, final byte[] mimeTypeBytes, final ZipEntry entryMimetype) throws DSSException {
-		createZipEntry(outZip, entryMimetype);
-		zipWriteBytes(outZip, mimeTypeBytes);
+		containerWriter.putStoredEntry(ZIP_ENTRY_MIMETYPE, mimeTypeBytes);
 	}
 
-	private void storeSignedFiles(final DSSDocument detachedDocument, final ZipOutputStream outZip) throws IOException {
+	private void storeSignedFiles(final DSSDocument detachedDocument, final ASiCContainerWriter containerWriter) throws IOException {
 		DSSDocument currentDetachedDocument = detachedDocument;
 		do {
 
 			final String detachedDocumentName = currentDetachedDocument.getName();
 			final String name = detachedDocumentName != null ? detachedDocumentName : ZIP_ENTRY_DETACHED_FILE;
-			final ZipEntry entryDocument = new ZipEntry(name);
-			outZip.setLevel(ZipEntry.DEFLATED);
-			try {
-				createZipEntry(outZip, entryDocument);
-				final InputStream inputStream = currentDetachedDocument.openStream();
-				IOUtils.copy(inputStream, outZip);
-				IOUtils.closeQuietly(inputStream);
-			} catch (DSSException e) {
-				if (!((e.getCause() instanceof ZipException) && e.getCause().getMessage().startsWith("duplicate entry:"))) {
-					throw e;
-				}
+			// The files already present in the container are kept as they are
+			if (!containerWriter.containsEntry(name)) {
+				containerWriter.putEntry(name, currentDetachedDocument);
 			}
 			currentDetachedDocument = currentDetachedDocument.getNextDocument();
 		} while (currentDetachedDocument != null);
@@ -666,18 +629,6 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 		return mimeTypeBytes;
 	}
 
-	private ZipEntry getZipEntryMimeType(final byte[] mimeTypeBytes) {
-
-		final ZipEntry entryMimetype = new ZipEntry(ZIP_ENTRY_MIMETYPE);
-		entryMimetype.setMethod(ZipEntry.STORED);
-		entryMimetype.setSize(mimeTypeBytes.length);
-		entryMimetype.setCompressedSize(mimeTypeBytes.length);
-		final CRC32 crc = new CRC32();
-		crc.update(mimeTypeBytes);
-		entryMimetype.setCrc(crc.getValue());
-		return entryMimetype;
-	}
-
 	private void initXAdESDocumentRoot(XAdESSignatureParameters xadesParameters, ASiCParameters asicParameters) {
 		DSSDocument enclosedSignature = asicParameters.getEnclosedSignature();
 		Document rootDocument;
@@ -694,15 +645,14 @@ public class ASiCService extends AbstractSignatureService<ASiCSignatureParameter
 	 *
 	 * @param asicParameters ASiC parameters
 	 * @param signature      signature being created
-	 * @param outZip         destination {@code ZipOutputStream}
+	 * @param containerWriter destination {@code ASiCContainerWriter}
 	 * @throws eu.europa.esig.dss.DSSException
 	 */
-	private void buildXAdES(final ASiCParameters asicParameters, final DSSDocument signature, final ZipOutputStream outZip) throws DSSException {
+	private void buildXAdES(final ASiCParameters asicParameters, final DSSDocument signature, final ASiCContainerWriter containerWriter) throws DSSException {
 		final String signatureZipEntryName = getSignatureFileName(asicParameters);
-		final ZipEntry entrySignature = new ZipEntry(signatureZipEntryName);
-		createZipEntry(outZip, entrySignature);
+		final OutputStream outputStream = containerWriter.putNextEntry(signatureZipEntryName);
 		Document xmlSignatureDoc = DSSXMLUtils.buildDOM(signature);
-		storeXmlDom(outZip, xmlSignatureDoc);
+		storeXmlDom(outputStream, xmlSignatureDoc);
 	}
 
 	private void storeXmlDom(final OutputStream outZip, final Document xml) throws DSSException {
@@ -21,14 +21,19 @@
 package eu.europa.esig.dss.asic.validation;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -44,8 +49,10 @@ import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSNotETSICompliantException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DSSXMLUtils;
+import eu.europa.esig.dss.FileDocument;
 import eu.europa.esig.dss.InMemoryDocument;
 import eu.europa.esig.dss.MimeType;
+import eu.europa.esig.dss.asic.ZipEntryDocument;
 import eu.europa.esig.dss.asic.signature.ASiCService;
 import eu.europa.esig.dss.validation.AdvancedSignature;
 import eu.europa.esig.dss.validation.DocumentValidator;
@@ -88,6 +95,11 @@ public class ASiCContainerValidator extends SignedDocumentValidator {
 	private static final String MIME_TYPE_COMMENT = MIME_TYPE + "=";
 	private static final String META_INF_FOLDER = "META-INF/";
 
+	/**
+	 * The end of central directory record (22 bytes) followed by the longest possible ZIP comment.
+	 */
+	private static final int MAX_END_OF_CENTRAL_DIRECTORY_LENGTH = 22 + 0xFFFF;
+
 	private final DSSDocument asicContainer;
 
 	/**
@@ -168,7 +180,7 @@ public class ASiCContainerValidator extends SignedDocumentValidator {
 
 			return asicEntryMimetype;
 		}
-		final MimeType asicCommentString = getZipComment(asicContainer.getBytes());
+		final MimeType asicCommentString = getZipComment(getContainerTail());
 		if (isASiCMimeType(asicCommentString)) {
 
 			return asicCommentString;
@@ -235,58 +247,13 @@ public class ASiCContainerValidator extends SignedDocumentValidator {
 
 	private void analyseEntries() throws DSSException {
 
-		ZipInputStream asicsInputStream = null;
 		try {
 
-			MimeType asicEntryMimeType = null;
-			asicsInputStream = new ZipInputStream(asicContainer.openStream()); // The underlying stream is closed by the parent (asicsInputStream).
-
-			for (ZipEntry entry = asicsInputStream.getNextEntry(); entry != null; entry = asicsInputStream.getNextEntry()) {
-
-				String entryName = entry.getName();
-				if (isCAdES(entryName)) {
-
-					if (xadesSigned) {
-						throw new DSSNotETSICompliantException(DSSNotETSICompliantException.MSG.DIFFERENT_SIGNATURE_FORMATS);
-					}
-					addEntryElement(entryName, signatures, asicsInputStream);
-					cadesSigned = true;
-				} else if (isXAdES(entryName)) {
-
-					if (cadesSigned) {
-						throw new DSSNotETSICompliantException(DSSNotETSICompliantException.MSG.DIFFERENT_SIGNATURE_FORMATS);
-					}
-					addEntryElement(entryName, signatures, asicsInputStream);
-					xadesSigned = true;
-				} else if (isTimestamp(entryName)) {
-
-					addEntryElement(entryName, signatures, asicsInputStream);
-					timestamped = true;
-				} else if (isASiCManifest(entryName)) {
-
-					addAsicManifestEntryElement(entryName, detachedContents, asicsInputStream);
-				} else if (isManifest(entryName)) {
-
-					addEntryElement(entryName, detachedContents, asicsInputStream);
-				} else if (isContainer(entryName)) {
-
-					addEntryElement(entryName, detachedContents, asicsInputStream);
-				} else if (isMetadata(entryName)) {
-
-					addEntryElement(entryName, detachedContents, asicsInputStream);
-				} else if (isMimetype(entryName)) {
-
-					final DSSDocument mimeType = addEntryElement(entryName, detachedContents, asicsInputStream);
-					asicEntryMimeType = getMimeType(mimeType);
-				} else if (entryName.indexOf("/") == -1) {
-
-					addEntryElement(entryName, detachedContents, asicsInputStream);
-				} else if (entryName.endsWith("/")) { // Folder
-					continue;
-				} else {
-
-					addEntryElement(entryName, detachedContents, asicsInputStream);
-				}
+			final MimeType asicEntryMimeType;
+			if (asicContainer instanceof FileDocument) {
+				asicEntryMimeType = analyseZipFileEntries(new File(asicContainer.getAbsolutePath()));
+			} else {
+				asicEntryMimeType = analyseZipStreamEntries();
 			}
 			asicMimeType = determinateAsicMimeType(asicContainer.getMimeType(), asicEntryMimeType);
 			if (MimeType.ASICS == asicMimeType) {
@@ -308,9 +275,132 @@ public class ASiCContainerValidator extends SignedDocumentValidator {
 				throw (DSSException) e;
 			}
 			throw new DSSException(e);
+		}
+	}
+
+	/**
+	 * The container stored on file-system is read through its central directory: only the mimetype and the META-INF entries are
+	 * loaded in memory, the data objects are read from the container when needed.
+	 *
+	 * @param containerFile the container
+	 * @return the mime-type read from the 'mimetype' entry or null
+	 * @throws IOException
+	 */
+	private MimeType analyseZipFileEntries(final File containerFile) throws IOException {
+
+		MimeType asicEntryMimeType = null;
+		ZipFile zipFile = null;
+		try {
+
+			zipFile = new ZipFile(containerFile);
+			final Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+			while (entries.hasMoreElements()) {
+
+				final ZipArchiveEntry entry = entries.nextElement();
+				final String entryName = entry.getName();
+				if (isFolder(entryName)) {
+					continue;
+				}
+				final DSSDocument entryDocument;
+				if (isMimetype(entryName) || entryName.startsWith(META_INF_FOLDER)) {
+
+					final InputStream inputStream = zipFile.getInputStream(entry);
+					try {
+						entryDocument = new InMemoryDocument(IOUtils.toByteArray(inputStream), entryName);
+					} finally {
+						IOUtils.closeQuietly(inputStream);
+					}
+				} else {
+					entryDocument = new ZipEntryDocument(containerFile, entryName);
+				}
+				final MimeType mimeType = analyseEntry(entryName, entryDocument);
+				if (mimeType != null) {
+					asicEntryMimeType = mimeType;
+				}
+			}
+		} finally {
+			ZipFile.closeQuietly(zipFile);
+		}
+		return asicEntryMimeType;
+	}
+
+	/**
+	 * The container which is not stored on file-system is already held in memory, its entries are read sequentially.
+	 *
+	 * @return the mime-type read from the 'mimetype' entry or null
+	 * @throws IOException
+	 */
+	private MimeType analyseZipStreamEntries() throws IOException {
+
+		MimeType asicEntryMimeType = null;
+		ZipInputStream asicsInputStream = null;
+		try {
+
+			asicsInputStream = new ZipInputStream(asicContainer.openStream()); // The underlying stream is closed by the parent (asicsInputStream).
+			for (ZipEntry entry = asicsInputStream.getNextEntry(); entry != null; entry = asicsInputStream.getNextEntry()) {
+
+				final String entryName = entry.getName();
+				if (isFolder(entryName)) {
+					continue;
+				}
+				final InMemoryDocument entryDocument = new InMemoryDocument(IOUtils.toByteArray(asicsInputStream), entryName);
+				final MimeType mimeType = analyseEntry(entryName, entryDocument);
+				if (mimeType != null) {
+					asicEntryMimeType = mimeType;
+				}
+			}
 		} finally {
 			IOUtils.closeQuietly(asicsInputStream);
 		}
+		return asicEntryMimeType;
+	}
+
+	/**
+	 * This method classifies the given entry of the container.
+	 *
+	 * @param entryName     the name of the entry
+	 * @param entryDocument the content of the entry
+	 * @return the mime-type if the entry is the 'mimetype' file, null otherwise
+	 */
+	private MimeType analyseEntry(final String entryName, final DSSDocument entryDocument) {
+
+		if (isCAdES(entryName)) {
+
+			if (xadesSigned) {
+				throw new DSSNotETSICompliantException(DSSNotETSICompliantException.MSG.DIFFERENT_SIGNATURE_FORMATS);
+			}
+			signatures.add(entryDocument);
+			cadesSigned = true;
+		} else if (isXAdES(entryName)) {
+
+			if (cadesSigned) {
+				throw new DSSNotETSICompliantException(DSSNotETSICompliantException.MSG.DIFFERENT_SIGNATURE_FORMATS);
+			}
+			signatures.add(entryDocument);
+			xadesSigned = true;
+		} else if (isTimestamp(entryName)) {
+
+			signatures.add(entryDocument);
+			timestamped = true;
+		} else if (isASiCManifest(entryName)) {
+
+			detachedContents.add(new AsicManifestDocument(entryDocument.getBytes(), entryName));
+		} else if (isManifest(entryName) || isContainer(entryName) || isMetadata(entryName)) {
+
+			detachedContents.add(entryDocument);
+		} else if (isMimetype(entryName)) {
+
+			detachedContents.add(entryDocument);
+			return getMimeType(entryDocument);
+		} else {
+
+			detachedContents.add(entryDocument);
+		}
+		return null;
+	}
+
+	private static boolean isFolder(final String entryName) {
+		return entryName.endsWith("/");
 	}
 
 	public MimeType getAsicMimeType() {
@@ -335,23 +425,6 @@ public class ASiCContainerValidator extends SignedDocumentValidator {
 		}
 	}
 
-	private static DSSDocument addEntryElement(final String entryName, final List<DSSDocument> list, final ZipInputStream asicsInputStream) throws IOException {
-
-		final ByteArrayOutputStream signature = new ByteArrayOutputStream();
-		IOUtils.copy(asicsInputStream, signature);
-		final InMemoryDocument inMemoryDocument = new InMemoryDocument(signature.toByteArray(), entryName);
-		list.add(inMemoryDocument);
-		return inMemoryDocument;
-	}
-
-	private static void addAsicManifestEntryElement(final String entryName, final List<DSSDocument> list, final ZipInputStream asicsInputStream) throws IOException {
-
-		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-		IOUtils.copy(asicsInputStream, byteArrayOutputStream);
-		final AsicManifestDocument inMemoryDocument = new AsicManifestDocument(byteArrayOutputStream.toByteArray(), entryName);
-		list.add(inMemoryDocument);
-	}
-
 	/**
 	 * 6.2.2 Contents of Container
 	 * 4) Other application specific information may be added in further files contained within the META-INF directory, such as:
@@ -425,6 +498,35 @@ public class ASiCContainerValidator extends SignedDocumentValidator {
 		return signature;
 	}
 
+	/**
+	 * Returns the end of the container which holds the end of central directory record and the ZIP comment. A container stored on
+	 * file-system is not read entirely.
+	 *
+	 * @return the last bytes of the container
+	 * @throws DSSException
+	 */
+	private byte[] getContainerTail() throws DSSException {
+
+		if (!(asicContainer instanceof FileDocument)) {
+			return asicContainer.getBytes();
+		}
+		RandomAccessFile randomAccessFile = null;
+		try {
+
+			randomAccessFile = new RandomAccessFile(asicContainer.getAbsolutePath(), "r");
+			final long length = randomAccessFile.length();
+			final int tailLength = (int) Math.min(length, MAX_END_OF_CENTRAL_DIRECTORY_LENGTH);
+			final byte[] tail = new byte[tailLength];
+			randomAccessFile.seek(length - tailLength);
+			randomAccessFile.readFully(tail);
+			return tail;
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(randomAccessFile);
+		}
+	}
+
 	private static MimeType getZipComment(final byte[] buffer) {
 
 		final int len = buffer.length;
@@ -0,0 +1,153 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.asic.signature.asice;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.Random;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.SignatureForm;
+import eu.europa.esig.dss.SignatureLevel;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.TemporaryFileDocument;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.asic.ASiCSignatureParameters;
+import eu.europa.esig.dss.asic.ZipEntryDocument;
+import eu.europa.esig.dss.asic.signature.ASiCService;
+import eu.europa.esig.dss.test.TestUtils;
+import eu.europa.esig.dss.test.gen.CertificateService;
+import eu.europa.esig.dss.test.mock.MockPrivateKeyEntry;
+import eu.europa.esig.dss.test.mock.MockTSPSource;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.report.DiagnosticData;
+import eu.europa.esig.dss.validation.report.Reports;
+
+public class ASiCEStreamingContainerTest {
+
+	private static final String DATA_ENTRY_NAME = "evidence.bin";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void signAndExtendWithoutRecompressingData() throws Exception {
+		final File dataFile = temporaryFolder.newFile(DATA_ENTRY_NAME);
+		final byte[] data = new byte[4 * 1024 * 1024];
+		new Random(42).nextBytes(data);
+		final FileOutputStream fileOutputStream = new FileOutputStream(dataFile);
+		IOUtils.write(data, fileOutputStream);
+		IOUtils.closeQuietly(fileOutputStream);
+
+		CertificateService certificateService = new CertificateService();
+		MockPrivateKeyEntry privateKeyEntry = certificateService.generateCertificateChain(SignatureAlgorithm.RSA_SHA256);
+
+		ASiCSignatureParameters signatureParameters = new ASiCSignatureParameters();
+		signatureParameters.bLevel().setSigningDate(new Date());
+		signatureParameters.setSigningCertificate(privateKeyEntry.getCertificate());
+		signatureParameters.setCertificateChain(privateKeyEntry.getCertificateChain());
+		signatureParameters.setSignatureLevel(SignatureLevel.ASiC_E_BASELINE_B);
+		signatureParameters.aSiC().setUnderlyingForm(SignatureForm.XAdES);
+
+		ASiCService service = new ASiCService(new CommonCertificateVerifier());
+		service.setTspSource(new MockTSPSource(certificateService.generateTspCertificate(SignatureAlgorithm.RSA_SHA256), new Date()));
+
+		DSSDocument documentToSign = new FileDocument(dataFile);
+		ToBeSigned dataToSign = service.getDataToSign(documentToSign, signatureParameters);
+		SignatureValue signatureValue = TestUtils.sign(signatureParameters.getSignatureAlgorithm(), privateKeyEntry, dataToSign);
+		DSSDocument signedDocument = service.signDocument(documentToSign, signatureParameters, signatureValue);
+		assertTrue(signedDocument instanceof TemporaryFileDocument);
+
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		boolean lazyDataEntry = false;
+		for (DSSDocument detachedContent : validator.getDetachedContents()) {
+			if (DATA_ENTRY_NAME.equals(detachedContent.getName())) {
+				lazyDataEntry = detachedContent instanceof ZipEntryDocument;
+			}
+		}
+		assertTrue(lazyDataEntry);
+		assertValid(validator.validateDocument());
+
+		ASiCSignatureParameters extensionParameters = new ASiCSignatureParameters();
+		extensionParameters.setSignatureLevel(SignatureLevel.ASiC_E_BASELINE_T);
+		extensionParameters.aSiC().setUnderlyingForm(SignatureForm.XAdES);
+		DSSDocument extendedDocument = service.extendDocument(signedDocument, extensionParameters);
+
+		assertArrayEquals(getRawEntry(signedDocument, DATA_ENTRY_NAME), getRawEntry(extendedDocument, DATA_ENTRY_NAME));
+
+		validator = SignedDocumentValidator.fromDocument(extendedDocument);
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		assertValid(validator.validateDocument());
+
+		assertTrue(extendedDocument instanceof TemporaryFileDocument);
+		assertTemporaryFileDeleted((TemporaryFileDocument) signedDocument);
+		assertTemporaryFileDeleted((TemporaryFileDocument) extendedDocument);
+	}
+
+	private void assertTemporaryFileDeleted(final TemporaryFileDocument container) {
+		final File file = new File(container.getAbsolutePath());
+		assertTrue(file.exists());
+		container.delete();
+		assertFalse(file.exists());
+	}
+
+	private void assertValid(final Reports reports) {
+		DiagnosticData diagnosticData = reports.getDiagnosticData();
+		assertEquals(1, diagnosticData.getSignatureIdList().size());
+		assertTrue(diagnosticData.isBLevelTechnicallyValid(diagnosticData.getFirstSignatureId()));
+	}
+
+	private byte[] getRawEntry(final DSSDocument container, final String entryName) throws Exception {
+		ZipFile zipFile = new ZipFile(new File(container.getAbsolutePath()));
+		try {
+			ZipArchiveEntry entry = zipFile.getEntry(entryName);
+			assertNotNull(entry);
+			InputStream rawInputStream = zipFile.getRawInputStream(entry);
+			try {
+				return IOUtils.toByteArray(rawInputStream);
+			} finally {
+				IOUtils.closeQuietly(rawInputStream);
+			}
+		} finally {
+			ZipFile.closeQuietly(zipFile);
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.cades;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSTypedData;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DigestDocument;
+
+/**
+ * {@code CMSTypedData} backed by a {@code DSSDocument}. Contrary to {@code CMSProcessableByteArray} the content is never
+ * loaded in memory: it is copied from {@code DSSDocument#openStream()} through a bounded buffer each time it is written.
+ *
+ * The content of a {@code DigestDocument} cannot be read: nothing is written and its digest is provided by
+ * {@code DSSDocumentDigestCalculatorProvider}.
+ */
+public class CMSProcessableDSSDocument implements CMSTypedData {
+
+	private final ASN1ObjectIdentifier type;
+
+	private final DSSDocument document;
+
+	/**
+	 * The default constructor for {@code CMSProcessableDSSDocument}, the content type is id-data.
+	 *
+	 * @param document
+	 *            the content to be processed
+	 */
+	public CMSProcessableDSSDocument(final DSSDocument document) {
+		this(CMSObjectIdentifiers.data, document);
+	}
+
+	/**
+	 * @param type
+	 *            the content type
+	 * @param document
+	 *            the content to be processed
+	 */
+	public CMSProcessableDSSDocument(final ASN1ObjectIdentifier type, final DSSDocument document) {
+		this.type = type;
+		this.document = document;
+	}
+
+	@Override
+	public ASN1ObjectIdentifier getContentType() {
+		return type;
+	}
+
+	/**
+	 * @return the underlying {@code DSSDocument}
+	 */
+	@Override
+	public Object getContent() {
+		return document;
+	}
+
+	@Override
+	public void write(final OutputStream outputStream) throws IOException, CMSException {
+		final InputStream inputStream = openStream();
+		try {
+			IOUtils.copyLarge(inputStream, outputStream);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
+	/**
+	 * This method opens a stream on the content. The stream of a {@code DigestDocument} is empty.
+	 *
+	 * @return an {@code InputStream} which must be closed by the caller
+	 */
+	public InputStream openStream() {
+		if (isDigestDocument()) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		return document.openStream();
+	}
+
+	/**
+	 * @return true if only the digest of the content is available
+	 */
+	public boolean isDigestDocument() {
+		return document instanceof DigestDocument;
+	}
+}
@@ -16,7 +16,6 @@ import org.bouncycastle.cert.ocsp.BasicOCSPResp;
 import org.bouncycastle.cert.ocsp.OCSPException;
 import org.bouncycastle.cert.ocsp.OCSPResp;
 import org.bouncycastle.cms.CMSException;
-import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
 import org.bouncycastle.cms.CMSTypedData;
@@ -58,7 +57,7 @@ public final class CMSUtils {
 	 * @return
 	 * @throws DSSException
 	 */
-	public static CMSSignedData generateCMSSignedData(final CMSSignedDataGenerator generator, final CMSProcessableByteArray content,
+	public static CMSSignedData generateCMSSignedData(final CMSSignedDataGenerator generator, final CMSTypedData content,
 			final boolean encapsulate) throws DSSException {
 		try {
 			final CMSSignedData cmsSignedData = generator.generate(content, encapsulate);
@@ -68,7 +67,7 @@ public final class CMSUtils {
 		}
 	}
 
-	public static CMSSignedData generateDetachedCMSSignedData(final CMSSignedDataGenerator generator, final CMSProcessableByteArray content) throws DSSException {
+	public static CMSSignedData generateDetachedCMSSignedData(final CMSSignedDataGenerator generator, final CMSTypedData content) throws DSSException {
 		return generateCMSSignedData(generator, content, false);
 	}
 
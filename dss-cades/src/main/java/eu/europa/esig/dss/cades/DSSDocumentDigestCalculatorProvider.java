@@ -0,0 +1,80 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.cades;
+
+import java.io.OutputStream;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.output.NullOutputStream;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.bc.BcDigestCalculatorProvider;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.DigestDocument;
+
+/**
+ * {@code DigestCalculatorProvider} which returns the digest already known by a {@code DigestDocument} instead of
+ * computing it. For any other document the digest is computed on the written content by {@code BcDigestCalculatorProvider}.
+ */
+public class DSSDocumentDigestCalculatorProvider implements DigestCalculatorProvider {
+
+	private final DigestCalculatorProvider digestCalculatorProvider = new BcDigestCalculatorProvider();
+
+	private final DSSDocument document;
+
+	/**
+	 * @param document
+	 *            the signed content, can be null
+	 */
+	public DSSDocumentDigestCalculatorProvider(final DSSDocument document) {
+		this.document = document;
+	}
+
+	@Override
+	public DigestCalculator get(final AlgorithmIdentifier digestAlgorithmIdentifier) throws OperatorCreationException {
+		if (!(document instanceof DigestDocument)) {
+			return digestCalculatorProvider.get(digestAlgorithmIdentifier);
+		}
+		final DigestAlgorithm digestAlgorithm = DigestAlgorithm.forOID(digestAlgorithmIdentifier.getAlgorithm().getId());
+		final byte[] digest = Base64.decodeBase64(document.getDigest(digestAlgorithm));
+		return new DigestCalculator() {
+
+			@Override
+			public AlgorithmIdentifier getAlgorithmIdentifier() {
+				return digestAlgorithmIdentifier;
+			}
+
+			@Override
+			public OutputStream getOutputStream() {
+				return new NullOutputStream();
+			}
+
+			@Override
+			public byte[] getDigest() {
+				return digest.clone();
+			}
+		};
+	}
+}
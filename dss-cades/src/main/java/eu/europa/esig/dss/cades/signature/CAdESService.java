@@ -20,7 +20,9 @@
  */
 package eu.europa.esig.dss.cades.signature;
 
-import org.bouncycastle.cms.CMSProcessableByteArray;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
 import org.bouncycastle.cms.CMSTypedData;
@@ -31,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestDocument;
 import eu.europa.esig.dss.InMemoryDocument;
 import eu.europa.esig.dss.SignatureAlgorithm;
 import eu.europa.esig.dss.SignatureLevel;
@@ -39,6 +42,7 @@ import eu.europa.esig.dss.SignatureValue;
 import eu.europa.esig.dss.SigningOperation;
 import eu.europa.esig.dss.ToBeSigned;
 import eu.europa.esig.dss.cades.CAdESSignatureParameters;
+import eu.europa.esig.dss.cades.CMSProcessableDSSDocument;
 import eu.europa.esig.dss.cades.CMSUtils;
 import eu.europa.esig.dss.signature.AbstractSignatureService;
 import eu.europa.esig.dss.signature.SignatureExtension;
@@ -73,16 +77,16 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 
 		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
 		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId());
-		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, false);
 		final CMSSignedData originalCmsSignedData = getCmsSignedData(toSignDocument, parameters);
+		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
+		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, false, toSignData);
 
 		final CMSSignedDataGenerator cmsSignedDataGenerator = cmsSignedDataBuilder.createCMSSignedDataGenerator(parameters, customContentSigner, signerInfoGeneratorBuilder,
 				originalCmsSignedData);
 
-		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
-
-		final CMSProcessableByteArray content = new CMSProcessableByteArray(toSignData.getBytes());
+		final CMSProcessableDSSDocument content = new CMSProcessableDSSDocument(toSignData);
 		final boolean encapsulate = !SignaturePackaging.DETACHED.equals(packaging);
+		assertContentCanBeEncapsulated(content, encapsulate);
 		CMSUtils.generateCMSSignedData(cmsSignedDataGenerator, content, encapsulate);
 		final byte[] bytes = customContentSigner.getOutputStream().toByteArray();
 		return new ToBeSigned(bytes);
@@ -97,19 +101,21 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 
 		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
 		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId(), signatureValue.getValue());
-		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, true);
 		final CMSSignedData originalCmsSignedData = getCmsSignedData(toSignDocument, parameters);
 		if ((originalCmsSignedData == null) && SignaturePackaging.DETACHED.equals(packaging) && (parameters.getDetachedContent() == null)) {
 
 			parameters.setDetachedContent(toSignDocument);
 		}
 
+		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
+		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, true, toSignData);
+
 		final CMSSignedDataGenerator cmsSignedDataGenerator = cmsSignedDataBuilder.createCMSSignedDataGenerator(parameters, customContentSigner, signerInfoGeneratorBuilder,
 				originalCmsSignedData);
 
-		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
-		final CMSProcessableByteArray content = new CMSProcessableByteArray(toSignData.getBytes());
+		final CMSProcessableDSSDocument content = new CMSProcessableDSSDocument(toSignData);
 		final boolean encapsulate = !SignaturePackaging.DETACHED.equals(packaging);
+		assertContentCanBeEncapsulated(content, encapsulate);
 		final CMSSignedData cmsSignedData = CMSUtils.generateCMSSignedData(cmsSignedDataGenerator, content, encapsulate);
 		DSSDocument signature = new CMSSignedDocument(cmsSignedData);
 
@@ -206,10 +212,15 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 	 */
 	private CMSSignedData getCmsSignedData(final DSSDocument dssDocument, final CAdESSignatureParameters parameters) {
 
+		if (dssDocument instanceof DigestDocument) {
+			return null;
+		}
 		CMSSignedData cmsSignedData = null;
+		InputStream inputStream = null;
 		try {
-			// check if input dssDocument is already signed
-			cmsSignedData = new CMSSignedData(dssDocument.getBytes());
+			// check if input dssDocument is already signed, the parsing fails on the first bytes of any other content
+			inputStream = dssDocument.openStream();
+			cmsSignedData = new CMSSignedData(inputStream);
 			final SignaturePackaging signaturePackaging = parameters.getSignaturePackaging();
 			if (signaturePackaging == SignaturePackaging.ENVELOPING) {
 
@@ -219,10 +230,26 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 			}
 		} catch (Exception e) {
 			// not a parallel signature
+		} finally {
+			IOUtils.closeQuietly(inputStream);
 		}
 		return cmsSignedData;
 	}
 
+	/**
+	 * @param content
+	 *            the content to be signed
+	 * @param encapsulate
+	 *            true if the content is encapsulated within the signature
+	 * @throws DSSException
+	 *             if only the digest of the content is known and it must be encapsulated
+	 */
+	private void assertContentCanBeEncapsulated(final CMSProcessableDSSDocument content, final boolean encapsulate) throws DSSException {
+		if (encapsulate && content.isDigestDocument()) {
+			throw new DSSException("A DigestDocument can only be signed with the DETACHED packaging");
+		}
+	}
+
 	/**
 	 * @param packaging
 	 *            {@code SignaturePackaging} to be checked
@@ -23,7 +23,6 @@ package eu.europa.esig.dss.cades.signature;
 import static org.bouncycastle.asn1.cms.CMSObjectIdentifiers.id_ri_ocsp_response;
 import static org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers.id_pkix_ocsp_basic;
 
-import java.io.InputStream;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
@@ -34,12 +33,10 @@ import java.util.Set;
 
 import javax.security.auth.x500.X500Principal;
 
-import org.apache.commons.io.IOUtils;
 import org.bouncycastle.asn1.cms.AttributeTable;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaCertStore;
 import org.bouncycastle.cms.CMSException;
-import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
 import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
@@ -49,14 +46,15 @@ import org.bouncycastle.cms.SimpleAttributeTableGenerator;
 import org.bouncycastle.operator.ContentSigner;
 import org.bouncycastle.operator.DigestCalculatorProvider;
 import org.bouncycastle.operator.OperatorCreationException;
-import org.bouncycastle.operator.bc.BcDigestCalculatorProvider;
 import org.bouncycastle.util.Store;
 
 import eu.europa.esig.dss.ChainCertificate;
 import eu.europa.esig.dss.DSSASN1Utils;
+import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
-import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.cades.CAdESSignatureParameters;
+import eu.europa.esig.dss.cades.CMSProcessableDSSDocument;
+import eu.europa.esig.dss.cades.DSSDocumentDigestCalculatorProvider;
 import eu.europa.esig.dss.validation.CertificateVerifier;
 import eu.europa.esig.dss.x509.CertificateSource;
 import eu.europa.esig.dss.x509.CertificateToken;
@@ -150,9 +148,11 @@ public class CMSSignedDataBuilder {
 	/**
 	 * @param parameters                the parameters of the signature containing values for the attributes
 	 * @param includeUnsignedAttributes true if the unsigned attributes must be included
+	 * @param contentToSign             the content to be signed, its digest is reused when it is a {@code DigestDocument}
 	 * @return a SignerInfoGeneratorBuilder that generate the signed and unsigned attributes according to the CAdESLevelBaselineB
 	 */
-	SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(final CAdESSignatureParameters parameters, final boolean includeUnsignedAttributes) {
+	SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(final CAdESSignatureParameters parameters, final boolean includeUnsignedAttributes,
+			final DSSDocument contentToSign) {
 
 		final CAdESLevelBaselineB cadesProfile = new CAdESLevelBaselineB();
 		final AttributeTable signedAttributes = cadesProfile.getSignedAttributes(parameters);
@@ -161,15 +161,16 @@ public class CMSSignedDataBuilder {
 		if (includeUnsignedAttributes) {
 			unsignedAttributes = cadesProfile.getUnsignedAttributes();
 		}
-		return getSignerInfoGeneratorBuilder(signedAttributes, unsignedAttributes);
+		return getSignerInfoGeneratorBuilder(signedAttributes, unsignedAttributes, contentToSign);
 	}
 
 	/**
 	 * @param signedAttributes   the signedAttributes
 	 * @param unsignedAttributes the unsignedAttributes
+	 * @param contentToSign      the content to be signed
 	 * @return a SignerInfoGeneratorBuilder that generate the signed and unsigned attributes according to the parameters
 	 */
-	private SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(AttributeTable signedAttributes, AttributeTable unsignedAttributes) {
+	private SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(AttributeTable signedAttributes, AttributeTable unsignedAttributes, final DSSDocument contentToSign) {
 
 		if ((signedAttributes != null) && (signedAttributes.size() == 0)) {
 			signedAttributes = null;
@@ -180,18 +181,19 @@ public class CMSSignedDataBuilder {
 		}
 		final SimpleAttributeTableGenerator unsignedAttributeGenerator = new SimpleAttributeTableGenerator(unsignedAttributes);
 
-		return getSignerInfoGeneratorBuilder(signedAttributeGenerator, unsignedAttributeGenerator);
+		return getSignerInfoGeneratorBuilder(signedAttributeGenerator, unsignedAttributeGenerator, contentToSign);
 	}
 
 	/**
 	 * @param signedAttributeGenerator   the signedAttribute generator
 	 * @param unsignedAttributeGenerator the unsignedAttribute generator
+	 * @param contentToSign              the content to be signed
 	 * @return a SignerInfoGeneratorBuilder that generate the signed and unsigned attributes according to the parameters
 	 */
 	private SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(DefaultSignedAttributeTableGenerator signedAttributeGenerator,
-			SimpleAttributeTableGenerator unsignedAttributeGenerator) {
+			SimpleAttributeTableGenerator unsignedAttributeGenerator, final DSSDocument contentToSign) {
 
-		final DigestCalculatorProvider digestCalculatorProvider = new BcDigestCalculatorProvider();
+		final DigestCalculatorProvider digestCalculatorProvider = new DSSDocumentDigestCalculatorProvider(contentToSign);
 		SignerInfoGeneratorBuilder sigInfoGeneratorBuilder = new SignerInfoGeneratorBuilder(digestCalculatorProvider);
 		sigInfoGeneratorBuilder.setSignedAttributeGenerator(signedAttributeGenerator);
 		sigInfoGeneratorBuilder.setUnsignedAttributeGenerator(unsignedAttributeGenerator);
@@ -243,9 +245,7 @@ public class CMSSignedDataBuilder {
 			cmsSignedDataGenerator.addOtherRevocationInfo(id_ri_ocsp_response, otherRevocationInfoFormatStoreOcsp);
 			final boolean encapsulate = cmsSignedData.getSignedContent() != null;
 			if (!encapsulate) {
-				final InputStream inputStream = parameters.getDetachedContent().openStream();
-				final CMSProcessableByteArray content = new CMSProcessableByteArray(DSSUtils.toByteArray(inputStream));
-				IOUtils.closeQuietly(inputStream);
+				final CMSProcessableDSSDocument content = new CMSProcessableDSSDocument(parameters.getDetachedContent());
 				cmsSignedData = cmsSignedDataGenerator.generate(content, encapsulate);
 			} else {
 				cmsSignedData = cmsSignedDataGenerator.generate(cmsSignedData.getSignedContent(), encapsulate);
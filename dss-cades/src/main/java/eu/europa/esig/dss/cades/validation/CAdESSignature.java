@@ -117,7 +117,6 @@ import org.bouncycastle.cms.SignerInformationVerifier;
 import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
 import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.operator.RuntimeOperatorException;
-import org.bouncycastle.operator.bc.BcDigestCalculatorProvider;
 import org.bouncycastle.tsp.TimeStampToken;
 import org.bouncycastle.util.Store;
 import org.slf4j.Logger;
@@ -133,7 +132,9 @@ import eu.europa.esig.dss.SignatureAlgorithm;
 import eu.europa.esig.dss.SignatureForm;
 import eu.europa.esig.dss.SignatureLevel;
 import eu.europa.esig.dss.TokenIdentifier;
+import eu.europa.esig.dss.cades.CMSProcessableDSSDocument;
 import eu.europa.esig.dss.cades.CMSUtils;
+import eu.europa.esig.dss.cades.DSSDocumentDigestCalculatorProvider;
 import eu.europa.esig.dss.cades.signature.CadesLevelBaselineLTATimestampExtractor;
 import eu.europa.esig.dss.validation.AdvancedSignature;
 import eu.europa.esig.dss.validation.CAdESCertificateSource;
@@ -405,7 +406,7 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 	private void verifySigningCertificateV1(final BigInteger signingTokenSerialNumber, final GeneralNames signingTokenIssuerName, final Attribute signingCertificateAttributeV1) {
 
 		final DigestAlgorithm digestAlgorithm = DigestAlgorithm.SHA1;
-		final byte[] signingTokenCertHash = DSSUtils.digest(digestAlgorithm, signingCertificateValidity.getCertificateToken().getEncoded());
+		final byte[] signingTokenCertHash = signingCertificateValidity.getCertificateToken().getDigest(digestAlgorithm);
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("Candidate Certificate Hash {} with algorithm {}", Hex.encodeHexString(signingTokenCertHash), digestAlgorithm.getName());
 		}
@@ -456,7 +457,7 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 				signingCertificateValidity.setDigestAlgorithm(digestAlgorithm);
 				if (digestAlgorithm != lastDigestAlgorithm) {
 
-					signingTokenCertHash = DSSUtils.digest(digestAlgorithm, signingCertificateValidity.getCertificateToken().getEncoded());
+					signingTokenCertHash = signingCertificateValidity.getCertificateToken().getDigest(digestAlgorithm);
 					if (LOG.isDebugEnabled()) {
 						LOG.debug("Candidate Certificate Hash {} with algorithm {}", Hex.encodeHexString(signingTokenCertHash), digestAlgorithm.getName());
 					}
@@ -1210,7 +1211,8 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 
 	/**
 	 * This method recreates a {@code SignerInformation} with the content using
-	 * a {@code CMSSignedDataParser}.
+	 * a {@code CMSSignedDataParser}. The detached content is digested while
+	 * being streamed, the digest of a {@code DigestDocument} is used as is.
 	 *
 	 * @return
 	 * @throws CMSException
@@ -1219,9 +1221,10 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 	private SignerInformation recreateSignerInformation() throws CMSException, IOException {
 
 		final DSSDocument dssDocument = detachedContents.get(0); // only one element for CAdES Signature
-		final InputStream inputStream = dssDocument.openStream();
+		final InputStream inputStream = new CMSProcessableDSSDocument(dssDocument).openStream();
 		final CMSTypedStream signedContent = new CMSTypedStream(inputStream);
-		final CMSSignedDataParser cmsSignedDataParser = new CMSSignedDataParser(new BcDigestCalculatorProvider(), signedContent, cmsSignedData.getEncoded());
+		final DSSDocumentDigestCalculatorProvider digestCalculatorProvider = new DSSDocumentDigestCalculatorProvider(dssDocument);
+		final CMSSignedDataParser cmsSignedDataParser = new CMSSignedDataParser(digestCalculatorProvider, signedContent, cmsSignedData.getEncoded());
 		cmsSignedDataParser.getSignedContent().drain(); // Closes the stream
 		final SignerId signerId = signerInformation.getSID();
 		final SignerInformation signerInformationToCheck = cmsSignedDataParser.getSignerInfos().get(signerId);
@@ -0,0 +1,126 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.cades.signature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.DigestDocument;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.SignatureLevel;
+import eu.europa.esig.dss.SignaturePackaging;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.cades.CAdESSignatureParameters;
+import eu.europa.esig.dss.test.TestUtils;
+import eu.europa.esig.dss.test.gen.CertificateService;
+import eu.europa.esig.dss.test.mock.MockPrivateKeyEntry;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.report.DiagnosticData;
+
+public class CAdESDetachedDigestDocumentTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private CAdESService service;
+	private CAdESSignatureParameters signatureParameters;
+	private FileDocument fileToSign;
+	private DigestDocument digestToSign;
+	private MockPrivateKeyEntry privateKeyEntry;
+
+	@Before
+	public void init() throws Exception {
+		final File file = folder.newFile("large.bin");
+		FileUtils.writeStringToFile(file, "Hello World");
+		fileToSign = new FileDocument(file);
+		digestToSign = new DigestDocument(file);
+		digestToSign.addDigest(DigestAlgorithm.SHA256, fileToSign.getDigest(DigestAlgorithm.SHA256));
+
+		CertificateService certificateService = new CertificateService();
+		privateKeyEntry = certificateService.generateCertificateChain(SignatureAlgorithm.RSA_SHA256);
+
+		signatureParameters = new CAdESSignatureParameters();
+		signatureParameters.bLevel().setSigningDate(new Date());
+		signatureParameters.setSigningCertificate(privateKeyEntry.getCertificate());
+		signatureParameters.setCertificateChain(privateKeyEntry.getCertificateChain());
+		signatureParameters.setSignaturePackaging(SignaturePackaging.DETACHED);
+		signatureParameters.setSignatureLevel(SignatureLevel.CAdES_BASELINE_B);
+
+		service = new CAdESService(new CommonCertificateVerifier());
+	}
+
+	@Test
+	public void signDigestDocument() {
+		final DSSDocument signature = sign(digestToSign);
+
+		assertTrue(isValid(signature, fileToSign));
+		assertTrue(isValid(signature, digestToSign));
+	}
+
+	@Test
+	public void signFileDocument() {
+		final DSSDocument signature = sign(fileToSign);
+
+		assertTrue(isValid(signature, fileToSign));
+		assertTrue(isValid(signature, digestToSign));
+	}
+
+	@Test(expected = DSSException.class)
+	public void digestDocumentCannotBeEnveloped() {
+		signatureParameters.setSignaturePackaging(SignaturePackaging.ENVELOPING);
+		service.getDataToSign(digestToSign, signatureParameters);
+	}
+
+	private DSSDocument sign(final DSSDocument toSign) {
+		ToBeSigned dataToSign = service.getDataToSign(toSign, signatureParameters);
+		SignatureValue signatureValue = TestUtils.sign(signatureParameters.getSignatureAlgorithm(), privateKeyEntry, dataToSign);
+		return service.signDocument(toSign, signatureParameters, signatureValue);
+	}
+
+	private boolean isValid(final DSSDocument signature, final DSSDocument detachedContent) {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signature);
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		List<DSSDocument> detachedContents = new ArrayList<DSSDocument>();
+		detachedContents.add(detachedContent);
+		validator.setDetachedContents(detachedContents);
+		DiagnosticData diagnosticData = validator.validateDocument().getDiagnosticData();
+		assertEquals(1, diagnosticData.getSignatureIdList().size());
+		return diagnosticData.isBLevelTechnicallyValid(diagnosticData.getFirstSignatureId());
+	}
+
+}
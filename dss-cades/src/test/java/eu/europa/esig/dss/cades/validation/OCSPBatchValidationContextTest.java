@@ -0,0 +1,101 @@
+package eu.europa.esig.dss.cades.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.client.http.commons.CommonsDataLoader;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.report.DiagnosticData;
+import eu.europa.esig.dss.validation.report.Reports;
+
+package eu.europa.esig.dss.cades.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.client.ocsp.OnlineOCSPSource;
+import eu.europa.esig.dss.test.gen.CertificateService;
+import eu.europa.esig.dss.test.mock.MockOCSPResponder;
+import eu.europa.esig.dss.test.mock.MockPrivateKeyEntry;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignatureValidationContext;
+import eu.europa.esig.dss.x509.CertificatePool;
+import eu.europa.esig.dss.x509.CertificateSourceType;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.RevocationToken;
+
+public class OCSPBatchValidationContextTest {
+
+	private static final String OCSP_URL = "http://ocsp.dss-test.local";
+
+	private static final int NB_CERTIFICATES = 4;
+
+	private MockOCSPResponder responder;
+
+	private CertificatePool certificatePool;
+
+	private List<CertificateToken> certificateTokens;
+
+	@Before
+	public void init() throws Exception {
+		CertificateService certificateService = new CertificateService();
+		MockPrivateKeyEntry caEntry = certificateService.generateSelfSignedCertificate(SignatureAlgorithm.RSA_SHA256, false);
+		responder = new MockOCSPResponder(caEntry);
+
+		certificatePool = new CertificatePool();
+		certificatePool.getInstance(caEntry.getCertificate(), CertificateSourceType.TRUSTED_STORE);
+
+		certificateTokens = new ArrayList<CertificateToken>();
+		for (int ii = 0; ii < NB_CERTIFICATES; ii++) {
+			certificateTokens.add(certificateService.generateCertificateWithOCSP(SignatureAlgorithm.RSA_SHA256, caEntry, OCSP_URL).getCertificate());
+		}
+		responder.revoke(certificateTokens.get(1).getSerialNumber(), new Date());
+	}
+
+	@Test
+	public void oneRequestForTheWholeValidation() {
+		OnlineOCSPSource ocspSource = new OnlineOCSPSource();
+		ocspSource.setDataLoader(responder);
+		CommonCertificateVerifier certificateVerifier = new CommonCertificateVerifier(true);
+		certificateVerifier.setOcspSource(ocspSource);
+
+		SignatureValidationContext validationContext = new SignatureValidationContext(certificatePool);
+		for (CertificateToken certificateToken : certificateTokens) {
+			validationContext.addCertificateTokenForVerification(certificateToken);
+		}
+		validationContext.initialize(certificateVerifier);
+		validationContext.validate();
+
+		assertEquals(1, responder.getNumberOfRequests());
+		assertEquals(NB_CERTIFICATES, responder.getNumberOfCertificates());
+
+		assertTrue(validationContext.getProcessedCertificates().containsAll(certificateTokens));
+		assertEquals(NB_CERTIFICATES, validationContext.getProcessedRevocations().size());
+		for (int ii = 0; ii < NB_CERTIFICATES; ii++) {
+			RevocationToken revocationToken = certificateTokens.get(ii).getRevocationToken();
+			assertNotNull(revocationToken);
+			assertEquals(OCSP_URL, revocationToken.getSourceURL());
+			assertEquals(Boolean.valueOf(ii != 1), revocationToken.getStatus());
+		}
+	}
+
+}
@@ -20,6 +20,8 @@
  */
 package eu.europa.esig.dss.validation;
 
+import java.util.concurrent.ExecutorService;
+
 import eu.europa.esig.dss.client.http.DataLoader;
 import eu.europa.esig.dss.x509.CertificatePool;
 import eu.europa.esig.dss.x509.CertificateSource;
@@ -138,6 +140,38 @@ public interface CertificateVerifier {
 	 */
 	void setSignatureOCSPSource(final ListOCSPSource signatureOCSPSource);
 
+	/**
+	 * Returns the executor used to retrieve the issuer certificates (AIA) and the revocation data concurrently. When it is null, they are
+	 * retrieved sequentially.
+	 *
+	 * @return
+	 */
+	ExecutorService getExecutorService();
+
+	/**
+	 * Sets the executor used to retrieve the issuer certificates (AIA) and the revocation data concurrently. The executor is not shut down by
+	 * the validation.
+	 *
+	 * @param executorService
+	 */
+	void setExecutorService(final ExecutorService executorService);
+
+	/**
+	 * Returns the maximum time (in milliseconds) spent to retrieve the issuer certificates and the revocation data of a validation context
+	 * with an executor. A value lower than or equal to 0 means no limit.
+	 *
+	 * @return
+	 */
+	long getValidationTimeout();
+
+	/**
+	 * Sets the maximum time (in milliseconds) spent to retrieve the issuer certificates and the revocation data of a validation context with
+	 * an executor. When it is exceeded, the remaining retrievals are cancelled and the related tokens stay unverified.
+	 *
+	 * @param validationTimeout
+	 */
+	void setValidationTimeout(final long validationTimeout);
+
 	/**
 	 * This method creates the validation pool of certificates which is used
 	 * during the validation process.
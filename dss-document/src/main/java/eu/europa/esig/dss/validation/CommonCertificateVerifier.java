@@ -20,6 +20,8 @@
  */
 package eu.europa.esig.dss.validation;
 
+import java.util.concurrent.ExecutorService;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +29,7 @@ import eu.europa.esig.dss.client.http.DataLoader;
 import eu.europa.esig.dss.client.http.NativeHTTPDataLoader;
 import eu.europa.esig.dss.x509.CertificatePool;
 import eu.europa.esig.dss.x509.CertificateSource;
+import eu.europa.esig.dss.x509.CommonTrustedCertificateSource;
 import eu.europa.esig.dss.x509.crl.CRLSource;
 import eu.europa.esig.dss.x509.crl.ListCRLSource;
 import eu.europa.esig.dss.x509.ocsp.ListOCSPSource;
@@ -80,6 +83,16 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 	 */
 	private ListOCSPSource signatureOCSPSource;
 
+	/**
+	 * The executor used to retrieve the issuer certificates and the revocation data concurrently (optional).
+	 */
+	private ExecutorService executorService;
+
+	/**
+	 * The maximum time (millis) spent to retrieve the issuer certificates and the revocation data with the executor.
+	 */
+	private long validationTimeout;
+
 	/**
 	 * The default constructor. The {@code DataLoader} is created to allow the retrieval of certificates through AIA.
 	 */
@@ -229,13 +242,43 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 		this.signatureOCSPSource = signatureOCSPSource;
 	}
 
+	@Override
+	public ExecutorService getExecutorService() {
+		return executorService;
+	}
+
+	@Override
+	public void setExecutorService(final ExecutorService executorService) {
+
+		this.executorService = executorService;
+	}
+
+	@Override
+	public long getValidationTimeout() {
+		return validationTimeout;
+	}
+
+	@Override
+	public void setValidationTimeout(final long validationTimeout) {
+
+		this.validationTimeout = validationTimeout;
+	}
+
 	@Override
 	public CertificatePool createValidationPool() {
 
-		final CertificatePool validationPool = new CertificatePool();
-		if (trustedCertSource != null) {
+		final CertificatePool validationPool;
+		if (trustedCertSource instanceof CommonTrustedCertificateSource) {
+
+			// the trusted certificates are shared through a read-only pool, they are not copied for each validation
+			validationPool = new CertificatePool(((CommonTrustedCertificateSource) trustedCertSource).getCertificatePoolSnapshot());
+		} else {
+
+			validationPool = new CertificatePool();
+			if (trustedCertSource != null) {
 
-			validationPool.merge(trustedCertSource.getCertificatePool());
+				validationPool.merge(trustedCertSource.getCertificatePool());
+			}
 		}
 		if (adjunctCertSource != null) {
 
@@ -371,8 +371,7 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
 		 */
 		for (final TimestampToken timestampToken : getContentTimestamps()) {
 
-			final byte[] timestampBytes = getContentTimestampData(timestampToken);
-			timestampToken.matchData(timestampBytes);
+			matchContentTimestampData(timestampToken);
 		}
 
 		/*
@@ -380,8 +379,7 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
 		 */
 		for (final TimestampToken timestampToken : getSignatureTimestamps()) {
 
-			final byte[] timestampBytes = getSignatureTimestampData(timestampToken, null);
-			timestampToken.matchData(timestampBytes);
+			matchSignatureTimestampData(timestampToken);
 		}
 
 		/*
@@ -407,11 +405,49 @@ public abstract class DefaultAdvancedSignature implements AdvancedSignature {
 		 */
 		for (final TimestampToken timestampToken : getArchiveTimestamps()) {
 
-			final byte[] timestampData = getArchiveTimestampData(timestampToken, null);
-			timestampToken.matchData(timestampData);
+			matchArchiveTimestampData(timestampToken);
 		}
 	}
 
+	/**
+	 * Checks the message imprint of a content timestamp. The content timestamps can cover the whole signed data: a subclass can override this
+	 * method to digest the data on the fly (see {@code TimestampToken#matchDigest(byte[])}).
+	 *
+	 * @param timestampToken
+	 *            the content timestamp to check
+	 */
+	protected void matchContentTimestampData(final TimestampToken timestampToken) {
+
+		final byte[] timestampBytes = getContentTimestampData(timestampToken);
+		timestampToken.matchData(timestampBytes);
+	}
+
+	/**
+	 * Checks the message imprint of a signature timestamp. As for the content timestamps, a subclass can override this method to digest the
+	 * data on the fly.
+	 *
+	 * @param timestampToken
+	 *            the signature timestamp to check
+	 */
+	protected void matchSignatureTimestampData(final TimestampToken timestampToken) {
+
+		final byte[] timestampBytes = getSignatureTimestampData(timestampToken, null);
+		timestampToken.matchData(timestampBytes);
+	}
+
+	/**
+	 * Checks the message imprint of an archive timestamp. As for the content timestamps, a subclass can override this method to digest the data on
+	 * the fly.
+	 *
+	 * @param timestampToken
+	 *            the archive timestamp to check
+	 */
+	protected void matchArchiveTimestampData(final TimestampToken timestampToken) {
+
+		final byte[] timestampData = getArchiveTimestampData(timestampToken, null);
+		timestampToken.matchData(timestampData);
+	}
+
 	@Override
 	public String validateStructure() {
 		return null;
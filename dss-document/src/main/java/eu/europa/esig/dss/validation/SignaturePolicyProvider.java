@@ -0,0 +1,410 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSASN1Utils;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.client.http.ConditionalDataLoader;
+import eu.europa.esig.dss.client.http.ConditionalDataLoader.ConditionalResponse;
+import eu.europa.esig.dss.client.http.DataLoader;
+
+/**
+ * This class provides the signature policy documents referenced by the signatures (EPES). A document is downloaded once
+ * per URL and kept with its ASN.1 structure and the digests already computed. After the revalidation delay, the document
+ * is checked again with a conditional GET request when the {@code DataLoader} supports it; a document which cannot be
+ * revalidated is still used. A failed download is remembered during the failure delay: a dead URL does not cost a
+ * connection timeout per validation. The failure is only remembered for the {@code DataLoader} which failed, another
+ * {@code DataLoader} (e.g. with other proxy settings) tries again. The concurrent requests of a document which is missing
+ * or must be revalidated share the same download when they use the same {@code DataLoader}.<br>
+ * The number of documents is bounded, the least recently used documents are removed first. This class is thread-safe.
+ */
+public class SignaturePolicyProvider {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SignaturePolicyProvider.class);
+
+	/**
+	 * The default maximum number of documents
+	 */
+	public static final int DEFAULT_MAX_SIZE = 100;
+
+	/**
+	 * The default delay before a document is revalidated : 1 hour
+	 */
+	public static final long DEFAULT_REVALIDATION_DELAY = 60 * 60 * 1000L;
+
+	/**
+	 * The default delay before a failed download is retried : 5 minutes
+	 */
+	public static final long DEFAULT_FAILURE_DELAY = 5 * 60 * 1000L;
+
+	private static final SignaturePolicyProvider INSTANCE = new SignaturePolicyProvider(DEFAULT_MAX_SIZE);
+
+	private final Map<String, Entry> entries;
+
+	private final ConcurrentMap<RequestKey, FutureTask<PolicyDocument>> pendingRequests = new ConcurrentHashMap<RequestKey, FutureTask<PolicyDocument>>();
+
+	private volatile long revalidationDelay = DEFAULT_REVALIDATION_DELAY;
+
+	private volatile long failureDelay = DEFAULT_FAILURE_DELAY;
+
+	/**
+	 * This constructor creates a provider with the given maximum number of documents.
+	 *
+	 * @param maxSize
+	 *            the maximum number of documents
+	 */
+	public SignaturePolicyProvider(final int maxSize) {
+		entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the provider shared by the whole process.
+	 *
+	 * @return the process-wide {@code SignaturePolicyProvider}
+	 */
+	public static SignaturePolicyProvider getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * This method returns the signature policy document available at the given URL. The document is downloaded with the
+	 * given {@code DataLoader} when it is not known yet or when it must be revalidated.
+	 *
+	 * @param policyUrl
+	 *            the URL of the signature policy
+	 * @param dataLoader
+	 *            the {@code DataLoader} used to download the document
+	 * @return the {@code PolicyDocument}
+	 * @throws DSSException
+	 *             if the document cannot be retrieved
+	 */
+	public PolicyDocument getPolicyDocument(final String policyUrl, final DataLoader dataLoader) throws DSSException {
+
+		final long now = System.currentTimeMillis();
+		final Entry entry;
+		synchronized (entries) {
+			entry = entries.get(policyUrl);
+		}
+		if (entry != null) {
+
+			if ((entry.document != null) && ((now - entry.checkTime) < revalidationDelay)) {
+				return entry.document;
+			}
+			if ((entry.document == null) && entry.isFailureOf(dataLoader) && ((now - entry.checkTime) < failureDelay)) {
+				throw new DSSException(entry.error);
+			}
+		}
+
+		final RequestKey requestKey = new RequestKey(policyUrl, dataLoader);
+		final FutureTask<PolicyDocument> task = new FutureTask<PolicyDocument>(new Callable<PolicyDocument>() {
+
+			@Override
+			public PolicyDocument call() {
+				return retrieve(policyUrl, dataLoader, entry, now);
+			}
+		});
+		final FutureTask<PolicyDocument> pending = pendingRequests.putIfAbsent(requestKey, task);
+		if (pending != null) {
+
+			LOG.debug("The signature policy from '{}' is already being retrieved", policyUrl);
+			return getResult(pending);
+		}
+		try {
+			task.run();
+		} finally {
+			pendingRequests.remove(requestKey, task);
+		}
+		return getResult(task);
+	}
+
+	private PolicyDocument retrieve(final String policyUrl, final DataLoader dataLoader, final Entry entry, final long now) {
+
+		final PolicyDocument previousDocument = (entry == null) ? null : entry.document;
+		Entry newEntry;
+		try {
+			newEntry = download(policyUrl, dataLoader, (previousDocument == null) ? null : entry, now);
+		} catch (RuntimeException e) {
+
+			if (previousDocument == null) {
+
+				final String error = "Unable to retrieve the signature policy from '" + policyUrl + "' : " + e.getMessage();
+				putEntry(policyUrl, new Entry(null, null, null, now, error, dataLoader));
+				throw new DSSException(error, e);
+			}
+			LOG.warn("Unable to revalidate the signature policy from '" + policyUrl + "', the known document is used : " + e.getMessage());
+			newEntry = new Entry(previousDocument, entry.eTag, entry.lastModified, now, null, null);
+		}
+		putEntry(policyUrl, newEntry);
+		return newEntry.document;
+	}
+
+	private PolicyDocument getResult(final FutureTask<PolicyDocument> task) {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof DSSException) {
+				throw (DSSException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	private Entry download(final String policyUrl, final DataLoader dataLoader, final Entry previousEntry, final long now) {
+
+		if (dataLoader instanceof ConditionalDataLoader) {
+
+			final String eTag = (previousEntry == null) ? null : previousEntry.eTag;
+			final String lastModified = (previousEntry == null) ? null : previousEntry.lastModified;
+			final ConditionalResponse response = ((ConditionalDataLoader) dataLoader).get(policyUrl, eTag, lastModified);
+			if ((response == null) || (response.isNotModified() && (previousEntry == null))) {
+				throw new DSSException("No content");
+			}
+			if (response.isNotModified()) {
+
+				LOG.debug("The signature policy from '{}' is not modified", policyUrl);
+				return new Entry(previousEntry.document, response.eTag == null ? eTag : response.eTag, response.lastModified == null ? lastModified : response.lastModified,
+						now, null, null);
+			}
+			return new Entry(newPolicyDocument(response.data), response.eTag, response.lastModified, now, null, null);
+		}
+		return new Entry(newPolicyDocument(dataLoader.get(policyUrl)), null, null, now, null, null);
+	}
+
+	private PolicyDocument newPolicyDocument(final byte[] policyBytes) {
+
+		if (ArrayUtils.isEmpty(policyBytes)) {
+			throw new DSSException("No content");
+		}
+		return new PolicyDocument(policyBytes);
+	}
+
+	private void putEntry(final String policyUrl, final Entry entry) {
+		synchronized (entries) {
+			entries.put(policyUrl, entry);
+		}
+	}
+
+	/**
+	 * @param revalidationDelay
+	 *            the delay in milliseconds before a document is checked again
+	 */
+	public void setRevalidationDelay(final long revalidationDelay) {
+		this.revalidationDelay = revalidationDelay;
+	}
+
+	/**
+	 * @param failureDelay
+	 *            the delay in milliseconds before a failed download is retried
+	 */
+	public void setFailureDelay(final long failureDelay) {
+		this.failureDelay = failureDelay;
+	}
+
+	/**
+	 * Removes all the documents.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return the current number of documents (and failed downloads)
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * A signature policy document, its ASN.1 structure and its digests. This class is thread-safe.
+	 */
+	public static final class PolicyDocument {
+
+		private final byte[] policyBytes;
+
+		private final ASN1Sequence asn1Sequence;
+
+		private final ConcurrentMap<DigestAlgorithm, String> digests = new ConcurrentHashMap<DigestAlgorithm, String>();
+
+		private final ConcurrentMap<DigestAlgorithm, String> asn1Digests = new ConcurrentHashMap<DigestAlgorithm, String>();
+
+		/**
+		 * @param policyBytes
+		 *            the binaries of the signature policy
+		 */
+		public PolicyDocument(final byte[] policyBytes) {
+
+			this.policyBytes = policyBytes;
+			ASN1Sequence sequence = null;
+			try {
+				sequence = DSSASN1Utils.toASN1Primitive(policyBytes);
+			} catch (Exception e) {
+				LOG.info("Policy bytes are not asn1 processable : " + e.getMessage());
+			}
+			this.asn1Sequence = sequence;
+		}
+
+		/**
+		 * @return true if the document is based on TR 102 272 (ASN.1 format for signature policies)
+		 */
+		public boolean isAsn1Processable() {
+			return asn1Sequence != null;
+		}
+
+		/**
+		 * @return the ASN.1 structure of the document or null if the document is not ASN.1 processable
+		 */
+		public ASN1Sequence getAsn1Sequence() {
+			return asn1Sequence;
+		}
+
+		/**
+		 * @param digestAlgorithm
+		 *            the digest algorithm
+		 * @return the hexadecimal digest of the whole document
+		 */
+		public String getDigestHexValue(final DigestAlgorithm digestAlgorithm) {
+
+			String digest = digests.get(digestAlgorithm);
+			if (digest == null) {
+
+				digest = DSSUtils.toHex(DSSUtils.digest(digestAlgorithm, policyBytes));
+				digests.putIfAbsent(digestAlgorithm, digest);
+			}
+			return digest;
+		}
+
+		/**
+		 * @param digestAlgorithm
+		 *            the digest algorithm
+		 * @return the hexadecimal digest of the ASN.1 signature policy (SignPolicyHashAlg and SignPolicyInfo)
+		 */
+		public String getAsn1DigestHexValue(final DigestAlgorithm digestAlgorithm) {
+
+			String digest = asn1Digests.get(digestAlgorithm);
+			if (digest == null) {
+
+				digest = DSSUtils.toHex(DSSASN1Utils.getAsn1SignaturePolicyDigest(digestAlgorithm, policyBytes));
+				asn1Digests.putIfAbsent(digestAlgorithm, digest);
+			}
+			return digest;
+		}
+	}
+
+	private static final class Entry {
+
+		private final PolicyDocument document;
+
+		private final String eTag;
+
+		private final String lastModified;
+
+		/**
+		 * The time of the last download or revalidation
+		 */
+		private final long checkTime;
+
+		/**
+		 * The error of the last download when the document is not available
+		 */
+		private final String error;
+
+		/**
+		 * The {@code DataLoader} of the failed download (weakly referenced, the provider can be shared by the whole process)
+		 */
+		private final WeakReference<DataLoader> failedLoader;
+
+		Entry(final PolicyDocument document, final String eTag, final String lastModified, final long checkTime, final String error,
+				final DataLoader failedLoader) {
+			this.document = document;
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+			this.checkTime = checkTime;
+			this.error = error;
+			this.failedLoader = (failedLoader == null) ? null : new WeakReference<DataLoader>(failedLoader);
+		}
+
+		boolean isFailureOf(final DataLoader dataLoader) {
+			return (failedLoader != null) && (failedLoader.get() == dataLoader);
+		}
+	}
+
+	/**
+	 * The key of a download in progress : the URL and the {@code DataLoader} instance.
+	 */
+	private static final class RequestKey {
+
+		private final String policyUrl;
+
+		private final DataLoader dataLoader;
+
+		RequestKey(final String policyUrl, final DataLoader dataLoader) {
+			this.policyUrl = policyUrl;
+			this.dataLoader = dataLoader;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof RequestKey)) {
+				return false;
+			}
+			final RequestKey other = (RequestKey) obj;
+			return policyUrl.equals(other.policyUrl) && (dataLoader == other.dataLoader);
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * policyUrl.hashCode()) + System.identityHashCode(dataLoader);
+		}
+	}
+
+}
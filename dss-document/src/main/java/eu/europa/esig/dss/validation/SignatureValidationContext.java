@@ -20,17 +20,31 @@
  */
 package eu.europa.esig.dss.validation;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.security.auth.x500.X500Principal;
 
+import org.apache.commons.codec.binary.Hex;
+import org.bouncycastle.asn1.x509.Extension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,9 +56,12 @@ import eu.europa.esig.dss.tsl.ServiceInfo;
 import eu.europa.esig.dss.x509.CertificatePool;
 import eu.europa.esig.dss.x509.CertificateSourceType;
 import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.OCSPToken;
 import eu.europa.esig.dss.x509.RevocationToken;
 import eu.europa.esig.dss.x509.Token;
 import eu.europa.esig.dss.x509.crl.CRLSource;
+import eu.europa.esig.dss.x509.crl.CRLToken;
+import eu.europa.esig.dss.x509.ocsp.BatchOCSPSource;
 import eu.europa.esig.dss.x509.ocsp.OCSPSource;
 
 /**
@@ -56,9 +73,15 @@ public class SignatureValidationContext implements ValidationContext {
 
 	private static final Logger logger = LoggerFactory.getLogger(SignatureValidationContext.class);
 
-	private final Set<CertificateToken> processedCertificates = new HashSet<CertificateToken>();
-	private final Set<RevocationToken> processedRevocations = new HashSet<RevocationToken>();
-	private final Set<TimestampToken> processedTimestamps = new HashSet<TimestampToken>();
+	/**
+	 * The maximum time (millis) {@code validate()} waits for the verification tasks still running once the validation is over (timeout or
+	 * failure) : they are interrupted and must end before the caller reads the tokens
+	 */
+	private static final long CANCELLATION_TIMEOUT = 10000;
+
+	private final Set<CertificateToken> processedCertificates = Collections.synchronizedSet(new HashSet<CertificateToken>());
+	private final Set<RevocationToken> processedRevocations = Collections.synchronizedSet(new HashSet<RevocationToken>());
+	private final Set<TimestampToken> processedTimestamps = Collections.synchronizedSet(new HashSet<TimestampToken>());
 
 	/**
 	 * The data loader used to access AIA certificate source.
@@ -70,7 +93,36 @@ public class SignatureValidationContext implements ValidationContext {
 	 */
 	protected CertificatePool validationCertificatePool;
 
-	private final Map<Token, Boolean> tokensToProcess = new HashMap<Token, Boolean>();
+	/**
+	 * All the tokens added for verification
+	 */
+	private final Set<Token> tokensToProcess = new HashSet<Token>();
+
+	/**
+	 * The tokens not yet verified, in the order they were added (guarded by tokensToProcess)
+	 */
+	private final LinkedList<Token> tokensNotYetVerified = new LinkedList<Token>();
+
+	/**
+	 * The issuer certificates retrieved through AIA, by list of access locations : each location is downloaded once
+	 */
+	private final ConcurrentMap<String, FutureTask<CertificateToken>> aiaRequests = new ConcurrentHashMap<String, FutureTask<CertificateToken>>();
+
+	/**
+	 * The CRLs retrieved from the online source, by distribution points and issuer : the certificates of a CA verified concurrently share
+	 * the same download
+	 */
+	private final ConcurrentMap<String, FutureTask<CRLToken>> crlRequests = new ConcurrentHashMap<String, FutureTask<CRLToken>>();
+
+	/**
+	 * The executor used to retrieve the issuer certificates and the revocation data concurrently (can be null)
+	 */
+	private ExecutorService executorService;
+
+	/**
+	 * The maximum time (millis) spent by {@code validate()} with the executor, no limit if lower than or equal to 0
+	 */
+	private long validationTimeout;
 
 	// External OCSP source.
 	private OCSPSource ocspSource;
@@ -84,6 +136,11 @@ public class SignatureValidationContext implements ValidationContext {
 	// OCSP from the signature.
 	private OCSPSource signatureOCSPSource;
 
+	/**
+	 * The OCSP responses retrieved in a batch, by certificate (a null value when no response was found). Used without executor only.
+	 */
+	private final Map<CertificateToken, OCSPToken> batchedOCSPTokens = new HashMap<CertificateToken, OCSPToken>();
+
 	// The digest value of the certification path references and the revocation status references.
 	private List<TimestampReference> timestampedReferences;
 
@@ -127,6 +184,8 @@ public class SignatureValidationContext implements ValidationContext {
 		this.dataLoader = certificateVerifier.getDataLoader();
 		this.signatureCRLSource = certificateVerifier.getSignatureCRLSource();
 		this.signatureOCSPSource = certificateVerifier.getSignatureOCSPSource();
+		this.executorService = certificateVerifier.getExecutorService();
+		this.validationTimeout = certificateVerifier.getValidationTimeout();
 	}
 
 	@Override
@@ -149,15 +208,7 @@ public class SignatureValidationContext implements ValidationContext {
 	 */
 	private Token getNotYetVerifiedToken() {
 		synchronized (tokensToProcess) {
-			for (final Entry<Token, Boolean> entry : tokensToProcess.entrySet()) {
-
-				if (entry.getValue() == null) {
-
-					entry.setValue(true);
-					return entry.getKey();
-				}
-			}
-			return null;
+			return tokensNotYetVerified.poll();
 		}
 	}
 
@@ -185,15 +236,20 @@ public class SignatureValidationContext implements ValidationContext {
 			return token.getIssuerToken();
 		}
 		final X500Principal issuerX500Principal = token.getIssuerX500Principal();
-		CertificateToken issuerCertificateToken = getIssuerFromPool(token, issuerX500Principal);
+		CertificateToken issuerCertificateToken;
+		// the same token can be reached by several chains verified concurrently
+		synchronized (token) {
 
-		if ((issuerCertificateToken == null) && (token instanceof CertificateToken)) {
+			issuerCertificateToken = getIssuerFromPool(token, issuerX500Principal);
 
-			issuerCertificateToken = getIssuerFromAIA((CertificateToken) token);
-		}
-		if (issuerCertificateToken == null) {
+			if ((issuerCertificateToken == null) && (token instanceof CertificateToken)) {
+
+				issuerCertificateToken = getIssuerFromAIA((CertificateToken) token);
+			}
+			if (issuerCertificateToken == null) {
 
-			token.extraInfo().infoTheSigningCertNotFound();
+				token.extraInfo().infoTheSigningCertNotFound();
+			}
 		}
 		if ((issuerCertificateToken != null) && !issuerCertificateToken.isTrusted() && !issuerCertificateToken.isSelfSigned()) {
 
@@ -211,28 +267,62 @@ public class SignatureValidationContext implements ValidationContext {
 	 */
 	private CertificateToken getIssuerFromAIA(final CertificateToken token) {
 
-		final CertificateToken issuerCert;
-		try {
+		logger.info("Retrieving {} certificate's issuer using AIA.", token.getAbbreviation());
+		final CertificateToken issuerCertToken = loadIssuerFromAIA(token);
+		if (issuerCertToken != null) {
 
-			logger.info("Retrieving {} certificate's issuer using AIA.", token.getAbbreviation());
-			issuerCert = DSSUtils.loadIssuerCertificate(token, dataLoader);
-			if (issuerCert != null) {
+			if (token.isSignedBy(issuerCertToken)) {
 
-				final CertificateToken issuerCertToken = validationCertificatePool.getInstance(issuerCert, CertificateSourceType.AIA);
-				if (token.isSignedBy(issuerCertToken)) {
+				return issuerCertToken;
+			}
+			logger.info("The retrieved certificate using AIA does not sign the certificate {}.", token.getAbbreviation());
+		} else {
 
-					return issuerCertToken;
-				}
-				logger.info("The retrieved certificate using AIA does not sign the certificate {}.", token.getAbbreviation());
-			} else {
+			logger.info("The issuer certificate cannot be loaded using AIA.");
+		}
+		return null;
+	}
+
+	/**
+	 * Downloads the certificate found at the AIA locations of the given token. The certificates issued by the same CA share the same
+	 * download, even when they are verified concurrently.
+	 *
+	 * @param token {@code CertificateToken} for which the issuer is sought.
+	 * @return the downloaded {@code CertificateToken} (added to the validation pool) or null.
+	 */
+	private CertificateToken loadIssuerFromAIA(final CertificateToken token) {
+
+		final List<String> accessLocations = DSSASN1Utils.getAccessLocations(token);
+		if ((accessLocations == null) || accessLocations.isEmpty()) {
+
+			logger.info("There is no AIA extension for certificate download.");
+			return null;
+		}
+		final FutureTask<CertificateToken> aiaRequest = new FutureTask<CertificateToken>(new Callable<CertificateToken>() {
+
+			@Override
+			public CertificateToken call() {
 
-				logger.info("The issuer certificate cannot be loaded using AIA.");
+				try {
+
+					final CertificateToken issuerCert = DSSUtils.loadIssuerCertificate(token, dataLoader);
+					if (issuerCert != null) {
+						return validationCertificatePool.getInstance(issuerCert, CertificateSourceType.AIA);
+					}
+				} catch (DSSException e) {
+
+					logger.error(e.getMessage());
+				}
+				return null;
 			}
-		} catch (DSSException e) {
+		});
+		final FutureTask<CertificateToken> existingRequest = aiaRequests.putIfAbsent(accessLocations.toString(), aiaRequest);
+		if (existingRequest != null) {
 
-			logger.error(e.getMessage());
+			return getResult(existingRequest);
 		}
-		return null;
+		aiaRequest.run();
+		return getResult(aiaRequest);
 	}
 
 	/**
@@ -246,10 +336,23 @@ public class SignatureValidationContext implements ValidationContext {
 	private CertificateToken getIssuerFromPool(final Token token, final X500Principal issuerX500Principal) {
 
 		final List<CertificateToken> issuerCertList = validationCertificatePool.get(issuerX500Principal);
+		List<CertificateToken> akiCandidates = Collections.emptyList();
+		if ((token instanceof CertificateToken) && (issuerCertList.size() > 1)) {
+
+			// The authority key identifier designates the issuer among the certificates with the same subject name
+			akiCandidates = validationCertificatePool.getBySki(DSSASN1Utils.getAki((CertificateToken) token));
+			for (final CertificateToken issuerCertToken : akiCandidates) {
+
+				if (issuerCertList.contains(issuerCertToken) && token.isSignedBy(issuerCertToken)) {
+
+					return issuerCertToken;
+				}
+			}
+		}
 		for (final CertificateToken issuerCertToken : issuerCertList) {
 
 			// We keep the first issuer that signs the certificate
-			if (token.isSignedBy(issuerCertToken)) {
+			if (!akiCandidates.contains(issuerCertToken) && token.isSignedBy(issuerCertToken)) {
 
 				return issuerCertToken;
 			}
@@ -276,14 +379,14 @@ public class SignatureValidationContext implements ValidationContext {
 				if (token == null) {
 					return false;
 				}
-				if (tokensToProcess.containsKey(token)) {
+				if (!tokensToProcess.add(token)) {
 
 					if (traceEnabled) {
 						logger.trace("Token was already in the list {}:{}", new Object[]{token.getClass().getSimpleName(), token.getAbbreviation()});
 					}
 					return false;
 				}
-				tokensToProcess.put(token, null);
+				tokensNotYetVerified.add(token);
 				if (traceEnabled) {
 					logger.trace("+ New {} to check: {}", new Object[]{token.getClass().getSimpleName(), token.getAbbreviation()});
 				}
@@ -346,26 +449,234 @@ public class SignatureValidationContext implements ValidationContext {
 
 	@Override
 	public void validate() throws DSSException {
+		if (executorService != null) {
+
+			validateConcurrently();
+			return;
+		}
+		if (ocspSource instanceof BatchOCSPSource) {
+
+			validateInBatches();
+			return;
+		}
 		Token token = null;
 		do {
 			token = getNotYetVerifiedToken();
 			if (token != null) {
 
-				/**
-				 * Gets the issuer certificate of the Token and checks its signature
-				 */
-				final CertificateToken issuerCertToken = getIssuerCertificate(token);
-				if (issuerCertToken != null) {
+				verify(token);
+			}
+		} while (token != null);
+	}
+
+	/**
+	 * Verifies the tokens in rounds : the certification paths of all the waiting tokens are completed first (issuer certificates of all
+	 * levels), then the OCSP responses of all the certificates of the validation are requested at once from the {@code BatchOCSPSource},
+	 * which groups them by responder. The revocation data found are verified in the next round.
+	 */
+	private void validateInBatches() {
+
+		List<Token> tokens;
+		while (!(tokens = getNotYetVerifiedTokens()).isEmpty()) {
+
+			final List<CertificateToken> certificateTokens = new ArrayList<CertificateToken>();
+			do {
+				for (final Token token : tokens) {
+
+					final CertificateToken issuerCertToken = getIssuerCertificate(token);
+					if (issuerCertToken != null) {
+						addCertificateTokenForVerification(issuerCertToken);
+					}
+					if (token instanceof CertificateToken) {
+						certificateTokens.add((CertificateToken) token);
+					}
+				}
+			} while (!(tokens = getNotYetVerifiedTokens()).isEmpty());
+
+			requestOCSPTokens(certificateTokens);
+			for (final CertificateToken certificateToken : certificateTokens) {
+
+				final RevocationToken revocationToken = getRevocationData(certificateToken);
+				addRevocationTokenForVerification(revocationToken);
+			}
+		}
+	}
+
+	/**
+	 * @return all the tokens to verify, or an empty list if there is no more tokens to verify
+	 */
+	private List<Token> getNotYetVerifiedTokens() {
+		synchronized (tokensToProcess) {
+			final List<Token> tokens = new ArrayList<Token>(tokensNotYetVerified);
+			tokensNotYetVerified.clear();
+			return tokens;
+		}
+	}
+
+	/**
+	 * Requests at once the OCSP responses of the certificates which must be checked online. The expired certificates are left to the
+	 * single requests.
+	 *
+	 * @param certificateTokens the certificates of the current round
+	 */
+	private void requestOCSPTokens(final List<CertificateToken> certificateTokens) {
+
+		final List<CertificateToken> certificatesToCheck = new ArrayList<CertificateToken>();
+		for (final CertificateToken certificateToken : certificateTokens) {
+
+			if (isRevocationDataNeeded(certificateToken) && !certificateToken.isExpiredOn(currentTime)) {
+				certificatesToCheck.add(certificateToken);
+			}
+		}
+		if (certificatesToCheck.isEmpty()) {
+			return;
+		}
+		try {
+
+			final Map<CertificateToken, OCSPToken> ocspTokens = ((BatchOCSPSource) ocspSource).getOCSPTokens(certificatesToCheck);
+			for (final CertificateToken certificateToken : certificatesToCheck) {
+				batchedOCSPTokens.put(certificateToken, ocspTokens.get(certificateToken));
+			}
+		} catch (DSSException e) {
+			logger.warn("OCSP batch request failed : " + e.getMessage());
+		}
+	}
+
+	private boolean isRevocationDataNeeded(final CertificateToken certToken) {
+
+		if (certToken.isSelfSigned() || certToken.isTrusted() || (certToken.getIssuerToken() == null)) {
+			return false;
+		}
+		return !(DSSASN1Utils.isOCSPSigning(certToken) && DSSASN1Utils.hasIdPkixOcspNoCheckExtension(certToken));
+	}
+
+	/**
+	 * Verifies the tokens on the executor : every token found (issuer certificates, revocation data) is verified as soon as it is found, so
+	 * that the retrievals of the independent tokens overlap. The validation timeout is enforced.
+	 *
+	 * @throws DSSException
+	 */
+	private void validateConcurrently() throws DSSException {
+
+		final CompletionService<Token> completionService = new ExecutorCompletionService<Token>(executorService);
+		final List<Future<Token>> futures = new ArrayList<Future<Token>>();
+		final AtomicBoolean ended = new AtomicBoolean();
+		final RunningTasks runningTasks = new RunningTasks();
+		final long deadline = System.currentTimeMillis() + validationTimeout;
+		int pending = 0;
+		try {
+
+			while (true) {
+
+				Token token;
+				while ((token = getNotYetVerifiedToken()) != null) {
+
+					final Token tokenToVerify = token;
+					futures.add(completionService.submit(new Callable<Token>() {
+
+						@Override
+						public Token call() {
+							if (!runningTasks.start()) {
+								return tokenToVerify;
+							}
+							try {
+								verify(tokenToVerify, ended);
+							} finally {
+								runningTasks.end();
+							}
+							return tokenToVerify;
+						}
+					}));
+					pending++;
+				}
+				if (pending == 0) {
+					return;
+				}
+				final Future<Token> verified;
+				if (validationTimeout > 0) {
+					verified = completionService.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+				} else {
+					verified = completionService.take();
+				}
+				if (verified == null) {
+
+					logger.warn("The validation timeout ({} ms) is exceeded, {} token(s) are not verified.", validationTimeout, pending);
+					return;
+				}
+				pending--;
+				getResult(verified);
+			}
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} finally {
+
+			// the tasks still running after a timeout must not modify the tokens read by the caller : they are interrupted and awaited
+			synchronized (tokensToProcess) {
+				ended.set(true);
+			}
+			runningTasks.close();
+			for (final Future<Token> future : futures) {
+				future.cancel(true);
+			}
+			final int stillRunning = runningTasks.await(CANCELLATION_TIMEOUT);
+			if (stillRunning > 0) {
+				logger.warn("{} verification task(s) still running {} ms after the end of the validation.", stillRunning, CANCELLATION_TIMEOUT);
+			}
+		}
+	}
+
+	/**
+	 * Gets the issuer certificate of the token and checks its signature, then gets the revocation data of a certificate. The found tokens
+	 * are added for verification.
+	 *
+	 * @param token the token to verify
+	 */
+	private void verify(final Token token) {
+
+		verify(token, null);
+	}
+
+	/**
+	 * @param token the token to verify
+	 * @param ended set when the concurrent validation is over (can be null) : the tokens found afterwards are not added
+	 */
+	private void verify(final Token token, final AtomicBoolean ended) {
+
+		final CertificateToken issuerCertToken = getIssuerCertificate(token);
+		if (issuerCertToken != null) {
+			synchronized (tokensToProcess) {
+				if ((ended == null) || !ended.get()) {
 					addCertificateTokenForVerification(issuerCertToken);
 				}
+			}
+		}
 
-				if (token instanceof CertificateToken) {
-					final RevocationToken revocationToken = getRevocationData((CertificateToken) token);
+		if (token instanceof CertificateToken) {
+			final RevocationToken revocationToken = getRevocationData((CertificateToken) token);
+			synchronized (tokensToProcess) {
+				if ((ended == null) || !ended.get()) {
 					addRevocationTokenForVerification(revocationToken);
 				}
+			}
+		}
+	}
+
+	private <T> T getResult(final Future<T> future) throws DSSException {
 
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof DSSException) {
+				throw (DSSException) cause;
 			}
-		} while (token != null);
+			throw new DSSException(cause);
+		}
 	}
 
 	/**
@@ -395,7 +706,13 @@ public class SignatureValidationContext implements ValidationContext {
 		boolean checkOnLine = shouldCheckOnLine(certToken);
 		if (checkOnLine) {
 
-			final OCSPAndCRLCertificateVerifier onlineVerifier = new OCSPAndCRLCertificateVerifier(crlSource, ocspSource, validationCertificatePool);
+			OCSPSource onlineOCSPSource = ocspSource;
+			if (batchedOCSPTokens.containsKey(certToken)) {
+				// the OCSP responder was already queried in a batch
+				onlineOCSPSource = new BatchedOCSPSource(batchedOCSPTokens.remove(certToken));
+			}
+			final CRLSource onlineCRLSource = (executorService == null) || (crlSource == null) ? crlSource : new SharedCRLSource();
+			final OCSPAndCRLCertificateVerifier onlineVerifier = new OCSPAndCRLCertificateVerifier(onlineCRLSource, onlineOCSPSource, validationCertificatePool);
 			final RevocationToken revocationToken = onlineVerifier.check(certToken);
 			if (revocationToken != null) {
 
@@ -524,4 +841,113 @@ public class SignatureValidationContext implements ValidationContext {
 
 		return toString("");
 	}
+
+	/**
+	 * The {@code CRLSource} which shares the CRL downloaded for a certificate with the other certificates having the same distribution points
+	 * and the same issuer. The CRL is downloaded once, even when the certificates are verified concurrently.
+	 */
+	private class SharedCRLSource implements CRLSource {
+
+		@Override
+		public CRLToken findCrl(final CertificateToken certificateToken) throws DSSException {
+
+			final byte[] distributionPoints = certificateToken.getCertificate().getExtensionValue(Extension.cRLDistributionPoints.getId());
+			if (distributionPoints == null) {
+				return crlSource.findCrl(certificateToken);
+			}
+			final String key = Hex.encodeHexString(distributionPoints) + '|' + certificateToken.getIssuerToken().getDSSIdAsString();
+			final FutureTask<CRLToken> crlRequest = new FutureTask<CRLToken>(new Callable<CRLToken>() {
+
+				@Override
+				public CRLToken call() {
+					return crlSource.findCrl(certificateToken);
+				}
+			});
+			final FutureTask<CRLToken> existingRequest = crlRequests.putIfAbsent(key, crlRequest);
+			if (existingRequest == null) {
+
+				crlRequest.run();
+				return getResult(crlRequest);
+			}
+			final CRLToken sharedCrlToken = getResult(existingRequest);
+			if (sharedCrlToken == null) {
+				return null;
+			}
+			final CRLToken crlToken = new CRLToken(certificateToken, sharedCrlToken.getCrlValidity());
+			crlToken.setSourceURL(sharedCrlToken.getSourceURL());
+			return crlToken;
+		}
+	}
+
+	/**
+	 * The {@code OCSPSource} which gives the response already retrieved in a batch for a certificate
+	 */
+	@SuppressWarnings("serial")
+	/**
+	 * Counts the verification tasks running on the executor (a cancelled task may still be running). Once closed, the tasks which did not
+	 * start yet do nothing.
+	 */
+	private static class RunningTasks {
+
+		private int running;
+
+		private boolean closed;
+
+		/**
+		 * @return false if the validation is over : the task must not run
+		 */
+		synchronized boolean start() {
+			if (closed) {
+				return false;
+			}
+			running++;
+			return true;
+		}
+
+		synchronized void end() {
+			running--;
+			if (running == 0) {
+				notifyAll();
+			}
+		}
+
+		synchronized void close() {
+			closed = true;
+		}
+
+		/**
+		 * Waits for the running tasks to end
+		 *
+		 * @param timeout the maximum time to wait (millis)
+		 * @return the number of tasks still running
+		 */
+		synchronized int await(final long timeout) {
+			final long deadline = System.currentTimeMillis() + timeout;
+			long remaining = timeout;
+			try {
+				while ((running > 0) && (remaining > 0)) {
+					wait(remaining);
+					remaining = deadline - System.currentTimeMillis();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return running;
+		}
+	}
+
+	private static class BatchedOCSPSource implements OCSPSource {
+
+		private final OCSPToken ocspToken;
+
+		BatchedOCSPSource(final OCSPToken ocspToken) {
+			this.ocspToken = ocspToken;
+		}
+
+		@Override
+		public OCSPToken getOCSPToken(final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
+			return ocspToken;
+		}
+	}
+
 }
@@ -97,7 +97,9 @@ import eu.europa.esig.dss.tsl.Condition;
 import eu.europa.esig.dss.tsl.KeyUsageBit;
 import eu.europa.esig.dss.tsl.PolicyIdCondition;
 import eu.europa.esig.dss.tsl.QcStatementCondition;
+import eu.europa.esig.dss.tsl.QualifiersCache;
 import eu.europa.esig.dss.tsl.ServiceInfo;
+import eu.europa.esig.dss.validation.SignaturePolicyProvider.PolicyDocument;
 import eu.europa.esig.dss.validation.policy.CustomProcessExecutor;
 import eu.europa.esig.dss.validation.policy.EtsiValidationPolicy;
 import eu.europa.esig.dss.validation.policy.ProcessExecutor;
@@ -182,6 +184,8 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 
 	private HashMap<String, File> policyDocuments;
 
+	private SignaturePolicyProvider signaturePolicyProvider = SignaturePolicyProvider.getInstance();
+
 	private static List<Class<SignedDocumentValidator>> registredDocumentValidators = new ArrayList<Class<SignedDocumentValidator>>();
 
 	static {
@@ -310,6 +314,17 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		policyDocuments.put(signatureId, policyDocument);
 	}
 
+	/**
+	 * This method allows to provide the {@code SignaturePolicyProvider} used to retrieve the signature policies from their URL. By
+	 * default, the provider shared by the whole process is used.
+	 *
+	 * @param signaturePolicyProvider
+	 */
+	public void setSignaturePolicyProvider(final SignaturePolicyProvider signaturePolicyProvider) {
+
+		this.signaturePolicyProvider = signaturePolicyProvider;
+	}
+
 	/**
 	 * This setter allows to indicate the countersignature {@code ValidationPolicy} to be used.
 	 *
@@ -367,8 +382,8 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 	@Override
 	public Reports validateDocument(final InputStream policyDataStream) {
 
-		final Document validationPolicyDom = ValidationResourceManager.loadPolicyData(policyDataStream);
-		return validateDocument(validationPolicyDom);
+		final ValidationPolicy validationPolicy = ValidationResourceManager.loadValidationPolicy(policyDataStream);
+		return validateDocument(validationPolicy);
 	}
 
 	/**
@@ -408,8 +423,7 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		executor.setValidationPolicy(validationPolicy);
 		if (countersignatureValidationPolicy == null) {
 
-			final Document countersignaturePolicyData = ValidationResourceManager.loadCountersignaturePolicyData(null);
-			countersignatureValidationPolicy = new EtsiValidationPolicy(countersignaturePolicyData);
+			countersignatureValidationPolicy = ValidationResourceManager.loadCountersignatureValidationPolicy(null);
 		}
 		executor.setCountersignatureValidationPolicy(countersignatureValidationPolicy);
 
@@ -1031,13 +1045,26 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 	}
 
 	/**
-	 * Retrieves all the qualifiers for which the corresponding conditionEntry is true.
+	 * Retrieves all the qualifiers for which the corresponding conditionEntry is true. The result is memorized in the
+	 * {@code QualifiersCache}: the conditions of a service are evaluated once per certificate.
 	 *
 	 * @param certificateToken
 	 * @return
 	 */
 	public List<String> getQualifiers(ServiceInfo serviceInfo, CertificateToken certificateToken) {
 
+		final QualifiersCache qualifiersCache = QualifiersCache.getInstance();
+		final List<String> cachedQualifiers = qualifiersCache.get(serviceInfo, certificateToken);
+		if (cachedQualifiers != null) {
+			return new ArrayList<String>(cachedQualifiers);
+		}
+		final List<String> qualifiers = evaluateQualifiers(serviceInfo, certificateToken);
+		qualifiersCache.put(serviceInfo, certificateToken, new ArrayList<String>(qualifiers));
+		return qualifiers;
+	}
+
+	private List<String> evaluateQualifiers(ServiceInfo serviceInfo, CertificateToken certificateToken) {
+
 		LOG.trace("--> GET_QUALIFIERS()");
 		List<String> list = new ArrayList<String>();
 		Map<String, List<Condition>> qualifiersAndConditions = serviceInfo.getQualifiersAndConditions();
@@ -1176,13 +1203,13 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 		}
 		xmlPolicy.setIdentified(true);
 
-		byte[] policyBytes = null;
+		PolicyDocument signaturePolicyDocument = null;
 		try {
 			if (policyDocument == null) {
 				final DataLoader dataLoader = certificateVerifier.getDataLoader();
-				policyBytes = dataLoader.get(policyUrl);
+				signaturePolicyDocument = signaturePolicyProvider.getPolicyDocument(policyUrl, dataLoader);
 			} else {
-				policyBytes = DSSUtils.toByteArray(policyDocument);
+				signaturePolicyDocument = new PolicyDocument(DSSUtils.toByteArray(policyDocument));
 			}
 		} catch (Exception e) {
 			// When any error (communication) we just set the status to false
@@ -1193,15 +1220,8 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 			return;
 		}
 
-		boolean isAsn1Processable;
-		ASN1Sequence asn1Sequence = null;
-		try {
-			asn1Sequence = DSSASN1Utils.toASN1Primitive(policyBytes);
-			isAsn1Processable = true;
-		} catch (Exception e) {
-			LOG.info("Policy bytes are not asn1 processable : " + e.getMessage());
-			isAsn1Processable = false;
-		}
+		final boolean isAsn1Processable = signaturePolicyDocument.isAsn1Processable();
+		final ASN1Sequence asn1Sequence = signaturePolicyDocument.getAsn1Sequence();
 		xmlPolicy.setAsn1Processable(isAsn1Processable);
 
 		try {
@@ -1240,8 +1260,7 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 					xmlPolicy.setDigestAlgorithmsEqual(true);
 				}
 
-				byte[] recalculatedDigestValue = DSSASN1Utils.getAsn1SignaturePolicyDigest(signPolicyHashAlgFromPolicy, policyBytes);
-				String recalculatedDigestHexValue = DSSUtils.toHex(recalculatedDigestValue);
+				String recalculatedDigestHexValue = signaturePolicyDocument.getAsn1DigestHexValue(signPolicyHashAlgFromPolicy);
 
 				boolean equal = policyDigestValueFromSignature.equals(recalculatedDigestHexValue);
 				xmlPolicy.setStatus(equal);
@@ -1267,8 +1286,7 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 				 * In all other cases, compute the digest using the digesting algorithm indicated in the children of the property/attribute.
 				 */
 
-				byte[] recalculatedDigestValue = DSSUtils.digest(signPolicyHashAlgFromSignature, policyBytes);
-				String recalculatedDigestHexValue = DSSUtils.toHex(recalculatedDigestValue);
+				String recalculatedDigestHexValue = signaturePolicyDocument.getDigestHexValue(signPolicyHashAlgFromSignature);
 
 				boolean equal = policyDigestValueFromSignature.equals(recalculatedDigestHexValue);
 				xmlPolicy.setStatus(equal);
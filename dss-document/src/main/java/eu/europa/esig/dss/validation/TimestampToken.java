@@ -249,6 +249,27 @@ public class TimestampToken extends Token {
 		return messageImprintIntact;
 	}
 
+	/**
+	 * Checks if the {@code TimeStampToken} matches the digest of the signed data. This method allows the timestamped data to be digested on the fly
+	 * without being gathered in memory. The digest must be computed with the algorithm returned by {@code #getSignedDataDigestAlgo()}.
+	 *
+	 * @param computedDigest the digest of the timestamped data
+	 * @return true if the digest is the message imprint of the TimeStampToken
+	 */
+	public boolean matchDigest(final byte[] computedDigest) {
+
+		messageImprintData = computedDigest != null;
+		final byte[] timestampDigest = timeStamp.getTimeStampInfo().getMessageImprintDigest();
+		messageImprintIntact = Arrays.equals(computedDigest, timestampDigest);
+		if (!messageImprintIntact) {
+
+			logger.error("Computed digest ({}) on the extracted data from the document : {}", getSignedDataDigestAlgo(),
+					computedDigest == null ? null : Hex.encodeHexString(computedDigest));
+			logger.error("Digest present in TimestampToken: {}", Hex.encodeHexString(timestampDigest));
+		}
+		return messageImprintIntact;
+	}
+
 	/**
 	 * Retrieves the type of the timestamp token.
 	 *
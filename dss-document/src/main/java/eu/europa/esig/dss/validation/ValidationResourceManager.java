@@ -21,19 +21,27 @@
 package eu.europa.esig.dss.validation;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
+import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 
 import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DSSXMLUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.jaxb.diagnostic.DiagnosticData;
 import eu.europa.esig.dss.jaxb.diagnostic.ObjectFactory;
+import eu.europa.esig.dss.validation.policy.EtsiValidationPolicy;
+import eu.europa.esig.dss.validation.policy.ValidationPolicy;
 
 public class ValidationResourceManager {
 
@@ -45,6 +53,19 @@ public class ValidationResourceManager {
 
 	private static JAXBContext jaxbContext;
 
+	private static final int MAX_CACHED_POLICIES = 20;
+
+	/**
+	 * The parsed validation policies by SHA-256 of their content (or by location for the default ones).
+	 */
+	private static final Map<String, ValidationPolicy> validationPolicies = Collections.synchronizedMap(new LinkedHashMap<String, ValidationPolicy>(16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, ValidationPolicy> eldest) {
+			return size() > MAX_CACHED_POLICIES;
+		}
+	});
+
 	static {
 
 		try {
@@ -94,6 +115,56 @@ public class ValidationResourceManager {
 		return null;
 	}
 
+	/**
+	 * This method returns the validation policy corresponding to the constraint file. The policies are parsed once and shared: the same
+	 * content always returns the same instance. If the policyDataStream is null the default policy is returned.
+	 *
+	 * @param policyDataStream
+	 * @return the shared {@code ValidationPolicy} or null if no policy is available
+	 */
+	public static ValidationPolicy loadValidationPolicy(final InputStream policyDataStream) {
+
+		return getValidationPolicy(policyDataStream, defaultPolicyConstraintsLocation);
+	}
+
+	/**
+	 * This method returns the countersignature validation policy corresponding to the constraint file. The policies are parsed once and
+	 * shared. If the policyDataStream is null the default countersignature policy is returned.
+	 *
+	 * @param policyDataStream
+	 * @return the shared {@code ValidationPolicy} or null if no policy is available
+	 */
+	public static ValidationPolicy loadCountersignatureValidationPolicy(final InputStream policyDataStream) {
+
+		return getValidationPolicy(policyDataStream, defaultCountersignaturePolicyConstraintsLocation);
+	}
+
+	private static ValidationPolicy getValidationPolicy(final InputStream policyDataStream, final String defaultLocation) {
+
+		final String key;
+		final byte[] policyData;
+		if (policyDataStream != null) {
+
+			policyData = DSSUtils.toByteArray(policyDataStream);
+			key = Base64.encodeBase64String(DSSUtils.digest(DigestAlgorithm.SHA256, policyData));
+		} else if ((defaultLocation != null) && !defaultLocation.isEmpty()) {
+
+			policyData = null;
+			key = "location:" + defaultLocation;
+		} else {
+			return null;
+		}
+
+		ValidationPolicy validationPolicy = validationPolicies.get(key);
+		if (validationPolicy == null) {
+
+			final Document document = policyData != null ? DSSXMLUtils.buildDOM(policyData) : load(defaultLocation);
+			validationPolicy = new EtsiValidationPolicy(document);
+			validationPolicies.put(key, validationPolicy);
+		}
+		return validationPolicy;
+	}
+
 	/**
 	 * This method loads the data from the resource file into an {@link java.io.InputStream}.
 	 *
@@ -0,0 +1,239 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.client.http.ConditionalDataLoader;
+import eu.europa.esig.dss.validation.SignaturePolicyProvider.PolicyDocument;
+
+public class SignaturePolicyProviderTest {
+
+	private static final String POLICY_URL = "http://policy.example.com/policy.txt";
+
+	private static final byte[] POLICY_BYTES = "Signature policy".getBytes();
+
+	@Test
+	public void documentIsDownloadedOnce() {
+		CountingDataLoader dataLoader = new CountingDataLoader(POLICY_BYTES, "\"v1\"");
+		SignaturePolicyProvider provider = new SignaturePolicyProvider(10);
+
+		PolicyDocument document = provider.getPolicyDocument(POLICY_URL, dataLoader);
+		assertSame(document, provider.getPolicyDocument(POLICY_URL, dataLoader));
+		assertEquals(1, dataLoader.downloads);
+		assertFalse(document.isAsn1Processable());
+		assertEquals(DSSUtils.toHex(DSSUtils.digest(DigestAlgorithm.SHA256, POLICY_BYTES)), document.getDigestHexValue(DigestAlgorithm.SHA256));
+	}
+
+	@Test
+	public void documentIsRevalidated() {
+		CountingDataLoader dataLoader = new CountingDataLoader(POLICY_BYTES, "\"v1\"");
+		SignaturePolicyProvider provider = new SignaturePolicyProvider(10);
+		provider.setRevalidationDelay(-1);
+
+		PolicyDocument document = provider.getPolicyDocument(POLICY_URL, dataLoader);
+		assertSame(document, provider.getPolicyDocument(POLICY_URL, dataLoader));
+		assertEquals(2, dataLoader.requests);
+		assertEquals(1, dataLoader.downloads);
+		assertEquals("\"v1\"", dataLoader.lastETag);
+
+		// a document which cannot be revalidated is still used
+		dataLoader.available = false;
+		assertSame(document, provider.getPolicyDocument(POLICY_URL, dataLoader));
+	}
+
+	@Test
+	public void failedDownloadIsRemembered() {
+		CountingDataLoader dataLoader = new CountingDataLoader(POLICY_BYTES, null);
+		dataLoader.available = false;
+		SignaturePolicyProvider provider = new SignaturePolicyProvider(10);
+
+		for (int ii = 0; ii < 2; ii++) {
+			try {
+				provider.getPolicyDocument(POLICY_URL, dataLoader);
+				fail();
+			} catch (DSSException e) {
+				// expected
+			}
+		}
+		assertEquals(1, dataLoader.requests);
+
+		provider.setFailureDelay(-1);
+		dataLoader.available = true;
+		provider.getPolicyDocument(POLICY_URL, dataLoader);
+		assertEquals(2, dataLoader.requests);
+	}
+
+	@Test
+	public void failureOfAnotherDataLoaderIsNotShared() {
+		CountingDataLoader failingDataLoader = new CountingDataLoader(POLICY_BYTES, null);
+		failingDataLoader.available = false;
+		SignaturePolicyProvider provider = new SignaturePolicyProvider(10);
+
+		try {
+			provider.getPolicyDocument(POLICY_URL, failingDataLoader);
+			fail();
+		} catch (DSSException e) {
+			// expected
+		}
+
+		CountingDataLoader dataLoader = new CountingDataLoader(POLICY_BYTES, null);
+		PolicyDocument document = provider.getPolicyDocument(POLICY_URL, dataLoader);
+		assertEquals(1, dataLoader.requests);
+
+		// the document is now known, whatever the DataLoader
+		assertSame(document, provider.getPolicyDocument(POLICY_URL, failingDataLoader));
+		assertEquals(1, failingDataLoader.requests);
+	}
+
+	@Test
+	public void concurrentRequestsShareOneDownload() throws Exception {
+		final BlockingDataLoader dataLoader = new BlockingDataLoader();
+		final SignaturePolicyProvider provider = new SignaturePolicyProvider(10);
+		final int threads = 4;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<PolicyDocument>> results = new ArrayList<Future<PolicyDocument>>();
+			for (int ii = 0; ii < threads; ii++) {
+				results.add(executor.submit(new Callable<PolicyDocument>() {
+
+					@Override
+					public PolicyDocument call() {
+						return provider.getPolicyDocument(POLICY_URL, dataLoader);
+					}
+				}));
+			}
+			// the download is blocked until the other requests are waiting for it
+			Thread.sleep(200);
+			dataLoader.release.countDown();
+
+			PolicyDocument document = results.get(0).get(10, TimeUnit.SECONDS);
+			for (Future<PolicyDocument> result : results) {
+				assertSame(document, result.get(10, TimeUnit.SECONDS));
+			}
+			assertEquals(1, dataLoader.calls.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class BlockingDataLoader extends CountingDataLoader {
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		BlockingDataLoader() {
+			super(POLICY_BYTES, null);
+		}
+
+		@Override
+		public ConditionalResponse get(final String url, final String previousETag, final String lastModified) {
+			calls.incrementAndGet();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new ConditionalResponse(POLICY_BYTES, null, null);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class CountingDataLoader implements ConditionalDataLoader {
+
+		private final byte[] content;
+
+		private final String eTag;
+
+		private boolean available = true;
+
+		private int requests;
+
+		private int downloads;
+
+		private String lastETag;
+
+		CountingDataLoader(final byte[] content, final String eTag) {
+			this.content = content;
+			this.eTag = eTag;
+		}
+
+		@Override
+		public ConditionalResponse get(final String url, final String previousETag, final String lastModified) {
+			requests++;
+			lastETag = previousETag;
+			if (!available) {
+				throw new DSSException("Connection refused");
+			}
+			if ((eTag != null) && eTag.equals(previousETag)) {
+				return new ConditionalResponse(null, eTag, null);
+			}
+			downloads++;
+			return new ConditionalResponse(content, eTag, null);
+		}
+
+		@Override
+		public byte[] get(final String url) {
+			return get(url, null, null).data;
+		}
+
+		@Override
+		public DataAndUrl get(final List<String> urlStrings) {
+			return new DataAndUrl(get(urlStrings.get(0)), urlStrings.get(0));
+		}
+
+		@Override
+		public byte[] get(final String url, final boolean refresh) {
+			return get(url);
+		}
+
+		@Override
+		public byte[] post(final String url, final byte[] content) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void setContentType(final String contentType) {
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import eu.europa.esig.dss.validation.policy.Constraint;
+import eu.europa.esig.dss.validation.policy.ValidationPolicy;
+
+public class ValidationResourceManagerTest {
+
+	@Test
+	public void sameContentSamePolicy() throws Exception {
+		byte[] policyData = IOUtils.toByteArray(getClass().getResourceAsStream("/policy/constraint.xml"));
+
+		ValidationPolicy policy1 = ValidationResourceManager.loadValidationPolicy(new ByteArrayInputStream(policyData));
+		ValidationPolicy policy2 = ValidationResourceManager.loadValidationPolicy(new ByteArrayInputStream(policyData));
+		assertNotNull(policy1);
+		assertSame(policy1, policy2);
+		assertSame(ValidationResourceManager.loadValidationPolicy(null), ValidationResourceManager.loadValidationPolicy(null));
+		assertNotSame(ValidationResourceManager.loadValidationPolicy(null), ValidationResourceManager.loadCountersignatureValidationPolicy(null));
+	}
+
+	@Test
+	public void sharedConstraintsAreNotModified() throws Exception {
+		ValidationPolicy policy = ValidationResourceManager.loadValidationPolicy(null);
+
+		Constraint constraint = policy.getSigningCertificateKeyUsageConstraint("MainSignature");
+		if (constraint != null) {
+			constraint.getIdentifiers().add("modified");
+			Constraint other = policy.getSigningCertificateKeyUsageConstraint("MainSignature");
+			assertEquals(constraint.getIdentifiers().size() - 1, other.getIdentifiers().size());
+		}
+		assertEquals(policy.getPolicyName(), ValidationResourceManager.loadValidationPolicy(null).getPolicyName());
+	}
+
+}
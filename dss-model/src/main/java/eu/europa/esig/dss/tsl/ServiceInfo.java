@@ -85,6 +85,11 @@ public class ServiceInfo implements Serializable {
 
 	private boolean tlWellSigned;
 
+	/**
+	 * <tsl:TrustServiceStatusList><tsl:SchemeInformation><tsl:TSLSequenceNumber> of the trusted list which defines the service
+	 */
+	private int tlSequenceNumber;
+
 	/**
 	 * <tsl:TrustServiceProvider>
 	 * - <tsl:TSPServices>
@@ -199,6 +204,14 @@ public class ServiceInfo implements Serializable {
 		return tlWellSigned;
 	}
 
+	/**
+	 * @return the sequence number of the trusted list which defines the service
+	 */
+	public int getTlSequenceNumber() {
+
+		return tlSequenceNumber;
+	}
+
 	/**
 	 * @param serviceName
 	 */
@@ -239,6 +252,14 @@ public class ServiceInfo implements Serializable {
 		this.tlWellSigned = tlWellSigned;
 	}
 
+	/**
+	 * @param tlSequenceNumber the sequence number of the trusted list which defines the service
+	 */
+	public void setTlSequenceNumber(int tlSequenceNumber) {
+
+		this.tlSequenceNumber = tlSequenceNumber;
+	}
+
 	/**
 	 * @param tspElectronicAddress
 	 */
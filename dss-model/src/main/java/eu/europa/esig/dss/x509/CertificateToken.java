@@ -27,7 +27,6 @@ import java.security.NoSuchProviderException;
 import java.security.Principal;
 import java.security.PublicKey;
 import java.security.SignatureException;
-import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateExpiredException;
 import java.security.cert.CertificateNotYetValidException;
@@ -42,25 +41,31 @@ import javax.xml.bind.DatatypeConverter;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.EncryptionAlgorithm;
-import eu.europa.esig.dss.Normalizer;
 import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.TokenIdentifier;
 import eu.europa.esig.dss.tsl.KeyUsageBit;
 import eu.europa.esig.dss.tsl.ServiceInfo;
 
 /**
  * Whenever the signature validation process encounters an {@link java.security.cert.X509Certificate} a certificateToken is created.<br>
  * This class encapsulates some frequently used information: a certificate comes from a certain context (Trusted List,
- * CertStore, Signature), has revocation data... To expedite the processing of such information, they are kept in cache.
+ * CertStore, Signature), has revocation data... To expedite the processing of such information, they are kept in cache.<br>
+ * The information extracted from the certificate itself is immutable and shared by all the tokens wrapping the same certificate. The
+ * validation data (issuer, signature check, revocation data, extra info) belongs to the token: a validation works with its own tokens
+ * (see {@link #copyWithoutValidationData()}).
  */
 @SuppressWarnings("serial")
 public class CertificateToken extends Token {
 
-	private String dssId;
+	/**
+	 * The immutable data shared by all the tokens of the same certificate.
+	 */
+	private final CertificateTokenData data;
 
 	/**
 	 * Encapsulated X509 certificate.
 	 */
-	private X509Certificate x509Certificate;
+	private final X509Certificate x509Certificate;
 
 	/**
 	 * This array contains the different sources for this certificate.
@@ -76,40 +81,25 @@ public class CertificateToken extends Token {
 	/**
 	 * The default algorithm used to compute the digest value of this certificate
 	 */
-	private DigestAlgorithm digestAlgorithm = DigestAlgorithm.SHA1;
+	private final DigestAlgorithm digestAlgorithm;
 
-	private EncryptionAlgorithm encryptionAlgorithm;
+	private final EncryptionAlgorithm encryptionAlgorithm;
 
 	/**
 	 * OCSP or CRL revocation data for this token.
 	 */
 	private RevocationToken revocationToken;
 
-	/**
-	 * Indicates if the certificate is self-signed. This attribute stays null till the first call to {@link #isSelfSigned()} function.
-	 */
-	private Boolean selfSigned;
-
 	/**
 	 * Extra information collected during the validation process.
 	 */
 	protected CertificateTokenValidationExtraInfo extraInfo;
 
-	/**
-	 * Normalized X500Principal (BMPString, TeletextString...)
-	 */
-	private X500Principal subjectX500PrincipalNormalized = null;
-
 	/**
 	 * In the case of the XML signature this is the Id associated with the certificate if any.
 	 */
 	private String xmlId;
 
-	/**
-	 * The key usage bits used in the certificate
-	 */
-	private Set<KeyUsageBit> keyUsageBits;
-
 	/**
 	 * This method returns an instance of {@link eu.europa.esig.dss.x509.CertificateToken}.
 	 *
@@ -132,16 +122,42 @@ public class CertificateToken extends Token {
 			throw new NullPointerException("X509 certificate is missing");
 		}
 
-		this.x509Certificate = x509Certificate;
-		this.issuerX500Principal = Normalizer.getNormalizedX500Principal(x509Certificate.getIssuerX500Principal());
-		// The Algorithm OID is used and not the name {@code x509Certificate.getSigAlgName()}
-		this.signatureAlgorithm = SignatureAlgorithm.forOID(x509Certificate.getSigAlgOID());
+		this.data = CertificateTokenData.getInstance(x509Certificate);
+		this.x509Certificate = data.getCertificate();
+		this.issuerX500Principal = data.getIssuerX500Principal();
+		this.signatureAlgorithm = data.getSignatureAlgorithm();
 		this.digestAlgorithm = signatureAlgorithm.getDigestAlgorithm();
 		this.encryptionAlgorithm = signatureAlgorithm.getEncryptionAlgorithm();
 
 		super.extraInfo = this.extraInfo = new CertificateTokenValidationExtraInfo();
 	}
 
+	private CertificateToken(final CertificateToken certificateToken) {
+
+		this.data = certificateToken.data;
+		this.x509Certificate = certificateToken.x509Certificate;
+		this.issuerX500Principal = certificateToken.issuerX500Principal;
+		this.signatureAlgorithm = certificateToken.signatureAlgorithm;
+		this.digestAlgorithm = certificateToken.digestAlgorithm;
+		this.encryptionAlgorithm = certificateToken.encryptionAlgorithm;
+		this.xmlId = certificateToken.xmlId;
+		this.sources.addAll(certificateToken.sources);
+		this.associatedTSPS.addAll(certificateToken.associatedTSPS);
+
+		super.extraInfo = this.extraInfo = new CertificateTokenValidationExtraInfo();
+	}
+
+	/**
+	 * This method returns a new token wrapping the same certificate. The immutable certificate data is shared, the sources and the
+	 * associated trusted services are copied, the validation data (issuer, signature check, revocation data, extra info) is not.
+	 * It allows a validation to work with its own tokens while the certificates are shared between the validations.
+	 *
+	 * @return a new {@code CertificateToken}
+	 */
+	public CertificateToken copyWithoutValidationData() {
+		return new CertificateToken(this);
+	}
+
 	/**
 	 * This method adds the source type of the certificate (what is its origin). Each source is present only once.
 	 *
@@ -168,10 +184,12 @@ public class CertificateToken extends Token {
 	 * Returns a string representation of the unique DSS certificate token identifier.
 	 */
 	public String getDSSIdAsString() {
-		if (dssId == null) {
-			dssId = getDSSId().asXmlId();
-		}
-		return dssId;
+		return data.getDSSIdAsString(this);
+	}
+
+	@Override
+	public TokenIdentifier getDSSId() {
+		return data.getDSSId(this);
 	}
 
 	@Override
@@ -299,12 +317,7 @@ public class CertificateToken extends Token {
 	 */
 	@Override
 	public boolean isSelfSigned() {
-		if (selfSigned == null) {
-			final String n1 = x509Certificate.getSubjectX500Principal().getName(X500Principal.CANONICAL);
-			final String n2 = x509Certificate.getIssuerX500Principal().getName(X500Principal.CANONICAL);
-			selfSigned = n1.equals(n2);
-		}
-		return selfSigned;
+		return data.isSelfSigned();
 	}
 
 	/**
@@ -323,11 +336,19 @@ public class CertificateToken extends Token {
 	 */
 	@Override
 	public byte[] getEncoded() {
-		try {
-			return x509Certificate.getEncoded();
-		} catch (CertificateEncodingException e) {
-			throw new DSSException(e);
-		}
+		return data.getEncoded();
+	}
+
+	/**
+	 * Returns the digest of the encoded certificate. The value is computed once for each algorithm and shared by all the tokens of
+	 * the same certificate.
+	 *
+	 * @param digestAlgorithm
+	 *            the digest algorithm to use
+	 * @return the digest value of the encoded certificate
+	 */
+	public byte[] getDigest(final DigestAlgorithm digestAlgorithm) {
+		return data.getDigest(digestAlgorithm);
 	}
 
 	/**
@@ -369,25 +390,47 @@ public class CertificateToken extends Token {
 	 * @return
 	 */
 	public X500Principal getSubjectX500Principal() {
-		if (subjectX500PrincipalNormalized == null) {
-			subjectX500PrincipalNormalized = Normalizer.getNormalizedX500Principal(x509Certificate.getSubjectX500Principal());
-			;
-		}
-		return subjectX500PrincipalNormalized;
+		return data.getSubjectX500Principal();
+	}
+
+	/**
+	 * The SHA-256 digest of the public key, used to identify the key in the {@link SignatureVerificationCache}.
+	 *
+	 * @return the digest of the public key (the array must not be modified)
+	 */
+	byte[] getPublicKeyDigest() {
+		return data.getPublicKeyDigest();
 	}
 
 	@Override
 	public boolean isSignedBy(final CertificateToken issuerToken) {
 		signatureValid = false;
 		signatureInvalidityReason = "";
+
+		final SignatureVerificationCache verificationCache = SignatureVerificationCache.getInstance();
+		final byte[] certificateDigest = data.getDigest(DigestAlgorithm.SHA256);
+		final SignatureVerificationCache.VerificationResult verificationResult = verificationCache.get(certificateDigest, issuerToken);
+		if (verificationResult == null) {
+
+			verifySignature(issuerToken);
+			verificationCache.put(certificateDigest, issuerToken, signatureValid, signatureInvalidityReason);
+		} else {
+
+			signatureValid = verificationResult.isSignatureValid();
+			signatureInvalidityReason = verificationResult.getSignatureInvalidityReason();
+		}
+		if (signatureValid && !isSelfSigned()) {
+			this.issuerToken = issuerToken;
+		}
+		return signatureValid;
+	}
+
+	private void verifySignature(final CertificateToken issuerToken) {
 		try {
 
 			final PublicKey publicKey = issuerToken.getCertificate().getPublicKey();
 			x509Certificate.verify(publicKey);
 			signatureValid = true;
-			if (!isSelfSigned()) {
-				this.issuerToken = issuerToken;
-			}
 		} catch (InvalidKeyException e) {
 			signatureInvalidityReason = "InvalidKeyException - on incorrect key.";
 		} catch (CertificateException e) {
@@ -399,7 +442,6 @@ public class CertificateToken extends Token {
 		} catch (NoSuchProviderException e) { // if there's no default provider.
 			throw new DSSException(e);
 		}
-		return signatureValid;
 	}
 
 	/**
@@ -568,18 +610,7 @@ public class CertificateToken extends Token {
 	 * @return {@code List} of {@code KeyUsageBit}s of different certificate's key usages
 	 */
 	public Set<KeyUsageBit> getKeyUsageBits() {
-		if (keyUsageBits == null) {
-			boolean[] keyUsageArray = x509Certificate.getKeyUsage();
-			keyUsageBits = new HashSet<KeyUsageBit>();
-			if (keyUsageArray != null) {
-				for (KeyUsageBit keyUsageBit : KeyUsageBit.values()) {
-					if (keyUsageArray[keyUsageBit.getIndex()]) {
-						keyUsageBits.add(keyUsageBit);
-					}
-				}
-			}
-		}
-		return keyUsageBits;
+		return data.getKeyUsageBits();
 	}
 
 	public byte[] getSignature() {
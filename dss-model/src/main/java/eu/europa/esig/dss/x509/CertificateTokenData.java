@@ -0,0 +1,274 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509;
+
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.security.auth.x500.X500Principal;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.Normalizer;
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.TokenIdentifier;
+import eu.europa.esig.dss.tsl.KeyUsageBit;
+
+/**
+ * This class contains the immutable information extracted from an {@link X509Certificate}: DSS identifier, normalized
+ * principals, algorithms, key usage bits and digests. The instances are interned: all {@link CertificateToken}s wrapping
+ * the same certificate share the same data, whatever the validation they belong to. This class is thread-safe.
+ */
+@SuppressWarnings("serial")
+final class CertificateTokenData implements Serializable {
+
+	/**
+	 * The interned instances, by encoded certificate. An entry is removed when the data is not used anymore.
+	 */
+	private static final ConcurrentMap<ByteBuffer, InternedReference> INTERNED = new ConcurrentHashMap<ByteBuffer, InternedReference>();
+
+	/**
+	 * The references of the collected instances, to be removed from {@code INTERNED}
+	 */
+	private static final ReferenceQueue<CertificateTokenData> COLLECTED = new ReferenceQueue<CertificateTokenData>();
+
+	private final X509Certificate x509Certificate;
+
+	private final byte[] encoded;
+
+	/**
+	 * The DSS identifier (SHA-256 of the encoded certificate), computed on the first use
+	 */
+	private volatile TokenIdentifier dssId;
+
+	private volatile String dssIdAsString;
+
+	private final X500Principal issuerX500Principal;
+
+	private final X500Principal subjectX500Principal;
+
+	private final SignatureAlgorithm signatureAlgorithm;
+
+	private final boolean selfSigned;
+
+	private final Set<KeyUsageBit> keyUsageBits;
+
+	/**
+	 * The digests of the certificate already computed
+	 */
+	private final ConcurrentMap<DigestAlgorithm, byte[]> digests = new ConcurrentHashMap<DigestAlgorithm, byte[]>();
+
+	/**
+	 * The SHA-256 digest of the encoded public key, computed on the first use
+	 */
+	private volatile byte[] publicKeyDigest;
+
+	private CertificateTokenData(final X509Certificate x509Certificate, final byte[] encoded) {
+
+		this.x509Certificate = x509Certificate;
+		this.encoded = encoded;
+		this.issuerX500Principal = Normalizer.getNormalizedX500Principal(x509Certificate.getIssuerX500Principal());
+		this.subjectX500Principal = Normalizer.getNormalizedX500Principal(x509Certificate.getSubjectX500Principal());
+		// The Algorithm OID is used and not the name {@code x509Certificate.getSigAlgName()}
+		this.signatureAlgorithm = SignatureAlgorithm.forOID(x509Certificate.getSigAlgOID());
+
+		final String n1 = x509Certificate.getSubjectX500Principal().getName(X500Principal.CANONICAL);
+		final String n2 = x509Certificate.getIssuerX500Principal().getName(X500Principal.CANONICAL);
+		this.selfSigned = n1.equals(n2);
+
+		final Set<KeyUsageBit> keyUsages = EnumSet.noneOf(KeyUsageBit.class);
+		final boolean[] keyUsageArray = x509Certificate.getKeyUsage();
+		if (keyUsageArray != null) {
+			for (final KeyUsageBit keyUsageBit : KeyUsageBit.values()) {
+				if ((keyUsageBit.getIndex() < keyUsageArray.length) && keyUsageArray[keyUsageBit.getIndex()]) {
+					keyUsages.add(keyUsageBit);
+				}
+			}
+		}
+		this.keyUsageBits = Collections.unmodifiableSet(keyUsages);
+	}
+
+	/**
+	 * This method returns the shared data of the given certificate. The data is created the first time the certificate is
+	 * encountered.
+	 *
+	 * @param x509Certificate
+	 *            the certificate
+	 * @return the {@code CertificateTokenData} of the certificate
+	 */
+	static CertificateTokenData getInstance(final X509Certificate x509Certificate) {
+
+		final byte[] encoded;
+		try {
+			encoded = x509Certificate.getEncoded();
+		} catch (CertificateEncodingException e) {
+			throw new DSSException(e);
+		}
+		removeCollectedInstances();
+		final ByteBuffer key = ByteBuffer.wrap(encoded);
+		InternedReference reference = INTERNED.get(key);
+		CertificateTokenData data = (reference == null) ? null : reference.get();
+		if (data != null) {
+			return data;
+		}
+		final CertificateTokenData newData = new CertificateTokenData(x509Certificate, encoded);
+		final InternedReference newReference = new InternedReference(newData, key);
+		while (true) {
+
+			reference = INTERNED.putIfAbsent(key, newReference);
+			if (reference == null) {
+				return newData;
+			}
+			data = reference.get();
+			if (data != null) {
+				return data;
+			}
+			// the previous instance was collected
+			if (INTERNED.replace(key, reference, newReference)) {
+				return newData;
+			}
+		}
+	}
+
+	private static void removeCollectedInstances() {
+
+		Reference<? extends CertificateTokenData> reference;
+		while ((reference = COLLECTED.poll()) != null) {
+			INTERNED.remove(((InternedReference) reference).key, reference);
+		}
+	}
+
+	X509Certificate getCertificate() {
+		return x509Certificate;
+	}
+
+	byte[] getEncoded() {
+		return encoded.clone();
+	}
+
+	/**
+	 * @param token
+	 *            a token wrapping the certificate, used to compute the identifier on the first use
+	 * @return the DSS identifier of the certificate
+	 */
+	TokenIdentifier getDSSId(final Token token) {
+
+		TokenIdentifier id = dssId;
+		if (id == null) {
+			id = new TokenIdentifier(token);
+			dssId = id;
+		}
+		return id;
+	}
+
+	String getDSSIdAsString(final Token token) {
+
+		String id = dssIdAsString;
+		if (id == null) {
+			id = getDSSId(token).asXmlId();
+			dssIdAsString = id;
+		}
+		return id;
+	}
+
+	X500Principal getIssuerX500Principal() {
+		return issuerX500Principal;
+	}
+
+	X500Principal getSubjectX500Principal() {
+		return subjectX500Principal;
+	}
+
+	SignatureAlgorithm getSignatureAlgorithm() {
+		return signatureAlgorithm;
+	}
+
+	boolean isSelfSigned() {
+		return selfSigned;
+	}
+
+	Set<KeyUsageBit> getKeyUsageBits() {
+		return keyUsageBits;
+	}
+
+	byte[] getDigest(final DigestAlgorithm digestAlgorithm) {
+
+		byte[] digest = digests.get(digestAlgorithm);
+		if (digest == null) {
+
+			try {
+				final MessageDigest messageDigest = MessageDigest.getInstance(digestAlgorithm.getOid());
+				digest = messageDigest.digest(encoded);
+			} catch (NoSuchAlgorithmException e) {
+				throw new DSSException("Digest algorithm '" + digestAlgorithm.getName() + "' error: " + e.getMessage(), e);
+			}
+			digests.putIfAbsent(digestAlgorithm, digest);
+		}
+		return digest.clone();
+	}
+
+	/**
+	 * The returned array must not be modified.
+	 *
+	 * @return the SHA-256 digest of the encoded public key
+	 */
+	byte[] getPublicKeyDigest() {
+
+		byte[] digest = publicKeyDigest;
+		if (digest == null) {
+
+			try {
+				final MessageDigest messageDigest = MessageDigest.getInstance(DigestAlgorithm.SHA256.getOid());
+				digest = messageDigest.digest(x509Certificate.getPublicKey().getEncoded());
+			} catch (NoSuchAlgorithmException e) {
+				throw new DSSException(e);
+			}
+			publicKeyDigest = digest;
+		}
+		return digest;
+	}
+
+	/**
+	 * A weak reference to an interned instance, which knows its key
+	 */
+	private static final class InternedReference extends WeakReference<CertificateTokenData> {
+
+		private final ByteBuffer key;
+
+		InternedReference(final CertificateTokenData data, final ByteBuffer key) {
+			super(data, COLLECTED);
+			this.key = key;
+		}
+	}
+
+}
@@ -0,0 +1,233 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class memorizes the outcome of the signature verifications (certificate, OCSP response) done with the public
+ * key of an issuer certificate. An entry is identified by the SHA-256 digest of the signed object and the SHA-256 digest
+ * of the issuer public key: the same object signed by the same key gives always the same outcome, the public key
+ * operation is done only once for the whole process. The digest of the signed object is computed once per token.<br>
+ * The CRLs are not memorized here: the digest of a whole CRL costs as much as the verification of its signature, the
+ * verified CRLs are kept by the CRL sources instead.<br>
+ * The number of entries is bounded, the least recently used entries are removed first. This class is thread-safe.
+ */
+public final class SignatureVerificationCache {
+
+	/**
+	 * The default maximum number of entries
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private static final SignatureVerificationCache INSTANCE = new SignatureVerificationCache(DEFAULT_MAX_SIZE);
+
+	private final Map<Key, VerificationResult> results;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private volatile boolean enabled = true;
+
+	/**
+	 * This constructor creates a cache with the given maximum number of entries.
+	 *
+	 * @param maxSize
+	 *            the maximum number of entries
+	 */
+	public SignatureVerificationCache(final int maxSize) {
+		results = new LinkedHashMap<Key, VerificationResult>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, VerificationResult> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache shared by the whole process.
+	 *
+	 * @return the process-wide {@code SignatureVerificationCache}
+	 */
+	public static SignatureVerificationCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * This method returns the outcome of a previous verification of the signed object with the public key of the issuer.
+	 *
+	 * @param signedObjectDigest
+	 *            the SHA-256 digest of the signed object
+	 * @param issuerToken
+	 *            the candidate issuer
+	 * @return the memorized {@code VerificationResult} or null if the signature was not verified yet
+	 */
+	public VerificationResult get(final byte[] signedObjectDigest, final CertificateToken issuerToken) {
+
+		if (!enabled) {
+			return null;
+		}
+		final VerificationResult result;
+		synchronized (results) {
+			result = results.get(new Key(signedObjectDigest, issuerToken.getPublicKeyDigest()));
+		}
+		if (result == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return result;
+	}
+
+	/**
+	 * This method memorizes the outcome of the verification of the signed object with the public key of the issuer.
+	 *
+	 * @param signedObjectDigest
+	 *            the SHA-256 digest of the signed object
+	 * @param issuerToken
+	 *            the issuer used to verify the signature
+	 * @param signatureValid
+	 *            true if the signature is valid
+	 * @param signatureInvalidityReason
+	 *            the reason of the failure or null
+	 */
+	public void put(final byte[] signedObjectDigest, final CertificateToken issuerToken, final boolean signatureValid, final String signatureInvalidityReason) {
+
+		if (!enabled) {
+			return;
+		}
+		final Key key = new Key(signedObjectDigest, issuerToken.getPublicKeyDigest());
+		final VerificationResult result = new VerificationResult(signatureValid, signatureInvalidityReason);
+		synchronized (results) {
+			results.put(key, result);
+		}
+	}
+
+	/**
+	 * Allows to disable the cache: all verifications are done again.
+	 *
+	 * @param enabled
+	 *            false to disable the cache
+	 */
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	/**
+	 * Removes all the entries and resets the counters.
+	 */
+	public void clear() {
+		synchronized (results) {
+			results.clear();
+		}
+		hitCount.set(0);
+		missCount.set(0);
+	}
+
+	/**
+	 * @return the number of verifications found in the cache
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of verifications not found in the cache
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the current number of entries
+	 */
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+
+	/**
+	 * The outcome of a signature verification.
+	 */
+	public static final class VerificationResult {
+
+		private final boolean signatureValid;
+
+		private final String signatureInvalidityReason;
+
+		VerificationResult(final boolean signatureValid, final String signatureInvalidityReason) {
+			this.signatureValid = signatureValid;
+			this.signatureInvalidityReason = (signatureInvalidityReason == null) ? "" : signatureInvalidityReason;
+		}
+
+		public boolean isSignatureValid() {
+			return signatureValid;
+		}
+
+		public String getSignatureInvalidityReason() {
+			return signatureInvalidityReason;
+		}
+	}
+
+	private static final class Key {
+
+		private final byte[] signedObjectDigest;
+
+		private final byte[] publicKeyDigest;
+
+		private final int hashCode;
+
+		Key(final byte[] signedObjectDigest, final byte[] publicKeyDigest) {
+			this.signedObjectDigest = signedObjectDigest;
+			this.publicKeyDigest = publicKeyDigest;
+			this.hashCode = (31 * Arrays.hashCode(signedObjectDigest)) + Arrays.hashCode(publicKeyDigest);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return Arrays.equals(signedObjectDigest, other.signedObjectDigest) && Arrays.equals(publicKeyDigest, other.publicKeyDigest);
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pades.signature;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * The result of the signature of one document by {@code PAdESService#signDocuments}: the signed document or the reason of the failure.
+ */
+public class PAdESBatchResult {
+
+	private final DSSDocument document;
+
+	private final DSSDocument signedDocument;
+
+	private final DSSException exception;
+
+	PAdESBatchResult(final DSSDocument document, final DSSDocument signedDocument) {
+		this.document = document;
+		this.signedDocument = signedDocument;
+		this.exception = null;
+	}
+
+	PAdESBatchResult(final DSSDocument document, final DSSException exception) {
+		this.document = document;
+		this.signedDocument = null;
+		this.exception = exception;
+	}
+
+	/**
+	 * @return the document to be signed
+	 */
+	public DSSDocument getDocument() {
+		return document;
+	}
+
+	/**
+	 * @return the signed document or null if the signature failed
+	 */
+	public DSSDocument getSignedDocument() {
+		return signedDocument;
+	}
+
+	/**
+	 * @return the cause of the failure or null if the document is signed
+	 */
+	public DSSException getException() {
+		return exception;
+	}
+
+	public boolean isSigned() {
+		return signedDocument != null;
+	}
+
+}
@@ -111,7 +111,7 @@ class PAdESLevelBaselineLT implements SignatureExtension<PAdESSignatureParameter
 			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
 			final PDFSignatureService signatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
-			signatureService.addDssDictionary(document.openStream(), baos, dssDictionary);
+			signatureService.addDssDictionary(document, baos, dssDictionary);
 
 			final InMemoryDocument inMemoryDocument = new InMemoryDocument(baos.toByteArray());
 			inMemoryDocument.setMimeType(MimeType.PDF);
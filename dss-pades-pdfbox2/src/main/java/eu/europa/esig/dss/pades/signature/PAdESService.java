@@ -21,7 +21,17 @@
 package eu.europa.esig.dss.pades.signature;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
 import org.bouncycastle.cms.CMSProcessableByteArray;
@@ -47,8 +57,11 @@ import eu.europa.esig.dss.cades.signature.CustomContentSigner;
 import eu.europa.esig.dss.pades.PAdESSignatureParameters;
 import eu.europa.esig.dss.pdf.PDFSignatureService;
 import eu.europa.esig.dss.pdf.PdfObjFactory;
+import eu.europa.esig.dss.pdf.PdfPreparedSignature;
 import eu.europa.esig.dss.signature.AbstractSignatureService;
 import eu.europa.esig.dss.signature.SignatureExtension;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.SignatureTokenConnection;
 import eu.europa.esig.dss.validation.CertificateVerifier;
 
 /**
@@ -60,6 +73,10 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 
 	private final PadesCMSSignedDataBuilder padesCMSSignedDataBuilder;
 
+	private ExecutorService executorService;
+
+	private int batchWindow = 2 * Runtime.getRuntime().availableProcessors();
+
 	/**
 	 * This is the constructor to create an instance of the {@code PAdESService}. A certificate verifier must be provided.
 	 *
@@ -72,6 +89,16 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		LOG.debug("+ PAdESService created");
 	}
 
+	/**
+	 * This method allows to set the {@code ExecutorService} used by {@link #signDocuments(List, PAdESSignatureParameters, SignatureTokenConnection, DSSPrivateKeyEntry)}
+	 * to prepare and complete the signatures. When not set, a pool of one thread per processor is created for each batch.
+	 *
+	 * @param executorService {@code ExecutorService}
+	 */
+	public void setExecutorService(final ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
 	private SignatureExtension<PAdESSignatureParameters> getExtensionProfile(SignatureLevel signatureLevel) {
 		switch (signatureLevel) {
 			case PAdES_BASELINE_B:
@@ -92,13 +119,46 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 
 		assertSigningDateInCertificateValidityRange(parameters);
 
-		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
-		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId());
+		final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
+		final byte[] messageDigest = pdfSignatureService.digest(toSignDocument, parameters, parameters.getDigestAlgorithm());
+		return getDataToSign(messageDigest, parameters);
+	}
+
+	/**
+	 * Builds the signature revision of the document once : the returned {@code PdfPreparedSignature} is used with
+	 * {@link #getDataToSign(PdfPreparedSignature, PAdESSignatureParameters)} and
+	 * {@link #signDocument(PdfPreparedSignature, PAdESSignatureParameters, SignatureValue)}, which do not parse the PDF anymore. The parameters
+	 * must not change between these calls.
+	 *
+	 * @param toSignDocument the PDF document to sign
+	 * @param parameters set of the driving signing parameters
+	 * @return the prepared signature
+	 * @throws DSSException
+	 */
+	public PdfPreparedSignature prepareSignature(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters) throws DSSException {
+
+		assertSigningDateInCertificateValidityRange(parameters);
 
 		final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
-		final InputStream inputStream = toSignDocument.openStream();
-		final byte[] messageDigest = pdfSignatureService.digest(inputStream, parameters, parameters.getDigestAlgorithm());
-		IOUtils.closeQuietly(inputStream);
+		return pdfSignatureService.prepare(toSignDocument, parameters, parameters.getDigestAlgorithm());
+	}
+
+	/**
+	 * Returns the data to be signed for a prepared signature.
+	 *
+	 * @param preparedSignature the result of {@link #prepareSignature(DSSDocument, PAdESSignatureParameters)}
+	 * @param parameters set of the driving signing parameters
+	 * @return the data to be signed
+	 * @throws DSSException
+	 */
+	public ToBeSigned getDataToSign(final PdfPreparedSignature preparedSignature, final PAdESSignatureParameters parameters) throws DSSException {
+		return getDataToSign(preparedSignature.getDigest(), parameters);
+	}
+
+	private ToBeSigned getDataToSign(final byte[] messageDigest, final PAdESSignatureParameters parameters) throws DSSException {
+
+		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
+		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId());
 
 		SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = padesCMSSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, messageDigest);
 
@@ -114,16 +174,259 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 
 	@Override
 	public DSSDocument signDocument(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters, final SignatureValue signatureValue) throws DSSException {
+		return signDocument(prepareSignature(toSignDocument, parameters), parameters, signatureValue);
+	}
+
+	/**
+	 * Signs a prepared signature : the CMS signature is written in the placeholder of the prepared revision without parsing the PDF again.
+	 *
+	 * @param preparedSignature the result of {@link #prepareSignature(DSSDocument, PAdESSignatureParameters)}
+	 * @param parameters set of the driving signing parameters
+	 * @param signatureValue the signature value of the data returned by {@link #getDataToSign(PdfPreparedSignature, PAdESSignatureParameters)}
+	 * @return the signed document
+	 * @throws DSSException
+	 */
+	public DSSDocument signDocument(final PdfPreparedSignature preparedSignature, final PAdESSignatureParameters parameters, final SignatureValue signatureValue)
+			throws DSSException {
 
 		assertSigningDateInCertificateValidityRange(parameters);
 
-		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
-		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId(), signatureValue.getValue());
+		final DSSDocument signature = completeSignature(preparedSignature, parameters, signatureValue);
+		parameters.reinitDeterministicId();
+		return signature;
+	}
+
+	private DSSDocument completeSignature(final PdfPreparedSignature preparedSignature, final PAdESSignatureParameters parameters, final SignatureValue signatureValue)
+			throws DSSException {
 
 		final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
-		InputStream inputStream = toSignDocument.openStream();
-		final byte[] messageDigest = pdfSignatureService.digest(inputStream, parameters, parameters.getDigestAlgorithm());
-		IOUtils.closeQuietly(inputStream);
+		final byte[] encodedData = generateCMSSignedData(preparedSignature.getDigest(), parameters, signatureValue);
+
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		pdfSignatureService.sign(preparedSignature, encodedData, byteArrayOutputStream);
+		DSSDocument signature = new InMemoryDocument(byteArrayOutputStream.toByteArray());
+		signature.setMimeType(MimeType.PDF);
+
+		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
+		final SignatureExtension<PAdESSignatureParameters> extension = getExtensionProfile(signatureLevel);
+		if ((signatureLevel != SignatureLevel.PAdES_BASELINE_B) && (signatureLevel != SignatureLevel.PAdES_BASELINE_T) && (extension != null)) {
+			signature = extension.extendSignatures(signature, parameters);
+		}
+
+		signature.setName(DSSUtils.getFinalFileName(preparedSignature.getDocument(), SigningOperation.SIGN, parameters.getSignatureLevel()));
+		return signature;
+	}
+
+	/**
+	 * Signs a list of PDF documents with the same parameters and the same key. The signature revisions are prepared and completed in parallel
+	 * while the signature values are computed one after the other with the given token connection : the throughput is bounded by the token.
+	 * At most {@link #setBatchWindow(int) batchWindow} documents are prepared ahead and as many signed documents are waiting to be collected,
+	 * so the memory used does not depend on the number of documents.
+	 * A failure only affects the concerned document, the result of each document is returned in the order of {@code toSignDocuments}.
+	 *
+	 * @param toSignDocuments the PDF documents to sign
+	 * @param parameters set of the driving signing parameters (shared by all the documents, not modified during the batch)
+	 * @param signatureToken the connection to the token holding the signing key
+	 * @param privateKey the signing key
+	 * @return the result of the signature of each document
+	 * @throws DSSException if the parameters are not valid
+	 */
+	public List<PAdESBatchResult> signDocuments(final List<DSSDocument> toSignDocuments, final PAdESSignatureParameters parameters,
+			final SignatureTokenConnection signatureToken, final DSSPrivateKeyEntry privateKey) throws DSSException {
+
+		assertSigningDateInCertificateValidityRange(parameters);
+		// the lazy deterministic id is computed here : the tasks only read it
+		parameters.getDeterministicId();
+
+		final boolean ownExecutor = executorService == null;
+		final ExecutorService executor = ownExecutor ? Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()) : executorService;
+		final LinkedList<Future<PdfPreparedSignature>> preparations = new LinkedList<Future<PdfPreparedSignature>>();
+		final LinkedList<PendingSignature> completions = new LinkedList<PendingSignature>();
+		try {
+			final List<PAdESBatchResult> results = new ArrayList<PAdESBatchResult>();
+			int prepared = 0;
+			for (final DSSDocument toSignDocument : toSignDocuments) {
+				while ((prepared < toSignDocuments.size()) && (preparations.size() < batchWindow)) {
+					preparations.add(submitPreparation(executor, toSignDocuments.get(prepared++), parameters));
+				}
+
+				// the token is used by this thread only, the completion of the previous documents goes on meanwhile
+				final PendingSignature pending = new PendingSignature(toSignDocument);
+				try {
+					final PdfPreparedSignature preparedSignature = getResult(preparations.removeFirst());
+					final ToBeSigned dataToSign = getDataToSign(preparedSignature.getDigest(), parameters);
+					final SignatureValue signatureValue = signatureToken.sign(dataToSign, parameters.getDigestAlgorithm(), privateKey);
+					pending.completion = executor.submit(new Callable<DSSDocument>() {
+						@Override
+						public DSSDocument call() throws Exception {
+							return completeSignature(preparedSignature, parameters, signatureValue);
+						}
+					});
+				} catch (DSSException e) {
+					pending.failure = e;
+				}
+				completions.add(pending);
+
+				while (completions.size() > batchWindow) {
+					results.add(collect(completions.removeFirst()));
+				}
+			}
+			while (!completions.isEmpty()) {
+				results.add(collect(completions.removeFirst()));
+			}
+			return results;
+		} finally {
+			// on an unexpected failure, the running tasks must not use the parameters after the deterministic id is reset
+			for (final Future<PdfPreparedSignature> preparation : preparations) {
+				awaitQuietly(preparation);
+			}
+			for (final PendingSignature pending : completions) {
+				awaitQuietly(pending.completion);
+			}
+			if (ownExecutor) {
+				executor.shutdown();
+			}
+			parameters.reinitDeterministicId();
+		}
+	}
+
+	/**
+	 * This method allows to set the number of documents prepared ahead (and of signed documents waiting to be collected) by
+	 * {@link #signDocuments(List, PAdESSignatureParameters, SignatureTokenConnection, DSSPrivateKeyEntry)}. The default value is twice the number
+	 * of processors.
+	 *
+	 * @param batchWindow the maximum number of documents in flight at each step of the batch
+	 */
+	public void setBatchWindow(final int batchWindow) {
+		if (batchWindow < 1) {
+			throw new IllegalArgumentException("The batch window must be positive : " + batchWindow);
+		}
+		this.batchWindow = batchWindow;
+	}
+
+	private Future<PdfPreparedSignature> submitPreparation(final ExecutorService executor, final DSSDocument toSignDocument,
+			final PAdESSignatureParameters parameters) {
+		return executor.submit(new Callable<PdfPreparedSignature>() {
+			@Override
+			public PdfPreparedSignature call() throws Exception {
+				final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
+				return pdfSignatureService.prepare(toSignDocument, parameters, parameters.getDigestAlgorithm());
+			}
+		});
+	}
+
+	private PAdESBatchResult collect(final PendingSignature pending) {
+		DSSException failure = pending.failure;
+		if (failure == null) {
+			try {
+				return new PAdESBatchResult(pending.document, getResult(pending.completion));
+			} catch (DSSException e) {
+				failure = e;
+			}
+		}
+		LOG.warn("Unable to sign the document '" + pending.document.getName() + "' : " + failure.getMessage());
+		return new PAdESBatchResult(pending.document, failure);
+	}
+
+	private void awaitQuietly(final Future<?> future) {
+		if (future == null) {
+			return;
+		}
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// already reported, or the batch failed
+		}
+	}
+
+	/**
+	 * A document of a batch : either the completion of its signature is running, or it failed
+	 */
+	private static class PendingSignature {
+
+		private final DSSDocument document;
+
+		private Future<DSSDocument> completion;
+
+		private DSSException failure;
+
+		PendingSignature(final DSSDocument document) {
+			this.document = document;
+		}
+	}
+
+	private <T> T getResult(final Future<T> future) throws DSSException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof DSSException) {
+				throw (DSSException) e.getCause();
+			}
+			throw new DSSException(e.getCause());
+		}
+	}
+
+	/**
+	 * Signs the document and writes the signed PDF to the given {@code OutputStream} without keeping it in memory. With a {@code FileDocument}
+	 * the source PDF is read with random access, so the memory used does not depend on the size of the document. The LT and LTA levels need to
+	 * re-read the signed document : they are produced in memory before being written to {@code signedStream}.
+	 *
+	 * @param toSignDocument the PDF document to sign
+	 * @param parameters set of the driving signing parameters
+	 * @param signatureValue the signature value of the data returned by {@code getDataToSign}
+	 * @param signedStream the stream receiving the signed PDF (not closed by this method)
+	 * @throws DSSException
+	 */
+	public void signDocument(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters, final SignatureValue signatureValue, final OutputStream signedStream)
+			throws DSSException {
+		signDocument(prepareSignature(toSignDocument, parameters), parameters, signatureValue, signedStream);
+	}
+
+	/**
+	 * Signs a prepared signature and writes the signed PDF to the given {@code OutputStream}.
+	 *
+	 * @param preparedSignature the result of {@link #prepareSignature(DSSDocument, PAdESSignatureParameters)}
+	 * @param parameters set of the driving signing parameters
+	 * @param signatureValue the signature value of the data returned by {@link #getDataToSign(PdfPreparedSignature, PAdESSignatureParameters)}
+	 * @param signedStream the stream receiving the signed PDF (not closed by this method)
+	 * @throws DSSException
+	 * @see #signDocument(DSSDocument, PAdESSignatureParameters, SignatureValue, OutputStream)
+	 */
+	public void signDocument(final PdfPreparedSignature preparedSignature, final PAdESSignatureParameters parameters, final SignatureValue signatureValue,
+			final OutputStream signedStream) throws DSSException {
+
+		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
+		if ((signatureLevel != SignatureLevel.PAdES_BASELINE_B) && (signatureLevel != SignatureLevel.PAdES_BASELINE_T)) {
+			final DSSDocument signedDocument = signDocument(preparedSignature, parameters, signatureValue);
+			final InputStream inputStream = signedDocument.openStream();
+			try {
+				IOUtils.copy(inputStream, signedStream);
+			} catch (IOException e) {
+				throw new DSSException(e);
+			} finally {
+				IOUtils.closeQuietly(inputStream);
+			}
+			return;
+		}
+
+		assertSigningDateInCertificateValidityRange(parameters);
+
+		final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
+		final byte[] encodedData = generateCMSSignedData(preparedSignature.getDigest(), parameters, signatureValue);
+		pdfSignatureService.sign(preparedSignature, encodedData, signedStream);
+		parameters.reinitDeterministicId();
+	}
+
+	private byte[] generateCMSSignedData(final byte[] messageDigest, final PAdESSignatureParameters parameters, final SignatureValue signatureValue)
+			throws DSSException {
+
+		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
+		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId(), signatureValue.getValue());
 
 		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = padesCMSSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, messageDigest);
 
@@ -132,29 +435,13 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		final CMSProcessableByteArray content = new CMSProcessableByteArray(messageDigest);
 		CMSSignedData data = CMSUtils.generateDetachedCMSSignedData(generator, content);
 
-		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
-		if (signatureLevel != SignatureLevel.PAdES_BASELINE_B) {
+		if (parameters.getSignatureLevel() != SignatureLevel.PAdES_BASELINE_B) {
 			// use an embedded timestamp
 			CAdESLevelBaselineT cadesLevelBaselineT = new CAdESLevelBaselineT(tspSource, false);
 			data = cadesLevelBaselineT.extendCMSSignatures(data, parameters);
 		}
 
-		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-		final byte[] encodedData = CMSUtils.getEncoded(data);
-		inputStream = toSignDocument.openStream();
-		pdfSignatureService.sign(inputStream, encodedData, byteArrayOutputStream, parameters, parameters.getDigestAlgorithm());
-		IOUtils.closeQuietly(inputStream);
-		DSSDocument signature = new InMemoryDocument(byteArrayOutputStream.toByteArray());
-		signature.setMimeType(MimeType.PDF);
-
-		final SignatureExtension<PAdESSignatureParameters> extension = getExtensionProfile(signatureLevel);
-		if ((signatureLevel != SignatureLevel.PAdES_BASELINE_B) && (signatureLevel != SignatureLevel.PAdES_BASELINE_T) && (extension != null)) {
-			signature = extension.extendSignatures(signature, parameters);
-		}
-
-		parameters.reinitDeterministicId();
-		signature.setName(DSSUtils.getFinalFileName(toSignDocument, SigningOperation.SIGN, parameters.getSignatureLevel()));
-		return signature;
+		return CMSUtils.getEncoded(data);
 	}
 
 	@Override
@@ -284,7 +284,7 @@ public class PAdESSignature extends DefaultAdvancedSignature {
 	}
 
 	private TimestampReference createCertificateTimestampReference(CertificateToken certificate) {
-		final byte[] certificateDigest = DSSUtils.digest(DigestAlgorithm.SHA1, certificate.getEncoded());
+		final byte[] certificateDigest = certificate.getDigest(DigestAlgorithm.SHA1);
 		final TimestampReference reference = new TimestampReference(DigestAlgorithm.SHA1.name(), Base64.encodeBase64String(certificateDigest));
 		return reference;
 	}
@@ -336,18 +336,17 @@ public class PAdESSignature extends DefaultAdvancedSignature {
 	public byte[] getSignatureTimestampData(final TimestampToken timestampToken, String canonicalizationMethod) {
 		if (cadesSignatureTimestamps.contains(timestampToken)) {
 			return cadesSignature.getSignatureTimestampData(timestampToken, null);
+		}
+		return getDocTimestampInfo(timestampToken).getSignedDocumentBytes();
+	}
+
+	@Override
+	protected void matchSignatureTimestampData(final TimestampToken timestampToken) {
+		if (cadesSignatureTimestamps.contains(timestampToken)) {
+			super.matchSignatureTimestampData(timestampToken);
 		} else {
-			for (final PdfSignatureOrDocTimestampInfo signatureInfo : pdfSignatureInfo.getOuterSignatures()) {
-				if (signatureInfo instanceof PdfDocTimestampInfo) {
-					PdfDocTimestampInfo pdfTimestampInfo = (PdfDocTimestampInfo) signatureInfo;
-					if (pdfTimestampInfo.getTimestampToken().equals(timestampToken)) {
-						final byte[] signedDocumentBytes = pdfTimestampInfo.getSignedDocumentBytes();
-						return signedDocumentBytes;
-					}
-				}
-			}
+			matchDocTimestampData(timestampToken);
 		}
-		throw new DSSException("Timestamp Data not found");
 	}
 
 	@Override
@@ -374,12 +373,29 @@ public class PAdESSignature extends DefaultAdvancedSignature {
 
 	@Override
 	public byte[] getArchiveTimestampData(TimestampToken timestampToken, String canonicalizationMethod) {
+		return getDocTimestampInfo(timestampToken).getSignedDocumentBytes();
+	}
+
+	@Override
+	protected void matchArchiveTimestampData(final TimestampToken timestampToken) {
+		matchDocTimestampData(timestampToken);
+	}
+
+	/**
+	 * The content of a document timestamp is the ByteRange of its revision : its digest is computed without copying the document.
+	 */
+	private void matchDocTimestampData(final TimestampToken timestampToken) {
+		final PdfDocTimestampInfo pdfTimestampInfo = getDocTimestampInfo(timestampToken);
+		final DigestAlgorithm digestAlgorithm = timestampToken.getSignedDataDigestAlgo();
+		timestampToken.matchDigest(pdfTimestampInfo.getSignedDocumentDigest(digestAlgorithm));
+	}
+
+	private PdfDocTimestampInfo getDocTimestampInfo(final TimestampToken timestampToken) {
 		for (final PdfSignatureOrDocTimestampInfo signatureInfo : pdfSignatureInfo.getOuterSignatures()) {
 			if (signatureInfo instanceof PdfDocTimestampInfo) {
 				PdfDocTimestampInfo pdfTimestampInfo = (PdfDocTimestampInfo) signatureInfo;
 				if (pdfTimestampInfo.getTimestampToken().equals(timestampToken)) {
-					final byte[] signedDocumentBytes = pdfTimestampInfo.getSignedDocumentBytes();
-					return signedDocumentBytes;
+					return pdfTimestampInfo;
 				}
 			}
 		}
@@ -50,6 +50,17 @@ public interface PDFSignatureService {
 	 */
 	byte[] digest(final InputStream toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException;
 
+	/**
+	 * Returns the digest value of a PDF document. A file based document is read with random access instead of being copied in memory.
+	 *
+	 * @param toSignDocument
+	 * @param parameters
+	 * @param digestAlgorithm
+	 * @return
+	 * @throws DSSException
+	 */
+	byte[] digest(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException;
+
 	/**
 	 * Signs a PDF document
 	 *
@@ -63,6 +74,42 @@ public interface PDFSignatureService {
 	 */
 	void sign(final InputStream pdfData, final byte[] signatureValue, final OutputStream signedStream, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException;
 
+	/**
+	 * Signs a PDF document. The incremental update is written straight to {@code signedStream}, which is not closed.
+	 *
+	 * @param toSignDocument
+	 * @param signatureValue
+	 * @param signedStream
+	 * @param parameters
+	 * @param digestAlgorithm
+	 * @throws DSSException
+	 */
+	void sign(final DSSDocument toSignDocument, final byte[] signatureValue, final OutputStream signedStream, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException;
+
+	/**
+	 * Builds the signature revision of a PDF document with an empty /Contents placeholder of
+	 * {@code PAdESSignatureParameters#getSignatureSize()} bytes and computes the digest of its ByteRange. The document is parsed only once:
+	 * the signature value is later injected with {@link #sign(PdfPreparedSignature, byte[], OutputStream)}.
+	 *
+	 * @param toSignDocument
+	 * @param parameters
+	 * @param digestAlgorithm
+	 * @return the prepared signature
+	 * @throws DSSException
+	 */
+	PdfPreparedSignature prepare(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException;
+
+	/**
+	 * Writes the signed PDF document : the signature value is written in the placeholder of the prepared revision.
+	 *
+	 * @param preparedSignature
+	 * @param signatureValue
+	 * @param signedStream
+	 * @throws DSSException
+	 *             if the signature value does not fit in the placeholder
+	 */
+	void sign(final PdfPreparedSignature preparedSignature, final byte[] signatureValue, final OutputStream signedStream) throws DSSException;
+
 	/**
 	 * Retrieves and triggers validation of the signatures from a PDF document
 	 *
@@ -76,4 +123,6 @@ public interface PDFSignatureService {
 
 	void addDssDictionary(InputStream inputStream, OutputStream outpuStream, ModelPdfDict dssDictionary) throws DSSException;
 
+	void addDssDictionary(DSSDocument document, OutputStream outputStream, ModelPdfDict dssDictionary) throws DSSException;
+
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf;
+
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
+
+import eu.europa.esig.dss.CommonDocument;
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.InMemoryDocument;
+
+/**
+ * The content signed by a PDF signature : a view of the two parts of the ByteRange over the whole document. The document is shared by all
+ * the signatures and read on demand, the signed content is never loaded in memory, except by {@link #getBytes()}.
+ */
+@SuppressWarnings("serial")
+public class PdfByteRangeDocument extends CommonDocument {
+
+	private final DSSDocument pdfDocument;
+
+	private final int[] byteRange;
+
+	/**
+	 * @param pdfBytes
+	 *            the bytes of the whole PDF document (not modified)
+	 * @param byteRange
+	 *            the ByteRange of the signature
+	 * @throws DSSException
+	 *             if the ByteRange is not within the document
+	 */
+	public PdfByteRangeDocument(final byte[] pdfBytes, final int[] byteRange) throws DSSException {
+		this(new InMemoryDocument(pdfBytes), pdfBytes.length, byteRange);
+	}
+
+	/**
+	 * @param pdfDocument
+	 *            the whole PDF document
+	 * @param documentLength
+	 *            the length of the whole PDF document
+	 * @param byteRange
+	 *            the ByteRange of the signature
+	 * @throws DSSException
+	 *             if the ByteRange is not within the document
+	 */
+	public PdfByteRangeDocument(final DSSDocument pdfDocument, final long documentLength, final int[] byteRange) throws DSSException {
+		if ((byteRange == null) || (byteRange.length != 4)) {
+			throw new DSSException("Invalid ByteRange : " + Arrays.toString(byteRange));
+		}
+		for (int i = 0; i < byteRange.length; i += 2) {
+			if ((byteRange[i] < 0) || (byteRange[i + 1] < 0) || (((long) byteRange[i] + byteRange[i + 1]) > documentLength)) {
+				throw new DSSException("The ByteRange " + Arrays.toString(byteRange) + " is outside of the document (" + documentLength + " bytes)");
+			}
+		}
+		if ((byteRange[3] > 0) && (byteRange[2] < (byteRange[0] + byteRange[1]))) {
+			throw new DSSException("The parts of the ByteRange " + Arrays.toString(byteRange) + " overlap");
+		}
+		this.pdfDocument = pdfDocument;
+		this.byteRange = byteRange;
+	}
+
+	/**
+	 * @return the number of signed bytes
+	 */
+	public int getLength() {
+		return byteRange[1] + byteRange[3];
+	}
+
+	/**
+	 * @return a view of the first part of the ByteRange : the document before the signature value
+	 */
+	public PdfByteRangeDocument getFirstPart() {
+		return new PdfByteRangeDocument(pdfDocument, (long) byteRange[0] + byteRange[1], new int[] { byteRange[0], byteRange[1], byteRange[2], 0 });
+	}
+
+	@Override
+	public InputStream openStream() throws DSSException {
+		return new ByteRangeInputStream(pdfDocument.openStream(), byteRange);
+	}
+
+	/**
+	 * Copies the signed content in a new array. Do not use this method with large files, prefer {@link #openStream()} or
+	 * {@link #digest(DigestAlgorithm)}.
+	 */
+	@Override
+	public byte[] getBytes() throws DSSException {
+		final InputStream inputStream = openStream();
+		try {
+			return IOUtils.toByteArray(inputStream, getLength());
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
+	/**
+	 * Computes the digest of the signed content without loading it.
+	 *
+	 * @param digestAlgorithm
+	 *            the digest algorithm to use
+	 * @return the digest value
+	 */
+	public byte[] digest(final DigestAlgorithm digestAlgorithm) {
+		final InputStream inputStream = openStream();
+		try {
+			return DSSUtils.digest(digestAlgorithm, inputStream);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
+	@Override
+	public String getDigest(final DigestAlgorithm digestAlgorithm) {
+		return Base64.encodeBase64String(digest(digestAlgorithm));
+	}
+
+	@Override
+	public void save(final String filePath) throws IOException {
+		final InputStream inputStream = openStream();
+		final FileOutputStream fos = new FileOutputStream(filePath);
+		try {
+			IOUtils.copyLarge(inputStream, fos);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+			IOUtils.closeQuietly(fos);
+		}
+	}
+
+	@Override
+	public String getBase64Encoded() {
+		return Base64.encodeBase64String(getBytes());
+	}
+
+	/**
+	 * Reads the two parts of the ByteRange from the stream of the whole document, skipping the signature value
+	 */
+	private static class ByteRangeInputStream extends FilterInputStream {
+
+		private final int[] byteRange;
+
+		/**
+		 * The current position in the whole document
+		 */
+		private long position;
+
+		ByteRangeInputStream(final InputStream inputStream, final int[] byteRange) {
+			super(inputStream);
+			this.byteRange = byteRange;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			final int read = read(b, 0, 1);
+			return read == -1 ? -1 : (b[0] & 0xFF);
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			final long remaining = moveToNextPart();
+			if (remaining <= 0) {
+				return -1;
+			}
+			final int read = in.read(b, off, (int) Math.min(len, remaining));
+			if (read > 0) {
+				position += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(final long n) throws IOException {
+			final byte[] buffer = new byte[(int) Math.min(n, 4096)];
+			long skipped = 0;
+			while (skipped < n) {
+				final int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+				if (read == -1) {
+					break;
+				}
+				skipped += read;
+			}
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return 0;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		/**
+		 * Positions the underlying stream in the current part of the ByteRange
+		 *
+		 * @return the number of bytes left in the current part (0 at the end of the signed content)
+		 */
+		private long moveToNextPart() throws IOException {
+			for (int i = 0; i < byteRange.length; i += 2) {
+				final long end = (long) byteRange[i] + byteRange[i + 1];
+				if ((byteRange[i + 1] > 0) && (position < end)) {
+					if (position < byteRange[i]) {
+						IOUtils.skipFully(in, byteRange[i] - position);
+						position = byteRange[i];
+					}
+					return end - position;
+				}
+			}
+			return 0;
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DigestAlgorithm;
+
+/**
+ * A signature revision prepared once by the {@code PDFSignatureService}: the incremental update is built with an empty /Contents placeholder
+ * and the digest of the ByteRange is computed. The CMS signature is later written into the placeholder without parsing the document again.
+ */
+public class PdfPreparedSignature {
+
+	private final DSSDocument document;
+
+	private final long documentLength;
+
+	private final byte[] revision;
+
+	private final int[] byteRange;
+
+	private final DigestAlgorithm digestAlgorithm;
+
+	private final byte[] digest;
+
+	/**
+	 * @param document
+	 *            the document to be signed
+	 * @param documentLength
+	 *            the length of the document to be signed (offset of the revision)
+	 * @param revision
+	 *            the incremental update with the placeholder
+	 * @param byteRange
+	 *            the ByteRange of the signature (relative to the signed document)
+	 * @param digestAlgorithm
+	 *            the algorithm used to compute the digest
+	 * @param digest
+	 *            the digest of the bytes covered by the ByteRange
+	 */
+	public PdfPreparedSignature(final DSSDocument document, final long documentLength, final byte[] revision, final int[] byteRange,
+			final DigestAlgorithm digestAlgorithm, final byte[] digest) {
+		this.document = document;
+		this.documentLength = documentLength;
+		this.revision = revision;
+		this.byteRange = byteRange;
+		this.digestAlgorithm = digestAlgorithm;
+		this.digest = digest;
+	}
+
+	public DSSDocument getDocument() {
+		return document;
+	}
+
+	public long getDocumentLength() {
+		return documentLength;
+	}
+
+	/**
+	 * @return the incremental update (appended to the document) with an empty /Contents placeholder
+	 */
+	public byte[] getRevision() {
+		return revision;
+	}
+
+	public int[] getByteRange() {
+		return byteRange;
+	}
+
+	/**
+	 * @return the number of bytes which can be written in the /Contents placeholder
+	 */
+	public int getAvailableSignatureSize() {
+		// the placeholder is hex encoded and surrounded by '<' and '>'
+		return (byteRange[2] - byteRange[1] - 2) / 2;
+	}
+
+	public DigestAlgorithm getDigestAlgorithm() {
+		return digestAlgorithm;
+	}
+
+	public byte[] getDigest() {
+		return digest;
+	}
+
+}
@@ -24,6 +24,7 @@ import java.security.cert.X509Certificate;
 import java.util.Date;
 import java.util.Set;
 
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.validation.SignatureCryptographicVerification;
 
 /**
@@ -52,6 +53,18 @@ public interface PdfSignatureOrDocTimestampInfo {
 	 */
 	byte[] getSignedDocumentBytes();
 
+	/**
+	 * @return a view of what is signed (the ByteRange over the document bytes), which can be read or digested without being copied
+	 */
+	PdfByteRangeDocument getSignedDocument();
+
+	/**
+	 * @param digestAlgorithm
+	 *            the digest algorithm to use
+	 * @return the digest of what is signed, computed without copying the signed bytes
+	 */
+	byte[] getSignedDocumentDigest(DigestAlgorithm digestAlgorithm);
+
 	/**
 	 * This method return a few extra bytes (the header of the signature) but it's correctly ignored by PDF Box
 	 *
@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.pdf.PdfByteRangeDocument;
 import eu.europa.esig.dss.pdf.PdfDssDict;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfo;
 import eu.europa.esig.dss.validation.SignatureCryptographicVerification;
@@ -53,7 +54,7 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 	/**
 	 * The original signed pdf document
 	 */
-	private	final byte[] signedBytes;
+	private final PdfByteRangeDocument signedContent;
 
 	private boolean verified;
 	private SignatureCryptographicVerification verifyResult;
@@ -69,7 +70,7 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 	 * @param cms the signature binary
 	 * @param signedContent the signed content
 	 */
-	PdfBoxCMSInfo(PDSignature signature, PdfDssDict dssDictionary, byte[] cms,	byte[] signedContent) {
+	PdfBoxCMSInfo(PDSignature signature, PdfDssDict dssDictionary, byte[] cms, PdfByteRangeDocument signedContent) {
 		this.cms = cms;
 		this.location = signature.getLocation();
 		this.reason = signature.getReason();
@@ -78,14 +79,14 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 		this.signingDate = signature.getSignDate() != null ? signature.getSignDate().getTime() : null;
 		this.signatureByteRange = signature.getByteRange();
 		this.dssDictionary = dssDictionary;
-		this.signedBytes = signedContent;
+		this.signedContent = signedContent;
 	}
 
 	@Override
 	public SignatureCryptographicVerification checkIntegrity() {
 		if (!verified) {
 			verifyResult = checkIntegrityOnce();
-			LOG.debug("Verify embedded CAdES Signature on signedBytes size {}. Signature intact: {}", signedBytes.length, verifyResult);
+			LOG.debug("Verify embedded CAdES Signature on signedBytes size {}. Signature intact: {}", signedContent.getLength(), verifyResult);
 			verified = true;
 		}
 		return verifyResult;
@@ -98,15 +99,22 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 	 */
 	@Override
 	public byte[] getSignedDocumentBytes() {
-		return signedBytes;
+		return signedContent.getBytes();
+	}
+
+	@Override
+	public PdfByteRangeDocument getSignedDocument() {
+		return signedContent;
+	}
+
+	@Override
+	public byte[] getSignedDocumentDigest(DigestAlgorithm digestAlgorithm) {
+		return signedContent.digest(digestAlgorithm);
 	}
 
 	@Override
 	public byte[] getOriginalBytes() {
-		final int length = signatureByteRange[1];
-		final byte[] result = new byte[length];
-		System.arraycopy(signedBytes, 0, result, 0, length);
-		return result;
+		return signedContent.getFirstPart().getBytes();
 	}
 
 	@Override
@@ -20,10 +20,8 @@
  */
 package eu.europa.esig.dss.pdf.pdfbox;
 
-import java.io.InputStream;
 import java.io.OutputStream;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.pdfbox.cos.COSName;
 import org.bouncycastle.tsp.TimeStampToken;
 
@@ -34,6 +32,7 @@ import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.pades.PAdESSignatureParameters;
 import eu.europa.esig.dss.pdf.PDFSignatureService;
 import eu.europa.esig.dss.pdf.PDFTimestampService;
+import eu.europa.esig.dss.pdf.PdfPreparedSignature;
 import eu.europa.esig.dss.x509.tsp.TSPSource;
 
 class PdfBoxDocTimeStampService extends PdfBoxSignatureService implements PDFSignatureService, PDFTimestampService {
@@ -57,14 +56,10 @@ class PdfBoxDocTimeStampService extends PdfBoxSignatureService implements PDFSig
 	public void timestamp(final DSSDocument document, final OutputStream signedStream, final PAdESSignatureParameters parameters, final TSPSource tspSource) throws DSSException {
 
 		final DigestAlgorithm timestampDigestAlgorithm = parameters.getSignatureTimestampParameters().getDigestAlgorithm();
-		InputStream inputStream = document.openStream();
-		final byte[] digest = digest(inputStream, parameters, timestampDigestAlgorithm);
-		IOUtils.closeQuietly(inputStream);
-		final TimeStampToken timeStampToken = tspSource.getTimeStampResponse(timestampDigestAlgorithm, digest);
+		final PdfPreparedSignature preparedSignature = prepare(document, parameters, timestampDigestAlgorithm);
+		final TimeStampToken timeStampToken = tspSource.getTimeStampResponse(timestampDigestAlgorithm, preparedSignature.getDigest());
 		final byte[] encoded = DSSASN1Utils.getEncoded(timeStampToken);
-		inputStream = document.openStream();
-		sign(inputStream, encoded, signedStream, parameters, timestampDigestAlgorithm);
-		IOUtils.closeQuietly(inputStream);
+		sign(preparedSignature, encoded, signedStream);
 	}
 
 }
\ No newline at end of file
@@ -29,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.pdf.PdfByteRangeDocument;
 import eu.europa.esig.dss.pdf.PdfDocTimestampInfo;
 import eu.europa.esig.dss.pdf.PdfDssDict;
 import eu.europa.esig.dss.validation.SignatureCryptographicVerification;
@@ -53,12 +54,13 @@ class PdfBoxDocTimestampInfo extends PdfBoxCMSInfo implements PdfDocTimestampInf
 	 *            the DSS dictionary
 	 * @param cms
 	 *            the CMS (CAdES) bytes
+	 * @param signedContent
+	 *            the content signed by the timestamp
 	 * @param isArchiveTimestamp
-	 * @param inputStream
-	 *            the stream of the whole signed document
 	 * @throws DSSException
 	 */
-	PdfBoxDocTimestampInfo(CertificatePool validationCertPool, PDSignature signature, PdfDssDict dssDictionary, byte[] cms, byte[] signedContent, boolean isArchiveTimestamp) throws DSSException {
+	PdfBoxDocTimestampInfo(CertificatePool validationCertPool, PDSignature signature, PdfDssDict dssDictionary, byte[] cms, PdfByteRangeDocument signedContent,
+			boolean isArchiveTimestamp) throws DSSException {
 		super(signature, dssDictionary, cms, signedContent);
 		try {
 			TimeStampToken timeStampToken = new TimeStampToken(new CMSSignedData(cms));
@@ -80,10 +82,15 @@ class PdfBoxDocTimestampInfo extends PdfBoxCMSInfo implements PdfDocTimestampInf
 		signatureCryptographicVerification.setReferenceDataFound(false);
 		signatureCryptographicVerification.setReferenceDataIntact(false);
 		signatureCryptographicVerification.setSignatureIntact(false);
-		if (getSignedDocumentBytes() != null) {
+		if (getSignedDocument() != null) {
 			signatureCryptographicVerification.setReferenceDataFound(true);
+			try {
+				final byte[] digest = getSignedDocumentDigest(timestampToken.getSignedDataDigestAlgo());
+				signatureCryptographicVerification.setReferenceDataIntact(timestampToken.matchDigest(digest));
+			} catch (DSSException e) {
+				logger.warn("Unable to check the message imprint of the document timestamp : " + e.getMessage());
+			}
 		}
-		signatureCryptographicVerification.setReferenceDataIntact(timestampToken.matchData(getSignedDocumentBytes()));
 		signatureCryptographicVerification.setSignatureIntact(timestampToken.isSignatureValid());
 		return signatureCryptographicVerification;
 	}
@@ -0,0 +1,165 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.pdfbox;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.pdf.PdfDict;
+import eu.europa.esig.dss.pdf.PdfDssDict;
+
+/**
+ * Checks on the previous revisions of a PDF document : a previous revision is the beginning of the document, up to the signature value of
+ * a DocTimeStamp (the first part of its ByteRange). The chain of the cross-reference sections of the document ({@code PdfXrefChain}) is
+ * read once, at the first lookup, and gives the presence of a DSS dictionary in the catalog of each revision : the document is never
+ * loaded for a lookup. A revision is checked only if it may contain a signature : a signature of a previous revision is kept by the
+ * following incremental updates, so its ByteRange ends within the revision.
+ *
+ * If the chain cannot be read (damaged cross-reference section, unsupported filter...), each revision is loaded with PDFBox as before,
+ * once per distinct length.
+ */
+class PdfBoxRevisionIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(PdfBoxRevisionIndex.class);
+
+	private final DSSDocument pdfDocument;
+
+	private final long documentLength;
+
+	private final List<PDSignature> signatures;
+
+	private final MemoryUsageSetting memoryUsageSetting;
+
+	/**
+	 * The chain of the cross-reference sections, null until the first lookup or if it cannot be read
+	 */
+	private PdfXrefChain xrefChain;
+
+	private boolean xrefChainRead;
+
+	/**
+	 * The presence of a DSS dictionary, by length of revision, when the revisions are loaded with PDFBox
+	 */
+	private final Map<Integer, Boolean> dssPresence = new HashMap<Integer, Boolean>();
+
+	/**
+	 * @param pdfDocument
+	 *            the whole PDF document
+	 * @param documentLength
+	 *            the length of the whole PDF document
+	 * @param signatures
+	 *            the signatures of the whole PDF document
+	 * @param memoryUsageSetting
+	 *            the memory settings used to load a revision when the cross-reference chain cannot be read
+	 */
+	PdfBoxRevisionIndex(final DSSDocument pdfDocument, final long documentLength, final List<PDSignature> signatures,
+			final MemoryUsageSetting memoryUsageSetting) {
+		this.pdfDocument = pdfDocument;
+		this.documentLength = documentLength;
+		this.signatures = signatures;
+		this.memoryUsageSetting = memoryUsageSetting;
+	}
+
+	/**
+	 * Checks if the revision made of the first {@code length} bytes of the document (typically the first part of the ByteRange of a
+	 * DocTimeStamp) is signed and contains a DSS dictionary in its catalog.
+	 *
+	 * @param length
+	 *            the number of bytes from the beginning of the document
+	 * @return true if the revision contains signatures and a DSS dictionary
+	 */
+	boolean isDSSDictionaryPresent(final int length) {
+		if (!containsSignature(length)) {
+			return false;
+		}
+		final PdfXrefChain chain = getXrefChain();
+		if (chain != null) {
+			try {
+				return chain.isDSSDictionaryPresent(length);
+			} catch (IOException e) {
+				logger.warn("Cannot read the catalog of the revision of " + length + " bytes : " + e.getMessage());
+			}
+		}
+		Boolean present = dssPresence.get(length);
+		if (present == null) {
+			present = isDSSDictionaryPresentInRevision(length);
+			dssPresence.put(length, present);
+		}
+		return present;
+	}
+
+	private PdfXrefChain getXrefChain() {
+		if (!xrefChainRead) {
+			xrefChainRead = true;
+			try {
+				xrefChain = new PdfXrefChain(pdfDocument, documentLength);
+			} catch (Exception e) {
+				logger.warn("Cannot read the cross-reference sections, the revisions will be loaded : " + e.getMessage());
+			}
+		}
+		return xrefChain;
+	}
+
+	private boolean containsSignature(final int length) {
+		for (final PDSignature signature : signatures) {
+			final int[] byteRange = signature.getByteRange();
+			if ((byteRange != null) && (byteRange.length == 4) && (((long) byteRange[2] + byteRange[3]) <= length)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isDSSDictionaryPresentInRevision(final int length) {
+		InputStream inputStream = null;
+		PDDocument doc = null;
+		PdfDssDict dssDictionary = null;
+		try {
+			inputStream = new BoundedInputStream(pdfDocument.openStream(), length);
+			doc = PDDocument.load(inputStream, memoryUsageSetting);
+			List<PDSignature> pdSignatures = doc.getSignatureDictionaries();
+			if (CollectionUtils.isNotEmpty(pdSignatures)) {
+				PdfDict catalog = new PdfBoxDict(doc.getDocumentCatalog().getCOSObject(), doc);
+				dssDictionary = PdfDssDict.build(catalog);
+			}
+		} catch (Exception e) {
+			logger.warn("Cannot check in previous revisions if DSS dictionary already exist : " + e.getMessage(), e);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+			IOUtils.closeQuietly(doc);
+		}
+		return dssDictionary != null;
+	}
+
+}
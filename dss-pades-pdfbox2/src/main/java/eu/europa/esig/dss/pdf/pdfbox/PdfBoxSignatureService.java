@@ -21,10 +21,8 @@
 package eu.europa.esig.dss.pdf.pdfbox;
 
 import java.awt.Dimension;
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -38,12 +36,15 @@ import java.util.List;
 
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.io.Charsets;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
-
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
@@ -57,95 +58,194 @@ import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
-import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.FileDocument;
 import eu.europa.esig.dss.pades.PAdESSignatureParameters;
 import eu.europa.esig.dss.pades.SignatureImageParameters;
 import eu.europa.esig.dss.pades.signature.visible.ImageFactory;
-import eu.europa.esig.dss.pdf.DSSPDFUtils;
 import eu.europa.esig.dss.pdf.PDFSignatureService;
+import eu.europa.esig.dss.pdf.PdfByteRangeDocument;
 import eu.europa.esig.dss.pdf.PdfDict;
 import eu.europa.esig.dss.pdf.PdfDssDict;
+import eu.europa.esig.dss.pdf.PdfPreparedSignature;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfo;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfoComparator;
 import eu.europa.esig.dss.pdf.SignatureValidationCallback;
 import eu.europa.esig.dss.pdf.model.ModelPdfDict;
 import eu.europa.esig.dss.x509.CertificatePool;
 import eu.europa.esig.dss.x509.CertificateToken;
-import java.io.ByteArrayOutputStream;
 
 class PdfBoxSignatureService implements PDFSignatureService {
 
     private static final Logger logger = LoggerFactory.getLogger(PdfBoxSignatureService.class);
 
+    /**
+     * Default amount of main memory used to buffer a loaded PDF, the remainder is kept in a scratch file. It can be changed with the
+     * "dss.pdf_max_main_memory" system property (in bytes).
+     */
+    private static final long DEFAULT_MAX_MAIN_MEMORY_BYTES = 4 * 1024 * 1024;
+
     @Override
     public byte[] digest(final InputStream toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException {
+        return digest(loadDocument(toSignDocument), parameters, digestAlgorithm);
+    }
 
-        final byte[] signatureValue = DSSUtils.EMPTY_BYTE_ARRAY;
-        
-        PDDocument pdDocument = null;
-        final ByteArrayOutputStream fileOutputStream = new ByteArrayOutputStream();
-        try {
+    @Override
+    public byte[] digest(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException {
+        return digest(loadDocument(toSignDocument), parameters, digestAlgorithm);
+    }
 
-         //   toSignFile = DSSPDFUtils.getFileFromPdfData(toSignDocument);
-            byte[] toSignBytes=IOUtils.toByteArray(toSignDocument);
-            pdDocument = PDDocument.load(new ByteArrayInputStream(toSignBytes));
-            PDSignature pdSignature = createSignatureDictionary(parameters);
-
-           File signedFile = null;//File.createTempFile("sd-dss-", "-signed.pdf");
-            //final FileOutputStream fileOutputStream = DSSPDFUtils.getFileOutputStream(toSignFile, signedFile);
-            
-            
-            final byte[] digestValue = signDocumentAndReturnDigest(parameters, signatureValue,  fileOutputStream, pdDocument, pdSignature, digestAlgorithm);
-            fileOutputStream.close();
-            return digestValue;
-        } catch (IOException e) {
-            throw new DSSException(e);
+    private byte[] digest(final PDDocument pdDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException {
+        try {
+            final PDSignature pdSignature = createSignatureDictionary(parameters);
+            // only the digest is needed : the incremental update is discarded
+            return signDocumentAndReturnDigest(parameters, DSSUtils.EMPTY_BYTE_ARRAY, new NullOutputStream(), pdDocument, pdSignature, digestAlgorithm);
         } finally {
-      //      DSSUtils.delete(signedFile);
-     
             IOUtils.closeQuietly(pdDocument);
-            IOUtils.closeQuietly(fileOutputStream);
         }
     }
 
     @Override
     public void sign(final InputStream pdfData, final byte[] signatureValue, final OutputStream signedStream, final PAdESSignatureParameters parameters,
             final DigestAlgorithm digestAlgorithm) throws DSSException {
+        sign(loadDocument(pdfData), signatureValue, signedStream, parameters, digestAlgorithm);
+    }
+
+    @Override
+    public void sign(final DSSDocument toSignDocument, final byte[] signatureValue, final OutputStream signedStream, final PAdESSignatureParameters parameters,
+            final DigestAlgorithm digestAlgorithm) throws DSSException {
+        sign(loadDocument(toSignDocument), signatureValue, signedStream, parameters, digestAlgorithm);
+    }
 
-      //  File toSignFile = null;
-      //  File signedFile = null;
-      //  FileInputStream fileInputStream = null;
-      //  FileInputStream finalFileInputStream = null;
-        PDDocument pdDocument = null;
-        final ByteArrayOutputStream fileOutputStream = new ByteArrayOutputStream();
+    private void sign(final PDDocument pdDocument, final byte[] signatureValue, final OutputStream signedStream, final PAdESSignatureParameters parameters,
+            final DigestAlgorithm digestAlgorithm) throws DSSException {
         try {
+            final PDSignature pdSignature = createSignatureDictionary(parameters);
+            // PDFBox closes the stream it writes to, the caller stays the owner of signedStream
+            signDocumentAndReturnDigest(parameters, signatureValue, new CloseShieldOutputStream(signedStream), pdDocument, pdSignature, digestAlgorithm);
+        } finally {
+            IOUtils.closeQuietly(pdDocument);
+        }
+    }
 
-       //    toSignFile = DSSPDFUtils.getFileFromPdfData(pdfData);
-            byte[] toSignBytes=IOUtils.toByteArray(pdfData);
-            pdDocument = PDDocument.load(new ByteArrayInputStream(toSignBytes));
-            
+    @Override
+    public PdfPreparedSignature prepare(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm)
+            throws DSSException {
+        final long documentLength = getLength(toSignDocument);
+        final PDDocument pdDocument = loadDocument(toSignDocument);
+        try {
             final PDSignature pdSignature = createSignatureDictionary(parameters);
+            final RevisionOutputStream revisionStream = new RevisionOutputStream(documentLength);
+            final byte[] digest = signDocumentAndReturnDigest(parameters, DSSUtils.EMPTY_BYTE_ARRAY, revisionStream, pdDocument, pdSignature, digestAlgorithm);
+            final byte[] revision = revisionStream.toByteArray();
+            final int[] byteRange = getByteRange(revision, documentLength);
+            return new PdfPreparedSignature(toSignDocument, documentLength, revision, byteRange, digestAlgorithm, digest);
+        } finally {
+            IOUtils.closeQuietly(pdDocument);
+        }
+    }
 
-          //  signedFile = File.createTempFile("sd-dss-", "-signedSign.pdf");
+    @Override
+    public void sign(final PdfPreparedSignature preparedSignature, final byte[] signatureValue, final OutputStream signedStream) throws DSSException {
+        final int availableSize = preparedSignature.getAvailableSignatureSize();
+        if (signatureValue.length > availableSize) {
+            throw new DSSException("Can't write signature, not enough space (" + signatureValue.length + " bytes for " + availableSize + " reserved)");
+        }
 
-            //final FileOutputStream fileOutputStream = DSSPDFUtils.getFileOutputStream(toSignFile, signedFile);
-         //   final FileOutputStream fileOutputStream = new FileOutputStream(signedFile);
-            
-            signDocumentAndReturnDigest(parameters, signatureValue,  fileOutputStream, pdDocument, pdSignature, digestAlgorithm);            
-            IOUtils.write(fileOutputStream.toByteArray(), signedStream);
-          //  finalFileInputStream = new FileInputStream(signedFile);
-          //  IOUtils.copy(finalFileInputStream, signedStream);
+        // the placeholder starts just after the '<' which ends the first part of the ByteRange
+        final byte[] revision = Arrays.copyOf(preparedSignature.getRevision(), preparedSignature.getRevision().length);
+        final int offset = (int) (preparedSignature.getByteRange()[1] + 1 - preparedSignature.getDocumentLength());
+        final char[] hexSignature = Hex.encodeHex(signatureValue, false);
+        for (int i = 0; i < hexSignature.length; i++) {
+            revision[offset + i] = (byte) hexSignature[i];
+        }
+
+        final InputStream inputStream = preparedSignature.getDocument().openStream();
+        try {
+            IOUtils.copyLarge(inputStream, signedStream);
+            signedStream.write(revision);
         } catch (IOException e) {
             throw new DSSException(e);
         } finally {
-            IOUtils.closeQuietly(fileOutputStream);
-         //   IOUtils.closeQuietly(finalFileInputStream);
-         //   DSSUtils.delete(toSignFile);
-           // DSSUtils.delete(signedFile);
-            IOUtils.closeQuietly(pdDocument);
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    private long getLength(final DSSDocument document) throws DSSException {
+        if (document instanceof FileDocument) {
+            return new File(document.getAbsolutePath()).length();
+        }
+        final InputStream inputStream = document.openStream();
+        try {
+            return IOUtils.copyLarge(inputStream, new NullOutputStream());
+        } catch (IOException e) {
+            throw new DSSException(e);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    /**
+     * Reads the ByteRange written by PDFBox in the signature dictionary of the revision.
+     */
+    private int[] getByteRange(final byte[] revision, final long documentLength) throws DSSException {
+        final String revisionString = new String(revision, Charsets.ISO_8859_1);
+        final int index = revisionString.lastIndexOf("/ByteRange");
+        if (index < 0) {
+            throw new DSSException("Unable to find the ByteRange of the prepared signature");
+        }
+        final int start = revisionString.indexOf('[', index);
+        final int end = revisionString.indexOf(']', start);
+        final String[] values = StringUtils.split(revisionString.substring(start + 1, end));
+        if (values.length != 4) {
+            throw new DSSException("Unsupported ByteRange for the prepared signature : " + revisionString.substring(start, end + 1));
+        }
+        final int[] byteRange = new int[4];
+        for (int i = 0; i < values.length; i++) {
+            byteRange[i] = Integer.parseInt(values[i]);
+        }
+        if (byteRange[1] < documentLength) {
+            throw new DSSException("The placeholder of the prepared signature is not in the new revision : " + Arrays.toString(byteRange));
+        }
+        return byteRange;
+    }
+
+    /**
+     * Loads a PDF without copying it into a byte array : a file based document is read with random access, any other document is buffered by
+     * PDFBox following the {@code MemoryUsageSetting} (main memory up to a limit, then a scratch file).
+     *
+     * @param document the PDF document to load
+     * @return the loaded {@code PDDocument} (to be closed by the caller)
+     * @throws DSSException in case of any {@code IOException}
+     */
+    protected PDDocument loadDocument(final DSSDocument document) throws DSSException {
+        if (document instanceof FileDocument) {
+            try {
+                return PDDocument.load(new File(document.getAbsolutePath()), getMemoryUsageSetting());
+            } catch (IOException e) {
+                throw new DSSException(e);
+            }
+        }
+        final InputStream inputStream = document.openStream();
+        try {
+            return loadDocument(inputStream);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    protected PDDocument loadDocument(final InputStream inputStream) throws DSSException {
+        try {
+            return PDDocument.load(inputStream, getMemoryUsageSetting());
+        } catch (IOException e) {
+            throw new DSSException(e);
         }
     }
 
+    protected MemoryUsageSetting getMemoryUsageSetting() {
+        final long maxMainMemoryBytes = Long.getLong("dss.pdf_max_main_memory", DEFAULT_MAX_MAIN_MEMORY_BYTES);
+        return MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+    }
+
     private byte[] signDocumentAndReturnDigest(final PAdESSignatureParameters parameters, final byte[] signatureBytes, 
             final OutputStream fileOutputStream, final PDDocument pdDocument, final PDSignature pdSignature, final DigestAlgorithm digestAlgorithm) throws DSSException {
 
@@ -180,7 +280,6 @@ class PdfBoxSignatureService implements PDFSignatureService {
             if (logger.isDebugEnabled()) {
                 logger.debug("Digest to be signed: " + Hex.encodeHexString(digestValue));
             }
-            fileOutputStream.close();
             return digestValue;
         } catch (IOException e) {
             throw new DSSException(e);
@@ -246,12 +345,8 @@ class PdfBoxSignatureService implements PDFSignatureService {
         return COSName.SIG;
     }
 
-    public void saveDocumentIncrementally(PAdESSignatureParameters parameters, OutputStream fileOutputStream, PDDocument pdDocument) throws DSSException {
-
-        //FileInputStream signedFileInputStream = null;
+    public void saveDocumentIncrementally(PAdESSignatureParameters parameters, OutputStream outputStream, PDDocument pdDocument) throws DSSException {
         try {
-
-           // signedFileInputStream = new FileInputStream(signedFile);
             // the document needs to have an ID, if not a ID based on the current system time is used, and then the digest of the signed data is
             // different
             if (pdDocument.getDocumentId() == null) {
@@ -260,11 +355,9 @@ class PdfBoxSignatureService implements PDFSignatureService {
                 pdDocument.setDocumentId(DSSUtils.toLong(documentIdBytes));
                 pdDocument.setDocumentId(0L);
             }
-            pdDocument.saveIncremental(fileOutputStream);
+            pdDocument.saveIncremental(outputStream);
         } catch (IOException e) {
             throw new DSSException(e);
-        } finally {
-           // IOUtils.closeQuietly(signedFileInputStream);
         }
     }
 
@@ -275,65 +368,63 @@ class PdfBoxSignatureService implements PDFSignatureService {
     @Override
     public void validateSignatures(CertificatePool validationCertPool, DSSDocument document, SignatureValidationCallback callback) throws DSSException {
         // recursive search of signature
-        InputStream inputStream = document.openStream();
-        try {
-            List<PdfSignatureOrDocTimestampInfo> signaturesFound = getSignatures(validationCertPool, IOUtils.toByteArray(inputStream));
-            for (PdfSignatureOrDocTimestampInfo pdfSignatureOrDocTimestampInfo : signaturesFound) {
-                callback.validate(pdfSignatureOrDocTimestampInfo);
-            }
-        } catch (IOException e) {
-            logger.error("Cannot validate signatures : " + e.getMessage(), e);
+        List<PdfSignatureOrDocTimestampInfo> signaturesFound = getSignatures(validationCertPool, document);
+        for (PdfSignatureOrDocTimestampInfo pdfSignatureOrDocTimestampInfo : signaturesFound) {
+            callback.validate(pdfSignatureOrDocTimestampInfo);
         }
-
-        IOUtils.closeQuietly(inputStream);
     }
 
-    private List<PdfSignatureOrDocTimestampInfo> getSignatures(CertificatePool validationCertPool, byte[] originalBytes) {
+    private List<PdfSignatureOrDocTimestampInfo> getSignatures(CertificatePool validationCertPool, DSSDocument document) {
         List<PdfSignatureOrDocTimestampInfo> signatures = new ArrayList<PdfSignatureOrDocTimestampInfo>();
-        ByteArrayInputStream bais = null;
         PDDocument doc = null;
         try {
 
-            bais = new ByteArrayInputStream(originalBytes);
-            doc = PDDocument.load(bais);
+            doc = loadDocument(document);
             List<PDSignature> pdSignatures = doc.getSignatureDictionaries();
             if (CollectionUtils.isNotEmpty(pdSignatures)) {
                 logger.debug("{} signature(s) found", pdSignatures.size());
 
                 PdfDict catalog = new PdfBoxDict(doc.getDocumentCatalog().getCOSObject(), doc);
                 PdfDssDict dssDictionary = PdfDssDict.build(catalog);
+                long documentLength = getDocumentLength(document);
+                PdfBoxRevisionIndex revisionIndex = new PdfBoxRevisionIndex(document, documentLength, pdSignatures, getMemoryUsageSetting());
 
                 for (PDSignature signature : pdSignatures) {
-                    String subFilter = signature.getSubFilter();
-                    byte[] cms = signature.getContents(originalBytes);
+                    try {
+                        String subFilter = signature.getSubFilter();
+                        byte[] cms = getContents(signature, document);
 
-                    if (StringUtils.isEmpty(subFilter) || ArrayUtils.isEmpty(cms)) {
-                        logger.warn("Wrong signature with empty subfilter or cms.");
-                        continue;
-                    }
+                        if (StringUtils.isEmpty(subFilter) || ArrayUtils.isEmpty(cms)) {
+                            logger.warn("Wrong signature with empty subfilter or cms.");
+                            continue;
+                        }
 
-                    byte[] signedContent = signature.getSignedContent(originalBytes);
-                    int[] byteRange = signature.getByteRange();
+                        int[] byteRange = signature.getByteRange();
+                        PdfByteRangeDocument signedContent = new PdfByteRangeDocument(document, documentLength, byteRange);
 
-                    PdfSignatureOrDocTimestampInfo signatureInfo = null;
-                    if (PdfBoxDocTimeStampService.SUB_FILTER_ETSI_RFC3161.getName().equals(subFilter)) {
-                        boolean isArchiveTimestamp = false;
+                        PdfSignatureOrDocTimestampInfo signatureInfo = null;
+                        if (PdfBoxDocTimeStampService.SUB_FILTER_ETSI_RFC3161.getName().equals(subFilter)) {
+                            boolean isArchiveTimestamp = false;
 
-                        // LT or LTA
-                        if (dssDictionary != null) {
-                            // check is DSS dictionary already exist
-                            if (isDSSDictionaryPresentInPreviousRevision(getOriginalBytes(byteRange, signedContent))) {
-                                isArchiveTimestamp = true;
+                            // LT or LTA
+                            if (dssDictionary != null) {
+                                // check is DSS dictionary already exist
+                                if (revisionIndex.isDSSDictionaryPresent(byteRange[1])) {
+                                    isArchiveTimestamp = true;
+                                }
                             }
-                        }
 
-                        signatureInfo = new PdfBoxDocTimestampInfo(validationCertPool, signature, dssDictionary, cms, signedContent, isArchiveTimestamp);
-                    } else {
-                        signatureInfo = new PdfBoxSignatureInfo(validationCertPool, signature, dssDictionary, cms, signedContent);
-                    }
+                            signatureInfo = new PdfBoxDocTimestampInfo(validationCertPool, signature, dssDictionary, cms, signedContent, isArchiveTimestamp);
+                        } else {
+                            signatureInfo = new PdfBoxSignatureInfo(validationCertPool, signature, dssDictionary, cms, signedContent);
+                        }
 
-                    if (signatureInfo != null) {
-                        signatures.add(signatureInfo);
+                        if (signatureInfo != null) {
+                            signatures.add(signatureInfo);
+                        }
+                    } catch (Exception e) {
+                        // a damaged signature (e.g. an invalid ByteRange) must not hide the other ones
+                        logger.warn("Cannot analyze the signature with ByteRange " + Arrays.toString(signature.getByteRange()) + " : " + e.getMessage(), e);
                     }
                 }
                 Collections.sort(signatures, new PdfSignatureOrDocTimestampInfoComparator());
@@ -347,13 +438,36 @@ class PdfBoxSignatureService implements PDFSignatureService {
         } catch (Exception e) {
             logger.warn("Cannot analyze signatures : " + e.getMessage(), e);
         } finally {
-            IOUtils.closeQuietly(bais);
             IOUtils.closeQuietly(doc);
         }
 
         return signatures;
     }
 
+    /**
+     * Reads the signature value from the document, between the two parts of the ByteRange
+     */
+    private byte[] getContents(final PDSignature signature, final DSSDocument document) throws IOException {
+        final InputStream inputStream = document.openStream();
+        try {
+            return signature.getContents(inputStream);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    private long getDocumentLength(final DSSDocument document) throws IOException {
+        if (document instanceof FileDocument) {
+            return new File(document.getAbsolutePath()).length();
+        }
+        final InputStream inputStream = document.openStream();
+        try {
+            return IOUtils.skip(inputStream, Long.MAX_VALUE);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
     /**
      * This method links previous signatures to the new one. This is useful to
      * get revision number and to know if a TSP is over the DSS dictionary
@@ -370,78 +484,76 @@ class PdfBoxSignatureService implements PDFSignatureService {
         }
     }
 
-    private boolean isDSSDictionaryPresentInPreviousRevision(byte[] originalBytes) {
-        ByteArrayInputStream bais = null;
-        PDDocument doc = null;
-        PdfDssDict dssDictionary = null;
-        try {
-            bais = new ByteArrayInputStream(originalBytes);
-            doc = PDDocument.load(bais);
-            List<PDSignature> pdSignatures = doc.getSignatureDictionaries();
-            if (CollectionUtils.isNotEmpty(pdSignatures)) {
-                PdfDict catalog = new PdfBoxDict(doc.getDocumentCatalog().getCOSObject(), doc);
-                dssDictionary = PdfDssDict.build(catalog);
-            }
-        } catch (Exception e) {
-            logger.warn("Cannot check in previous revisions if DSS dictionary already exist : " + e.getMessage(), e);
-        } finally {
-            IOUtils.closeQuietly(bais);
-            IOUtils.closeQuietly(doc);
-        }
-
-        return dssDictionary != null;
+    @Override
+    public void addDssDictionary(InputStream inputStream, OutputStream outpuStream, ModelPdfDict dssDictionary) throws DSSException {
+        addDssDictionary(loadDocument(inputStream), outpuStream, dssDictionary);
     }
 
-    private byte[] getOriginalBytes(int[] byteRange, byte[] signedContent) {
-        final int length = byteRange[1];
-        final byte[] result = new byte[length];
-        System.arraycopy(signedContent, 0, result, 0, length);
-        return result;
+    @Override
+    public void addDssDictionary(DSSDocument document, OutputStream outputStream, ModelPdfDict dssDictionary) throws DSSException {
+        addDssDictionary(loadDocument(document), outputStream, dssDictionary);
     }
 
-    @Override
-    public void addDssDictionary(InputStream inputStream, OutputStream outpuStream, ModelPdfDict dssDictionary) {
-       // FileInputStream fis = null;
-        PDDocument pdDocument = null;
-  //      File signedFile=null;
+    private void addDssDictionary(PDDocument pdDocument, OutputStream outputStream, ModelPdfDict dssDictionary) throws DSSException {
         try {
-
-           // File toSignFile = DSSPDFUtils.getFileFromPdfData(inputStream);
-
-          //  pdDocument = PDDocument.load(toSignFile);
-            byte[] toSignBytes=IOUtils.toByteArray(inputStream);
-            pdDocument = PDDocument.load(new ByteArrayInputStream(toSignBytes));
-            
-       //     signedFile = File.createTempFile("sd-dss-", "-signedaddDssDictionary.pdf");
-        //    signedFile.deleteOnExit();
-            // final FileOutputStream fileOutputStream = DSSPDFUtils.getFileOutputStream(toSignFile, signedFile);            
-            final ByteArrayOutputStream fileOutputStream = new ByteArrayOutputStream();
             if (dssDictionary != null) {
                 COSDictionary cosDictionary = pdDocument.getDocumentCatalog().getCOSObject();
 
                 PdfBoxDict value = new PdfBoxDict(dssDictionary);
-                //cosDictionary.setItem("DSS", value.getWrapped());
                 cosDictionary.setItem("DSS", value.getWrapped());
                 cosDictionary.setNeedToBeUpdated(true);
-
             }
             if (pdDocument.getDocumentId() == null) {
                 pdDocument.setDocumentId(0L);
             }
 
-            pdDocument.saveIncremental(fileOutputStream);
-
-         //   fis = new FileInputStream(signedFile);
-            IOUtils.write(fileOutputStream.toByteArray() , outpuStream);
-
+            pdDocument.saveIncremental(new CloseShieldOutputStream(outputStream));
         } catch (Exception e) {
-            e.printStackTrace();
             throw new DSSException(e);
         } finally {
-            //signedFile.delete();
             IOUtils.closeQuietly(pdDocument);
-          //  IOUtils.closeQuietly(fis);
         }
     }
 
+    /**
+     * Keeps the bytes written after the original document, that is to say the incremental update.
+     */
+    private static class RevisionOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream revision = new ByteArrayOutputStream();
+
+        private long toSkip;
+
+        RevisionOutputStream(final long documentLength) {
+            this.toSkip = documentLength;
+        }
+
+        @Override
+        public void write(int b) {
+            if (toSkip > 0) {
+                toSkip--;
+            } else {
+                revision.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (toSkip > 0) {
+                final int skipped = (int) Math.min(toSkip, len);
+                toSkip -= skipped;
+                off += skipped;
+                len -= skipped;
+            }
+            if (len > 0) {
+                revision.write(b, off, len);
+            }
+        }
+
+        byte[] toByteArray() {
+            return revision.toByteArray();
+        }
+
+    }
+
 }
@@ -0,0 +1,905 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.pdfbox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import eu.europa.esig.dss.DSSDocument;
+
+/**
+ * The chain of the cross-reference sections of a PDF document : the section pointed by the last startxref, then the sections of the
+ * previous revisions through the /Prev entries of the trailers. The chain is read once from the raw bytes, without loading the document :
+ * only the cross-reference sections, the trailers and the catalogs are read. For each revision, the catalog is found through the
+ * cross-reference sections of this revision and of the previous ones, and the presence of its /DSS entry is kept.
+ *
+ * The cross-reference tables, the cross-reference streams (FlateDecode, with or without PNG predictor), the hybrid files (/XRefStm)
+ * and the catalogs stored in an object stream are supported. An {@code IOException} is thrown for any other structure.
+ */
+final class PdfXrefChain {
+
+	private static final int BLOCK_SIZE = 4096;
+
+	private static final int TAIL_SIZE = 1024;
+
+	/**
+	 * The size of an entry of a cross-reference table, end of line included
+	 */
+	private static final int XREF_ENTRY_SIZE = 20;
+
+	/**
+	 * The maximum number of bytes read from an object stream after the beginning of the catalog
+	 */
+	private static final int MAX_OBJECT_SIZE = 64 * 1024;
+
+	private final DSSDocument document;
+
+	private final long documentLength;
+
+	/**
+	 * The sections, from the last revision to the first one
+	 */
+	private final List<Section> sections = new ArrayList<Section>();
+
+	/**
+	 * The block of the document read last
+	 */
+	private long blockOffset = -1;
+
+	private byte[] block;
+
+	/**
+	 * Reads the chain of the cross-reference sections.
+	 *
+	 * @param document
+	 *            the PDF document
+	 * @param documentLength
+	 *            the length of the document
+	 * @throws IOException
+	 *             if the chain cannot be read
+	 */
+	PdfXrefChain(final DSSDocument document, final long documentLength) throws IOException {
+		this.document = document;
+		this.documentLength = documentLength;
+
+		final Set<Long> visitedOffsets = new HashSet<Long>();
+		Long offset = getLastStartXref();
+		Section next = null;
+		while ((offset != null) && visitedOffsets.add(offset)) {
+			final Section section = readSection(offset);
+			final Long xrefStreamOffset = getLong(section.trailer, "XRefStm");
+			if ((xrefStreamOffset != null) && !section.isStream()) {
+				section.hybridStream = readSection(xrefStreamOffset);
+			}
+			if (next != null) {
+				next.previous = section;
+			}
+			sections.add(section);
+			next = section;
+			offset = getLong(section.trailer, "Prev");
+		}
+		if (sections.isEmpty()) {
+			throw new IOException("No cross-reference section");
+		}
+	}
+
+	/**
+	 * @return the number of cross-reference sections
+	 */
+	int size() {
+		return sections.size();
+	}
+
+	/**
+	 * Checks the catalog of the revision made of the first {@code length} bytes of the document : the revision of the last
+	 * cross-reference section which starts before {@code length}.
+	 *
+	 * @param length
+	 *            the number of bytes from the beginning of the document
+	 * @return true if the catalog of the revision contains a /DSS entry
+	 * @throws IOException
+	 *             if the catalog cannot be read
+	 */
+	boolean isDSSDictionaryPresent(final long length) throws IOException {
+		for (final Section section : sections) {
+			if (section.offset < length) {
+				if (section.dssPresent == null) {
+					final Map<String, Object> catalog = getCatalog(section);
+					section.dssPresent = (catalog != null) && catalog.containsKey("DSS");
+				}
+				return section.dssPresent;
+			}
+		}
+		return false;
+	}
+
+	private Map<String, Object> getCatalog(final Section section) throws IOException {
+		Reference root = null;
+		for (Section current = section; (current != null) && (root == null); current = current.previous) {
+			final Object value = current.trailer.get("Root");
+			if (value instanceof Reference) {
+				root = (Reference) value;
+			}
+		}
+		if (root == null) {
+			throw new IOException("No /Root in the trailers");
+		}
+		final long[] entry = findEntry(section, root.number);
+		if (entry == null) {
+			return null;
+		}
+		if (entry[0] == 1) {
+			return readIndirectDictionary(entry[1]);
+		}
+		return readDictionaryFromObjectStream(section, (int) entry[1], root.number);
+	}
+
+	/**
+	 * @return the entry {type, field 2, field 3} of the object in the given revision, or null if the object is free or unknown
+	 */
+	private long[] findEntry(final Section section, final int objectNumber) throws IOException {
+		for (Section current = section; current != null; current = current.previous) {
+			final long[] entry = current.getEntry(objectNumber);
+			if ((entry != null) && (entry[0] != 0)) {
+				return entry;
+			}
+			if (current.hybridStream != null) {
+				final long[] streamEntry = current.hybridStream.getEntry(objectNumber);
+				if ((streamEntry != null) && (streamEntry[0] != 0)) {
+					return streamEntry;
+				}
+			}
+			if (entry != null) {
+				// free in this revision
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private Map<String, Object> readIndirectDictionary(final long offset) throws IOException {
+		final Parser parser = new Parser(new DocumentBytes(), offset);
+		parser.readObjectHeader();
+		return parser.readDictionary();
+	}
+
+	private Map<String, Object> readDictionaryFromObjectStream(final Section section, final int streamNumber, final int objectNumber) throws IOException {
+		final long[] streamEntry = findEntry(section, streamNumber);
+		if ((streamEntry == null) || (streamEntry[0] != 1)) {
+			throw new IOException("Object stream " + streamNumber + " not found");
+		}
+		final Parser parser = new Parser(new DocumentBytes(), streamEntry[1]);
+		parser.readObjectHeader();
+		final Map<String, Object> streamDictionary = parser.readDictionary();
+		final long dataOffset = parser.readStreamKeyword();
+		final Long first = getLong(streamDictionary, "First");
+		final Long count = getLong(streamDictionary, "N");
+		if ((first == null) || (count == null)) {
+			throw new IOException("Invalid object stream " + streamNumber);
+		}
+		if (getPngColumns(streamDictionary) > 0) {
+			throw new IOException("Unsupported predictor for the object stream " + streamNumber);
+		}
+
+		final InputStream inputStream = openStreamData(dataOffset, streamDictionary);
+		try {
+			final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+			copy(inputStream, decoded, first);
+			final Parser headerParser = new Parser(new ArrayBytes(decoded.toByteArray()), 0);
+			long objectOffset = -1;
+			for (long ii = 0; ii < count; ii++) {
+				final long number = headerParser.readLong();
+				final long offset = headerParser.readLong();
+				if (number == objectNumber) {
+					objectOffset = first + offset;
+					break;
+				}
+			}
+			if (objectOffset < 0) {
+				throw new IOException("Object " + objectNumber + " not found in the object stream " + streamNumber);
+			}
+			copy(inputStream, decoded, objectOffset + MAX_OBJECT_SIZE - decoded.size());
+			return new Parser(new ArrayBytes(decoded.toByteArray()), objectOffset).readDictionary();
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
+	private Long getLastStartXref() throws IOException {
+		final long tailOffset = Math.max(0, documentLength - TAIL_SIZE);
+		final byte[] tail = read(tailOffset, (int) (documentLength - tailOffset));
+		final int index = lastIndexOf(tail, "startxref".getBytes("US-ASCII"));
+		if (index < 0) {
+			throw new IOException("No startxref");
+		}
+		final Parser parser = new Parser(new ArrayBytes(tail), index + "startxref".length());
+		return parser.readLong();
+	}
+
+	private Section readSection(final long offset) throws IOException {
+		final Parser parser = new Parser(new DocumentBytes(), offset);
+		parser.skipWhitespaces();
+		if (parser.peek() == 'x') {
+			return readXrefTable(parser, offset);
+		}
+		return readXrefStream(parser, offset);
+	}
+
+	private Section readXrefTable(final Parser parser, final long offset) throws IOException {
+		parser.expectKeyword("xref");
+		final Section section = new Section(offset);
+		while (true) {
+			parser.skipWhitespaces();
+			if (parser.peek() == 't') {
+				break;
+			}
+			final long first = parser.readLong();
+			final long count = parser.readLong();
+			parser.skipWhitespaces();
+			section.subsections.add(new long[] {
+					first, count, parser.position
+			});
+			parser.position += count * XREF_ENTRY_SIZE;
+		}
+		parser.expectKeyword("trailer");
+		section.trailer = parser.readDictionary();
+		return section;
+	}
+
+	private Section readXrefStream(final Parser parser, final long offset) throws IOException {
+		parser.readObjectHeader();
+		final Map<String, Object> dictionary = parser.readDictionary();
+		if (!"/XRef".equals(dictionary.get("Type"))) {
+			throw new IOException("No cross-reference section at " + offset);
+		}
+		final Section section = new Section(offset);
+		section.trailer = dictionary;
+		section.streamDataOffset = parser.readStreamKeyword();
+
+		final List<Object> widths = getList(dictionary, "W");
+		if ((widths == null) || (widths.size() != 3)) {
+			throw new IOException("Invalid /W in the cross-reference stream at " + offset);
+		}
+		section.widths = new int[3];
+		for (int ii = 0; ii < 3; ii++) {
+			section.widths[ii] = toInt(widths.get(ii));
+		}
+		final List<Object> index = getList(dictionary, "Index");
+		if (index == null) {
+			final Long size = getLong(dictionary, "Size");
+			if (size == null) {
+				throw new IOException("No /Size in the cross-reference stream at " + offset);
+			}
+			section.subsections.add(new long[] {
+					0, size
+			});
+		} else {
+			for (int ii = 0; (ii + 1) < index.size(); ii += 2) {
+				section.subsections.add(new long[] {
+						toInt(index.get(ii)), toInt(index.get(ii + 1))
+				});
+			}
+		}
+		return section;
+	}
+
+	/**
+	 * Opens the (decompressed) data of a stream
+	 */
+	private InputStream openStreamData(final long dataOffset, final Map<String, Object> dictionary) throws IOException {
+		Object filter = dictionary.get("Filter");
+		if (filter instanceof List) {
+			final List<?> filters = (List<?>) filter;
+			if (filters.size() > 1) {
+				throw new IOException("Unsupported filters " + filters);
+			}
+			filter = filters.isEmpty() ? null : filters.get(0);
+		}
+		final InputStream inputStream = openAt(dataOffset);
+		if (filter == null) {
+			return inputStream;
+		}
+		if ("/FlateDecode".equals(filter)) {
+			return new InflaterInputStream(inputStream);
+		}
+		IOUtils.closeQuietly(inputStream);
+		throw new IOException("Unsupported filter " + filter);
+	}
+
+	/**
+	 * @return the number of columns of the PNG predictor, or 0 if the stream has no predictor
+	 */
+	private int getPngColumns(final Map<String, Object> dictionary) throws IOException {
+		Object parameters = dictionary.get("DecodeParms");
+		if (parameters instanceof List) {
+			final List<?> list = (List<?>) parameters;
+			parameters = list.isEmpty() ? null : list.get(0);
+		}
+		if (!(parameters instanceof Map)) {
+			return 0;
+		}
+		@SuppressWarnings("unchecked")
+		final Map<String, Object> parametersMap = (Map<String, Object>) parameters;
+		final Long predictor = getLong(parametersMap, "Predictor");
+		if ((predictor == null) || (predictor == 1)) {
+			return 0;
+		}
+		if (predictor < 10) {
+			throw new IOException("Unsupported predictor " + predictor);
+		}
+		final Long colors = getLong(parametersMap, "Colors");
+		final Long bitsPerComponent = getLong(parametersMap, "BitsPerComponent");
+		if (((colors != null) && (colors != 1)) || ((bitsPerComponent != null) && (bitsPerComponent != 8))) {
+			throw new IOException("Unsupported predictor parameters " + parametersMap);
+		}
+		final Long columns = getLong(parametersMap, "Columns");
+		return (columns == null) ? 1 : columns.intValue();
+	}
+
+	/**
+	 * Reads the fields of an entry of a cross-reference stream
+	 */
+	private long[] readStreamEntry(final Section section, final long row) throws IOException {
+		final int rowLength = section.widths[0] + section.widths[1] + section.widths[2];
+		final int columns = getPngColumns(section.trailer);
+		if ((columns > 0) && (columns != rowLength)) {
+			throw new IOException("Unsupported predictor columns " + columns);
+		}
+		final InputStream inputStream = openStreamData(section.streamDataOffset, section.trailer);
+		try {
+			final byte[] rowBytes = new byte[rowLength];
+			if (columns == 0) {
+				IOUtils.skipFully(inputStream, row * rowLength);
+				IOUtils.readFully(inputStream, rowBytes);
+			} else {
+				// PNG predictor : each row is preceded by its filter type and depends on the previous row
+				final byte[] previousRow = new byte[rowLength];
+				for (long ii = 0; ii <= row; ii++) {
+					final int filterType = inputStream.read();
+					IOUtils.readFully(inputStream, rowBytes);
+					unfilterRow(filterType, rowBytes, previousRow);
+					System.arraycopy(rowBytes, 0, previousRow, 0, rowLength);
+				}
+			}
+			final long[] entry = new long[3];
+			int position = 0;
+			for (int ii = 0; ii < 3; ii++) {
+				long value = 0;
+				for (int jj = 0; jj < section.widths[ii]; jj++) {
+					value = (value << 8) | (rowBytes[position++] & 0xFF);
+				}
+				entry[ii] = value;
+			}
+			if (section.widths[0] == 0) {
+				// the default type is 1
+				entry[0] = 1;
+			}
+			return entry;
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
+	private void unfilterRow(final int filterType, final byte[] row, final byte[] previousRow) throws IOException {
+		for (int ii = 0; ii < row.length; ii++) {
+			final int left = (ii > 0) ? (row[ii - 1] & 0xFF) : 0;
+			final int up = previousRow[ii] & 0xFF;
+			final int upLeft = (ii > 0) ? (previousRow[ii - 1] & 0xFF) : 0;
+			final int value = row[ii] & 0xFF;
+			switch (filterType) {
+				case 0:
+					break;
+				case 1:
+					row[ii] = (byte) (value + left);
+					break;
+				case 2:
+					row[ii] = (byte) (value + up);
+					break;
+				case 3:
+					row[ii] = (byte) (value + ((left + up) / 2));
+					break;
+				case 4:
+					row[ii] = (byte) (value + paeth(left, up, upLeft));
+					break;
+				default:
+					throw new IOException("Invalid PNG filter type " + filterType);
+			}
+		}
+	}
+
+	private int paeth(final int left, final int up, final int upLeft) {
+		final int estimate = (left + up) - upLeft;
+		final int distanceLeft = Math.abs(estimate - left);
+		final int distanceUp = Math.abs(estimate - up);
+		final int distanceUpLeft = Math.abs(estimate - upLeft);
+		if ((distanceLeft <= distanceUp) && (distanceLeft <= distanceUpLeft)) {
+			return left;
+		}
+		return (distanceUp <= distanceUpLeft) ? up : upLeft;
+	}
+
+	private void copy(final InputStream inputStream, final ByteArrayOutputStream outputStream, final long length) throws IOException {
+		final byte[] buffer = new byte[BLOCK_SIZE];
+		long remaining = length;
+		while (remaining > 0) {
+			final int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+			if (read < 0) {
+				return;
+			}
+			outputStream.write(buffer, 0, read);
+			remaining -= read;
+		}
+	}
+
+	private InputStream openAt(final long offset) throws IOException {
+		final InputStream inputStream = document.openStream();
+		try {
+			IOUtils.skipFully(inputStream, offset);
+			return inputStream;
+		} catch (IOException e) {
+			IOUtils.closeQuietly(inputStream);
+			throw e;
+		}
+	}
+
+	private byte[] read(final long offset, final int length) throws IOException {
+		final InputStream inputStream = openAt(offset);
+		try {
+			final byte[] bytes = new byte[length];
+			IOUtils.readFully(inputStream, bytes);
+			return bytes;
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
+	private int byteAt(final long position) throws IOException {
+		if ((position < 0) || (position >= documentLength)) {
+			return -1;
+		}
+		if ((block == null) || (position < blockOffset) || (position >= (blockOffset + block.length))) {
+			blockOffset = position - (position % BLOCK_SIZE);
+			block = read(blockOffset, (int) Math.min(BLOCK_SIZE, documentLength - blockOffset));
+		}
+		return block[(int) (position - blockOffset)] & 0xFF;
+	}
+
+	private static int lastIndexOf(final byte[] bytes, final byte[] pattern) {
+		for (int ii = bytes.length - pattern.length; ii >= 0; ii--) {
+			int jj = 0;
+			while ((jj < pattern.length) && (bytes[ii + jj] == pattern[jj])) {
+				jj++;
+			}
+			if (jj == pattern.length) {
+				return ii;
+			}
+		}
+		return -1;
+	}
+
+	private static Long getLong(final Map<String, Object> dictionary, final String key) {
+		final Object value = dictionary.get(key);
+		return (value instanceof Long) ? (Long) value : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Object> getList(final Map<String, Object> dictionary, final String key) {
+		final Object value = dictionary.get(key);
+		return (value instanceof List) ? (List<Object>) value : null;
+	}
+
+	private static int toInt(final Object value) throws IOException {
+		if (!(value instanceof Long)) {
+			throw new IOException("Integer expected : " + value);
+		}
+		return ((Long) value).intValue();
+	}
+
+	/**
+	 * A cross-reference section and its trailer
+	 */
+	private final class Section {
+
+		private final long offset;
+
+		/**
+		 * {first object number, number of objects, offset of the entries (table only)}
+		 */
+		private final List<long[]> subsections = new ArrayList<long[]>();
+
+		/**
+		 * The trailer, or the dictionary of the cross-reference stream
+		 */
+		private Map<String, Object> trailer;
+
+		/**
+		 * The offset of the data of a cross-reference stream, -1 for a table
+		 */
+		private long streamDataOffset = -1;
+
+		private int[] widths;
+
+		/**
+		 * The cross-reference stream of a hybrid file (/XRefStm)
+		 */
+		private Section hybridStream;
+
+		/**
+		 * The section of the previous revision (/Prev)
+		 */
+		private Section previous;
+
+		private Boolean dssPresent;
+
+		Section(final long offset) {
+			this.offset = offset;
+		}
+
+		boolean isStream() {
+			return streamDataOffset >= 0;
+		}
+
+		/**
+		 * @return the entry of the object in this section, or null if the section does not contain the object
+		 */
+		long[] getEntry(final int objectNumber) throws IOException {
+			long row = 0;
+			for (final long[] subsection : subsections) {
+				final long first = subsection[0];
+				final long count = subsection[1];
+				if ((objectNumber >= first) && (objectNumber < (first + count))) {
+					if (isStream()) {
+						return readStreamEntry(this, row + (objectNumber - first));
+					}
+					return readTableEntry(subsection[2] + ((objectNumber - first) * XREF_ENTRY_SIZE));
+				}
+				row += count;
+			}
+			return null;
+		}
+
+		private long[] readTableEntry(final long position) throws IOException {
+			final Parser parser = new Parser(new DocumentBytes(), position);
+			final long field1 = parser.readLong();
+			final long generation = parser.readLong();
+			final Object type = parser.readObject();
+			if (!(type instanceof Keyword) || !("n".equals(((Keyword) type).text) || "f".equals(((Keyword) type).text))) {
+				throw new IOException("Invalid cross-reference entry at " + position);
+			}
+			return new long[] {
+					"n".equals(((Keyword) type).text) ? 1 : 0, field1, generation
+			};
+		}
+	}
+
+	/**
+	 * Random access to the bytes to parse
+	 */
+	private interface Bytes {
+
+		/**
+		 * @return the byte at the given position, or -1 after the end
+		 */
+		int byteAt(long position) throws IOException;
+	}
+
+	private final class DocumentBytes implements Bytes {
+
+		@Override
+		public int byteAt(final long position) throws IOException {
+			return PdfXrefChain.this.byteAt(position);
+		}
+	}
+
+	private static final class ArrayBytes implements Bytes {
+
+		private final byte[] bytes;
+
+		ArrayBytes(final byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int byteAt(final long position) {
+			return ((position < 0) || (position >= bytes.length)) ? -1 : bytes[(int) position] & 0xFF;
+		}
+	}
+
+	/**
+	 * An indirect reference
+	 */
+	private static final class Reference {
+
+		private final int number;
+
+		Reference(final int number) {
+			this.number = number;
+		}
+	}
+
+	/**
+	 * A keyword or any other token which is not a PDF object (obj, stream, R, n, f...)
+	 */
+	private static final class Keyword {
+
+		private final String text;
+
+		Keyword(final String text) {
+			this.text = text;
+		}
+	}
+
+	/**
+	 * A minimal parser of PDF objects : the numbers are given as {@code Long} or {@code Double}, the names as {@code String} starting
+	 * with '/', the dictionaries as {@code Map} (keys without '/'), the arrays as {@code List}, the references as {@code Reference}. The
+	 * content of the strings is not kept.
+	 */
+	private static final class Parser {
+
+		private static final byte[] NO_STRING = new byte[0];
+
+		private final Bytes bytes;
+
+		private long position;
+
+		Parser(final Bytes bytes, final long position) {
+			this.bytes = bytes;
+			this.position = position;
+		}
+
+		int peek() throws IOException {
+			return bytes.byteAt(position);
+		}
+
+		void skipWhitespaces() throws IOException {
+			int c = peek();
+			while (true) {
+				if (isWhitespace(c)) {
+					position++;
+				} else if (c == '%') {
+					while ((c != -1) && (c != '\n') && (c != '\r')) {
+						position++;
+						c = peek();
+					}
+				} else {
+					return;
+				}
+				c = peek();
+			}
+		}
+
+		long readLong() throws IOException {
+			final Object value = readObject();
+			if (!(value instanceof Long)) {
+				throw new IOException("Integer expected at " + position);
+			}
+			return (Long) value;
+		}
+
+		void expectKeyword(final String keyword) throws IOException {
+			final Object value = readObject();
+			if (!(value instanceof Keyword) || !keyword.equals(((Keyword) value).text)) {
+				throw new IOException("'" + keyword + "' expected at " + position);
+			}
+		}
+
+		/**
+		 * Reads "number generation obj"
+		 */
+		void readObjectHeader() throws IOException {
+			readLong();
+			readLong();
+			expectKeyword("obj");
+		}
+
+		Map<String, Object> readDictionary() throws IOException {
+			final Object value = readObject();
+			if (!(value instanceof Map)) {
+				throw new IOException("Dictionary expected at " + position);
+			}
+			@SuppressWarnings("unchecked")
+			final Map<String, Object> dictionary = (Map<String, Object>) value;
+			return dictionary;
+		}
+
+		/**
+		 * Reads the "stream" keyword and its end of line
+		 *
+		 * @return the position of the data of the stream
+		 */
+		long readStreamKeyword() throws IOException {
+			expectKeyword("stream");
+			if (peek() == '\r') {
+				position++;
+			}
+			if (peek() == '\n') {
+				position++;
+			}
+			return position;
+		}
+
+		Object readObject() throws IOException {
+			skipWhitespaces();
+			final int c = peek();
+			switch (c) {
+				case -1:
+					throw new IOException("Unexpected end of data");
+				case '/':
+					position++;
+					return "/" + readRegularCharacters();
+				case '<':
+					position++;
+					if (peek() == '<') {
+						position++;
+						return readDictionaryContent();
+					}
+					skipHexString();
+					return NO_STRING;
+				case '(':
+					position++;
+					skipLiteralString();
+					return NO_STRING;
+				case '[':
+					position++;
+					return readArrayContent();
+				default:
+					if (isDelimiter(c)) {
+						throw new IOException("Unexpected '" + (char) c + "' at " + position);
+					}
+					final String token = readRegularCharacters();
+					if (isNumber(token)) {
+						return readNumberOrReference(token);
+					}
+					return new Keyword(token);
+			}
+		}
+
+		private Object readNumberOrReference(final String token) throws IOException {
+			if ((token.indexOf('.') >= 0)) {
+				return Double.valueOf(token);
+			}
+			final Long number = Long.valueOf(token.startsWith("+") ? token.substring(1) : token);
+			// "number generation R"
+			final long savedPosition = position;
+			skipWhitespaces();
+			if (Character.isDigit(peek())) {
+				final String generation = readRegularCharacters();
+				skipWhitespaces();
+				if (isNumber(generation) && (peek() == 'R')) {
+					position++;
+					if (isWhitespace(peek()) || isDelimiter(peek()) || (peek() == -1)) {
+						return new Reference(number.intValue());
+					}
+				}
+			}
+			position = savedPosition;
+			return number;
+		}
+
+		private Map<String, Object> readDictionaryContent() throws IOException {
+			final Map<String, Object> dictionary = new HashMap<String, Object>();
+			while (true) {
+				skipWhitespaces();
+				if (peek() == '>') {
+					position++;
+					if (peek() != '>') {
+						throw new IOException("'>>' expected at " + position);
+					}
+					position++;
+					return dictionary;
+				}
+				final Object key = readObject();
+				if (!(key instanceof String)) {
+					throw new IOException("Name expected at " + position);
+				}
+				dictionary.put(((String) key).substring(1), readObject());
+			}
+		}
+
+		private List<Object> readArrayContent() throws IOException {
+			final List<Object> array = new ArrayList<Object>();
+			while (true) {
+				skipWhitespaces();
+				if (peek() == ']') {
+					position++;
+					return array;
+				}
+				array.add(readObject());
+			}
+		}
+
+		private void skipHexString() throws IOException {
+			int c = peek();
+			while (c != '>') {
+				if (c == -1) {
+					throw new IOException("Unterminated hexadecimal string");
+				}
+				position++;
+				c = peek();
+			}
+			position++;
+		}
+
+		private void skipLiteralString() throws IOException {
+			int depth = 1;
+			while (depth > 0) {
+				final int c = peek();
+				position++;
+				if (c == -1) {
+					throw new IOException("Unterminated string");
+				} else if (c == '\\') {
+					position++;
+				} else if (c == '(') {
+					depth++;
+				} else if (c == ')') {
+					depth--;
+				}
+			}
+		}
+
+		private String readRegularCharacters() throws IOException {
+			final StringBuilder builder = new StringBuilder();
+			int c = peek();
+			while ((c != -1) && !isWhitespace(c) && !isDelimiter(c)) {
+				builder.append((char) c);
+				position++;
+				c = peek();
+			}
+			return builder.toString();
+		}
+
+		private static boolean isNumber(final String token) {
+			if (token.isEmpty()) {
+				return false;
+			}
+			boolean digit = false;
+			for (int ii = 0; ii < token.length(); ii++) {
+				final char c = token.charAt(ii);
+				if (Character.isDigit(c)) {
+					digit = true;
+				} else if (!((c == '.') || (((c == '+') || (c == '-')) && (ii == 0)))) {
+					return false;
+				}
+			}
+			return digit;
+		}
+
+		private static boolean isWhitespace(final int c) {
+			return (c == 0) || (c == '\t') || (c == '\n') || (c == '\f') || (c == '\r') || (c == ' ');
+		}
+
+		private static boolean isDelimiter(final int c) {
+			return (c == '(') || (c == ')') || (c == '<') || (c == '>') || (c == '[') || (c == ']') || (c == '{') || (c == '}') || (c == '/')
+					|| (c == '%');
+		}
+	}
+
+}
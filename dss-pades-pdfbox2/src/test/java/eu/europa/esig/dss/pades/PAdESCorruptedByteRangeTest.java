@@ -0,0 +1,101 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pades;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.SignatureLevel;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.pades.signature.PAdESService;
+import eu.europa.esig.dss.test.TestUtils;
+import eu.europa.esig.dss.test.gen.CertificateService;
+import eu.europa.esig.dss.test.mock.MockPrivateKeyEntry;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.report.DiagnosticData;
+import eu.europa.esig.dss.validation.report.Reports;
+
+public class PAdESCorruptedByteRangeTest {
+
+	@Test
+	public void corruptedByteRangeDoesNotHideTheOtherSignature() throws Exception {
+		CertificateService certificateService = new CertificateService();
+		MockPrivateKeyEntry privateKeyEntry = certificateService.generateCertificateChain(SignatureAlgorithm.RSA_SHA256);
+		PAdESService service = new PAdESService(new CommonCertificateVerifier());
+
+		DSSDocument signedDocument = sign(service, privateKeyEntry, new FileDocument(new File("src/test/resources/sample.pdf")));
+		DSSDocument doubleSignedDocument = sign(service, privateKeyEntry, signedDocument);
+
+		// the ByteRange of the second signature points after the end of the document, the first revision is unchanged
+		byte[] bytes = doubleSignedDocument.getBytes();
+		corruptLastByteRange(bytes);
+
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(new InMemoryDocument(bytes));
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		Reports reports = validator.validateDocument();
+
+		DiagnosticData diagnosticData = reports.getDiagnosticData();
+		List<String> signatureIdList = diagnosticData.getSignatureIdList();
+		assertEquals(1, signatureIdList.size());
+		assertTrue(diagnosticData.isBLevelTechnicallyValid(signatureIdList.get(0)));
+	}
+
+	private DSSDocument sign(PAdESService service, MockPrivateKeyEntry privateKeyEntry, DSSDocument toBeSigned) {
+		PAdESSignatureParameters params = new PAdESSignatureParameters();
+		params.setSignatureLevel(SignatureLevel.PAdES_BASELINE_B);
+		params.setSigningCertificate(privateKeyEntry.getCertificate());
+		params.setCertificateChain(privateKeyEntry.getCertificateChain());
+
+		ToBeSigned dataToSign = service.getDataToSign(toBeSigned, params);
+		SignatureValue signatureValue = TestUtils.sign(SignatureAlgorithm.RSA_SHA256, privateKeyEntry, dataToSign);
+		return service.signDocument(toBeSigned, params, signatureValue);
+	}
+
+	/**
+	 * Replaces the digits of the last offset of the last ByteRange with '9', without changing the length of the document
+	 */
+	private void corruptLastByteRange(byte[] bytes) {
+		String content = new String(bytes, 0, bytes.length, Charset.forName("ISO-8859-1"));
+		int position = content.indexOf(']', content.lastIndexOf("/ByteRange")) - 1;
+		while (bytes[position] == ' ') {
+			position--;
+		}
+		int digits = 0;
+		while (Character.isDigit(bytes[position])) {
+			bytes[position--] = '9';
+			digits++;
+		}
+		assertTrue(digits > 0);
+	}
+
+}
@@ -12,6 +12,8 @@ import java.util.Set;
 import org.junit.Before;
 import org.junit.Test;
 
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.pdf.PdfByteRangeDocument;
 import eu.europa.esig.dss.pdf.PdfDssDict;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfo;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfoComparator;
@@ -136,6 +138,16 @@ public class PdfSignatureOrDocTimestampInfoComparatorTest {
 			return null;
 		}
 
+		@Override
+		public byte[] getSignedDocumentDigest(DigestAlgorithm digestAlgorithm) {
+			return null;
+		}
+
+		@Override
+		public PdfByteRangeDocument getSignedDocument() {
+			return null;
+		}
+
 		@Override
 		public byte[] getOriginalBytes() {
 			return null;
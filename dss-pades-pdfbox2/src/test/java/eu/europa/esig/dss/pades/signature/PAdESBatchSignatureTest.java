@@ -0,0 +1,116 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pades.signature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.SignatureLevel;
+import eu.europa.esig.dss.SignaturePackaging;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.test.gen.CertificateService;
+import eu.europa.esig.dss.test.mock.MockPrivateKeyEntry;
+import eu.europa.esig.dss.test.mock.MockSignatureTokenConnection;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.report.DiagnosticData;
+import eu.europa.esig.dss.validation.report.Reports;
+
+public class PAdESBatchSignatureTest {
+
+	private PAdESService service;
+	private PAdESSignatureParameters signatureParameters;
+	private DSSDocument documentToSign;
+	private MockPrivateKeyEntry privateKeyEntry;
+
+	@Before
+	public void init() throws Exception {
+		documentToSign = new FileDocument(new File("src/test/resources/sample.pdf"));
+
+		CertificateService certificateService = new CertificateService();
+		privateKeyEntry = certificateService.generateCertificateChain(SignatureAlgorithm.RSA_SHA256);
+
+		signatureParameters = new PAdESSignatureParameters();
+		signatureParameters.bLevel().setSigningDate(new Date());
+		signatureParameters.setSigningCertificate(privateKeyEntry.getCertificate());
+		signatureParameters.setCertificateChain(privateKeyEntry.getCertificateChain());
+		signatureParameters.setSignaturePackaging(SignaturePackaging.ENVELOPING);
+		signatureParameters.setSignatureLevel(SignatureLevel.PAdES_BASELINE_B);
+
+		service = new PAdESService(new CommonCertificateVerifier());
+	}
+
+	@Test
+	public void signBatch() throws Exception {
+		List<DSSDocument> documents = new ArrayList<DSSDocument>();
+		documents.add(documentToSign);
+		documents.add(new InMemoryDocument("not a pdf".getBytes()));
+		documents.add(new FileDocument(new File("src/test/resources/sample.pdf")));
+
+		List<PAdESBatchResult> results = service.signDocuments(documents, signatureParameters, new MockSignatureTokenConnection(), privateKeyEntry);
+		assertEquals(3, results.size());
+
+		assertTrue(results.get(0).isSigned());
+		assertFalse(results.get(1).isSigned());
+		assertNotNull(results.get(1).getException());
+		assertTrue(results.get(2).isSigned());
+
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(results.get(2).getSignedDocument());
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+		Reports reports = validator.validateDocument();
+
+		DiagnosticData diagnosticData = reports.getDiagnosticData();
+		assertEquals(1, diagnosticData.getSignatureIdList().size());
+		assertTrue(diagnosticData.isBLevelTechnicallyValid(diagnosticData.getFirstSignatureId()));
+	}
+
+	@Test
+	public void signBatchWithSmallWindow() throws Exception {
+		List<DSSDocument> documents = new ArrayList<DSSDocument>();
+		for (int i = 0; i < 5; i++) {
+			documents.add(new FileDocument(new File("src/test/resources/sample.pdf")));
+		}
+		documents.add(2, new InMemoryDocument("not a pdf".getBytes()));
+
+		service.setBatchWindow(1);
+		List<PAdESBatchResult> results = service.signDocuments(documents, signatureParameters, new MockSignatureTokenConnection(), privateKeyEntry);
+		assertEquals(6, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(documents.get(i), results.get(i).getDocument());
+			assertEquals(i != 2, results.get(i).isSigned());
+		}
+	}
+
+}
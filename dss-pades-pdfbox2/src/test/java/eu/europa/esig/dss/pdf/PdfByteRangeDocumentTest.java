@@ -0,0 +1,80 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.InMemoryDocument;
+
+public class PdfByteRangeDocumentTest {
+
+	private static final byte[] PDF_BYTES = "0123<ABCD>6789".getBytes();
+
+	private static final byte[] SIGNED_BYTES = "01236789".getBytes();
+
+	@Test
+	public void signedContent() throws Exception {
+		PdfByteRangeDocument document = new PdfByteRangeDocument(PDF_BYTES, new int[] { 0, 4, 10, 4 });
+		assertEquals(8, document.getLength());
+		assertArrayEquals(SIGNED_BYTES, document.getBytes());
+
+		InputStream is = document.openStream();
+		assertArrayEquals(SIGNED_BYTES, IOUtils.toByteArray(is));
+		is.close();
+
+		assertArrayEquals(DSSUtils.digest(DigestAlgorithm.SHA256, SIGNED_BYTES), document.digest(DigestAlgorithm.SHA256));
+		assertArrayEquals("0123".getBytes(), document.getFirstPart().getBytes());
+	}
+
+	@Test
+	public void signedContentReadFromDocument() throws Exception {
+		PdfByteRangeDocument document = new PdfByteRangeDocument(new InMemoryDocument(PDF_BYTES), PDF_BYTES.length, new int[] { 0, 4, 10, 4 });
+
+		InputStream is = document.openStream();
+		assertEquals(2, is.skip(2));
+		assertEquals('2', is.read());
+		assertArrayEquals("36789".getBytes(), IOUtils.toByteArray(is));
+		assertEquals(-1, is.read());
+		is.close();
+
+		assertArrayEquals(DSSUtils.digest(DigestAlgorithm.SHA256, SIGNED_BYTES), document.digest(DigestAlgorithm.SHA256));
+	}
+
+	@Test(expected = DSSException.class)
+	public void overlappingByteRange() {
+		new PdfByteRangeDocument(PDF_BYTES, new int[] { 0, 6, 4, 4 });
+	}
+
+	@Test(expected = DSSException.class)
+	public void byteRangeOutsideOfDocument() {
+		new PdfByteRangeDocument(PDF_BYTES, new int[] { 0, 4, 10, 5 });
+	}
+
+}
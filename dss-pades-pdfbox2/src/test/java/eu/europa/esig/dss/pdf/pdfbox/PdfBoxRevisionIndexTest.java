@@ -0,0 +1,104 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.pdfbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.InMemoryDocument;
+
+public class PdfBoxRevisionIndexTest {
+
+	private static final byte[] PDF_BYTES = "%PDF-1.4\n1 0 obj\n<< /Type /Catalog /DSS 2 0 R >>\nendobj\n%%EOF\n".getBytes();
+
+	@Test
+	public void revisionsAreReadFromTheXrefChain() {
+		PdfXrefChainTest.PdfBuilder builder = new PdfXrefChainTest.PdfBuilder();
+		int firstRevision = builder.object(1, "<< /Type /Catalog >>").xrefTable("/Root 1 0 R", 1);
+		int secondRevision = builder.object(2, "<< >>").object(1, "<< /Type /Catalog /DSS 2 0 R >>").xrefTable("/Root 1 0 R", 1, 2);
+		byte[] bytes = builder.toByteArray();
+		CountingDocument document = new CountingDocument(bytes);
+		PdfBoxRevisionIndex revisionIndex = new PdfBoxRevisionIndex(document, bytes.length, Arrays.asList(signature(0, 1, 2, 3)),
+				MemoryUsageSetting.setupMainMemoryOnly());
+
+		assertFalse(revisionIndex.isDSSDictionaryPresent(firstRevision));
+		assertTrue(revisionIndex.isDSSDictionaryPresent(secondRevision));
+		assertTrue(revisionIndex.isDSSDictionaryPresent(secondRevision));
+		// the tail and the only block of the document, no revision is loaded
+		assertEquals(2, document.openedStreams);
+	}
+
+	@Test
+	public void revisionWithoutSignatureIsNotLoaded() {
+		CountingDocument document = new CountingDocument(PDF_BYTES);
+		PdfBoxRevisionIndex revisionIndex = new PdfBoxRevisionIndex(document, PDF_BYTES.length, Arrays.asList(signature(0, 10, 20, 10)),
+				MemoryUsageSetting.setupMainMemoryOnly());
+
+		// the only signature ends after the revision
+		assertFalse(revisionIndex.isDSSDictionaryPresent(20));
+		assertEquals(0, document.openedStreams);
+	}
+
+	@Test
+	public void revisionIsLoadedOnceWithoutXrefChain() {
+		CountingDocument document = new CountingDocument(PDF_BYTES);
+		PdfBoxRevisionIndex revisionIndex = new PdfBoxRevisionIndex(document, PDF_BYTES.length, Arrays.asList(signature(0, 10, 20, 10)),
+				MemoryUsageSetting.setupMainMemoryOnly());
+
+		// no startxref : the revision is loaded with PDFBox, it is not a valid signed PDF : no DSS dictionary
+		assertFalse(revisionIndex.isDSSDictionaryPresent(40));
+		assertFalse(revisionIndex.isDSSDictionaryPresent(40));
+		// the tail read once, the revision loaded once
+		assertEquals(2, document.openedStreams);
+	}
+
+	private PDSignature signature(int... byteRange) {
+		PDSignature signature = new PDSignature();
+		signature.setByteRange(byteRange);
+		return signature;
+	}
+
+	@SuppressWarnings("serial")
+	private static class CountingDocument extends InMemoryDocument {
+
+		private int openedStreams;
+
+		CountingDocument(byte[] bytes) {
+			super(bytes);
+		}
+
+		@Override
+		public InputStream openStream() throws DSSException {
+			openedStreams++;
+			return super.openStream();
+		}
+	}
+
+}
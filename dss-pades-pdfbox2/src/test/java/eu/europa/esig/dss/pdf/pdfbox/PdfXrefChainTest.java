@@ -0,0 +1,219 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf.pdfbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.InMemoryDocument;
+
+public class PdfXrefChainTest {
+
+	@Test
+	public void xrefTables() throws IOException {
+		PdfBuilder builder = new PdfBuilder();
+		// a /DSS name in a string is not a DSS dictionary
+		int firstRevision = builder.object(1, "<< /Type /Catalog /Lang (/DSS) /Pages 3 0 R >>").object(3, "<< /Type /Pages /Kids [] /Count 0 >>")
+				.xrefTable("/Root 1 0 R", 1, 3);
+		int secondRevision = builder.object(2, "<< /Certs [] >>").xrefTable("/Root 1 0 R", 2);
+		int thirdRevision = builder.object(1, "<< /Type /Catalog /Pages 3 0 R /DSS 2 0 R >>").xrefTable("/Root 1 0 R", 1);
+		byte[] bytes = builder.toByteArray();
+
+		PdfXrefChain chain = new PdfXrefChain(new InMemoryDocument(bytes), bytes.length);
+		assertEquals(3, chain.size());
+		assertFalse(chain.isDSSDictionaryPresent(firstRevision));
+		assertFalse(chain.isDSSDictionaryPresent(secondRevision));
+		assertTrue(chain.isDSSDictionaryPresent(thirdRevision));
+		assertTrue(chain.isDSSDictionaryPresent(bytes.length));
+	}
+
+	@Test
+	public void xrefStreamAndObjectStream() throws IOException {
+		PdfBuilder builder = new PdfBuilder();
+		int firstRevision = builder.object(1, "<< /Type /Catalog /Pages 3 0 R >>").object(3, "<< /Type /Pages /Kids [] /Count 0 >>")
+				.xrefTable("/Root 1 0 R", 1, 3);
+		// the new catalog is compressed in the object stream 4
+		int objectStreamOffset = builder.objectStream(4, 1, "<< /Type /Catalog /Pages 3 0 R /DSS 2 0 R >>", 2, "<< /Certs [] >>");
+		int secondRevision = builder.xrefStream(5, "/Root 1 0 R", new long[][] {
+				{
+						2, 4, 0
+				}, {
+						2, 4, 1
+				}, {
+						1, builder.offset(3), 0
+				}, {
+						1, objectStreamOffset, 0
+				}
+		}, 1, 4);
+		byte[] bytes = builder.toByteArray();
+
+		PdfXrefChain chain = new PdfXrefChain(new InMemoryDocument(bytes), bytes.length);
+		assertEquals(2, chain.size());
+		assertFalse(chain.isDSSDictionaryPresent(firstRevision));
+		assertTrue(chain.isDSSDictionaryPresent(secondRevision));
+	}
+
+	@Test(expected = IOException.class)
+	public void noXref() throws IOException {
+		byte[] bytes = "%PDF-1.4\n1 0 obj\n<< /Type /Catalog /DSS 2 0 R >>\nendobj\n%%EOF\n".getBytes();
+		new PdfXrefChain(new InMemoryDocument(bytes), bytes.length);
+	}
+
+	/**
+	 * Writes a PDF document revision by revision, with the offsets of the objects
+	 */
+	static class PdfBuilder {
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		private final int[] offsets = new int[16];
+
+		private int previousXref = -1;
+
+		PdfBuilder() {
+			write("%PDF-1.5\n");
+		}
+
+		PdfBuilder object(int number, String dictionary) {
+			offsets[number] = out.size();
+			write(number + " 0 obj\n" + dictionary + "\nendobj\n");
+			return this;
+		}
+
+		int offset(int number) {
+			return offsets[number];
+		}
+
+		/**
+		 * Writes an object stream containing two objects
+		 *
+		 * @return the offset of the object stream
+		 */
+		int objectStream(int number, int firstNumber, String first, int secondNumber, String second) {
+			String objects = first + " " + second;
+			String header = firstNumber + " 0 " + secondNumber + " " + (first.length() + 1) + " ";
+			byte[] data = deflate((header + objects).getBytes());
+			int offset = out.size();
+			offsets[number] = offset;
+			write(number + " 0 obj\n<< /Type /ObjStm /N 2 /First " + header.length() + " /Filter /FlateDecode /Length " + data.length
+					+ " >>\nstream\n");
+			out.write(data, 0, data.length);
+			write("\nendstream\nendobj\n");
+			return offset;
+		}
+
+		/**
+		 * Writes a cross-reference table with one subsection by object, a trailer and the end of the revision
+		 *
+		 * @return the length of the document at the end of the revision
+		 */
+		int xrefTable(String trailerEntries, int... numbers) {
+			int xrefOffset = out.size();
+			StringBuilder sb = new StringBuilder("xref\n");
+			for (int number : numbers) {
+				sb.append(number).append(" 1\n").append(String.format("%010d 00000 n\r\n", offsets[number]));
+			}
+			sb.append("trailer\n<< /Size 16 ").append(trailerEntries);
+			if (previousXref >= 0) {
+				sb.append(" /Prev ").append(previousXref);
+			}
+			sb.append(" >>\n");
+			write(sb.toString());
+			return endRevision(xrefOffset);
+		}
+
+		/**
+		 * Writes a cross-reference stream (/W [1 4 2], PNG Up predictor) with the given rows for the objects given by /Index
+		 *
+		 * @return the length of the document at the end of the revision
+		 */
+		int xrefStream(int number, String trailerEntries, long[][] rows, int... index) {
+			int xrefOffset = out.size();
+			int[] widths = {
+					1, 4, 2
+			};
+			byte[] previousRow = new byte[7];
+			ByteArrayOutputStream raw = new ByteArrayOutputStream();
+			for (long[] fields : rows) {
+				byte[] row = new byte[7];
+				int position = 0;
+				for (int ii = 0; ii < 3; ii++) {
+					for (int jj = widths[ii] - 1; jj >= 0; jj--) {
+						row[position++] = (byte) (fields[ii] >> (8 * jj));
+					}
+				}
+				raw.write(2);
+				for (int ii = 0; ii < row.length; ii++) {
+					raw.write(row[ii] - previousRow[ii]);
+				}
+				previousRow = row;
+			}
+			byte[] data = deflate(raw.toByteArray());
+			StringBuilder sb = new StringBuilder();
+			sb.append(number).append(" 0 obj\n<< /Type /XRef /Size 16 /W [1 4 2] /Index [").append(index[0]).append(" ").append(index[1])
+					.append("] ").append(trailerEntries);
+			if (previousXref >= 0) {
+				sb.append(" /Prev ").append(previousXref);
+			}
+			sb.append(" /Filter /FlateDecode /DecodeParms << /Predictor 12 /Columns 7 >> /Length ").append(data.length)
+					.append(" >>\nstream\r\n");
+			write(sb.toString());
+			out.write(data, 0, data.length);
+			write("\nendstream\nendobj\n");
+			return endRevision(xrefOffset);
+		}
+
+		private int endRevision(int xrefOffset) {
+			write("startxref\n" + xrefOffset + "\n%%EOF\n");
+			previousXref = xrefOffset;
+			return out.size();
+		}
+
+		byte[] toByteArray() {
+			return out.toByteArray();
+		}
+
+		private void write(String text) {
+			byte[] bytes = text.getBytes();
+			out.write(bytes, 0, bytes.length);
+		}
+
+		private static byte[] deflate(byte[] bytes) {
+			try {
+				ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+				DeflaterOutputStream deflater = new DeflaterOutputStream(deflated);
+				deflater.write(bytes);
+				deflater.close();
+				return deflated.toByteArray();
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+}
@@ -24,6 +24,7 @@ import java.security.cert.X509Certificate;
 import java.util.Date;
 import java.util.Set;
 
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.validation.SignatureCryptographicVerification;
 
 /**
@@ -52,6 +53,13 @@ public interface PdfSignatureOrDocTimestampInfo {
 	 */
 	byte[] getSignedDocumentBytes();
 
+	/**
+	 * @param digestAlgorithm
+	 *            the digest algorithm to use
+	 * @return the digest of what is signed, computed without copying the signed bytes
+	 */
+	byte[] getSignedDocumentDigest(DigestAlgorithm digestAlgorithm);
+
 	/**
 	 * This method return a few extra bytes (the header of the signature) but it's correctly ignored by PDF Box
 	 *
@@ -101,6 +101,11 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 		return signedBytes;
 	}
 
+	@Override
+	public byte[] getSignedDocumentDigest(DigestAlgorithm digestAlgorithm) {
+		return DSSUtils.digest(digestAlgorithm, signedBytes);
+	}
+
 	@Override
 	public byte[] getOriginalBytes() {
 		final int length = signatureByteRange[1];
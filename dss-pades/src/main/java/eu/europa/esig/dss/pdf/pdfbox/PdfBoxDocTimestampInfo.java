@@ -82,8 +82,13 @@ class PdfBoxDocTimestampInfo extends PdfBoxCMSInfo implements PdfDocTimestampInf
 		signatureCryptographicVerification.setSignatureIntact(false);
 		if (getSignedDocumentBytes() != null) {
 			signatureCryptographicVerification.setReferenceDataFound(true);
+			try {
+				final byte[] digest = getSignedDocumentDigest(timestampToken.getSignedDataDigestAlgo());
+				signatureCryptographicVerification.setReferenceDataIntact(timestampToken.matchDigest(digest));
+			} catch (DSSException e) {
+				logger.warn("Unable to check the message imprint of the document timestamp : " + e.getMessage());
+			}
 		}
-		signatureCryptographicVerification.setReferenceDataIntact(timestampToken.matchData(getSignedDocumentBytes()));
 		signatureCryptographicVerification.setSignatureIntact(timestampToken.isSignatureValid());
 		return signatureCryptographicVerification;
 	}
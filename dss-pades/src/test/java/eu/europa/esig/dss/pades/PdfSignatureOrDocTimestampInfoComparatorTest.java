@@ -12,6 +12,7 @@ import java.util.Set;
 import org.junit.Before;
 import org.junit.Test;
 
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.pdf.PdfDssDict;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfo;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfoComparator;
@@ -136,6 +137,11 @@ public class PdfSignatureOrDocTimestampInfoComparatorTest {
 			return null;
 		}
 
+		@Override
+		public byte[] getSignedDocumentDigest(DigestAlgorithm digestAlgorithm) {
+			return null;
+		}
+
 		@Override
 		public byte[] getOriginalBytes() {
 			return null;
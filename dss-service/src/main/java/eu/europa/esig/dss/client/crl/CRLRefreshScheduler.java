@@ -0,0 +1,361 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.crl;
+
+import java.security.cert.X509CRL;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.client.http.ConditionalDataLoader;
+import eu.europa.esig.dss.client.http.ConditionalDataLoader.ConditionalResponse;
+import eu.europa.esig.dss.client.http.commons.CommonsDataLoader;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.crl.CRLUtils;
+import eu.europa.esig.dss.x509.crl.CRLValidity;
+
+/**
+ * Downloads the CRLs in the background, shortly before their nextUpdate, and swaps them in a {@code CRLValidityCache}. The request threads
+ * read the cache and never wait for a download.
+ *
+ * The distribution points are learned from the certificates given to {@link #register(CertificateToken)} (typically by
+ * {@code JdbcCacheCRLSource} for every certificate it checks, or for the CA certificates of the trusted lists with
+ * {@link #registerAll(Collection)}). The downloads use conditional GET requests, so an unchanged CRL is not downloaded again.
+ *
+ * At most {@code maxDistributionPoints} distribution points are followed : a distribution point which is not registered again during
+ * {@code maxIdleTime} is dropped at its next refresh.
+ */
+public class CRLRefreshScheduler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CRLRefreshScheduler.class);
+
+	/**
+	 * The default delay between the refresh of a CRL and its nextUpdate : 10 minutes
+	 */
+	public static final long DEFAULT_REFRESH_MARGIN = 10 * 60 * 1000L;
+
+	/**
+	 * The default delay before a failed or not yet published download is retried : 5 minutes
+	 */
+	public static final long DEFAULT_RETRY_DELAY = 5 * 60 * 1000L;
+
+	/**
+	 * The default delay between the refreshes of a CRL without nextUpdate : 1 hour
+	 */
+	public static final long DEFAULT_REFRESH_INTERVAL = 60 * 60 * 1000L;
+
+	/**
+	 * The default delay after which a distribution point which is not registered again is dropped : 1 day
+	 */
+	public static final long DEFAULT_MAX_IDLE_TIME = 24 * 60 * 60 * 1000L;
+
+	/**
+	 * The default maximum number of distribution points followed
+	 */
+	public static final int DEFAULT_MAX_DISTRIBUTION_POINTS = 1000;
+
+	/**
+	 * A distribution point and the state of its last download. The CRL itself is only kept by the {@code CRLValidityCache}.
+	 */
+	private static class DistributionPoint {
+
+		private final String key;
+
+		private final String crlUrl;
+
+		private final CertificateToken issuerToken;
+
+		private String eTag;
+
+		private String lastModified;
+
+		/**
+		 * The nextUpdate of the last CRL downloaded, null if the CRL has no nextUpdate
+		 */
+		private Date nextUpdate;
+
+		/**
+		 * The time of the last registration
+		 */
+		private volatile long lastRegistration = System.currentTimeMillis();
+
+		DistributionPoint(final String key, final String crlUrl, final CertificateToken issuerToken) {
+			this.key = key;
+			this.crlUrl = crlUrl;
+			this.issuerToken = issuerToken;
+		}
+	}
+
+	private final CRLValidityCache crlValidityCache;
+
+	private final ConcurrentMap<String, DistributionPoint> distributionPoints = new ConcurrentHashMap<String, DistributionPoint>();
+
+	private final OnlineCRLSource urlExtractor = new OnlineCRLSource();
+
+	private ConditionalDataLoader dataLoader = new CommonsDataLoader();
+
+	private ScheduledExecutorService executorService;
+
+	private long refreshMargin = DEFAULT_REFRESH_MARGIN;
+
+	private long retryDelay = DEFAULT_RETRY_DELAY;
+
+	private long refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+	private long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+
+	private int maxDistributionPoints = DEFAULT_MAX_DISTRIBUTION_POINTS;
+
+	/**
+	 * @param crlValidityCache
+	 *            the cache which receives the CRLs, shared with the CRL sources
+	 */
+	public CRLRefreshScheduler(final CRLValidityCache crlValidityCache) {
+		this.crlValidityCache = crlValidityCache;
+	}
+
+	/**
+	 * @param dataLoader
+	 *            the component used to download the CRLs
+	 */
+	public void setDataLoader(final ConditionalDataLoader dataLoader) {
+		this.dataLoader = dataLoader;
+	}
+
+	/**
+	 * Sets the executor which runs the downloads. By default, a single daemon thread is created on the first registration.
+	 *
+	 * @param executorService
+	 *            the executor
+	 */
+	public void setExecutorService(final ScheduledExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * @param refreshMargin
+	 *            the delay between the refresh of a CRL and its nextUpdate, in milliseconds
+	 */
+	public void setRefreshMargin(final long refreshMargin) {
+		this.refreshMargin = refreshMargin;
+	}
+
+	/**
+	 * @param retryDelay
+	 *            the delay before a failed download is retried, in milliseconds
+	 */
+	public void setRetryDelay(final long retryDelay) {
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * @param refreshInterval
+	 *            the delay between the refreshes of a CRL without nextUpdate, in milliseconds
+	 */
+	public void setRefreshInterval(final long refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+
+	/**
+	 * @param maxIdleTime
+	 *            the delay after which a distribution point which is not registered again is dropped, in milliseconds
+	 */
+	public void setMaxIdleTime(final long maxIdleTime) {
+		this.maxIdleTime = maxIdleTime;
+	}
+
+	/**
+	 * @param maxDistributionPoints
+	 *            the maximum number of distribution points followed
+	 */
+	public void setMaxDistributionPoints(final int maxDistributionPoints) {
+		this.maxDistributionPoints = maxDistributionPoints;
+	}
+
+	/**
+	 * Registers the CRL distribution points of the given certificate. The CRLs are downloaded in the background, once immediately and then
+	 * before each nextUpdate.
+	 *
+	 * @param certificateToken
+	 *            the certificate (its issuer must be known)
+	 */
+	public void register(final CertificateToken certificateToken) {
+
+		final CertificateToken issuerToken = certificateToken.getIssuerToken();
+		if (issuerToken == null) {
+			return;
+		}
+		final List<String> crlUrls = urlExtractor.getCrlUrl(certificateToken);
+		if (CollectionUtils.isEmpty(crlUrls)) {
+			return;
+		}
+		register(crlUrls.get(0), issuerToken);
+	}
+
+	/**
+	 * Registers the CRL distribution points of the given certificates, e.g. the CA certificates of the trusted lists.
+	 *
+	 * @param certificateTokens
+	 *            the certificates
+	 */
+	public void registerAll(final Collection<CertificateToken> certificateTokens) {
+		for (final CertificateToken certificateToken : certificateTokens) {
+			register(certificateToken);
+		}
+	}
+
+	/**
+	 * Registers a CRL distribution point. A distribution point already registered is kept for another {@code maxIdleTime}. A new
+	 * distribution point is ignored when {@code maxDistributionPoints} are already followed.
+	 *
+	 * @param crlUrl
+	 *            the URL of the CRL
+	 * @param issuerToken
+	 *            the issuer of the CRL
+	 */
+	public void register(final String crlUrl, final CertificateToken issuerToken) {
+
+		final String key = crlUrl + '|' + issuerToken.getDSSIdAsString();
+		final DistributionPoint registered = distributionPoints.get(key);
+		if (registered != null) {
+			registered.lastRegistration = System.currentTimeMillis();
+			return;
+		}
+		if (distributionPoints.size() >= maxDistributionPoints) {
+			LOG.debug("Too many CRL distribution points, {} is not refreshed", crlUrl);
+			return;
+		}
+		final DistributionPoint distributionPoint = new DistributionPoint(key, crlUrl, issuerToken);
+		if (distributionPoints.putIfAbsent(key, distributionPoint) == null) {
+			LOG.debug("New CRL distribution point : {}", crlUrl);
+			schedule(distributionPoint, 0);
+		}
+	}
+
+	/**
+	 * Stops the refresh of the CRLs.
+	 */
+	public void shutdown() {
+		if (executorService != null) {
+			executorService.shutdownNow();
+		}
+	}
+
+	private synchronized ScheduledExecutorService getExecutorService() {
+		if (executorService == null) {
+			executorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					final Thread thread = new Thread(runnable, "CRLRefreshScheduler");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executorService;
+	}
+
+	private void schedule(final DistributionPoint distributionPoint, final long delay) {
+		getExecutorService().schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				if ((System.currentTimeMillis() - distributionPoint.lastRegistration) > maxIdleTime) {
+					LOG.debug("CRL distribution point no more used : {}", distributionPoint.crlUrl);
+					distributionPoints.remove(distributionPoint.key, distributionPoint);
+					return;
+				}
+				schedule(distributionPoint, refresh(distributionPoint));
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Downloads and verifies the CRL of the given distribution point, then swaps it in the cache. When the CRL is not modified but is no more
+	 * in the cache (evicted), it is downloaded again.
+	 *
+	 * @return the delay before the next refresh
+	 */
+	private long refresh(final DistributionPoint distributionPoint) {
+
+		try {
+
+			ConditionalResponse response = dataLoader.get(distributionPoint.crlUrl, distributionPoint.eTag, distributionPoint.lastModified);
+			if ((response != null) && response.isNotModified()) {
+
+				if (distributionPoint.nextUpdate == null) {
+					return refreshInterval;
+				}
+				if (crlValidityCache.contains(distributionPoint.crlUrl, distributionPoint.issuerToken)) {
+					return getRefreshDelay(distributionPoint.nextUpdate);
+				}
+				LOG.debug("CRL not modified but no more cached, downloaded again : {}", distributionPoint.crlUrl);
+				response = dataLoader.get(distributionPoint.crlUrl, null, null);
+			}
+			if ((response == null) || response.isNotModified()) {
+				LOG.warn("No CRL available at {}", distributionPoint.crlUrl);
+				return retryDelay;
+			}
+
+			final X509CRL x509CRL = DSSUtils.loadCRL(response.data);
+			final CRLValidity crlValidity = CRLUtils.isValidCRL(x509CRL, distributionPoint.issuerToken);
+			if (!crlValidity.isValid()) {
+				LOG.warn("Invalid CRL at {} : {}", distributionPoint.crlUrl, crlValidity);
+				return retryDelay;
+			}
+			distributionPoint.eTag = response.eTag;
+			distributionPoint.lastModified = response.lastModified;
+			distributionPoint.nextUpdate = x509CRL.getNextUpdate();
+			if (distributionPoint.nextUpdate == null) {
+				// the CRL cannot be cached without nextUpdate, it is only checked at a fixed interval
+				LOG.debug("CRL without nextUpdate at {}", distributionPoint.crlUrl);
+				return refreshInterval;
+			}
+			if (!crlValidityCache.put(distributionPoint.crlUrl, crlValidity)) {
+				// expired CRL : the next one is not published yet
+				return retryDelay;
+			}
+			LOG.debug("CRL refreshed : {}", distributionPoint.crlUrl);
+			return getRefreshDelay(distributionPoint.nextUpdate);
+		} catch (Exception e) {
+			// the refresh must be rescheduled whatever happens
+			LOG.warn("Unable to refresh the CRL at {} : {}", distributionPoint.crlUrl, e.getMessage());
+			return retryDelay;
+		}
+	}
+
+	private long getRefreshDelay(final Date nextUpdate) {
+		return Math.max(nextUpdate.getTime() - refreshMargin - System.currentTimeMillis(), retryDelay);
+	}
+
+}
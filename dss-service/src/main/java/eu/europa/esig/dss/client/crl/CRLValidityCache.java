@@ -0,0 +1,201 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.crl;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.crl.CRLRevocationIndex;
+import eu.europa.esig.dss.x509.crl.CRLToken;
+import eu.europa.esig.dss.x509.crl.CRLValidity;
+
+/**
+ * In-memory cache of the parsed and verified CRLs, keyed by CRL URL and issuer. A {@code CRLValidity} is kept until the nextUpdate of its CRL
+ * (the least recently used are evicted beyond {@code maxEntries}), so that a hit neither decodes the CRL nor verifies its signature again. The
+ * revocation status is answered from a {@code CRLRevocationIndex}.
+ *
+ * The cached entries do not refer to the issuer token of the CRL: the validations use distinct certificate pools, so each token given back
+ * is bound to the issuer token of the requesting certificate (the key guarantees that both tokens have the same content).
+ *
+ * The same instance can be shared by several CRL sources.
+ */
+public class CRLValidityCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CRLValidityCache.class);
+
+	/**
+	 * The default number of CRLs kept in memory
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 100;
+
+	private final Map<String, CRLValidity> crls;
+
+	/**
+	 * The default constructor for CRLValidityCache, which keeps at most {@value #DEFAULT_MAX_ENTRIES} CRLs.
+	 */
+	public CRLValidityCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param maxEntries
+	 *            the maximum number of CRLs kept in memory
+	 */
+	@SuppressWarnings("serial")
+	public CRLValidityCache(final int maxEntries) {
+		crls = new LinkedHashMap<String, CRLValidity>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CRLValidity> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Gives back a token for the given certificate from a cached CRL.
+	 *
+	 * @param crlUrl
+	 *            the URL of the CRL
+	 * @param certificateToken
+	 *            the certificate for which the revocation status is requested (its issuer must be known)
+	 * @return the {@code CRLToken} or {@code null} if there is no valid CRL in the cache
+	 */
+	public CRLToken get(final String crlUrl, final CertificateToken certificateToken) {
+
+		final String key = getKey(crlUrl, certificateToken.getIssuerToken());
+		final CRLValidity crlValidity;
+		synchronized (crls) {
+			crlValidity = crls.get(key);
+		}
+		if (crlValidity == null) {
+			return null;
+		}
+		if (!isFresh(crlValidity)) {
+			synchronized (crls) {
+				if (crls.get(key) == crlValidity) {
+					crls.remove(key);
+				}
+			}
+			return null;
+		}
+		LOG.debug("CRL in memory cache");
+		final CRLToken crlToken = new CRLToken(certificateToken, copy(crlValidity, certificateToken.getIssuerToken()));
+		crlToken.setSourceURL(crlUrl);
+		return crlToken;
+	}
+
+	/**
+	 * Checks if a CRL with a nextUpdate in the future is cached for the given URL and issuer.
+	 *
+	 * @param crlUrl
+	 *            the URL of the CRL
+	 * @param issuerToken
+	 *            the issuer of the CRL
+	 * @return {@code true} if the CRL is in the cache
+	 */
+	public boolean contains(final String crlUrl, final CertificateToken issuerToken) {
+
+		final CRLValidity crlValidity;
+		synchronized (crls) {
+			crlValidity = crls.get(getKey(crlUrl, issuerToken));
+		}
+		return (crlValidity != null) && isFresh(crlValidity);
+	}
+
+	/**
+	 * Adds the CRL of the given token to the cache, if it is valid and has a nextUpdate in the future. The revocation index of the CRL is
+	 * built if needed.
+	 *
+	 * @param crlUrl
+	 *            the URL of the CRL
+	 * @param crlToken
+	 *            the token of the verified CRL
+	 */
+	public void put(final String crlUrl, final CRLToken crlToken) {
+		put(crlUrl, crlToken.getCrlValidity());
+	}
+
+	/**
+	 * Adds the given CRL to the cache, if it is valid and has a nextUpdate in the future. A CRL previously cached with the same URL and issuer
+	 * is replaced. The revocation index of the CRL is built if needed.
+	 *
+	 * @param crlUrl
+	 *            the URL of the CRL
+	 * @param crlValidity
+	 *            the verified CRL
+	 * @return {@code true} if the CRL was added
+	 */
+	public boolean put(final String crlUrl, final CRLValidity crlValidity) {
+
+		if (!crlValidity.isValid() || !isFresh(crlValidity)) {
+			return false;
+		}
+		if (crlValidity.getRevocationIndex() == null) {
+			crlValidity.setRevocationIndex(new CRLRevocationIndex(crlValidity.getX509CRL()));
+		}
+		final String key = getKey(crlUrl, crlValidity.getIssuerToken());
+		final CRLValidity cachedValidity = copy(crlValidity, null);
+		synchronized (crls) {
+			crls.put(key, cachedValidity);
+		}
+		return true;
+	}
+
+	/**
+	 * Copies the result of the verification of a CRL for another issuer token with the same content (e.g. the token of another
+	 * certificate pool).
+	 *
+	 * @param crlValidity
+	 *            the verified CRL
+	 * @param issuerToken
+	 *            the issuer token of the copy
+	 * @return a new {@code CRLValidity} sharing the CRL and its revocation index
+	 */
+	static CRLValidity copy(final CRLValidity crlValidity, final CertificateToken issuerToken) {
+
+		final CRLValidity copy = new CRLValidity();
+		copy.setX509CRL(crlValidity.getX509CRL());
+		copy.setIssuerX509PrincipalMatches(crlValidity.isIssuerX509PrincipalMatches());
+		copy.setSignatureIntact(crlValidity.isSignatureIntact());
+		copy.setCrlSignKeyUsage(crlValidity.isCrlSignKeyUsage());
+		copy.setUnknownCriticalExtension(crlValidity.isUnknownCriticalExtension());
+		copy.setSignatureInvalidityReason(crlValidity.getSignatureInvalidityReason());
+		copy.setRevocationIndex(crlValidity.getRevocationIndex());
+		copy.setIssuerToken(issuerToken);
+		return copy;
+	}
+
+	private boolean isFresh(final CRLValidity crlValidity) {
+		final Date nextUpdate = crlValidity.getX509CRL().getNextUpdate();
+		return (nextUpdate != null) && nextUpdate.after(new Date());
+	}
+
+	private String getKey(final String crlUrl, final CertificateToken issuerToken) {
+		return crlUrl + '|' + issuerToken.getDSSIdAsString();
+	}
+
+}
@@ -28,6 +28,11 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import javax.sql.DataSource;
 
@@ -90,6 +95,15 @@ public class JdbcCacheCRLSource implements CRLSource {
 
 	private OnlineCRLSource cachedSource;
 
+	private CRLValidityCache crlValidityCache = new CRLValidityCache();
+
+	private CRLRefreshScheduler refreshScheduler;
+
+	/**
+	 * The CRLs being retrieved, by URL and issuer : the concurrent misses for the same CRL share a single retrieval
+	 */
+	private final ConcurrentMap<String, FutureTask<CRLToken>> pendingRequests = new ConcurrentHashMap<String, FutureTask<CRLToken>>();
+
 	private DataSource dataSource;
 
 	private String sqlInitCheckExistence = SQL_INIT_CHECK_EXISTENCE;
@@ -129,6 +143,49 @@ public class JdbcCacheCRLSource implements CRLSource {
 		}
 		final String crlUrl = crlUrls.get(0);
 		LOG.info("CRL's URL for " + certificateToken.getAbbreviation() + " : " + crlUrl);
+		if (refreshScheduler != null) {
+
+			refreshScheduler.register(crlUrl, issuerToken);
+		}
+		final CRLToken cachedCrlToken = crlValidityCache.get(crlUrl, certificateToken);
+		if (cachedCrlToken != null) {
+
+			return cachedCrlToken;
+		}
+		final String requestKey = crlUrl + '|' + issuerToken.getDSSIdAsString();
+		final FutureTask<CRLToken> task = new FutureTask<CRLToken>(new Callable<CRLToken>() {
+
+			@Override
+			public CRLToken call() {
+				return retrieveCrl(crlUrl, certificateToken, issuerToken);
+			}
+		});
+		FutureTask<CRLToken> pending = pendingRequests.putIfAbsent(requestKey, task);
+		if (pending == null) {
+
+			try {
+				task.run();
+			} finally {
+				pendingRequests.remove(requestKey, task);
+			}
+			return getResult(task);
+		}
+		LOG.debug("CRL request already in progress");
+		final CRLToken sharedCrlToken = getResult(pending);
+		if (sharedCrlToken == null) {
+			return null;
+		}
+		// the shared token may come from another validation : it is bound to the issuer token of this one
+		final CRLValidity crlValidity = CRLValidityCache.copy(sharedCrlToken.getCrlValidity(), issuerToken);
+		final CRLToken crlToken = new CRLToken(certificateToken, crlValidity);
+		crlToken.setSourceURL(sharedCrlToken.getSourceURL());
+		return crlToken;
+	}
+
+	/**
+	 * Retrieves the CRL from the database or, if the stored CRL is expired, from the cached source.
+	 */
+	private CRLToken retrieveCrl(final String crlUrl, final CertificateToken certificateToken, final CertificateToken issuerToken) {
 		try {
 
 			final String key = DSSUtils.getSHA1Digest(crlUrl);
@@ -136,13 +193,14 @@ public class JdbcCacheCRLSource implements CRLSource {
 			if (dbCrl != null) {
 
 				X509CRL x509Crl = DSSUtils.loadCRL(dbCrl.getCrl());
-				if (x509Crl.getNextUpdate().after(new Date())) {
+				if ((x509Crl.getNextUpdate() != null) && x509Crl.getNextUpdate().after(new Date())) {
 
 					LOG.debug("CRL in cache");
 					final CRLValidity crlValidity = CRLUtils.isValidCRL(x509Crl, issuerToken);
 					final CRLToken crlToken = new CRLToken(certificateToken, crlValidity);
 					if (crlToken.isValid()) {
 
+						crlValidityCache.put(crlUrl, crlToken);
 						return crlToken;
 					}
 				}
@@ -150,6 +208,8 @@ public class JdbcCacheCRLSource implements CRLSource {
 			final CRLToken crlToken = cachedSource.findCrl(certificateToken);
 			if ((crlToken != null) && crlToken.isValid()) {
 
+				crlValidityCache.put(crlUrl, crlToken);
+
 				if (dbCrl == null) {
 
 					LOG.info("CRL not in cache");
@@ -168,6 +228,21 @@ public class JdbcCacheCRLSource implements CRLSource {
 		return null;
 	}
 
+	private CRLToken getResult(final FutureTask<CRLToken> task) throws DSSException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof DSSException) {
+				throw (DSSException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
 	/**
 	 * @param cachedSource the cachedSource to set
 	 */
@@ -176,6 +251,27 @@ public class JdbcCacheCRLSource implements CRLSource {
 		this.cachedSource = cachedSource;
 	}
 
+	/**
+	 * Sets the in-memory tier of the cache, which can be shared with other sources. By default, each source has its own.
+	 *
+	 * @param crlValidityCache the crlValidityCache to set
+	 */
+	public void setCrlValidityCache(CRLValidityCache crlValidityCache) {
+
+		this.crlValidityCache = crlValidityCache;
+	}
+
+	/**
+	 * Sets the scheduler which refreshes in the background the CRLs of the distribution points seen by this source. The scheduler must feed
+	 * the same {@code CRLValidityCache} as this source.
+	 *
+	 * @param refreshScheduler the refreshScheduler to set
+	 */
+	public void setRefreshScheduler(CRLRefreshScheduler refreshScheduler) {
+
+		this.refreshScheduler = refreshScheduler;
+	}
+
 	/**
 	 * Initialise the DAO by creating the table if it does not exist.
 	 *
@@ -48,8 +48,10 @@ import javax.net.ssl.TrustManager;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
@@ -88,7 +90,7 @@ import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
-import eu.europa.esig.dss.client.http.DataLoader;
+import eu.europa.esig.dss.client.http.ConditionalDataLoader;
 import eu.europa.esig.dss.client.http.Protocol;
 import eu.europa.esig.dss.client.http.proxy.ProxyPreferenceManager;
 
@@ -97,7 +99,7 @@ import eu.europa.esig.dss.client.http.proxy.ProxyPreferenceManager;
  * <p/>
  * HTTP & HTTPS: using HttpClient which is more flexible for HTTPS without having to add the certificate to the JVM TrustStore. It takes into account a proxy management through {@code ProxyPreferenceManager}. The authentication is also supported.
  */
-public class CommonsDataLoader implements DataLoader, DSSNotifier {
+public class CommonsDataLoader implements ConditionalDataLoader, DSSNotifier {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CommonsDataLoader.class);
 
@@ -393,6 +395,59 @@ public class CommonsDataLoader implements DataLoader, DSSNotifier {
 		return get(url);
 	}
 
+	@Override
+	public ConditionalResponse get(final String url, final String eTag, final String lastModified) {
+
+		if (!Protocol.isHttpUrl(url)) {
+			final byte[] bytes = get(url);
+			return bytes == null ? null : new ConditionalResponse(bytes, null, null);
+		}
+
+		HttpGet httpRequest = null;
+		HttpResponse httpResponse = null;
+		try {
+
+			final URI uri = new URI(url.trim());
+			httpRequest = new HttpGet(uri);
+			if (contentType != null) {
+				httpRequest.setHeader(CONTENT_TYPE, contentType);
+			}
+			if (eTag != null) {
+				httpRequest.setHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+			}
+			if (lastModified != null) {
+				httpRequest.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+			}
+
+			httpResponse = getHttpResponse(httpRequest, url);
+
+			if (httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+				LOG.debug("Content not modified : {}", url);
+				return new ConditionalResponse(null, eTag, lastModified);
+			}
+			final byte[] returnedBytes = readHttpResponse(url, httpResponse);
+			if (returnedBytes == null) {
+				return null;
+			}
+			return new ConditionalResponse(returnedBytes, getHeader(httpResponse, HttpHeaders.ETAG), getHeader(httpResponse, HttpHeaders.LAST_MODIFIED));
+		} catch (URISyntaxException e) {
+			throw new DSSException(e);
+		} finally {
+
+			if (httpRequest != null) {
+				httpRequest.releaseConnection();
+			}
+			if (httpResponse != null) {
+				EntityUtils.consumeQuietly(httpResponse.getEntity());
+			}
+		}
+	}
+
+	private String getHeader(final HttpResponse httpResponse, final String name) {
+		final Header header = httpResponse.getFirstHeader(name);
+		return header == null ? null : header.getValue();
+	}
+
 	private byte[] fileGet(String urlString) {
 		try {
 			return DSSUtils.toByteArray(new URL(urlString).openStream());
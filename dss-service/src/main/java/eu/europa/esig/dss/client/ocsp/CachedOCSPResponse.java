@@ -0,0 +1,127 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.ocsp;
+
+import java.io.IOException;
+import java.util.Date;
+
+import org.bouncycastle.asn1.ocsp.BasicOCSPResponse;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.SingleResp;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSRevocationUtils;
+import eu.europa.esig.dss.x509.OCSPToken;
+
+/**
+ * An OCSP response held by {@code CachingOCSPSource}. The parsed response is immutable and shared : a new {@code OCSPToken} is created for
+ * each request.
+ */
+class CachedOCSPResponse {
+
+	private final BasicOCSPResp basicOCSPResp;
+
+	private final SingleResp singleResp;
+
+	private final String sourceURL;
+
+	/**
+	 * @param basicOCSPResp
+	 *            the response
+	 * @param certId
+	 *            the identifier of the requested certificate
+	 * @param sourceURL
+	 *            the URL of the OCSP responder (can be null)
+	 * @throws DSSException
+	 *             if the response does not contain the status of the requested certificate
+	 */
+	CachedOCSPResponse(final BasicOCSPResp basicOCSPResp, final CertificateID certId, final String sourceURL) throws DSSException {
+		this.basicOCSPResp = basicOCSPResp;
+		this.singleResp = getBestSingleResp(basicOCSPResp, certId);
+		this.sourceURL = sourceURL;
+	}
+
+	/**
+	 * @param encoded
+	 *            the DER encoded {@code BasicOCSPResp}
+	 * @param certId
+	 *            the identifier of the requested certificate
+	 * @throws DSSException
+	 *             if the response cannot be parsed or does not contain the status of the requested certificate
+	 */
+	CachedOCSPResponse(final byte[] encoded, final CertificateID certId) throws DSSException {
+		this(new BasicOCSPResp(BasicOCSPResponse.getInstance(encoded)), certId, null);
+	}
+
+	private static SingleResp getBestSingleResp(final BasicOCSPResp basicOCSPResp, final CertificateID certId) throws DSSException {
+		SingleResp bestSingleResp = null;
+		for (final SingleResp singleResp : basicOCSPResp.getResponses()) {
+			if (DSSRevocationUtils.matches(certId, singleResp)) {
+				if ((bestSingleResp == null) || singleResp.getThisUpdate().after(bestSingleResp.getThisUpdate())) {
+					bestSingleResp = singleResp;
+				}
+			}
+		}
+		if (bestSingleResp == null) {
+			throw new DSSException("The OCSP response does not contain the status of the requested certificate");
+		}
+		return bestSingleResp;
+	}
+
+	/**
+	 * A response is fresh until its nextUpdate, and for at most maxAge milliseconds after its thisUpdate.
+	 *
+	 * @param now
+	 *            the current time
+	 * @param maxAge
+	 *            the maximum age of the response in milliseconds
+	 * @return {@code true} if the response can still be used
+	 */
+	boolean isFresh(final Date now, final long maxAge) {
+		final Date nextUpdate = singleResp.getNextUpdate();
+		if ((nextUpdate != null) && !now.before(nextUpdate)) {
+			return false;
+		}
+		return now.getTime() < (singleResp.getThisUpdate().getTime() + maxAge);
+	}
+
+	/**
+	 * @return a new token for the cached response
+	 */
+	OCSPToken toToken() {
+		final OCSPToken ocspToken = new OCSPToken(basicOCSPResp, singleResp);
+		ocspToken.setSourceURI(sourceURL);
+		return ocspToken;
+	}
+
+	/**
+	 * @return the DER encoded {@code BasicOCSPResp}
+	 */
+	byte[] getEncoded() {
+		try {
+			return basicOCSPResp.getEncoded();
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
+}
@@ -0,0 +1,378 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.ocsp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.codec.binary.Hex;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSRevocationUtils;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.OCSPToken;
+import eu.europa.esig.dss.x509.ocsp.BatchOCSPSource;
+import eu.europa.esig.dss.x509.ocsp.OCSPSource;
+
+/**
+ * OCSPSource which caches the responses of another source (typically an {@code OnlineOCSPSource}) per {@code CertificateID}.
+ *
+ * The responses are kept in memory (the least recently used are evicted beyond {@code maxEntries}) and, if an {@code OCSPResponseStore} is
+ * set, persisted. A response is reused until its nextUpdate and for at most {@code maxAge} milliseconds after its thisUpdate. Concurrent
+ * requests for the same certificate share a single call to the cached source.
+ *
+ * The statuses missing from the cache are requested in a single call when the cached source is a {@code BatchOCSPSource}. The statuses
+ * already requested by another thread are awaited instead of being requested again.
+ *
+ * Note that a cached response cannot match the nonce of a new request : do not use a {@code NonceSource} on the cached source.
+ */
+public class CachingOCSPSource implements BatchOCSPSource {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CachingOCSPSource.class);
+
+	/**
+	 * The default maximum age of a response : one day
+	 */
+	public static final long DEFAULT_MAX_AGE = 24 * 60 * 60 * 1000L;
+
+	/**
+	 * The default number of responses kept in memory
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+	private OCSPSource cachedSource;
+
+	private OCSPResponseStore responseStore;
+
+	private long maxAge = DEFAULT_MAX_AGE;
+
+	private final Map<String, CachedOCSPResponse> responses;
+
+	private final ConcurrentMap<String, FutureTask<CachedOCSPResponse>> pendingRequests = new ConcurrentHashMap<String, FutureTask<CachedOCSPResponse>>();
+
+	/**
+	 * The default constructor for CachingOCSPSource, which keeps at most {@value #DEFAULT_MAX_ENTRIES} responses in memory.
+	 */
+	public CachingOCSPSource() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param maxEntries
+	 *            the maximum number of responses kept in memory
+	 */
+	@SuppressWarnings("serial")
+	public CachingOCSPSource(final int maxEntries) {
+		responses = Collections.synchronizedMap(new LinkedHashMap<String, CachedOCSPResponse>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedOCSPResponse> eldest) {
+				return size() > maxEntries;
+			}
+		});
+	}
+
+	/**
+	 * @param cachedSource
+	 *            the source of the responses which are not in the cache
+	 */
+	public void setCachedSource(final OCSPSource cachedSource) {
+		this.cachedSource = cachedSource;
+	}
+
+	/**
+	 * @param responseStore
+	 *            the persistent storage of the responses (optional)
+	 */
+	public void setResponseStore(final OCSPResponseStore responseStore) {
+		this.responseStore = responseStore;
+	}
+
+	/**
+	 * @param maxAge
+	 *            the maximum age of a response after its thisUpdate, in milliseconds
+	 */
+	public void setMaxAge(final long maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	@Override
+	public OCSPToken getOCSPToken(final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
+		if (cachedSource == null) {
+			throw new NullPointerException("The cached OCSPSource is not provided !");
+		}
+
+		final CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(certificateToken.getCertificate(), issuerCertificateToken.getCertificate());
+		final String key = getKey(certId);
+
+		CachedOCSPResponse response = findFreshResponse(key, certId);
+		if (response == null) {
+			response = request(key, certId, certificateToken, issuerCertificateToken);
+		}
+		if (response == null) {
+			return null;
+		}
+		final OCSPToken ocspToken = response.toToken();
+		certificateToken.setRevocationToken(ocspToken);
+		return ocspToken;
+	}
+
+	@Override
+	public Map<CertificateToken, OCSPToken> getOCSPTokens(final List<CertificateToken> certificateTokens) {
+		if (cachedSource == null) {
+			throw new NullPointerException("The cached OCSPSource is not provided !");
+		}
+
+		final Map<CertificateToken, OCSPToken> ocspTokens = new HashMap<CertificateToken, OCSPToken>();
+		final Map<CertificateToken, CertificateID> missingCertificates = new LinkedHashMap<CertificateToken, CertificateID>();
+		for (final CertificateToken certificateToken : certificateTokens) {
+			if (certificateToken.getIssuerToken() == null) {
+				continue;
+			}
+			final CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(certificateToken.getCertificate(), certificateToken.getIssuerToken().getCertificate());
+			final CachedOCSPResponse response = findFreshResponse(getKey(certId), certId);
+			if (response == null) {
+				missingCertificates.put(certificateToken, certId);
+			} else {
+				final OCSPToken ocspToken = response.toToken();
+				certificateToken.setRevocationToken(ocspToken);
+				ocspTokens.put(certificateToken, ocspToken);
+			}
+		}
+		if (missingCertificates.isEmpty()) {
+			return ocspTokens;
+		}
+
+		if (cachedSource instanceof BatchOCSPSource) {
+			// the certificates already requested by another thread are not part of the batch, their responses are awaited
+			final BatchRequest batchRequest = new BatchRequest();
+			final Map<CertificateToken, FutureTask<CachedOCSPResponse>> pendingResponses = new LinkedHashMap<CertificateToken, FutureTask<CachedOCSPResponse>>();
+			for (final Entry<CertificateToken, CertificateID> entry : missingCertificates.entrySet()) {
+				final String key = getKey(entry.getValue());
+				final FutureTask<CachedOCSPResponse> task = batchRequest.newTask(entry.getKey(), entry.getValue(), key);
+				final FutureTask<CachedOCSPResponse> pending = pendingRequests.putIfAbsent(key, task);
+				if (pending == null) {
+					batchRequest.add(entry.getKey(), key, task);
+					pendingResponses.put(entry.getKey(), task);
+				} else {
+					LOG.debug("OCSP request already in progress");
+					pendingResponses.put(entry.getKey(), pending);
+				}
+			}
+			batchRequest.run();
+			for (final Entry<CertificateToken, FutureTask<CachedOCSPResponse>> entry : pendingResponses.entrySet()) {
+				final CertificateToken certificateToken = entry.getKey();
+				try {
+					final CachedOCSPResponse response = getResponse(entry.getValue());
+					if (response != null) {
+						final OCSPToken ocspToken = response.toToken();
+						certificateToken.setRevocationToken(ocspToken);
+						ocspTokens.put(certificateToken, ocspToken);
+					}
+				} catch (DSSException e) {
+					LOG.warn("OCSP request for " + certificateToken.getDSSIdAsString() + " failed : " + e.getMessage());
+					certificateToken.extraInfo().infoOCSPException(e.getMessage());
+				}
+			}
+		} else {
+			for (final CertificateToken certificateToken : missingCertificates.keySet()) {
+				try {
+					final OCSPToken ocspToken = getOCSPToken(certificateToken, certificateToken.getIssuerToken());
+					if (ocspToken != null) {
+						ocspTokens.put(certificateToken, ocspToken);
+					}
+				} catch (DSSException e) {
+					LOG.warn("OCSP request for " + certificateToken.getDSSIdAsString() + " failed : " + e.getMessage());
+					certificateToken.extraInfo().infoOCSPException(e.getMessage());
+				}
+			}
+		}
+		return ocspTokens;
+	}
+
+	private CachedOCSPResponse findFreshResponse(final String key, final CertificateID certId) {
+		final Date now = new Date();
+		CachedOCSPResponse response = responses.get(key);
+		if ((response != null) && response.isFresh(now, maxAge)) {
+			LOG.debug("OCSP response in memory cache");
+			return response;
+		}
+		if (responseStore != null) {
+			try {
+				final byte[] encoded = responseStore.find(key);
+				if (encoded != null) {
+					response = new CachedOCSPResponse(encoded, certId);
+					if (response.isFresh(now, maxAge)) {
+						LOG.debug("OCSP response in persistent cache");
+						responses.put(key, response);
+						return response;
+					}
+				}
+			} catch (DSSException e) {
+				LOG.warn("Error with the OCSP cache data store : " + e.getMessage());
+			}
+		}
+		return null;
+	}
+
+	private CachedOCSPResponse request(final String key, final CertificateID certId, final CertificateToken certificateToken,
+			final CertificateToken issuerCertificateToken) {
+		final FutureTask<CachedOCSPResponse> task = new FutureTask<CachedOCSPResponse>(new Callable<CachedOCSPResponse>() {
+
+			@Override
+			public CachedOCSPResponse call() {
+				final OCSPToken ocspToken = cachedSource.getOCSPToken(certificateToken, issuerCertificateToken);
+				if (ocspToken == null) {
+					return null;
+				}
+				final CachedOCSPResponse response = new CachedOCSPResponse(ocspToken.getBasicOCSPResp(), certId, ocspToken.getSourceURL());
+				responses.put(key, response);
+				store(key, response);
+				return response;
+			}
+		});
+
+		FutureTask<CachedOCSPResponse> pending = pendingRequests.putIfAbsent(key, task);
+		if (pending == null) {
+			pending = task;
+			try {
+				task.run();
+			} finally {
+				pendingRequests.remove(key, task);
+			}
+		} else {
+			LOG.debug("OCSP request already in progress");
+		}
+
+		return getResponse(pending);
+	}
+
+	private CachedOCSPResponse getResponse(final FutureTask<CachedOCSPResponse> pending) {
+		try {
+			return pending.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof DSSException) {
+				throw (DSSException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	private void store(final String key, final CachedOCSPResponse response) {
+		if (responseStore != null) {
+			try {
+				responseStore.store(key, response.getEncoded());
+			} catch (DSSException e) {
+				LOG.warn("Error with the OCSP cache data store : " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * The certificates requested at once from the cached source. Each certificate is registered in {@code pendingRequests} with its own
+	 * task before the call, the tasks are completed with the responses of the batch.
+	 */
+	private class BatchRequest {
+
+		private final Map<CertificateToken, String> keys = new LinkedHashMap<CertificateToken, String>();
+
+		private final Map<CertificateToken, FutureTask<CachedOCSPResponse>> tasks = new HashMap<CertificateToken, FutureTask<CachedOCSPResponse>>();
+
+		private Map<CertificateToken, OCSPToken> requestedTokens = Collections.emptyMap();
+
+		private RuntimeException failure;
+
+		FutureTask<CachedOCSPResponse> newTask(final CertificateToken certificateToken, final CertificateID certId, final String key) {
+			return new FutureTask<CachedOCSPResponse>(new Callable<CachedOCSPResponse>() {
+
+				@Override
+				public CachedOCSPResponse call() {
+					if (failure != null) {
+						throw failure;
+					}
+					final OCSPToken ocspToken = requestedTokens.get(certificateToken);
+					if (ocspToken == null) {
+						return null;
+					}
+					final CachedOCSPResponse response = new CachedOCSPResponse(ocspToken.getBasicOCSPResp(), certId, ocspToken.getSourceURL());
+					responses.put(key, response);
+					store(key, response);
+					return response;
+				}
+			});
+		}
+
+		void add(final CertificateToken certificateToken, final String key, final FutureTask<CachedOCSPResponse> task) {
+			keys.put(certificateToken, key);
+			tasks.put(certificateToken, task);
+		}
+
+		void run() {
+			if (keys.isEmpty()) {
+				return;
+			}
+			try {
+				requestedTokens = ((BatchOCSPSource) cachedSource).getOCSPTokens(new ArrayList<CertificateToken>(keys.keySet()));
+			} catch (RuntimeException e) {
+				failure = e;
+			} finally {
+				// the waiting threads are released in any case
+				for (final Entry<CertificateToken, String> entry : keys.entrySet()) {
+					final FutureTask<CachedOCSPResponse> task = tasks.get(entry.getKey());
+					task.run();
+					pendingRequests.remove(entry.getValue(), task);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the hex encoded SHA1 of the fields of the {@code CertificateID}
+	 */
+	private String getKey(final CertificateID certId) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(certId.getHashAlgOID().getId()).append(':');
+		sb.append(Hex.encodeHexString(certId.getIssuerNameHash())).append(':');
+		sb.append(Hex.encodeHexString(certId.getIssuerKeyHash())).append(':');
+		sb.append(certId.getSerialNumber().toString(16));
+		return DSSUtils.getSHA1Digest(sb.toString());
+	}
+
+}
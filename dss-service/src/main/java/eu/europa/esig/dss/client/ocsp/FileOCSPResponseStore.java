@@ -0,0 +1,88 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.ocsp;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * {@code OCSPResponseStore} which keeps one file per response in a local directory.
+ */
+public class FileOCSPResponseStore implements OCSPResponseStore {
+
+	private static final String EXTENSION = ".der";
+
+	private final File directory;
+
+	/**
+	 * @param directory
+	 *            the directory of the responses, created if it does not exist
+	 */
+	public FileOCSPResponseStore(final File directory) {
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new DSSException("Unable to create the OCSP cache directory " + directory.getAbsolutePath());
+		}
+		this.directory = directory;
+	}
+
+	@Override
+	public byte[] find(final String key) throws DSSException {
+		final File file = new File(directory, key + EXTENSION);
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			return FileUtils.readFileToByteArray(file);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	@Override
+	public void store(final String key, final byte[] encoded) throws DSSException {
+		final File file = new File(directory, key + EXTENSION);
+		File tmpFile = null;
+		try {
+			// the response is written in a unique file and renamed so that a reader never gets a partial file, even with concurrent writers
+			tmpFile = File.createTempFile(key, ".tmp", directory);
+			FileUtils.writeByteArrayToFile(tmpFile, encoded);
+			if (!tmpFile.renameTo(file)) {
+				// the target cannot be replaced by a rename on some file systems
+				if (file.exists() && !file.delete()) {
+					throw new DSSException("Unable to replace " + file.getAbsolutePath());
+				}
+				if (!tmpFile.renameTo(file)) {
+					throw new DSSException("Unable to rename " + tmpFile.getAbsolutePath());
+				}
+			}
+			tmpFile = null;
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			FileUtils.deleteQuietly(tmpFile);
+		}
+	}
+
+}
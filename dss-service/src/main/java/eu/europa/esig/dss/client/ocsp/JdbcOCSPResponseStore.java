@@ -0,0 +1,173 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.ocsp;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * {@code OCSPResponseStore} that stores the responses in a JDBC datasource
+ */
+public class JdbcOCSPResponseStore implements OCSPResponseStore {
+
+	/**
+	 * used in the init method to check if the table exists
+	 */
+	public static final String SQL_INIT_CHECK_EXISTENCE = "SELECT COUNT(*) FROM CACHED_OCSP";
+
+	/**
+	 * used in the init method to create the table, if not existing: ID (char40 = SHA1 length) and DATA (blob)
+	 */
+	public static final String SQL_INIT_CREATE_TABLE = "CREATE TABLE CACHED_OCSP (ID CHAR(40), DATA LONGVARBINARY)";
+
+	/**
+	 * used in the find method to select the response via the id
+	 */
+	public static final String SQL_FIND_QUERY = "SELECT DATA FROM CACHED_OCSP WHERE ID = ?";
+
+	/**
+	 * used in the store method to insert a new record
+	 */
+	public static final String SQL_INSERT = "INSERT INTO CACHED_OCSP (ID, DATA) VALUES (?, ?)";
+
+	/**
+	 * used in the store method to update an existing record via the id
+	 */
+	public static final String SQL_UPDATE = "UPDATE CACHED_OCSP SET DATA = ? WHERE ID = ?";
+
+	private DataSource dataSource;
+
+	@Override
+	public byte[] find(final String key) throws DSSException {
+
+		Connection c = null;
+		PreparedStatement s = null;
+		ResultSet rs = null;
+		try {
+			c = dataSource.getConnection();
+			s = c.prepareStatement(SQL_FIND_QUERY);
+			s.setString(1, key);
+			rs = s.executeQuery();
+			if (rs.next()) {
+				return rs.getBytes(1);
+			}
+			return null;
+		} catch (SQLException e) {
+			throw new DSSException(e);
+		} finally {
+			closeQuietly(c, s, rs);
+		}
+	}
+
+	@Override
+	public void store(final String key, final byte[] encoded) throws DSSException {
+
+		Connection c = null;
+		PreparedStatement s = null;
+		try {
+			c = dataSource.getConnection();
+			s = c.prepareStatement(SQL_UPDATE);
+			s.setBytes(1, encoded);
+			s.setString(2, key);
+			if (s.executeUpdate() == 0) {
+				s.close();
+				s = c.prepareStatement(SQL_INSERT);
+				s.setString(1, key);
+				s.setBytes(2, encoded);
+				s.executeUpdate();
+			}
+		} catch (SQLException e) {
+			throw new DSSException(e);
+		} finally {
+			closeQuietly(c, s, null);
+		}
+	}
+
+	/**
+	 * @param dataSource
+	 *            the dataSource to set, the table is created if it does not exist
+	 * @throws SQLException
+	 */
+	public void setDataSource(final DataSource dataSource) throws SQLException {
+
+		this.dataSource = dataSource;
+		if (!tableExists()) {
+			createTable();
+		}
+	}
+
+	private boolean tableExists() {
+
+		Connection c = null;
+		Statement s = null;
+		try {
+			c = dataSource.getConnection();
+			s = c.createStatement();
+			s.executeQuery(SQL_INIT_CHECK_EXISTENCE);
+			return true;
+		} catch (SQLException e) {
+			return false;
+		} finally {
+			closeQuietly(c, s, null);
+		}
+	}
+
+	private void createTable() throws SQLException {
+
+		Connection c = null;
+		Statement s = null;
+		try {
+			c = dataSource.getConnection();
+			s = c.createStatement();
+			s.executeUpdate(SQL_INIT_CREATE_TABLE);
+			if (!c.getAutoCommit()) {
+				c.commit();
+			}
+		} finally {
+			closeQuietly(c, s, null);
+		}
+	}
+
+	private void closeQuietly(Connection c, Statement s, ResultSet rs) {
+
+		try {
+			if (rs != null) {
+				rs.close();
+			}
+			if (s != null) {
+				s.close();
+			}
+			if (c != null) {
+				c.close();
+			}
+		} catch (SQLException e) {
+			// purposely empty
+		}
+	}
+
+}
@@ -0,0 +1,52 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.ocsp;
+
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * Persistent storage of the OCSP responses cached by {@code CachingOCSPSource}. The responses are stored as DER encoded {@code BasicOCSPResp},
+ * the key identifies the {@code CertificateID} of the request.
+ */
+public interface OCSPResponseStore {
+
+	/**
+	 * @param key
+	 *            the key of the response
+	 * @return the DER encoded {@code BasicOCSPResp} or {@code null} if there is no response stored with the given key
+	 * @throws DSSException
+	 *             in case of error with the data store
+	 */
+	byte[] find(String key) throws DSSException;
+
+	/**
+	 * Stores (or replaces) a response.
+	 *
+	 * @param key
+	 *            the key of the response
+	 * @param encoded
+	 *            the DER encoded {@code BasicOCSPResp}
+	 * @throws DSSException
+	 *             in case of error with the data store
+	 */
+	void store(String key, byte[] encoded) throws DSSException;
+
+}
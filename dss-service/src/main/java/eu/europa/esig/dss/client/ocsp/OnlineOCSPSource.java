@@ -25,7 +25,16 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.security.Security;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -59,15 +68,20 @@ import eu.europa.esig.dss.client.http.DataLoader;
 import eu.europa.esig.dss.client.http.commons.OCSPDataLoader;
 import eu.europa.esig.dss.x509.CertificateToken;
 import eu.europa.esig.dss.x509.OCSPToken;
-import eu.europa.esig.dss.x509.ocsp.OCSPSource;
+import eu.europa.esig.dss.x509.ocsp.BatchOCSPSource;
 
 /**
  * Online OCSP repository. This implementation will contact the OCSP Responder to retrieve the OCSP response.
  */
-public class OnlineOCSPSource implements OCSPSource {
+public class OnlineOCSPSource implements BatchOCSPSource {
 
 	private static final Logger logger = LoggerFactory.getLogger(OnlineOCSPSource.class);
 
+	/**
+	 * The default maximum number of certificates sent in a single request
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 20;
+
 	static {
 		Security.addProvider(new BouncyCastleProvider());
 	}
@@ -82,6 +96,16 @@ public class OnlineOCSPSource implements OCSPSource {
 	 */
 	private DataLoader dataLoader;
 
+	/**
+	 * The maximum number of certificates sent in a single request.
+	 */
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	/**
+	 * The OCSP responders which do not support requests for several certificates.
+	 */
+	private final Set<String> singleRequestResponders = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
 	/**
 	 * Create an OCSP source The default constructor for OnlineOCSPSource. The default {@code OCSPDataLoader} is set. It is possible to change it with {@code
 	 * #setDataLoader}.
@@ -108,6 +132,15 @@ public class OnlineOCSPSource implements OCSPSource {
 		this.nonceSource = nonceSource;
 	}
 
+	/**
+	 * Set the maximum number of certificates sent in a single request by {@link #getOCSPTokens(List)}.
+	 *
+	 * @param maxBatchSize the maximum number of certificates per request
+	 */
+	public void setMaxBatchSize(final int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
 	@Override
 	public OCSPToken getOCSPToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
 		if (dataLoader == null) {
@@ -130,7 +163,8 @@ public class OnlineOCSPSource implements OCSPSource {
 			}
 
 			final X509Certificate issuerX509Certificate = issuerCertificateToken.getCertificate();
-			final byte[] content = buildOCSPRequest(x509Certificate, issuerX509Certificate);
+			final CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(x509Certificate, issuerX509Certificate);
+			final byte[] content = buildOCSPRequest(Collections.singletonList(certId));
 
 			final byte[] ocspRespBytes = dataLoader.post(ocspAccessLocation, content);
 
@@ -138,51 +172,184 @@ public class OnlineOCSPSource implements OCSPSource {
 
 			final BasicOCSPResp basicOCSPResp = (BasicOCSPResp) ocspResp.getResponseObject();
 
-			if (nonceSource !=null) {
-				Extension extension = basicOCSPResp.getExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce);
-				DEROctetString derReceivedNonce = (DEROctetString) extension.getExtnValue();
-				BigInteger receivedNonce = new BigInteger(derReceivedNonce.getOctets());
-				if (!receivedNonce.equals(nonceSource.getNonce())) {
-					throw new DSSException("The OCSP request for " + dssIdAsString + " was the victim of replay attack: nonce [sent:" + nonceSource.getNonce() + ", received:" + receivedNonce + "]");
+			checkNonce(basicOCSPResp, dssIdAsString);
+
+			return getOCSPToken(basicOCSPResp, certId, certificateToken, ocspAccessLocation);
+		} catch (NullPointerException e) {
+			throw new DSSException("OCSPResp is initialised with a null OCSP response... (and there is no nullity check in the OCSPResp implementation)", e);
+		} catch (OCSPException e) {
+			throw new DSSException(e);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	/**
+	 * The certificates are grouped by OCSP responder and each group is sent in a single request (at most {@code maxBatchSize} certificates
+	 * per request). When a responder rejects the request or does not return the status of all the certificates, the missing statuses
+	 * are requested one by one, and the following requests to this responder contain a single certificate.
+	 */
+	@Override
+	public Map<CertificateToken, OCSPToken> getOCSPTokens(final List<CertificateToken> certificateTokens) {
+		if (dataLoader == null) {
+			throw new NullPointerException("DataLoad is not provided !");
+		}
+
+		final Map<String, List<CertificateToken>> certificatesByResponder = new LinkedHashMap<String, List<CertificateToken>>();
+		for (final CertificateToken certificateToken : certificateTokens) {
+			if (certificateToken.getIssuerToken() == null) {
+				continue;
+			}
+			final String ocspAccessLocation = getAccessLocation(certificateToken.getCertificate());
+			if (StringUtils.isEmpty(ocspAccessLocation)) {
+				certificateToken.extraInfo().infoNoOcspUriFoundInCertificate();
+				continue;
+			}
+			List<CertificateToken> responderCertificates = certificatesByResponder.get(ocspAccessLocation);
+			if (responderCertificates == null) {
+				responderCertificates = new ArrayList<CertificateToken>();
+				certificatesByResponder.put(ocspAccessLocation, responderCertificates);
+			}
+			responderCertificates.add(certificateToken);
+		}
+
+		final Map<CertificateToken, OCSPToken> ocspTokens = new HashMap<CertificateToken, OCSPToken>();
+		for (final Entry<String, List<CertificateToken>> entry : certificatesByResponder.entrySet()) {
+			final String ocspAccessLocation = entry.getKey();
+			final List<CertificateToken> responderCertificates = entry.getValue();
+			final List<CertificateToken> missingCertificates = new ArrayList<CertificateToken>();
+			if ((responderCertificates.size() == 1) || (maxBatchSize < 2) || singleRequestResponders.contains(ocspAccessLocation)) {
+				missingCertificates.addAll(responderCertificates);
+			} else {
+				for (int fromIndex = 0; fromIndex < responderCertificates.size(); fromIndex += maxBatchSize) {
+					final int toIndex = Math.min(fromIndex + maxBatchSize, responderCertificates.size());
+					final List<CertificateToken> batch = responderCertificates.subList(fromIndex, toIndex);
+					if (!requestBatch(ocspAccessLocation, batch, ocspTokens)) {
+						singleRequestResponders.add(ocspAccessLocation);
+					}
+					for (final CertificateToken certificateToken : batch) {
+						if (!ocspTokens.containsKey(certificateToken)) {
+							missingCertificates.add(certificateToken);
+						}
+					}
 				}
 			}
 
-			Date bestUpdate = null;
-			SingleResp bestSingleResp = null;
-			final CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(x509Certificate, issuerX509Certificate);
-			for (final SingleResp singleResp : basicOCSPResp.getResponses()) {
-				if (DSSRevocationUtils.matches(certId, singleResp)) {
-					final Date thisUpdate = singleResp.getThisUpdate();
-					if ((bestUpdate == null) || thisUpdate.after(bestUpdate)) {
-						bestSingleResp = singleResp;
-						bestUpdate = thisUpdate;
+			for (final CertificateToken certificateToken : missingCertificates) {
+				try {
+					final OCSPToken ocspToken = getOCSPToken(certificateToken, certificateToken.getIssuerToken());
+					if (ocspToken != null) {
+						ocspTokens.put(certificateToken, ocspToken);
 					}
+				} catch (DSSException e) {
+					logger.warn("OCSP request for " + certificateToken.getDSSIdAsString() + " failed : " + e.getMessage());
+					certificateToken.extraInfo().infoOCSPException(e.getMessage());
 				}
 			}
+		}
+		return ocspTokens;
+	}
 
-			if (bestSingleResp != null) {
-				final OCSPToken ocspToken = new OCSPToken(basicOCSPResp, bestSingleResp);
-				ocspToken.setSourceURI(ocspAccessLocation);
-				certificateToken.setRevocationToken(ocspToken);
-				return ocspToken;
+	/**
+	 * Sends a single request for all the given certificates and adds the found responses to {@code ocspTokens}.
+	 *
+	 * @return false if the responder rejected the request or did not return the status of all the certificates, the missing statuses
+	 *         must be requested one by one
+	 */
+	private boolean requestBatch(final String ocspAccessLocation, final List<CertificateToken> certificateTokens, final Map<CertificateToken, OCSPToken> ocspTokens) {
+
+		final List<CertificateID> certIds = new ArrayList<CertificateID>();
+		for (final CertificateToken certificateToken : certificateTokens) {
+			certIds.add(DSSRevocationUtils.getOCSPCertificateID(certificateToken.getCertificate(), certificateToken.getIssuerToken().getCertificate()));
+		}
+		try {
+			if (logger.isDebugEnabled()) {
+				logger.debug("OCSP request for " + certificateTokens.size() + " certificates to " + ocspAccessLocation);
+			}
+			final byte[] ocspRespBytes = dataLoader.post(ocspAccessLocation, buildOCSPRequest(certIds));
+			final OCSPResp ocspResp = new OCSPResp(ocspRespBytes);
+			if (ocspResp.getStatus() != OCSPResp.SUCCESSFUL) {
+				logger.info("The OCSP responder " + ocspAccessLocation + " rejected a request for " + certificateTokens.size() + " certificates (status "
+						+ ocspResp.getStatus() + ")");
+				return false;
 			}
+			final BasicOCSPResp basicOCSPResp = (BasicOCSPResp) ocspResp.getResponseObject();
+			checkNonce(basicOCSPResp, ocspAccessLocation);
+
+			boolean complete = true;
+			for (int ii = 0; ii < certificateTokens.size(); ii++) {
+				final CertificateToken certificateToken = certificateTokens.get(ii);
+				final OCSPToken ocspToken = getOCSPToken(basicOCSPResp, certIds.get(ii), certificateToken, ocspAccessLocation);
+				if (ocspToken == null) {
+					complete = false;
+				} else {
+					ocspTokens.put(certificateToken, ocspToken);
+				}
+			}
+			return complete;
+		} catch (DSSException e) {
+			logBatchFailure(ocspAccessLocation, certificateTokens, e);
 		} catch (NullPointerException e) {
-			throw new DSSException("OCSPResp is initialised with a null OCSP response... (and there is no nullity check in the OCSPResp implementation)", e);
+			logBatchFailure(ocspAccessLocation, certificateTokens, e);
 		} catch (OCSPException e) {
-			throw new DSSException(e);
+			logBatchFailure(ocspAccessLocation, certificateTokens, e);
 		} catch (IOException e) {
-			throw new DSSException(e);
+			logBatchFailure(ocspAccessLocation, certificateTokens, e);
+		}
+		// a communication error does not mean that the responder rejects the batches
+		return true;
+	}
+
+	private void logBatchFailure(final String ocspAccessLocation, final List<CertificateToken> certificateTokens, final Exception e) {
+		logger.warn("OCSP request for " + certificateTokens.size() + " certificates to " + ocspAccessLocation + " failed : " + e.getMessage());
+	}
+
+	private void checkNonce(final BasicOCSPResp basicOCSPResp, final String requestName) {
+		if (nonceSource != null) {
+			Extension extension = basicOCSPResp.getExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce);
+			DEROctetString derReceivedNonce = (DEROctetString) extension.getExtnValue();
+			BigInteger receivedNonce = new BigInteger(derReceivedNonce.getOctets());
+			if (!receivedNonce.equals(nonceSource.getNonce())) {
+				throw new DSSException("The OCSP request for " + requestName + " was the victim of replay attack: nonce [sent:" + nonceSource.getNonce() + ", received:" + receivedNonce + "]");
+			}
+		}
+	}
+
+	/**
+	 * @return the {@code OCSPToken} built with the most recent response for the given {@code CertificateID}, or null if the response does
+	 *         not contain its status
+	 */
+	private OCSPToken getOCSPToken(final BasicOCSPResp basicOCSPResp, final CertificateID certId, final CertificateToken certificateToken, final String ocspAccessLocation) {
+
+		Date bestUpdate = null;
+		SingleResp bestSingleResp = null;
+		for (final SingleResp singleResp : basicOCSPResp.getResponses()) {
+			if (DSSRevocationUtils.matches(certId, singleResp)) {
+				final Date thisUpdate = singleResp.getThisUpdate();
+				if ((bestUpdate == null) || thisUpdate.after(bestUpdate)) {
+					bestSingleResp = singleResp;
+					bestUpdate = thisUpdate;
+				}
+			}
+		}
+
+		if (bestSingleResp != null) {
+			final OCSPToken ocspToken = new OCSPToken(basicOCSPResp, bestSingleResp);
+			ocspToken.setSourceURI(ocspAccessLocation);
+			certificateToken.setRevocationToken(ocspToken);
+			return ocspToken;
 		}
 		return null;
 	}
 
-	private byte[] buildOCSPRequest(final X509Certificate x509Certificate, final X509Certificate issuerX509Certificate) throws DSSException {
+	private byte[] buildOCSPRequest(final List<CertificateID> certIds) throws DSSException {
 
 		try {
 
-			final CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(x509Certificate, issuerX509Certificate);
 			final OCSPReqBuilder ocspReqBuilder = new OCSPReqBuilder();
-			ocspReqBuilder.addRequest(certId);
+			for (final CertificateID certId : certIds) {
+				ocspReqBuilder.addRequest(certId);
+			}
 
 			/*
 			 * The nonce extension is used to bind a request to a response to prevent replay attacks.
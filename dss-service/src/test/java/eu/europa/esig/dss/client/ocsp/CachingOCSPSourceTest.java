@@ -0,0 +1,157 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.ocsp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.File;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.europa.esig.dss.DSSRevocationUtils;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.OCSPToken;
+import eu.europa.esig.dss.x509.ocsp.OCSPSource;
+
+public class CachingOCSPSourceTest {
+
+	private static final long ONE_HOUR = 60 * 60 * 1000L;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private CertificateToken certificateToken;
+	private CertificateToken rootToken;
+
+	@Before
+	public void init() {
+		certificateToken = DSSUtils.loadCertificate(new File("src/test/resources/ec.europa.eu.crt"));
+		rootToken = DSSUtils.loadCertificate(new File("src/test/resources/LTQCACA.crt"));
+	}
+
+	@Test
+	public void responseIsCached() throws Exception {
+		CountingOCSPSource onlineSource = new CountingOCSPSource(new Date(System.currentTimeMillis() + ONE_HOUR));
+		CachingOCSPSource ocspSource = new CachingOCSPSource();
+		ocspSource.setCachedSource(onlineSource);
+
+		OCSPToken first = ocspSource.getOCSPToken(certificateToken, rootToken);
+		OCSPToken second = ocspSource.getOCSPToken(certificateToken, rootToken);
+		assertNotNull(first);
+		assertNotNull(second);
+		assertNotSame(first, second);
+		assertEquals(1, onlineSource.calls);
+	}
+
+	@Test
+	public void expiredResponseIsRequestedAgain() throws Exception {
+		CountingOCSPSource onlineSource = new CountingOCSPSource(new Date(System.currentTimeMillis() - 1000));
+		CachingOCSPSource ocspSource = new CachingOCSPSource();
+		ocspSource.setCachedSource(onlineSource);
+
+		ocspSource.getOCSPToken(certificateToken, rootToken);
+		ocspSource.getOCSPToken(certificateToken, rootToken);
+		assertEquals(2, onlineSource.calls);
+	}
+
+	@Test
+	public void maxAgeIsApplied() throws Exception {
+		CountingOCSPSource onlineSource = new CountingOCSPSource(null);
+		CachingOCSPSource ocspSource = new CachingOCSPSource();
+		ocspSource.setCachedSource(onlineSource);
+		ocspSource.setMaxAge(0);
+
+		ocspSource.getOCSPToken(certificateToken, rootToken);
+		ocspSource.getOCSPToken(certificateToken, rootToken);
+		assertEquals(2, onlineSource.calls);
+	}
+
+	@Test
+	public void responseIsPersisted() throws Exception {
+		CountingOCSPSource onlineSource = new CountingOCSPSource(new Date(System.currentTimeMillis() + ONE_HOUR));
+		FileOCSPResponseStore responseStore = new FileOCSPResponseStore(temporaryFolder.getRoot());
+
+		CachingOCSPSource ocspSource = new CachingOCSPSource();
+		ocspSource.setCachedSource(onlineSource);
+		ocspSource.setResponseStore(responseStore);
+		assertNotNull(ocspSource.getOCSPToken(certificateToken, rootToken));
+
+		CachingOCSPSource otherOcspSource = new CachingOCSPSource();
+		otherOcspSource.setCachedSource(onlineSource);
+		otherOcspSource.setResponseStore(responseStore);
+		assertNotNull(otherOcspSource.getOCSPToken(certificateToken, rootToken));
+		assertEquals(1, onlineSource.calls);
+	}
+
+	@SuppressWarnings("serial")
+	private static class CountingOCSPSource implements OCSPSource {
+
+		private final Date nextUpdate;
+
+		private int calls;
+
+		CountingOCSPSource(Date nextUpdate) {
+			this.nextUpdate = nextUpdate;
+		}
+
+		@Override
+		public OCSPToken getOCSPToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+			calls++;
+			try {
+				X509Certificate certificate = certificateToken.getCertificate();
+				X509Certificate issuerCertificate = issuerCertificateToken.getCertificate();
+				CertificateID certId = DSSRevocationUtils.getOCSPCertificateID(certificate, issuerCertificate);
+
+				KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+				keyPairGenerator.initialize(1024);
+				KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+				Date now = new Date();
+				BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(new RespID(new X500Name("CN=Test OCSP Responder")));
+				builder.addResponse(certId, CertificateStatus.GOOD, new Date(now.getTime() - 1000), nextUpdate);
+				BasicOCSPResp basicOCSPResp = builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate()),
+						new X509CertificateHolder[0], now);
+				return new OCSPToken(basicOCSPResp, basicOCSPResp.getResponses()[0]);
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+}
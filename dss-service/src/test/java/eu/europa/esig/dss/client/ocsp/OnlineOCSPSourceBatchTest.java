@@ -0,0 +1,108 @@
+package eu.europa.esig.dss.client.ocsp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.client.NonceSource;
+import eu.europa.esig.dss.test.gen.CertificateService;
+import eu.europa.esig.dss.test.mock.MockOCSPResponder;
+import eu.europa.esig.dss.test.mock.MockPrivateKeyEntry;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.OCSPToken;
+
+public class OnlineOCSPSourceBatchTest {
+
+	private static final String OCSP_URL = "http://ocsp.dss-test.local";
+
+	private static final int NB_CERTIFICATES = 5;
+
+	private MockOCSPResponder responder;
+
+	private List<CertificateToken> certificateTokens;
+
+	@Before
+	public void init() throws Exception {
+		CertificateService certificateService = new CertificateService();
+		MockPrivateKeyEntry caEntry = certificateService.generateSelfSignedCertificate(SignatureAlgorithm.RSA_SHA256, false);
+		responder = new MockOCSPResponder(caEntry);
+
+		certificateTokens = new ArrayList<CertificateToken>();
+		for (int ii = 0; ii < NB_CERTIFICATES; ii++) {
+			CertificateToken certificateToken = certificateService.generateCertificateWithOCSP(SignatureAlgorithm.RSA_SHA256, caEntry, OCSP_URL).getCertificate();
+			assertTrue(certificateToken.isSignedBy(caEntry.getCertificate()));
+			certificateTokens.add(certificateToken);
+		}
+		responder.revoke(certificateTokens.get(2).getSerialNumber(), new Date());
+	}
+
+	@Test
+	public void singleRequestForAllCertificates() {
+		OnlineOCSPSource ocspSource = new OnlineOCSPSource();
+		ocspSource.setDataLoader(responder);
+		ocspSource.setNonceSource(new NonceSource());
+
+		Map<CertificateToken, OCSPToken> ocspTokens = ocspSource.getOCSPTokens(certificateTokens);
+		assertEquals(1, responder.getNumberOfRequests());
+		assertEquals(NB_CERTIFICATES, ocspTokens.size());
+		for (int ii = 0; ii < NB_CERTIFICATES; ii++) {
+			OCSPToken ocspToken = ocspTokens.get(certificateTokens.get(ii));
+			assertNotNull(ocspToken);
+			assertEquals(OCSP_URL, ocspToken.getSourceURL());
+			assertEquals(Boolean.valueOf(ii != 2), ocspToken.getStatus());
+		}
+	}
+
+	@Test
+	public void requestsLimitedByBatchSize() {
+		OnlineOCSPSource ocspSource = new OnlineOCSPSource();
+		ocspSource.setDataLoader(responder);
+		ocspSource.setMaxBatchSize(2);
+
+		assertEquals(NB_CERTIFICATES, ocspSource.getOCSPTokens(certificateTokens).size());
+		assertEquals(3, responder.getNumberOfRequests());
+		assertEquals(NB_CERTIFICATES, responder.getNumberOfCertificates());
+	}
+
+	@Test
+	public void fallbackToSingleRequests() {
+		responder.setRejectBatches(true);
+		OnlineOCSPSource ocspSource = new OnlineOCSPSource();
+		ocspSource.setDataLoader(responder);
+
+		Map<CertificateToken, OCSPToken> ocspTokens = ocspSource.getOCSPTokens(certificateTokens);
+		assertEquals(NB_CERTIFICATES, ocspTokens.size());
+		assertFalse(ocspTokens.get(certificateTokens.get(2)).getStatus());
+		assertEquals(1 + NB_CERTIFICATES, responder.getNumberOfRequests());
+
+		// the responder is known: no more batch
+		ocspSource.getOCSPTokens(certificateTokens);
+		assertEquals(1 + (2 * NB_CERTIFICATES), responder.getNumberOfRequests());
+	}
+
+	@Test
+	public void cachedResponsesAreNotRequested() {
+		OnlineOCSPSource onlineSource = new OnlineOCSPSource();
+		onlineSource.setDataLoader(responder);
+		CachingOCSPSource ocspSource = new CachingOCSPSource();
+		ocspSource.setCachedSource(onlineSource);
+
+		assertNotNull(ocspSource.getOCSPToken(certificateTokens.get(0), certificateTokens.get(0).getIssuerToken()));
+		assertEquals(1, responder.getNumberOfRequests());
+
+		assertEquals(NB_CERTIFICATES, ocspSource.getOCSPTokens(certificateTokens).size());
+		assertEquals(2, responder.getNumberOfRequests());
+		assertEquals(NB_CERTIFICATES, responder.getNumberOfCertificates());
+	}
+
+}
@@ -63,12 +63,14 @@ import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.AccessDescription;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
 import org.bouncycastle.asn1.x509.Certificate;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.GeneralName;
 import org.bouncycastle.asn1.x509.GeneralNames;
 import org.bouncycastle.asn1.x509.IssuerSerial;
 import org.bouncycastle.asn1.x509.PolicyInformation;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
 import org.bouncycastle.asn1.x509.X509ObjectIdentifiers;
 import org.bouncycastle.asn1.x509.qualified.QCStatement;
 import org.bouncycastle.cert.X509CertificateHolder;
@@ -327,6 +329,47 @@ public final class DSSASN1Utils {
 		return false;
 	}
 
+	/**
+	 * This method returns the key identifier of the subject key identifier extension of the certificate.
+	 *
+	 * @param certToken
+	 *            the certificate
+	 * @return the subject key identifier or null if the extension is not present
+	 */
+	public static byte[] getSki(final CertificateToken certToken) {
+		final byte[] extensionValue = certToken.getCertificate().getExtensionValue(Extension.subjectKeyIdentifier.getId());
+		if (extensionValue != null) {
+			try {
+				final ASN1OctetString octetString = ASN1OctetString.getInstance(extensionValue);
+				return SubjectKeyIdentifier.getInstance(octetString.getOctets()).getKeyIdentifier();
+			} catch (Exception e) {
+				LOG.debug("Exception when processing 'subjectKeyIdentifier'", e);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * This method returns the key identifier of the authority key identifier extension of the certificate. It allows to find the issuer
+	 * of the certificate (see {@link #getSki(CertificateToken)}).
+	 *
+	 * @param certToken
+	 *            the certificate
+	 * @return the key identifier of the issuer or null if the extension (or its key identifier) is not present
+	 */
+	public static byte[] getAki(final CertificateToken certToken) {
+		final byte[] extensionValue = certToken.getCertificate().getExtensionValue(Extension.authorityKeyIdentifier.getId());
+		if (extensionValue != null) {
+			try {
+				final ASN1OctetString octetString = ASN1OctetString.getInstance(extensionValue);
+				return AuthorityKeyIdentifier.getInstance(octetString.getOctets()).getKeyIdentifier();
+			} catch (Exception e) {
+				LOG.debug("Exception when processing 'authorityKeyIdentifier'", e);
+			}
+		}
+		return null;
+	}
+
 	public static List<String> getPolicyIdentifiers(final CertificateToken certToken) {
 		List<String> policyIdentifiers = new ArrayList<String>();
 		final byte[] certificatePolicies = certToken.getCertificate().getExtensionValue(Extension.certificatePolicies.getId());
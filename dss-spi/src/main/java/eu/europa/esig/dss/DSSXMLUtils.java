@@ -40,6 +40,7 @@ import javax.xml.crypto.dsig.dom.DOMValidateContext;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
@@ -55,11 +56,8 @@ import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -94,10 +92,10 @@ public final class DSSXMLUtils {
 
 	private static DocumentBuilderFactory dbFactory;
 
-	private static final XPathFactory factory = XPathFactory.newInstance();
-
 	private static NamespaceContextMap namespacePrefixMapper;
 
+	private static XPathExpressionCache xPathCache;
+
 	private static final Map<String, String> namespaces;
 
 	private static final Set<String> transforms;
@@ -109,6 +107,7 @@ public final class DSSXMLUtils {
 		Init.init();
 
 		namespacePrefixMapper = new NamespaceContextMap();
+		xPathCache = new XPathExpressionCache(namespacePrefixMapper);
 		namespaces = new HashMap<String, String>();
 		registerDefaultNamespaces();
 
@@ -179,6 +178,8 @@ public final class DSSXMLUtils {
 
 		final String put = namespaces.put(prefix, namespace);
 		namespacePrefixMapper.registerNamespace(prefix, namespace);
+		// the prefixes are resolved when the expressions are compiled
+		xPathCache.clear();
 		return put == null;
 	}
 
@@ -207,19 +208,17 @@ public final class DSSXMLUtils {
 	}
 
 	/**
-	 * @param xpathString XPath query string
-	 * @return
+	 * @param xmlNode     The node where the search should be performed.
+	 * @param xPathString XPath query string
+	 * @param returnType  the expected {@code XPathConstants} type
+	 * @return the result of the evaluation
 	 */
-	private static XPathExpression createXPathExpression(final String xpathString) {
+	private static Object evaluate(final Node xmlNode, final String xPathString, final QName returnType) {
 
-		/* XPath */
-		final XPath xpath = factory.newXPath();
-		xpath.setNamespaceContext(namespacePrefixMapper);
 		try {
-			final XPathExpression expr = xpath.compile(xpathString);
-			return expr;
-		} catch (XPathExpressionException ex) {
-			throw new DSSException(ex);
+			return xPathCache.evaluate(xmlNode, xPathString, returnType);
+		} catch (XPathExpressionException e) {
+			throw new DSSException(e);
 		}
 	}
 
@@ -285,14 +284,8 @@ public final class DSSXMLUtils {
 	 */
 	public static NodeList getNodeList(final Node xmlNode, final String xPathString) {
 
-		try {
-
-			final XPathExpression expr = createXPathExpression(xPathString);
-			final NodeList evaluated = (NodeList) expr.evaluate(xmlNode, XPathConstants.NODESET);
-			return evaluated;
-		} catch (XPathExpressionException e) {
-			throw new DSSException(e);
-		}
+		final NodeList evaluated = (NodeList) evaluate(xmlNode, xPathString, XPathConstants.NODESET);
+		return evaluated;
 	}
 
 	/**
@@ -305,14 +298,8 @@ public final class DSSXMLUtils {
 	 */
 	public static String getValue(final Node xmlNode, final String xPathString) {
 
-		try {
-
-			final XPathExpression xPathExpression = createXPathExpression(xPathString);
-			final String string = (String) xPathExpression.evaluate(xmlNode, XPathConstants.STRING);
-			return string.trim();
-		} catch (XPathExpressionException e) {
-			throw new DSSException(e);
-		}
+		final String string = (String) evaluate(xmlNode, xPathString, XPathConstants.STRING);
+		return string.trim();
 	}
 
 	/**
@@ -323,13 +310,8 @@ public final class DSSXMLUtils {
 	 * @return
 	 */
 	public static int count(final Node xmlNode, final String xPathString) {
-		try {
-			final XPathExpression xPathExpression = createXPathExpression(xPathString);
-			final Double number = (Double) xPathExpression.evaluate(xmlNode, XPathConstants.NUMBER);
-			return number.intValue();
-		} catch (XPathExpressionException e) {
-			throw new DSSException(e);
-		}
+		final Double number = (Double) evaluate(xmlNode, xPathString, XPathConstants.NUMBER);
+		return number.intValue();
 	}
 
 	/**
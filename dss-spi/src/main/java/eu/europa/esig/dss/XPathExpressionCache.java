@@ -0,0 +1,221 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathVariableResolver;
+
+import org.w3c.dom.Node;
+
+/**
+ * This class keeps the compiled XPath expressions. Neither the {@code XPathFactory}, the {@code XPath} nor the compiled expressions are
+ * thread-safe: each thread gets its own {@code XPath} instance and its own bounded cache.
+ *
+ * The parameters of a template like {@code ./Certificate[@Id='%s']} are bound as XPath variables: the template is compiled only once
+ * whatever the values are.
+ */
+class XPathExpressionCache {
+
+	private static final int DEFAULT_MAX_SIZE = 500;
+
+	private static final String PARAMETER = "'%s'";
+
+	private static final String VARIABLE_PREFIX = "p";
+
+	private final NamespaceContext namespaceContext;
+
+	private final int maxSize;
+
+	/**
+	 * Incremented each time the namespace context changes: the prefixes are resolved during the compilation.
+	 */
+	private volatile int version;
+
+	private final ThreadLocal<ThreadCache> threadCaches = new ThreadLocal<ThreadCache>() {
+
+		@Override
+		protected ThreadCache initialValue() {
+			return new ThreadCache();
+		}
+	};
+
+	XPathExpressionCache(final NamespaceContext namespaceContext) {
+		this(namespaceContext, DEFAULT_MAX_SIZE);
+	}
+
+	XPathExpressionCache(final NamespaceContext namespaceContext, final int maxSize) {
+		this.namespaceContext = namespaceContext;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * This method discards all compiled expressions. It must be called when the namespace context is modified.
+	 */
+	void clear() {
+		version++;
+	}
+
+	/**
+	 * This method can be overridden to rewrite the XPath query before its compilation (the result is cached with the expression).
+	 *
+	 * @param xPathString
+	 *            the XPath query with the parameters replaced by variables
+	 * @return the XPath query to compile
+	 */
+	String normalize(final String xPathString) {
+		return xPathString;
+	}
+
+	/**
+	 * This method evaluates the XPath template with the given parameters.
+	 *
+	 * @param node
+	 *            the context node
+	 * @param template
+	 *            the XPath query, it can contain {@code String.format} parameters
+	 * @param returnType
+	 *            the expected {@code XPathConstants} type
+	 * @param params
+	 *            the parameters of the template
+	 * @return the result of the evaluation
+	 * @throws XPathExpressionException
+	 */
+	Object evaluate(final Node node, final String template, final QName returnType, final Object... params) throws XPathExpressionException {
+
+		final ThreadCache threadCache = threadCaches.get();
+		if (threadCache.version != version) {
+			threadCache.expressions.clear();
+			threadCache.version = version;
+		}
+
+		final boolean bindable = (params.length > 0) && isBindable(template, params.length);
+		final String key;
+		if (bindable || (params.length == 0)) {
+			key = template;
+		} else {
+			key = String.format(template, params);
+		}
+
+		XPathExpression expression = threadCache.expressions.get(key);
+		if (expression == null) {
+			final String xPathString = bindable ? replaceParameters(template) : key;
+			expression = threadCache.xPath.compile(normalize(xPathString));
+			threadCache.expressions.put(key, expression);
+		}
+
+		if (!bindable) {
+			return expression.evaluate(node, returnType);
+		}
+		threadCache.variables = params;
+		try {
+			return expression.evaluate(node, returnType);
+		} finally {
+			threadCache.variables = null;
+		}
+	}
+
+	/**
+	 * The parameters can be bound only if they are all string literals ('%s') and if there is no other format specifier.
+	 */
+	private static boolean isBindable(final String template, final int nbParams) {
+
+		int nbLiterals = 0;
+		int index = template.indexOf(PARAMETER);
+		while (index != -1) {
+			nbLiterals++;
+			index = template.indexOf(PARAMETER, index + PARAMETER.length());
+		}
+		int nbSpecifiers = 0;
+		index = template.indexOf('%');
+		while (index != -1) {
+			nbSpecifiers++;
+			index = template.indexOf('%', index + 1);
+		}
+		return (nbLiterals == nbParams) && (nbSpecifiers == nbParams);
+	}
+
+	private static String replaceParameters(final String template) {
+
+		final StringBuilder xPathString = new StringBuilder();
+		int variable = 0;
+		int start = 0;
+		int index = template.indexOf(PARAMETER);
+		while (index != -1) {
+			xPathString.append(template, start, index).append('$').append(VARIABLE_PREFIX).append(++variable);
+			start = index + PARAMETER.length();
+			index = template.indexOf(PARAMETER, start);
+		}
+		xPathString.append(template, start, template.length());
+		return xPathString.toString();
+	}
+
+	private final class ThreadCache implements XPathVariableResolver {
+
+		private final XPath xPath;
+
+		private final Map<String, XPathExpression> expressions;
+
+		private int version = XPathExpressionCache.this.version;
+
+		private Object[] variables;
+
+		ThreadCache() {
+			xPath = XPathFactory.newInstance().newXPath();
+			xPath.setNamespaceContext(namespaceContext);
+			xPath.setXPathVariableResolver(this);
+			expressions = new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<String, XPathExpression> eldest) {
+					return size() > maxSize;
+				}
+			};
+		}
+
+		@Override
+		public Object resolveVariable(final QName variableName) {
+
+			if (variables != null) {
+				final String localPart = variableName.getLocalPart();
+				if (localPart.startsWith(VARIABLE_PREFIX)) {
+					try {
+						final int index = Integer.parseInt(localPart.substring(VARIABLE_PREFIX.length())) - 1;
+						if ((index >= 0) && (index < variables.length)) {
+							return String.valueOf(variables[index]);
+						}
+					} catch (NumberFormatException e) {
+						// not one of our variables
+					}
+				}
+			}
+			return null;
+		}
+	}
+
+}
@@ -31,16 +31,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 
+import javax.xml.namespace.QName;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -63,8 +61,6 @@ public class XmlDom {
 
 	private static final String NS_PREFIX = "dss";
 
-	private static final XPathFactory factory = XPathFactory.newInstance();
-
 	private static final NamespaceContextMap nsContext;
 
 	private static final Map<String, String> namespaces;
@@ -77,6 +73,17 @@ public class XmlDom {
 		nsContext.registerNamespace(NS_PREFIX, NAMESPACE);
 	}
 
+	/**
+	 * The compiled expressions are cached with the namespace prefixes already added.
+	 */
+	private static final XPathExpressionCache xPathCache = new XPathExpressionCache(nsContext) {
+
+		@Override
+		String normalize(final String xPathString) {
+			return addNamespacePrefix(xPathString);
+		}
+	};
+
 	public final Element rootElement;
 
 	String nameSpace;
@@ -92,30 +99,20 @@ public class XmlDom {
 		this.rootElement = element;
 	}
 
-	private static XPathExpression createXPathExpression(final String xpathString) {
+	private static Object evaluate(final Node xmlNode, final QName returnType, final String xPath, final Object... params) {
 
-		final XPath xpath = factory.newXPath();
-		xpath.setNamespaceContext(nsContext);
 		try {
 
-			final XPathExpression expr = xpath.compile(xpathString);
-			return expr;
-		} catch (XPathExpressionException ex) {
+			return xPathCache.evaluate(xmlNode, xPath, returnType, params);
+		} catch (XPathExpressionException e) {
 
-			throw new RuntimeException(ex);
+			throw new RuntimeException(e);
 		}
 	}
 
-	private static NodeList getNodeList(final Node xmlNode, final String xpathString) {
+	private static NodeList getNodeList(final Node xmlNode, final String xPath, final Object... params) {
 
-		try {
-
-			final XPathExpression expr = createXPathExpression(xpathString);
-			return (NodeList) expr.evaluate(xmlNode, XPathConstants.NODESET);
-		} catch (XPathExpressionException e) {
-
-			throw new RuntimeException(e);
-		}
+		return (NodeList) evaluate(xmlNode, XPathConstants.NODESET, xPath, params);
 	}
 
 	/**
@@ -129,9 +126,7 @@ public class XmlDom {
 
 		try {
 
-			String xPath_ = format(xPath, params);
-
-			NodeList nodeList = getNodeList(rootElement, xPath_);
+			NodeList nodeList = getNodeList(rootElement, xPath, params);
 			List<XmlDom> list = new ArrayList<XmlDom>();
 			for (int ii = 0; ii < nodeList.getLength(); ii++) {
 
@@ -153,9 +148,7 @@ public class XmlDom {
 
 		try {
 
-			String xPath_ = format(xPath, params);
-
-			NodeList nodeList = getNodeList(rootElement, xPath_);
+			NodeList nodeList = getNodeList(rootElement, xPath, params);
 			for (int ii = 0; ii < nodeList.getLength(); ii++) {
 
 				Node node = nodeList.item(ii);
@@ -172,25 +165,6 @@ public class XmlDom {
 		}
 	}
 
-	/**
-	 * @param xPath
-	 * @param params
-	 * @return
-	 */
-	private static String format(final String xPath, final Object... params) {
-
-		String formattedXPath;
-		if (params.length > 0) {
-
-			formattedXPath = String.format(xPath, params);
-		} else {
-
-			formattedXPath = xPath;
-		}
-		formattedXPath = addNamespacePrefix(formattedXPath);
-		return formattedXPath;
-	}
-
 	private static String addNamespacePrefix(final String formatedXPath) {
 
 		if (formatedXPath.startsWith("/dss:") || formatedXPath.startsWith("./dss:")) {
@@ -243,9 +217,7 @@ public class XmlDom {
 	 */
 	public String getValue(final String xPath, final Object... params) {
 
-		String xPath_ = format(xPath, params);
-
-		NodeList nodeList = getNodeList(rootElement, xPath_);
+		NodeList nodeList = getNodeList(rootElement, xPath, params);
 		if (nodeList.getLength() == 1) {
 			Node node = nodeList.item(0);
 			if (node.getNodeType() != Node.ELEMENT_NODE) {
@@ -294,16 +266,8 @@ public class XmlDom {
 
 	public long getCountValue(final String xPath, final Object... params) {
 
-		String xpathString = format(xPath, params);
-		try {
-
-			XPathExpression xPathExpression = createXPathExpression(xpathString);
-			Double number = (Double) xPathExpression.evaluate(rootElement, XPathConstants.NUMBER);
-			return number.intValue();
-		} catch (XPathExpressionException e) {
-
-			throw new RuntimeException(e);
-		}
+		Double number = (Double) evaluate(rootElement, XPathConstants.NUMBER, xPath, params);
+		return number.intValue();
 	}
 
 	public boolean exists(final String xPath, final Object... params) {
@@ -0,0 +1,78 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.http;
+
+/**
+ * A {@code DataLoader} able to perform conditional GET requests : the content is only downloaded if it has changed since a previous
+ * download, as indicated by its HTTP validators (ETag and Last-Modified).
+ */
+public interface ConditionalDataLoader extends DataLoader {
+
+	/**
+	 * The result of a conditional GET request.
+	 */
+	public static class ConditionalResponse {
+
+		/**
+		 * The downloaded content, {@code null} if the content was not modified
+		 */
+		public byte[] data;
+
+		/**
+		 * The ETag of the content (can be null)
+		 */
+		public String eTag;
+
+		/**
+		 * The Last-Modified date of the content, as returned by the server (can be null)
+		 */
+		public String lastModified;
+
+		public ConditionalResponse(final byte[] data, final String eTag, final String lastModified) {
+
+			this.data = data;
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * @return {@code true} if the content has not changed since the previous download
+		 */
+		public boolean isNotModified() {
+			return data == null;
+		}
+	}
+
+	/**
+	 * Downloads the content of the given URL if it was modified. The validators of a previous response are sent with the request; when they
+	 * are {@code null}, the content is always downloaded. Protocols without validators always download the content.
+	 *
+	 * @param url
+	 *            to access
+	 * @param eTag
+	 *            the ETag of the previous response (can be null)
+	 * @param lastModified
+	 *            the Last-Modified value of the previous response (can be null)
+	 * @return the {@code ConditionalResponse}, or {@code null} if no content is available
+	 */
+	ConditionalResponse get(String url, String eTag, String lastModified);
+
+}
@@ -54,6 +54,16 @@ public class CompositeCondition extends Condition {
         children.add(condition);
     }
 
+    /**
+     * Returns the child conditions
+     *
+     * @return the list of child conditions or null
+     */
+    public List<Condition> getChildren() {
+
+        return children;
+    }
+
     /**
      * Checks the condition for the given certificate.
      *
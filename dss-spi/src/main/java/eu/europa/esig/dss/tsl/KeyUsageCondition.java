@@ -57,6 +57,13 @@ public class KeyUsageCondition extends Condition {
 		return bit;
 	}
 
+	/**
+	 * @return the expected value of the bit
+	 */
+	public boolean getValue() {
+		return value;
+	}
+
 	/**
 	 * Checks the condition for the given certificate.
 	 *
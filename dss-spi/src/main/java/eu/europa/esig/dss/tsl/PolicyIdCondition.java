@@ -22,7 +22,6 @@ package eu.europa.esig.dss.tsl;
 
 import java.util.List;
 
-import eu.europa.esig.dss.DSSASN1Utils;
 import eu.europa.esig.dss.x509.CertificateToken;
 
 /**
@@ -72,7 +71,7 @@ public class PolicyIdCondition extends Condition {
 		 * Certificate policies identifier: 2.5.29.32 (IETF RFC 3280)<br>
 		 * Gets all certificate's policies
 		 */
-		List<String> contextPolicyIdentifiers = DSSASN1Utils.getPolicyIdentifiers(certificateToken);
+		List<String> contextPolicyIdentifiers = QualificationFacts.getInstance(certificateToken).getPolicyIdentifiers();
 		return contextPolicyIdentifiers.contains(policyOid);
 	}
 
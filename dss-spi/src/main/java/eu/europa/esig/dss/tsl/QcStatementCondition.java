@@ -22,7 +22,6 @@ package eu.europa.esig.dss.tsl;
 
 import java.util.List;
 
-import eu.europa.esig.dss.DSSASN1Utils;
 import eu.europa.esig.dss.x509.CertificateToken;
 
 /**
@@ -43,6 +42,13 @@ public class QcStatementCondition extends Condition {
 		this.qcStatementASN1Id = qcStatementASN1Id;
 	}
 
+	/**
+	 * @return the qcStatementASN1Id
+	 */
+	public String getQcStatementASN1Id() {
+		return qcStatementASN1Id;
+	}
+
 	/**
 	 * Checks the condition for the given certificate.
 	 *
@@ -52,7 +58,7 @@ public class QcStatementCondition extends Condition {
 	 */
 	@Override
 	public boolean check(final CertificateToken certToken) {
-		List<String> extensionIdList = DSSASN1Utils.getQCStatementsIdList(certToken);
+		List<String> extensionIdList = QualificationFacts.getInstance(certToken).getQcStatementIds();
 		return extensionIdList.contains(qcStatementASN1Id);
 	}
 
@@ -0,0 +1,91 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import eu.europa.esig.dss.DSSASN1Utils;
+import eu.europa.esig.dss.TokenIdentifier;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+/**
+ * This class contains the facts of a certificate checked by the trusted list conditions: the certificate policy
+ * identifiers and the QCStatement identifiers. The extensions are decoded once per certificate, whatever the number of
+ * {@link CertificateToken}s and conditions. The key usage bits are already kept by the {@code CertificateToken}.<br>
+ * An entry is removed when the certificate is not used anymore. This class is thread-safe.
+ */
+public final class QualificationFacts {
+
+	/**
+	 * The facts of the certificates, the keys are the interned identifiers of the certificates
+	 */
+	private static final Map<TokenIdentifier, QualificationFacts> FACTS = new WeakHashMap<TokenIdentifier, QualificationFacts>();
+
+	private final List<String> policyIdentifiers;
+
+	private final List<String> qcStatementIds;
+
+	private QualificationFacts(final CertificateToken certificateToken) {
+		this.policyIdentifiers = Collections.unmodifiableList(DSSASN1Utils.getPolicyIdentifiers(certificateToken));
+		this.qcStatementIds = Collections.unmodifiableList(DSSASN1Utils.getQCStatementsIdList(certificateToken));
+	}
+
+	/**
+	 * This method returns the facts of the given certificate. The extensions are decoded the first time the certificate
+	 * is encountered.
+	 *
+	 * @param certificateToken
+	 *            the certificate
+	 * @return the {@code QualificationFacts} of the certificate
+	 */
+	public static QualificationFacts getInstance(final CertificateToken certificateToken) {
+
+		final TokenIdentifier dssId = certificateToken.getDSSId();
+		synchronized (FACTS) {
+
+			QualificationFacts facts = FACTS.get(dssId);
+			if (facts == null) {
+
+				facts = new QualificationFacts(certificateToken);
+				FACTS.put(dssId, facts);
+			}
+			return facts;
+		}
+	}
+
+	/**
+	 * @return the unmodifiable list of the certificate policy identifiers
+	 */
+	public List<String> getPolicyIdentifiers() {
+		return policyIdentifiers;
+	}
+
+	/**
+	 * @return the unmodifiable list of the QCStatement identifiers
+	 */
+	public List<String> getQcStatementIds() {
+		return qcStatementIds;
+	}
+
+}
@@ -0,0 +1,189 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+/**
+ * This class memorizes the qualifiers of a certificate for a trusted service. An entry is identified by the SHA-256
+ * digest of the certificate, the {@link ServiceInfo} instance and the sequence number of its trusted list: the
+ * conditions of a service are evaluated only once per certificate, a new version of the trusted list gives new entries.<br>
+ * The number of entries is bounded, the least recently used entries are removed first. This class is thread-safe.
+ */
+public final class QualifiersCache {
+
+	/**
+	 * The default maximum number of entries
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private static final QualifiersCache INSTANCE = new QualifiersCache(DEFAULT_MAX_SIZE);
+
+	private final Map<Key, List<String>> qualifiers;
+
+	private volatile boolean enabled = true;
+
+	/**
+	 * This constructor creates a cache with the given maximum number of entries.
+	 *
+	 * @param maxSize
+	 *            the maximum number of entries
+	 */
+	public QualifiersCache(final int maxSize) {
+		qualifiers = new LinkedHashMap<Key, List<String>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, List<String>> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache shared by the whole process.
+	 *
+	 * @return the process-wide {@code QualifiersCache}
+	 */
+	public static QualifiersCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * This method returns the qualifiers previously computed for the certificate and the service.
+	 *
+	 * @param serviceInfo
+	 *            the trusted service
+	 * @param certificateToken
+	 *            the certificate
+	 * @return the unmodifiable list of qualifiers or null if the conditions were not evaluated yet
+	 */
+	public List<String> get(final ServiceInfo serviceInfo, final CertificateToken certificateToken) {
+
+		if (!enabled) {
+			return null;
+		}
+		final Key key = new Key(certificateToken.getDigest(DigestAlgorithm.SHA256), serviceInfo);
+		synchronized (qualifiers) {
+			return qualifiers.get(key);
+		}
+	}
+
+	/**
+	 * This method memorizes the qualifiers of the certificate for the service.
+	 *
+	 * @param serviceInfo
+	 *            the trusted service
+	 * @param certificateToken
+	 *            the certificate
+	 * @param certificateQualifiers
+	 *            the qualifiers for which a condition is true
+	 */
+	public void put(final ServiceInfo serviceInfo, final CertificateToken certificateToken, final List<String> certificateQualifiers) {
+
+		if (!enabled) {
+			return;
+		}
+		final Key key = new Key(certificateToken.getDigest(DigestAlgorithm.SHA256), serviceInfo);
+		final List<String> value = Collections.unmodifiableList(certificateQualifiers);
+		synchronized (qualifiers) {
+			qualifiers.put(key, value);
+		}
+	}
+
+	/**
+	 * Allows to disable the cache: the conditions are evaluated for each validation.
+	 *
+	 * @param enabled
+	 *            false to disable the cache
+	 */
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	/**
+	 * Removes all the entries.
+	 */
+	public void clear() {
+		synchronized (qualifiers) {
+			qualifiers.clear();
+		}
+	}
+
+	/**
+	 * @return the current number of entries
+	 */
+	public int size() {
+		synchronized (qualifiers) {
+			return qualifiers.size();
+		}
+	}
+
+	private static final class Key {
+
+		private final byte[] certificateDigest;
+
+		/**
+		 * The instance is compared by identity: two equal {@code ServiceInfo} can hold different conditions
+		 */
+		private final ServiceInfo serviceInfo;
+
+		private final int tlSequenceNumber;
+
+		private final int hashCode;
+
+		Key(final byte[] certificateDigest, final ServiceInfo serviceInfo) {
+			this.certificateDigest = certificateDigest;
+			this.serviceInfo = serviceInfo;
+			this.tlSequenceNumber = serviceInfo.getTlSequenceNumber();
+			this.hashCode = (31 * ((31 * Arrays.hashCode(certificateDigest)) + System.identityHashCode(serviceInfo))) + tlSequenceNumber;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return (serviceInfo == other.serviceInfo) && (tlSequenceNumber == other.tlSequenceNumber) && Arrays.equals(certificateDigest, other.certificateDigest);
+		}
+	}
+
+}
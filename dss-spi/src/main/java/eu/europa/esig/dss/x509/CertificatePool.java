@@ -24,20 +24,21 @@ import java.io.Serializable;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.security.auth.x500.X500Principal;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.DSSASN1Utils;
 import eu.europa.esig.dss.TokenIdentifier;
 import eu.europa.esig.dss.tsl.ServiceInfo;
 
@@ -46,6 +47,14 @@ import eu.europa.esig.dss.tsl.ServiceInfo;
  * different sources: trusted list, signature, OCSP response... but each certificate is unambiguously identified by its
  * issuer DN and serial number. This class allows to keep only one occurrence of the certificate regardless its
  * provenance. Two pools of certificates can be merged using the {@link #merge(CertificatePool)} method.
+ *
+ * A pool can be created on top of a read-only pool (see {@link #snapshot()}) : the certificates of the read-only pool are visible without
+ * being copied, only the new certificates are stored in the pool. This allows to share the trusted certificates between validations.
+ * The tokens of the read-only pool are never returned as is: the first access creates a token of this pool sharing the immutable
+ * certificate data (see {@link CertificateToken#copyWithoutValidationData()}), the validation data stays local to this pool.
+ *
+ * The certificates are indexed by subject distinguished name and by subject key identifier. The reads are done without locking: the
+ * lists stored in the indexes are immutable and replaced when a certificate is added.
  */
 public class CertificatePool implements Serializable {
 
@@ -53,14 +62,86 @@ public class CertificatePool implements Serializable {
 
 	/**
 	 * Map of encapsulated certificates with unique DSS identifier as key (hash code calculated on issuer distinguished name and serial
-	 * number)
+	 * number). The additions are done while holding the lock of this map.
 	 */
-	private Map<TokenIdentifier, CertificateToken> certById = new HashMap<TokenIdentifier, CertificateToken>();
+	private final ConcurrentMap<TokenIdentifier, CertificateToken> certById = new ConcurrentHashMap<TokenIdentifier, CertificateToken>();
 
 	/**
-	 * Map f encapsulated certificates with subject distinguished name as key.
+	 * Map of encapsulated certificates with subject distinguished name as key. The lists are immutable.
 	 */
-	private Map<String, List<CertificateToken>> certBySubject = new HashMap<String, List<CertificateToken>>();
+	private final ConcurrentMap<String, List<CertificateToken>> certBySubject = new ConcurrentHashMap<String, List<CertificateToken>>();
+
+	/**
+	 * Map of encapsulated certificates with the hexadecimal subject key identifier as key. The lists are immutable.
+	 */
+	private final ConcurrentMap<String, List<CertificateToken>> certBySki = new ConcurrentHashMap<String, List<CertificateToken>>();
+
+	/**
+	 * The read-only pool whose certificates are visible through this pool (can be null)
+	 */
+	private final CertificatePool parentPool;
+
+	/**
+	 * A read-only pool is never modified after its creation
+	 */
+	private boolean readOnly;
+
+	/**
+	 * Incremented each time the content of the pool (certificates, sources or services) is modified. For a read-only
+	 * pool, it is the value of the copied pool when the copy was made.
+	 */
+	private volatile int modificationCount;
+
+	/**
+	 * The number of tokens of this pool created from a token of the parent pool
+	 */
+	private volatile int parentTokenCopies;
+
+	/**
+	 * The default constructor to create an empty pool.
+	 */
+	public CertificatePool() {
+		this.parentPool = null;
+	}
+
+	/**
+	 * This constructor creates an empty pool on top of a read-only pool. The certificates of the read-only pool are returned by this pool
+	 * but they are only copied when they are accessed.
+	 *
+	 * @param parentPool
+	 *            a read-only pool obtained with {@link #snapshot()}
+	 */
+	public CertificatePool(final CertificatePool parentPool) {
+		if ((parentPool != null) && !parentPool.readOnly) {
+			throw new IllegalArgumentException("The parent pool must be read-only");
+		}
+		this.parentPool = parentPool;
+	}
+
+	/**
+	 * This method returns a read-only copy of this pool. The tokens are copied without their validation data, the certificate data is
+	 * shared. The copy can be used as parent of the validation pools.
+	 *
+	 * @return a read-only {@code CertificatePool}
+	 */
+	public CertificatePool snapshot() {
+
+		final int currentModificationCount = modificationCount;
+		final CertificatePool snapshot = new CertificatePool();
+		for (final CertificateToken certificateToken : certById.values()) {
+			snapshot.put(certificateToken.copyWithoutValidationData());
+		}
+		if (parentPool != null) {
+			for (final CertificateToken parentToken : parentPool.certById.values()) {
+				if (!snapshot.certById.containsKey(parentToken.getDSSId())) {
+					snapshot.put(parentToken.copyWithoutValidationData());
+				}
+			}
+		}
+		snapshot.modificationCount = currentModificationCount;
+		snapshot.readOnly = true;
+		return snapshot;
+	}
 
 	/**
 	 * Returns the instance of a certificate token. If the certificate is not referenced yet a new instance of
@@ -121,23 +202,22 @@ public class CertificatePool implements Serializable {
 			LOG.trace("Certificate to add: " + certificateToAdd.getIssuerX500Principal() + "|" + certificateToAdd.getSerialNumber());
 		}
 
+		if (readOnly) {
+			throw new UnsupportedOperationException("The certificate pool is read-only");
+		}
+
 		final TokenIdentifier id = certificateToAdd.getDSSId();
 		synchronized (certById) {
 
 			CertificateToken certToken = certById.get(id);
+			if ((certToken == null) && (parentPool != null)) {
+				certToken = getParentTokenCopy(parentPool.certById.get(id));
+			}
 			if (certToken == null) {
 
 				LOG.debug("Certificate " + id + " is not in the pool");
 				certToken = certificateToAdd;
-				certById.put(id, certToken);
-				final String subjectName = certificateToAdd.getSubjectX500Principal().getName(X500Principal.CANONICAL);
-				List<CertificateToken> list = certBySubject.get(subjectName);
-				if (list == null) {
-
-					list = new ArrayList<CertificateToken>();
-					certBySubject.put(subjectName, list);
-				}
-				list.add(certToken);
+				put(certToken);
 			} else {
 
 				LOG.debug("Certificate " + id + " is already in the pool");
@@ -158,6 +238,7 @@ public class CertificatePool implements Serializable {
 					certToken.addServiceInfo(serviceInfo);
 				}
 			}
+			modificationCount++;
 			return certToken;
 		}
 	}
@@ -168,8 +249,14 @@ public class CertificatePool implements Serializable {
 	 * @return
 	 */
 	public List<CertificateToken> getCertificateTokens() {
-		List<CertificateToken> certificateTokenArrayList = new ArrayList<CertificateToken>(certById.values());
-		return Collections.unmodifiableList(certificateTokenArrayList);
+		if ((parentPool != null) && (parentTokenCopies < parentPool.certById.size())) {
+			synchronized (certById) {
+				for (final CertificateToken parentToken : parentPool.certById.values()) {
+					getParentTokenCopy(parentToken);
+				}
+			}
+		}
+		return Collections.unmodifiableList(new ArrayList<CertificateToken>(certById.values()));
 	}
 
 	/**
@@ -178,24 +265,54 @@ public class CertificatePool implements Serializable {
 	 * @return the number of certificates
 	 */
 	public int getNumberOfCertificates() {
-		return certById.size();
+		if (parentPool == null) {
+			return certById.size();
+		}
+		synchronized (certById) {
+			return parentPool.certById.size() + certById.size() - parentTokenCopies;
+		}
+	}
+
+	/**
+	 * This method returns a counter which changes each time the pool is modified. It allows to detect that a snapshot
+	 * is out of date : the counter of a snapshot is the counter of the pool at the time of the copy.
+	 *
+	 * @return the modification counter
+	 */
+	int getModificationCount() {
+		return modificationCount;
 	}
 
 	/**
 	 * This method allows to add certificates from another {@link CertificatePool}. If an instance of the
 	 * {@link CertificateToken} already exists in this pool only the {@link ServiceInfo} and
-	 * {@link CertificateSourceType} are added.
+	 * {@link CertificateSourceType} are added. The read-only tokens of the given pool are added as copies and the tokens of a read-only
+	 * pool shared with this pool are not iterated: they are already visible from this pool.
 	 *
 	 * @param certPool
 	 */
 	public void merge(final CertificatePool certPool) {
 
-		Collection<CertificateToken> certTokens = certPool.getCertificateTokens();
-		for (CertificateToken certificateToken : certTokens) {
-			getInstance(certificateToken, certificateToken.getSources(), certificateToken.getAssociatedTSPS());
+		final boolean readOnlyTokens = certPool.readOnly;
+		for (final CertificateToken certificateToken : certPool.certById.values()) {
+			merge(certificateToken, readOnlyTokens);
+		}
+		final CertificatePool otherParentPool = certPool.parentPool;
+		if ((otherParentPool != null) && (otherParentPool != parentPool)) {
+			for (final CertificateToken parentToken : otherParentPool.certById.values()) {
+				if (!certPool.certById.containsKey(parentToken.getDSSId())) {
+					merge(parentToken, true);
+				}
+			}
 		}
 	}
 
+	private void merge(final CertificateToken certificateToken, final boolean readOnlyToken) {
+
+		final CertificateToken certificateToAdd = readOnlyToken ? certificateToken.copyWithoutValidationData() : certificateToken;
+		getInstance(certificateToAdd, certificateToken.getSources(), certificateToken.getAssociatedTSPS());
+	}
+
 	/**
 	 * This method returns the list of certificates with the same issuerDN.
 	 *
@@ -204,21 +321,118 @@ public class CertificatePool implements Serializable {
 	 */
 	public List<CertificateToken> get(final X500Principal x500Principal) {
 
-		List<CertificateToken> certificateTokenList = null;
-		if (x500Principal != null) {
+		if (x500Principal == null) {
+			return Collections.emptyList();
+		}
+		/**
+		 * TODO: (Bob: 2014 Feb 21) For some certificates the comparison based on X500Principal.CANONICAL does not returns the same result as this based on X500Principal
+		 * .RFC2253. The CANONICAL form seems to be compliant with the requirements of RFC 2459.
+		 * The returned list can be maybe enriched by RFC2253 form?
+		 */
+		final String x500PrincipalCanonicalized = x500Principal.getName(X500Principal.CANONICAL);
+		return get(certBySubject, (parentPool == null) ? null : parentPool.certBySubject, x500PrincipalCanonicalized);
+	}
+
+	/**
+	 * This method returns the list of certificates with the given subject key identifier. It allows to find the issuer of a certificate
+	 * from its authority key identifier.
+	 *
+	 * @param ski
+	 *            the subject key identifier to match
+	 * @return If no match is found then an empty list is returned.
+	 */
+	public List<CertificateToken> getBySki(final byte[] ski) {
+
+		if (ski == null) {
+			return Collections.emptyList();
+		}
+		return get(certBySki, (parentPool == null) ? null : parentPool.certBySki, Hex.encodeHexString(ski));
+	}
+
+	/**
+	 * This method returns the immutable list of the given index. The tokens found in the same index of the parent pool are copied in this
+	 * pool if needed.
+	 */
+	private List<CertificateToken> get(final ConcurrentMap<String, List<CertificateToken>> index, final ConcurrentMap<String, List<CertificateToken>> parentIndex,
+			final String key) {
+
+		if (parentIndex != null) {
 
-			/**
-			 * TODO: (Bob: 2014 Feb 21) For some certificates the comparison based on X500Principal.CANONICAL does not returns the same result as this based on X500Principal
-			 * .RFC2253. The CANONICAL form seems to be compliant with the requirements of RFC 2459.
-			 * The returned list can be maybe enriched by RFC2253 form?
-			 */
-			final String x500PrincipalCanonicalized = x500Principal.getName(X500Principal.CANONICAL);
-			certificateTokenList = certBySubject.get(x500PrincipalCanonicalized);
+			final List<CertificateToken> parentList = parentIndex.get(key);
+			if ((parentList != null) && !containsAll(parentList)) {
+				synchronized (certById) {
+					for (final CertificateToken parentToken : parentList) {
+						getParentTokenCopy(parentToken);
+					}
+				}
+			}
 		}
+		final List<CertificateToken> certificateTokenList = index.get(key);
 		if (certificateTokenList == null) {
+			return Collections.emptyList();
+		}
+		return certificateTokenList;
+	}
+
+	private boolean containsAll(final List<CertificateToken> certificateTokens) {
+		for (final CertificateToken certificateToken : certificateTokens) {
+			if (!certById.containsKey(certificateToken.getDSSId())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This method returns the token of this pool corresponding to the given token of the parent pool. The token is created on the
+	 * first call. This method must be called while holding the lock of {@code certById}.
+	 *
+	 * @param parentToken
+	 *            a token of the parent pool, can be null
+	 * @return the corresponding token of this pool or null
+	 */
+	private CertificateToken getParentTokenCopy(final CertificateToken parentToken) {
+
+		if (parentToken == null) {
+			return null;
+		}
+		CertificateToken certToken = certById.get(parentToken.getDSSId());
+		if (certToken == null) {
+
+			certToken = parentToken.copyWithoutValidationData();
+			put(certToken);
+			parentTokenCopies++;
+		}
+		return certToken;
+	}
+
+	/**
+	 * This method adds the token to the indexes. It must be called while holding the lock of {@code certById}.
+	 */
+	private void put(final CertificateToken certToken) {
+
+		final String subjectName = certToken.getSubjectX500Principal().getName(X500Principal.CANONICAL);
+		add(certBySubject, subjectName, certToken);
+		final byte[] ski = DSSASN1Utils.getSki(certToken);
+		if (ski != null) {
+			add(certBySki, Hex.encodeHexString(ski), certToken);
+		}
+		// the token is visible by its identifier once it is indexed
+		certById.put(certToken.getDSSId(), certToken);
+	}
+
+	private static void add(final ConcurrentMap<String, List<CertificateToken>> index, final String key, final CertificateToken certToken) {
 
-			certificateTokenList = new ArrayList<CertificateToken>();
+		final List<CertificateToken> list = index.get(key);
+		final List<CertificateToken> newList;
+		if (list == null) {
+			newList = Collections.singletonList(certToken);
+		} else {
+			final List<CertificateToken> copy = new ArrayList<CertificateToken>(list.size() + 1);
+			copy.addAll(list);
+			copy.add(certToken);
+			newList = Collections.unmodifiableList(copy);
 		}
-		return Collections.unmodifiableList(certificateTokenList);
+		index.put(key, newList);
 	}
 }
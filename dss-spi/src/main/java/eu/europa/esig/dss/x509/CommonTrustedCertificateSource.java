@@ -22,6 +22,7 @@ package eu.europa.esig.dss.x509;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -40,6 +41,21 @@ public class CommonTrustedCertificateSource extends CommonCertificateSource {
 
 	private KeyStoreCertificateSource dssKeyStore;
 
+	/**
+	 * The read-only copy of the pool shared by the validations
+	 */
+	private volatile CertificatePool poolSnapshot;
+
+	/**
+	 * Guards only the publication of a new copy, the copy itself is built without lock
+	 */
+	private final Object snapshotLock = new Object();
+
+	/**
+	 * The number of bulk updates in progress
+	 */
+	private final AtomicInteger bulkUpdates = new AtomicInteger();
+
 	public void setDssKeyStore(KeyStoreCertificateSource dssKeyStore) {
 		this.dssKeyStore = dssKeyStore;
 	}
@@ -145,4 +161,55 @@ public class CommonTrustedCertificateSource extends CommonCertificateSource {
 		return certPool.getNumberOfCertificates();
 	}
 
+	/**
+	 * This method returns a read-only copy of the trusted certificates pool. The copy is created once and shared until the content of the
+	 * source changes : it can be used as parent of the validation pools (see {@link CertificatePool#CertificatePool(CertificatePool)}) to
+	 * avoid copying all trusted certificates for each validation. The copy is built without any lock and published through a volatile
+	 * reference. During a bulk update (see {@link #beginBulkUpdate()}) the previous copy is returned.
+	 *
+	 * @return a read-only {@code CertificatePool}
+	 */
+	public CertificatePool getCertificatePoolSnapshot() {
+		final CertificatePool snapshot = poolSnapshot;
+		if (isUpToDate(snapshot) || ((snapshot != null) && (bulkUpdates.get() > 0))) {
+			return snapshot;
+		}
+		return refreshSnapshot();
+	}
+
+	/**
+	 * This method announces a set of modifications of the source (e.g. the synchronization of the trusted lists). Until the matching
+	 * call to {@link #endBulkUpdate()}, the validations keep using the previous copy of the pool.
+	 */
+	public void beginBulkUpdate() {
+		bulkUpdates.incrementAndGet();
+	}
+
+	/**
+	 * This method ends a set of modifications started with {@link #beginBulkUpdate()} and publishes a new copy of the pool.
+	 */
+	public void endBulkUpdate() {
+		if (bulkUpdates.decrementAndGet() == 0) {
+			refreshSnapshot();
+		}
+	}
+
+	private CertificatePool refreshSnapshot() {
+		logger.debug("Creation of a snapshot of the trusted certificates pool");
+		final CertificatePool snapshot = certPool.snapshot();
+		synchronized (snapshotLock) {
+			// a copy built concurrently from a more recent state of the pool is kept
+			final CertificatePool published = poolSnapshot;
+			if ((published == null) || (published.getModificationCount() < snapshot.getModificationCount())) {
+				poolSnapshot = snapshot;
+				return snapshot;
+			}
+			return published;
+		}
+	}
+
+	private boolean isUpToDate(final CertificatePool snapshot) {
+		return (snapshot != null) && (snapshot.getModificationCount() == certPool.getModificationCount());
+	}
+
 }
\ No newline at end of file
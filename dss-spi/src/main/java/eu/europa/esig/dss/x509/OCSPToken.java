@@ -42,6 +42,7 @@ import org.slf4j.LoggerFactory;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSRevocationUtils;
 import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.SignatureAlgorithm;
 
 /**
@@ -58,6 +59,11 @@ public class OCSPToken extends RevocationToken {
 
 	private transient final SingleResp singleResp;
 
+	/**
+	 * The SHA-256 digest of the basic OCSP response, computed on the first signature check
+	 */
+	private transient byte[] responseDigest;
+
 	/**
 	 * In case of online source this is the source URI.
 	 */
@@ -148,6 +154,20 @@ public class OCSPToken extends RevocationToken {
 			return this.issuerToken.equals(issuerToken);
 		}
 
+		final SignatureVerificationCache verificationCache = SignatureVerificationCache.getInstance();
+		final byte[] responseDigest = getResponseDigest();
+		final SignatureVerificationCache.VerificationResult verificationResult = (responseDigest == null) ? null : verificationCache.get(responseDigest, issuerToken);
+		if (verificationResult != null) {
+
+			signatureValid = verificationResult.isSignatureValid();
+			signatureInvalidityReason = verificationResult.getSignatureInvalidityReason();
+			if (signatureValid) {
+				this.issuerToken = issuerToken;
+			}
+			issuerX500Principal = issuerToken.getSubjectX500Principal();
+			return signatureValid;
+		}
+
 		try {
 
 			signatureInvalidityReason = "";
@@ -160,6 +180,9 @@ public class OCSPToken extends RevocationToken {
 				this.issuerToken = issuerToken;
 			}
 			issuerX500Principal = issuerToken.getSubjectX500Principal();
+			if (responseDigest != null) {
+				verificationCache.put(responseDigest, issuerToken, signatureValid, signatureInvalidityReason);
+			}
 		} catch (Exception e) {
 			signatureInvalidityReason = e.getClass().getSimpleName() + " - " + e.getMessage();
 			signatureValid = false;
@@ -167,6 +190,17 @@ public class OCSPToken extends RevocationToken {
 		return signatureValid;
 	}
 
+	private byte[] getResponseDigest() {
+		if (responseDigest == null) {
+			try {
+				responseDigest = DSSUtils.digest(DigestAlgorithm.SHA256, basicOCSPResp.getEncoded());
+			} catch (IOException e) {
+				logger.warn("Unable to encode the OCSP response: " + e.getMessage());
+			}
+		}
+		return responseDigest;
+	}
+
 	@Override
 	public String getSourceURL() {
 		return sourceURI;
@@ -0,0 +1,173 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.crl;
+
+import java.math.BigInteger;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.x509.Extension;
+
+import eu.europa.esig.dss.DSSRevocationUtils;
+
+/**
+ * A compact, immutable index of the certificates revoked by a CRL : the serial numbers are kept in a sorted array and looked up with a
+ * binary search. Once built, the index answers the revocation status without the {@code X509CRL} entries.
+ *
+ * In an indirect CRL, an entry can revoke a certificate of another issuer (certificateIssuer entry extension, which also applies to the
+ * following entries): the entries are indexed by issuer and serial number, the issuer of each entry being resolved by
+ * {@link X509CRLEntry#getCertificateIssuer()}.
+ */
+public final class CRLRevocationIndex {
+
+	private static final Comparator<X509CRLEntry> SERIAL_NUMBER_COMPARATOR = new Comparator<X509CRLEntry>() {
+
+		@Override
+		public int compare(X509CRLEntry entry1, X509CRLEntry entry2) {
+			return entry1.getSerialNumber().compareTo(entry2.getSerialNumber());
+		}
+	};
+
+	private final X500Principal crlIssuer;
+
+	private final BigInteger[] serialNumbers;
+
+	/**
+	 * The issuer of the revoked certificate of each entry, {@code null} when it is the CRL issuer
+	 */
+	private final X500Principal[] certificateIssuers;
+
+	private final long[] revocationTimes;
+
+	private final String[] revocationReasons;
+
+	/**
+	 * Builds the index of the given CRL.
+	 *
+	 * @param x509CRL
+	 *            the CRL to index (cannot be null)
+	 */
+	public CRLRevocationIndex(final X509CRL x509CRL) {
+
+		final Set<? extends X509CRLEntry> revokedCertificates = x509CRL.getRevokedCertificates();
+		final List<X509CRLEntry> entries = revokedCertificates == null ? Collections.<X509CRLEntry> emptyList() : new ArrayList<X509CRLEntry>(
+				revokedCertificates);
+		Collections.sort(entries, SERIAL_NUMBER_COMPARATOR);
+
+		crlIssuer = x509CRL.getIssuerX500Principal();
+		final int size = entries.size();
+		serialNumbers = new BigInteger[size];
+		certificateIssuers = new X500Principal[size];
+		revocationTimes = new long[size];
+		revocationReasons = new String[size];
+		for (int ii = 0; ii < size; ii++) {
+
+			final X509CRLEntry entry = entries.get(ii);
+			serialNumbers[ii] = entry.getSerialNumber();
+			final X500Principal certificateIssuer = entry.getCertificateIssuer();
+			if ((certificateIssuer != null) && !certificateIssuer.equals(crlIssuer)) {
+				certificateIssuers[ii] = certificateIssuer;
+			}
+			revocationTimes[ii] = entry.getRevocationDate().getTime();
+			if (entry.getExtensionValue(Extension.reasonCode.getId()) != null) {
+				// the reasons are enum names : the same String instances are shared by all the entries
+				revocationReasons[ii] = DSSRevocationUtils.getRevocationReason(entry);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of revoked certificates
+	 */
+	public int size() {
+		return serialNumbers.length;
+	}
+
+	/**
+	 * @param certificateIssuer
+	 *            the issuer of the certificate
+	 * @param serialNumber
+	 *            the serial number of the certificate
+	 * @return {@code true} if the certificate is revoked by the CRL
+	 */
+	public boolean isRevoked(final X500Principal certificateIssuer, final BigInteger serialNumber) {
+		return indexOf(certificateIssuer, serialNumber) >= 0;
+	}
+
+	/**
+	 * @param certificateIssuer
+	 *            the issuer of the certificate
+	 * @param serialNumber
+	 *            the serial number of the certificate
+	 * @return the revocation date, or {@code null} if the certificate is not revoked
+	 */
+	public Date getRevocationDate(final X500Principal certificateIssuer, final BigInteger serialNumber) {
+		final int index = indexOf(certificateIssuer, serialNumber);
+		return index < 0 ? null : new Date(revocationTimes[index]);
+	}
+
+	/**
+	 * @param certificateIssuer
+	 *            the issuer of the certificate
+	 * @param serialNumber
+	 *            the serial number of the certificate
+	 * @return the name of the {@code CRLReasonEnum} of the revocation, or {@code null} if the certificate is not revoked or if the reason is
+	 *         not specified
+	 */
+	public String getRevocationReason(final X500Principal certificateIssuer, final BigInteger serialNumber) {
+		final int index = indexOf(certificateIssuer, serialNumber);
+		return index < 0 ? null : revocationReasons[index];
+	}
+
+	private int indexOf(final X500Principal certificateIssuer, final BigInteger serialNumber) {
+
+		final int found = Arrays.binarySearch(serialNumbers, serialNumber);
+		if (found < 0) {
+			return found;
+		}
+		// certificates of different issuers can share the same serial number in an indirect CRL
+		int first = found;
+		while ((first > 0) && serialNumbers[first - 1].equals(serialNumber)) {
+			first--;
+		}
+		for (int ii = first; (ii < serialNumbers.length) && serialNumbers[ii].equals(serialNumber); ii++) {
+			if (isIssuedBy(ii, certificateIssuer)) {
+				return ii;
+			}
+		}
+		return -1;
+	}
+
+	private boolean isIssuedBy(final int index, final X500Principal certificateIssuer) {
+		final X500Principal entryIssuer = certificateIssuers[index] == null ? crlIssuer : certificateIssuers[index];
+		return entryIssuer.equals(certificateIssuer);
+	}
+
+}
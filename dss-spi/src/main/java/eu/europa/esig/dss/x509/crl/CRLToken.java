@@ -27,6 +27,8 @@ import java.security.cert.X509CRLEntry;
 import java.util.Date;
 import java.util.List;
 
+import javax.security.auth.x500.X500Principal;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -118,8 +120,21 @@ public class CRLToken extends RevocationToken {
 		}
 
 		final BigInteger serialNumber = certificateToken.getSerialNumber();
+		final CRLRevocationIndex revocationIndex = crlValidity.getRevocationIndex();
+		if (revocationIndex != null) {
+
+			final X500Principal certificateIssuer = certificateToken.getIssuerX500Principal();
+			status = !revocationIndex.isRevoked(certificateIssuer, serialNumber);
+			if (!status) {
+
+				revocationDate = revocationIndex.getRevocationDate(certificateIssuer, serialNumber);
+				reason = revocationIndex.getRevocationReason(certificateIssuer, serialNumber);
+			}
+			return;
+		}
 		final X509CRL x509crl = crlValidity.getX509CRL();
-		final X509CRLEntry crlEntry = x509crl.getRevokedCertificate(serialNumber);
+		// the certificate (and not only its serial number) is given to take into account the entries of an indirect CRL
+		final X509CRLEntry crlEntry = x509crl.getRevokedCertificate(certificateToken.getCertificate());
 		status = null == crlEntry;
 		if (!status) {
 
@@ -130,6 +145,13 @@ public class CRLToken extends RevocationToken {
 		}
 	}
 
+	/**
+	 * @return the {@code CRLValidity} of the CRL
+	 */
+	public CRLValidity getCrlValidity() {
+		return crlValidity;
+	}
+
 	/**
 	 * @return the x509crl
 	 */
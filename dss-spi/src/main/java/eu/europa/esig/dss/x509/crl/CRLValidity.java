@@ -37,6 +37,7 @@ public class CRLValidity {
 	private boolean unknownCriticalExtension = true;
 	private CertificateToken issuerToken = null;
 	private String signatureInvalidityReason = "";
+	private CRLRevocationIndex revocationIndex = null;
 
 	public X509CRL getX509CRL() {
 		return x509CRL;
@@ -94,6 +95,17 @@ public class CRLValidity {
 		this.signatureInvalidityReason = signatureInvalidityReason;
 	}
 
+	/**
+	 * @return the index of the revoked certificates, or {@code null} if the CRL was not indexed
+	 */
+	public CRLRevocationIndex getRevocationIndex() {
+		return revocationIndex;
+	}
+
+	public void setRevocationIndex(CRLRevocationIndex revocationIndex) {
+		this.revocationIndex = revocationIndex;
+	}
+
 	/**
 	 * This method indicates if the CRL is valid. To be valid the CRL must full
 	 * fill the following requirements:
@@ -104,7 +116,7 @@ public class CRLValidity {
 	 *
 	 * @return {@code true} if the CRL is valid {@code false} otherwise.
 	 */
-	boolean isValid() {
+	public boolean isValid() {
 
 		return issuerX509PrincipalMatches && signatureIntact && crlSignKeyUsage && !unknownCriticalExtension;
 	}
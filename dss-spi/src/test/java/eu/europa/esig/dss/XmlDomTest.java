@@ -0,0 +1,34 @@
+package eu.europa.esig.dss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class XmlDomTest {
+
+	private static final String XML = "<DiagnosticData xmlns=\"" + XmlDom.NAMESPACE + "\">" + "<Certificate Id=\"1\"><SerialNumber>11</SerialNumber></Certificate>"
+			+ "<Certificate Id=\"http://a/b\"><SerialNumber>22</SerialNumber></Certificate>" + "</DiagnosticData>";
+
+	@Test
+	public void boundParameters() throws Exception {
+		XmlDom dom = new XmlDom(DSSXMLUtils.buildDOM(XML));
+
+		assertEquals("11", dom.getValue("/DiagnosticData/Certificate[@Id='%s']/SerialNumber/text()", "1"));
+		// the same compiled template with another value, which contains slashes
+		assertEquals("22", dom.getValue("/DiagnosticData/Certificate[@Id='%s']/SerialNumber/text()", "http://a/b"));
+		assertEquals("", dom.getValue("/DiagnosticData/Certificate[@Id='%s']/SerialNumber/text()", "3"));
+		assertNull(dom.getElement("/DiagnosticData/Certificate[@Id='%s']", 3));
+		assertEquals(1, dom.getCountValue("count(/DiagnosticData/Certificate[@Id='%s'])", 1));
+		assertEquals(2, dom.getElements("/DiagnosticData/Certificate").size());
+	}
+
+	@Test
+	public void formattedParameters() throws Exception {
+		XmlDom dom = new XmlDom(DSSXMLUtils.buildDOM(XML));
+
+		// a parameter which is not a string literal is still formatted into the query
+		assertEquals("22", dom.getValue("/DiagnosticData/Certificate[%d]/SerialNumber/text()", 2));
+	}
+
+}
@@ -0,0 +1,59 @@
+package eu.europa.esig.dss.tsl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSASN1Utils;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+public class QualifiersCacheTest {
+
+	@Test
+	public void factsAreSharedByTokens() {
+		CertificateToken citizenCa = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+		CertificateToken otherToken = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+
+		QualificationFacts facts = QualificationFacts.getInstance(citizenCa);
+		assertSame(facts, QualificationFacts.getInstance(otherToken));
+		assertEquals(DSSASN1Utils.getPolicyIdentifiers(citizenCa), facts.getPolicyIdentifiers());
+		assertEquals(DSSASN1Utils.getQCStatementsIdList(citizenCa), facts.getQcStatementIds());
+	}
+
+	@Test
+	public void qualifiersByServiceAndSequenceNumber() {
+		CertificateToken citizenCa = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+		CertificateToken tsa = DSSUtils.loadCertificate(new File("src/test/resources/TSA_BE.cer"));
+
+		ServiceInfo serviceInfo = new ServiceInfo();
+		serviceInfo.setTlSequenceNumber(12);
+		ServiceInfo equalServiceInfo = new ServiceInfo();
+		equalServiceInfo.setTlSequenceNumber(13);
+
+		QualifiersCache cache = new QualifiersCache(2);
+		assertNull(cache.get(serviceInfo, citizenCa));
+		List<String> qualifiers = Arrays.asList("http://uri.etsi.org/TrstSvc/TrustedList/SvcInfoExt/QCWithSSCD");
+		cache.put(serviceInfo, citizenCa, qualifiers);
+
+		assertEquals(qualifiers, cache.get(serviceInfo, DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"))));
+		assertNull(cache.get(serviceInfo, tsa));
+		assertNull(cache.get(equalServiceInfo, citizenCa));
+
+		cache.put(serviceInfo, tsa, Arrays.<String> asList());
+		cache.put(equalServiceInfo, tsa, Arrays.<String> asList());
+		assertEquals(2, cache.size());
+		assertNull(cache.get(serviceInfo, citizenCa));
+
+		cache.setEnabled(false);
+		assertEquals(0, cache.size());
+		assertNull(cache.get(serviceInfo, tsa));
+	}
+
+}
@@ -0,0 +1,144 @@
+package eu.europa.esig.dss.x509;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSASN1Utils;
+import eu.europa.esig.dss.DSSUtils;
+
+public class CertificatePoolTest {
+
+	@Test
+	public void validationPoolOnTopOfSnapshot() {
+		CertificateToken citizenCa = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+		CertificateToken tsa = DSSUtils.loadCertificate(new File("src/test/resources/TSA_BE.cer"));
+
+		CommonTrustedCertificateSource trustedSource = new CommonTrustedCertificateSource();
+		trustedSource.addCertificate(citizenCa);
+
+		CertificatePool snapshot = trustedSource.getCertificatePoolSnapshot();
+		assertSame(snapshot, trustedSource.getCertificatePoolSnapshot());
+		assertEquals(1, snapshot.getNumberOfCertificates());
+
+		CertificatePool validationPool = new CertificatePool(snapshot);
+		CertificateToken trustedToken = validationPool.getInstance(citizenCa, CertificateSourceType.SIGNATURE);
+		CertificateToken sharedToken = snapshot.getCertificateTokens().get(0);
+		assertNotSame(sharedToken, trustedToken);
+		assertEquals(sharedToken, trustedToken);
+		assertSame(sharedToken.getCertificate(), trustedToken.getCertificate());
+		assertTrue(trustedToken.getSources().contains(CertificateSourceType.TRUSTED_STORE));
+		assertTrue(trustedToken.getSources().contains(CertificateSourceType.SIGNATURE));
+		assertFalse(sharedToken.getSources().contains(CertificateSourceType.SIGNATURE));
+		assertSame(trustedToken, validationPool.get(citizenCa.getSubjectX500Principal()).get(0));
+
+		CertificatePool otherValidationPool = new CertificatePool(snapshot);
+		CertificateToken otherToken = otherValidationPool.get(citizenCa.getSubjectX500Principal()).get(0);
+		assertNotSame(trustedToken, otherToken);
+		assertFalse(otherToken.getSources().contains(CertificateSourceType.SIGNATURE));
+
+		validationPool.getInstance(tsa, CertificateSourceType.OTHER);
+		assertEquals(2, validationPool.getNumberOfCertificates());
+		assertEquals(2, validationPool.getCertificateTokens().size());
+		assertEquals(1, snapshot.getNumberOfCertificates());
+		assertEquals(1, validationPool.get(citizenCa.getSubjectX500Principal()).size());
+		assertEquals(1, validationPool.get(tsa.getSubjectX500Principal()).size());
+		assertEquals(0, snapshot.get(tsa.getSubjectX500Principal()).size());
+
+		trustedSource.addCertificate(tsa);
+		CertificatePool newSnapshot = trustedSource.getCertificatePoolSnapshot();
+		assertNotSame(snapshot, newSnapshot);
+		assertEquals(2, newSnapshot.getNumberOfCertificates());
+		assertEquals(1, snapshot.getNumberOfCertificates());
+	}
+
+	@Test
+	public void issuerBySubjectKeyIdentifier() {
+		CertificateToken rootCa = DSSUtils.loadCertificate(new File("src/test/resources/belgiumrca2-self-sign.crt"));
+		CertificateToken otherRootCa = DSSUtils.loadCertificate(new File("src/test/resources/belgiumrs2.crt"));
+		CertificateToken citizenCa = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+
+		CertificatePool pool = new CertificatePool();
+		pool.getInstance(rootCa, CertificateSourceType.TRUSTED_STORE);
+		pool.getInstance(otherRootCa, CertificateSourceType.OTHER);
+		assertEquals(2, pool.get(citizenCa.getIssuerX500Principal()).size());
+
+		byte[] aki = DSSASN1Utils.getAki(citizenCa);
+		assertArrayEquals(DSSASN1Utils.getSki(rootCa), aki);
+
+		CertificatePool validationPool = new CertificatePool(pool.snapshot());
+		List<CertificateToken> issuers = validationPool.getBySki(aki);
+		assertEquals(2, issuers.size());
+		assertTrue(issuers.contains(rootCa));
+		CertificateToken rootCaCopy = validationPool.getInstance(rootCa, CertificateSourceType.OTHER);
+		assertTrue((issuers.get(0) == rootCaCopy) || (issuers.get(1) == rootCaCopy));
+		assertTrue(validationPool.getBySki(new byte[] { 0 }).isEmpty());
+		assertTrue(validationPool.getBySki(null).isEmpty());
+	}
+
+	@Test
+	public void mergePoolsWithSharedParent() {
+		CertificateToken citizenCa = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+		CertificateToken tsa = DSSUtils.loadCertificate(new File("src/test/resources/TSA_BE.cer"));
+
+		CertificatePool trustedPool = new CertificatePool();
+		trustedPool.getInstance(citizenCa, CertificateSourceType.TRUSTED_STORE);
+		CertificatePool snapshot = trustedPool.snapshot();
+
+		CertificatePool signaturePool = new CertificatePool(snapshot);
+		signaturePool.getInstance(tsa, CertificateSourceType.SIGNATURE);
+
+		CertificatePool validationPool = new CertificatePool(snapshot);
+		validationPool.merge(signaturePool);
+		assertEquals(2, validationPool.getNumberOfCertificates());
+		assertEquals(2, signaturePool.getNumberOfCertificates());
+		assertTrue(validationPool.get(tsa.getSubjectX500Principal()).get(0).getSources().contains(CertificateSourceType.SIGNATURE));
+
+		CertificatePool otherPool = new CertificatePool();
+		otherPool.merge(signaturePool);
+		assertEquals(2, otherPool.getNumberOfCertificates());
+		CertificateToken citizenCaCopy = otherPool.get(citizenCa.getSubjectX500Principal()).get(0);
+		assertNotSame(snapshot.get(citizenCa.getSubjectX500Principal()).get(0), citizenCaCopy);
+		assertTrue(citizenCaCopy.getSources().contains(CertificateSourceType.TRUSTED_STORE));
+	}
+
+	@Test
+	public void snapshotKeptDuringBulkUpdate() {
+		CertificateToken citizenCa = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+		CertificateToken tsa = DSSUtils.loadCertificate(new File("src/test/resources/TSA_BE.cer"));
+
+		CommonTrustedCertificateSource trustedSource = new CommonTrustedCertificateSource();
+		trustedSource.addCertificate(citizenCa);
+		CertificatePool snapshot = trustedSource.getCertificatePoolSnapshot();
+
+		trustedSource.beginBulkUpdate();
+		trustedSource.addCertificate(tsa);
+		assertSame(snapshot, trustedSource.getCertificatePoolSnapshot());
+		trustedSource.endBulkUpdate();
+
+		CertificatePool newSnapshot = trustedSource.getCertificatePoolSnapshot();
+		assertNotSame(snapshot, newSnapshot);
+		assertEquals(2, newSnapshot.getNumberOfCertificates());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void snapshotIsReadOnly() {
+		CertificateToken citizenCa = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+		CertificatePool snapshot = new CertificatePool().snapshot();
+		snapshot.getInstance(citizenCa, CertificateSourceType.TRUSTED_STORE);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parentMustBeReadOnly() {
+		new CertificatePool(new CertificatePool());
+	}
+
+}
@@ -1,6 +1,11 @@
 package eu.europa.esig.dss.x509;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -11,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.tsl.KeyUsageBit;
 
 public class CertificateTokenTest {
@@ -30,4 +36,59 @@ public class CertificateTokenTest {
 		assertFalse(keyUsageBits.contains(KeyUsageBit.crlSign));
 	}
 
+	@Test
+	public void certificateDataIsShared() {
+		CertificateToken certificate = DSSUtils.loadCertificate(new File("src/test/resources/belgiumrs2.crt"));
+		CertificateToken sameCertificate = DSSUtils.loadCertificate(new File("src/test/resources/belgiumrs2.crt"));
+		assertNotSame(certificate, sameCertificate);
+		assertEquals(certificate, sameCertificate);
+		assertSame(certificate.getCertificate(), sameCertificate.getCertificate());
+		assertSame(certificate.getSubjectX500Principal(), sameCertificate.getSubjectX500Principal());
+
+		byte[] digest = certificate.getDigest(DigestAlgorithm.SHA256);
+		assertArrayEquals(DSSUtils.digest(DigestAlgorithm.SHA256, certificate.getEncoded()), digest);
+		digest[0]++;
+		assertArrayEquals(DSSUtils.digest(DigestAlgorithm.SHA256, certificate.getEncoded()), sameCertificate.getDigest(DigestAlgorithm.SHA256));
+	}
+
+	@Test
+	public void copyWithoutValidationData() {
+		CertificateToken issuer = DSSUtils.loadCertificate(new File("src/test/resources/belgiumrca2-self-sign.crt"));
+		CertificateToken certificate = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+		certificate.addSourceType(CertificateSourceType.SIGNATURE);
+
+		CertificateToken copy = certificate.copyWithoutValidationData();
+		assertTrue(copy.isSignedBy(issuer));
+		assertSame(issuer, copy.getIssuerToken());
+		assertTrue(copy.getSources().contains(CertificateSourceType.SIGNATURE));
+
+		assertNull(certificate.getIssuerToken());
+		assertFalse(certificate.isSignatureValid());
+	}
+
+	@Test
+	public void signatureVerificationIsMemoized() {
+		CertificateToken issuer = DSSUtils.loadCertificate(new File("src/test/resources/belgiumrca2-self-sign.crt"));
+		CertificateToken certificate = DSSUtils.loadCertificate(new File("src/test/resources/citizen_ca.cer"));
+		CertificateToken otherIssuer = DSSUtils.loadCertificate(new File("src/test/resources/TSA_BE.cer"));
+
+		SignatureVerificationCache verificationCache = SignatureVerificationCache.getInstance();
+		verificationCache.clear();
+
+		assertTrue(certificate.copyWithoutValidationData().isSignedBy(issuer));
+		assertEquals(0, verificationCache.getHitCount());
+		assertEquals(1, verificationCache.getMissCount());
+
+		CertificateToken copy = certificate.copyWithoutValidationData();
+		assertTrue(copy.isSignedBy(issuer));
+		assertSame(issuer, copy.getIssuerToken());
+		assertEquals(1, verificationCache.getHitCount());
+
+		assertFalse(copy.isSignedBy(otherIssuer));
+		assertFalse(copy.isSignedBy(otherIssuer));
+		assertEquals(2, verificationCache.getHitCount());
+		assertEquals(2, verificationCache.getMissCount());
+		assertEquals(2, verificationCache.size());
+	}
+
 }
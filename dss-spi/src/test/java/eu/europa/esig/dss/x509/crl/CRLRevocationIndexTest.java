@@ -0,0 +1,121 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.crl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.util.Date;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.apache.commons.io.IOUtils;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CRLConverter;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSUtils;
+
+public class CRLRevocationIndexTest {
+
+	@Test
+	public void revokedCertificates() throws Exception {
+		FileInputStream fis = new FileInputStream(new File("src/test/resources/crl/belgium2.crl"));
+		X509CRL x509CRL = DSSUtils.loadCRL(fis);
+		IOUtils.closeQuietly(fis);
+
+		CRLRevocationIndex index = new CRLRevocationIndex(x509CRL);
+		assertEquals(x509CRL.getRevokedCertificates().size(), index.size());
+		assertTrue(index.size() > 0);
+
+		for (X509CRLEntry entry : x509CRL.getRevokedCertificates()) {
+			BigInteger serialNumber = entry.getSerialNumber();
+			assertTrue(index.isRevoked(x509CRL.getIssuerX500Principal(), serialNumber));
+			assertEquals(entry.getRevocationDate(), index.getRevocationDate(x509CRL.getIssuerX500Principal(), serialNumber));
+		}
+	}
+
+	@Test
+	public void notRevokedCertificate() throws Exception {
+		FileInputStream fis = new FileInputStream(new File("src/test/resources/crl/belgium2.crl"));
+		X509CRL x509CRL = DSSUtils.loadCRL(fis);
+		IOUtils.closeQuietly(fis);
+
+		CRLRevocationIndex index = new CRLRevocationIndex(x509CRL);
+		BigInteger serialNumber = BigInteger.valueOf(-1);
+		X500Principal issuer = x509CRL.getIssuerX500Principal();
+		assertFalse(index.isRevoked(issuer, serialNumber));
+		assertNull(index.getRevocationDate(issuer, serialNumber));
+		assertNull(index.getRevocationReason(issuer, serialNumber));
+	}
+
+	@Test
+	public void indirectCRL() throws Exception {
+		X500Name crlIssuer = new X500Name("CN=CRL Issuer");
+		X500Name otherIssuer = new X500Name("CN=Other CA");
+		Date firstRevocation = new Date(1000000000000L);
+		Date secondRevocation = new Date(1100000000000L);
+
+		X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(crlIssuer, new Date());
+		crlBuilder.addCRLEntry(BigInteger.ONE, firstRevocation, 0);
+		// the certificate issuer applies to this entry and to the following ones
+		ExtensionsGenerator extensionsGenerator = new ExtensionsGenerator();
+		extensionsGenerator.addExtension(Extension.certificateIssuer, true, new GeneralNames(new GeneralName(otherIssuer)));
+		Extensions certificateIssuer = extensionsGenerator.generate();
+		crlBuilder.addCRLEntry(BigInteger.valueOf(2), firstRevocation, certificateIssuer);
+		crlBuilder.addCRLEntry(BigInteger.valueOf(3), firstRevocation, 0);
+		crlBuilder.addCRLEntry(BigInteger.ONE, secondRevocation, 0);
+
+		KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+		keyPairGenerator.initialize(1024);
+		KeyPair keyPair = keyPairGenerator.generateKeyPair();
+		X509CRL x509CRL = new JcaX509CRLConverter().getCRL(crlBuilder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+		CRLRevocationIndex index = new CRLRevocationIndex(x509CRL);
+		assertEquals(4, index.size());
+
+		X500Principal crlIssuerPrincipal = new X500Principal(crlIssuer.getEncoded());
+		X500Principal otherIssuerPrincipal = new X500Principal(otherIssuer.getEncoded());
+		assertEquals(firstRevocation, index.getRevocationDate(crlIssuerPrincipal, BigInteger.ONE));
+		assertEquals(secondRevocation, index.getRevocationDate(otherIssuerPrincipal, BigInteger.ONE));
+		assertTrue(index.isRevoked(otherIssuerPrincipal, BigInteger.valueOf(2)));
+		assertTrue(index.isRevoked(otherIssuerPrincipal, BigInteger.valueOf(3)));
+		assertFalse(index.isRevoked(crlIssuerPrincipal, BigInteger.valueOf(2)));
+		assertFalse(index.isRevoked(crlIssuerPrincipal, BigInteger.valueOf(3)));
+	}
+
+}
@@ -38,8 +38,11 @@ import java.util.List;
 import java.util.Random;
 
 import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
 import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
 import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
 import org.bouncycastle.asn1.x509.KeyPurposeId;
 import org.bouncycastle.asn1.x509.KeyUsage;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
@@ -103,6 +106,37 @@ public class CertificateService {
 		return generateCertificateChain(algorithm, rootEntry, notBefore, notAfter);
 	}
 
+	/**
+	 * Generate a certificate issued by the given issuer, with the URL of its OCSP responder in the AuthorityInfoAccess extension
+	 *
+	 * @param algorithm
+	 * @param issuerEntry
+	 * @param ocspUrl
+	 * @return
+	 * @throws Exception
+	 */
+	public MockPrivateKeyEntry generateCertificateWithOCSP(final SignatureAlgorithm algorithm, final MockPrivateKeyEntry issuerEntry, final String ocspUrl) throws Exception {
+		X500Name issuerName = new JcaX509CertificateHolder(issuerEntry.getCertificate().getCertificate()).getSubject();
+		KeyPair keyPair = generateKeyPair(algorithm.getEncryptionAlgorithm());
+
+		Date notBefore = new Date(System.currentTimeMillis() - (24 * 60 * 60 * 1000)); // yesterday
+		Date notAfter = new Date(System.currentTimeMillis() + (10 * 24 * 60 * 60 * 1000)); // 10d
+
+		final SubjectPublicKeyInfo keyInfo = SubjectPublicKeyInfo.getInstance(keyPair.getPublic().getEncoded());
+		final X509v3CertificateBuilder certBuilder = new X509v3CertificateBuilder(issuerName, new BigInteger("" + new Random().nextInt(10) + System.nanoTime()), notBefore,
+				notAfter, new X500Name("CN=SignerFake,O=DSS-test"), keyInfo);
+
+		final AccessDescription ocspAccess = new AccessDescription(AccessDescription.id_ad_ocsp, new GeneralName(GeneralName.uniformResourceIdentifier, ocspUrl));
+		certBuilder.addExtension(Extension.authorityInfoAccess, false, new AuthorityInformationAccess(ocspAccess));
+
+		final ContentSigner signer = new JcaContentSignerBuilder(algorithm.getJCEId()).setProvider(BouncyCastleProvider.PROVIDER_NAME).build(issuerEntry.getPrivateKey());
+		final X509CertificateHolder holder = certBuilder.build(signer);
+
+		final X509Certificate cert = (X509Certificate) CertificateFactory.getInstance("X509").generateCertificate(new ByteArrayInputStream(holder.getEncoded()));
+
+		return new MockPrivateKeyEntry(algorithm.getEncryptionAlgorithm(), new CertificateToken(cert), createChildCertificateChain(issuerEntry), keyPair.getPrivate());
+	}
+
 	public MockPrivateKeyEntry generateExpiredCertificateChain(final SignatureAlgorithm algorithm, boolean rootCrl) throws Exception {
 		MockPrivateKeyEntry rootEntry = generateSelfSignedCertificate(algorithm, rootCrl);
 
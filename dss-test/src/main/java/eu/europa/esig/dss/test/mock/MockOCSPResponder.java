@@ -0,0 +1,174 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.test.mock;
+
+import java.math.BigInteger;
+import java.security.Security;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.Req;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.client.http.DataLoader;
+
+/**
+ * A local OCSP responder based on BouncyCastle, used as the {@code DataLoader} of an {@code OnlineOCSPSource}. The responses are signed
+ * with the key of the CA which issued the certificates. The requests are counted to measure the round trips.
+ */
+@SuppressWarnings("serial")
+public class MockOCSPResponder implements DataLoader {
+
+	private static final BouncyCastleProvider SECURITY_PROVIDER = new BouncyCastleProvider();
+
+	static {
+		Security.addProvider(SECURITY_PROVIDER);
+	}
+
+	private final MockPrivateKeyEntry issuerEntry;
+
+	private final Map<BigInteger, Date> revokedCertificates = new ConcurrentHashMap<BigInteger, Date>();
+
+	private final AtomicInteger numberOfRequests = new AtomicInteger();
+
+	private final AtomicInteger numberOfCertificates = new AtomicInteger();
+
+	private boolean rejectBatches;
+
+	/**
+	 * @param issuerEntry
+	 *            the CA which issued the checked certificates and signs the responses
+	 */
+	public MockOCSPResponder(final MockPrivateKeyEntry issuerEntry) {
+		this.issuerEntry = issuerEntry;
+	}
+
+	/**
+	 * @param rejectBatches
+	 *            true to answer malformedRequest to the requests for several certificates
+	 */
+	public void setRejectBatches(final boolean rejectBatches) {
+		this.rejectBatches = rejectBatches;
+	}
+
+	/**
+	 * @param serialNumber
+	 *            the serial number of the revoked certificate
+	 * @param revocationDate
+	 *            the revocation date
+	 */
+	public void revoke(final BigInteger serialNumber, final Date revocationDate) {
+		revokedCertificates.put(serialNumber, revocationDate);
+	}
+
+	/**
+	 * @return the number of received requests
+	 */
+	public int getNumberOfRequests() {
+		return numberOfRequests.get();
+	}
+
+	/**
+	 * @return the number of certificates in the received requests
+	 */
+	public int getNumberOfCertificates() {
+		return numberOfCertificates.get();
+	}
+
+	@Override
+	public byte[] post(final String url, final byte[] content) {
+		numberOfRequests.incrementAndGet();
+		try {
+			final OCSPReq ocspReq = new OCSPReq(content);
+			final Req[] requests = ocspReq.getRequestList();
+			numberOfCertificates.addAndGet(requests.length);
+			if (rejectBatches && (requests.length > 1)) {
+				return new OCSPRespBuilder().build(OCSPRespBuilder.MALFORMED_REQUEST, null).getEncoded();
+			}
+
+			final X509CertificateHolder issuerHolder = new JcaX509CertificateHolder(issuerEntry.getCertificate().getCertificate());
+			final BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(new RespID(issuerHolder.getSubject()));
+			final Date now = new Date();
+			final Date nextUpdate = new Date(now.getTime() + (60 * 60 * 1000)); // 1h
+			for (final Req request : requests) {
+				final Date revocationDate = revokedCertificates.get(request.getCertID().getSerialNumber());
+				CertificateStatus status = CertificateStatus.GOOD;
+				if (revocationDate != null) {
+					status = new RevokedStatus(revocationDate, CRLReason.keyCompromise);
+				}
+				builder.addResponse(request.getCertID(), status, now, nextUpdate, null);
+			}
+
+			final Extension nonce = ocspReq.getExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce);
+			if (nonce != null) {
+				builder.setResponseExtensions(new Extensions(nonce));
+			}
+
+			final ContentSigner signer = new JcaContentSignerBuilder(issuerEntry.getCertificate().getCertificate().getSigAlgName()).setProvider(
+					BouncyCastleProvider.PROVIDER_NAME).build(issuerEntry.getPrivateKey());
+			final BasicOCSPResp basicOCSPResp = builder.build(signer, new X509CertificateHolder[] {
+					issuerHolder
+			}, now);
+			return new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL, basicOCSPResp).getEncoded();
+		} catch (Exception e) {
+			throw new DSSException(e);
+		}
+	}
+
+	@Override
+	public byte[] get(final String url) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public DataAndUrl get(final List<String> urlStrings) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public byte[] get(final String url, final boolean refresh) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setContentType(final String contentType) {
+	}
+
+}
@@ -29,6 +29,9 @@ public class TSLLoaderResult {
 	private String countryCode;
 	private String url;
 	private byte[] content;
+	private String eTag;
+	private String lastModified;
+	private boolean notModified;
 
 	public String getCountryCode() {
 		return countryCode;
@@ -54,4 +57,31 @@ public class TSLLoaderResult {
 		this.content = content;
 	}
 
+	public String getETag() {
+		return eTag;
+	}
+
+	public void setETag(String eTag) {
+		this.eTag = eTag;
+	}
+
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	public void setLastModified(String lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * @return true if the server answered that the cached version is still the current one (no content is returned)
+	 */
+	public boolean isNotModified() {
+		return notModified;
+	}
+
+	public void setNotModified(boolean notModified) {
+		this.notModified = notModified;
+	}
+
 }
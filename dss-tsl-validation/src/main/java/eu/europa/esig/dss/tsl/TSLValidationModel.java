@@ -31,6 +31,10 @@ public class TSLValidationModel {
 	private String filepath;
 	private String sha256FileContent;
 
+	/* Validators of the last downloaded version, sent back with the next conditional request */
+	private String eTag;
+	private String lastModified;
+
 	private boolean certificateSourceSynchronized;
 	private Date loadedDate;
 
@@ -61,6 +65,22 @@ public class TSLValidationModel {
 		this.sha256FileContent = sha256FileContent;
 	}
 
+	public String getETag() {
+		return eTag;
+	}
+
+	public void setETag(String eTag) {
+		this.eTag = eTag;
+	}
+
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	public void setLastModified(String lastModified) {
+		this.lastModified = lastModified;
+	}
+
 	public boolean isCertificateSourceSynchronized() {
 		return certificateSourceSynchronized;
 	}
@@ -25,6 +25,8 @@ import java.util.concurrent.Callable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.client.http.ConditionalDataLoader;
+import eu.europa.esig.dss.client.http.ConditionalDataLoader.ConditionalResponse;
 import eu.europa.esig.dss.client.http.DataLoader;
 import eu.europa.esig.dss.tsl.TSLLoaderResult;
 
@@ -39,6 +41,8 @@ public class TSLLoader implements Callable<TSLLoaderResult> {
 	private DataLoader dataLoader;
 	private String countryCode;
 	private String urlToLoad;
+	private String eTag;
+	private String lastModified;
 
 	public TSLLoader(DataLoader dataLoader, String countryCode, String urlToLoad) {
 		this.dataLoader = dataLoader;
@@ -46,14 +50,40 @@ public class TSLLoader implements Callable<TSLLoaderResult> {
 		this.urlToLoad = urlToLoad;
 	}
 
+	/**
+	 * This constructor allows to send a conditional request (if the dataLoader supports it) with the validators of the cached version.
+	 */
+	public TSLLoader(DataLoader dataLoader, String countryCode, String urlToLoad, String eTag, String lastModified) {
+		this(dataLoader, countryCode, urlToLoad);
+		this.eTag = eTag;
+		this.lastModified = lastModified;
+	}
+
 	@Override
 	public TSLLoaderResult call() throws Exception {
 		TSLLoaderResult result = new TSLLoaderResult();
 		result.setCountryCode(countryCode);
 		result.setUrl(urlToLoad);
 		try {
-			byte[] byteArray = dataLoader.get(urlToLoad);
-			result.setContent(byteArray);
+			if (dataLoader instanceof ConditionalDataLoader) {
+				ConditionalResponse response = ((ConditionalDataLoader) dataLoader).get(urlToLoad, eTag, lastModified);
+				if (response == null) {
+					logger.warn("Unable to load '" + urlToLoad + "' : no content returned");
+					return result;
+				}
+				if (response.isNotModified() && (eTag == null) && (lastModified == null)) {
+					// without validators in the request, a response without content is not a confirmation of the cached version
+					logger.warn("Unable to load '" + urlToLoad + "' : empty response to an unconditional request");
+					return result;
+				}
+				result.setNotModified(response.isNotModified());
+				result.setContent(response.data);
+				result.setETag(response.eTag);
+				result.setLastModified(response.lastModified);
+			} else {
+				byte[] byteArray = dataLoader.get(urlToLoad);
+				result.setContent(byteArray);
+			}
 		} catch (Exception e) {
 			logger.warn("Unable to load '" + urlToLoad + "' : " + e.getMessage());
 		}
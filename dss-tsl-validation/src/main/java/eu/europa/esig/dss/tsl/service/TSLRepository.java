@@ -23,6 +23,7 @@ package eu.europa.esig.dss.tsl.service;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
@@ -71,6 +72,10 @@ public class TSLRepository {
 
 	private static final Logger logger = LoggerFactory.getLogger(TSLRepository.class);
 
+	private static final String TSL_FILE_EXTENSION = ".xml";
+
+	private static final String SNAPSHOT_FILENAME = "snapshot.bin";
+
 	private String cacheDirectoryPath = System.getProperty("java.io.tmpdir") + File.separator + "dss-cache-tsl" + File.separator;
 
 	private boolean allowExpiredTSLs = false;
@@ -83,6 +88,14 @@ public class TSLRepository {
 
 	private TrustedListsCertificateSource trustedListsCertificateSource;
 
+	/**
+	 * This method allows to define the folder of the cached trusted lists and of the snapshot of the repository. The snapshot is not
+	 * authenticated : the LOTL is always verified again at startup, but the parsed country lists are restored from it. The folder must
+	 * only be writable by the application.
+	 *
+	 * @param cacheDirectoryPath
+	 *            the path of the folder, ending with the file separator
+	 */
 	public void setCacheDirectoryPath(String cacheDirectoryPath) {
 		this.cacheDirectoryPath = cacheDirectoryPath;
 	}
@@ -178,12 +191,19 @@ public class TSLRepository {
 		if (validationModel == null) {
 			return false;
 		} else {
+			// The server confirmed that our version is still the current one
+			if (resultLoader.isNotModified()) {
+				validationModel.setLoadedDate(new Date());
+				return true;
+			}
 			// TODO Best place ? Download didn't work, we use previous version
 			if (ArrayUtils.isEmpty(resultLoader.getContent())) {
 				return true;
 			}
 			validationModel.setUrl(resultLoader.getUrl());
 			validationModel.setLoadedDate(new Date());
+			validationModel.setETag(resultLoader.getETag());
+			validationModel.setLastModified(resultLoader.getLastModified());
 			String lastSha256 = getSHA256(resultLoader.getContent());
 			return StringUtils.equals(lastSha256, validationModel.getSha256FileContent());
 		}
@@ -207,6 +227,8 @@ public class TSLRepository {
 		TSLValidationModel validationModel = new TSLValidationModel();
 		validationModel.setUrl(resultLoader.getUrl());
 		validationModel.setSha256FileContent(getSHA256(resultLoader.getContent()));
+		validationModel.setETag(resultLoader.getETag());
+		validationModel.setLastModified(resultLoader.getLastModified());
 		validationModel.setFilepath(storeOnFileSystem(resultLoader.getCountryCode(), resultLoader));
 		validationModel.setLoadedDate(new Date());
 		validationModel.setCertificateSourceSynchronized(false);
@@ -235,6 +257,62 @@ public class TSLRepository {
 		add(countryCode, validationModel);
 	}
 
+	/**
+	 * This method returns the models which were saved with the last snapshot of the repository
+	 *
+	 * @return a map with the saved models by country code (empty if no usable snapshot exists)
+	 */
+	Map<String, TSLValidationModel> readSnapshot() {
+		try {
+			return TSLRepositorySnapshot.read(new File(getSnapshotFilePath()));
+		} catch (DSSException e) {
+			logger.warn("Unable to read the snapshot of the repository : " + e.getMessage());
+			return Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * This method adds a model from the snapshot to the repository if the cached file of the country has not changed since the snapshot
+	 *
+	 * @param countryCode
+	 *            the country code of the cached file
+	 * @param snapshotModel
+	 *            the model saved in the snapshot for this country
+	 * @return true if the model has been restored (no need to parse the cached file)
+	 */
+	boolean restoreFromSnapshot(String countryCode, TSLValidationModel snapshotModel) {
+		if (snapshotModel.getParseResult() == null) {
+			return false;
+		}
+		String filePath = getFilePath(countryCode);
+		FileInputStream fis = null;
+		try {
+			fis = new FileInputStream(filePath);
+			String sha256 = getSHA256(IOUtils.toByteArray(fis));
+			if (!StringUtils.equals(sha256, snapshotModel.getSha256FileContent())) {
+				return false;
+			}
+		} catch (Exception e) {
+			logger.error("Unable to read '" + filePath + "' : " + e.getMessage());
+			return false;
+		} finally {
+			IOUtils.closeQuietly(fis);
+		}
+		snapshotModel.setFilepath(filePath);
+		snapshotModel.setCertificateSourceSynchronized(false);
+		add(countryCode, snapshotModel);
+		return true;
+	}
+
+	void writeSnapshot() {
+		ensureCacheDirectoryExists();
+		try {
+			TSLRepositorySnapshot.write(new File(getSnapshotFilePath()), tsls);
+		} catch (DSSException e) {
+			logger.warn("Unable to write the snapshot of the repository : " + e.getMessage());
+		}
+	}
+
 	private void add(String countryCode, TSLValidationModel tsl) {
 		tsls.put(countryCode, tsl);
 	}
@@ -263,7 +341,15 @@ public class TSLRepository {
 	}
 
 	private String getFilePath(String countryCode) {
-		return cacheDirectoryPath + countryCode + ".xml";
+		return cacheDirectoryPath + countryCode + TSL_FILE_EXTENSION;
+	}
+
+	private String getSnapshotFilePath() {
+		return cacheDirectoryPath + SNAPSHOT_FILENAME;
+	}
+
+	String getCountryCode(File storedFile) {
+		return StringUtils.removeEnd(storedFile.getName(), TSL_FILE_EXTENSION);
 	}
 
 	private String getSHA256(byte[] data) {
@@ -273,7 +359,12 @@ public class TSLRepository {
 	List<File> getStoredFiles() {
 		ensureCacheDirectoryExists();
 		File cacheDir = new File(cacheDirectoryPath);
-		File[] listFiles = cacheDir.listFiles();
+		File[] listFiles = cacheDir.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(TSL_FILE_EXTENSION);
+			}
+		});
 		return Arrays.asList(listFiles);
 	}
 
@@ -284,6 +375,18 @@ public class TSLRepository {
 	}
 
 	void synchronize() {
+		if (trustedListsCertificateSource != null) {
+			// the validations keep the previous snapshot of the trusted certificates until all trusted lists are synchronized
+			trustedListsCertificateSource.beginBulkUpdate();
+			try {
+				synchronizeCertificateSource();
+			} finally {
+				trustedListsCertificateSource.endBulkUpdate();
+			}
+		}
+	}
+
+	private void synchronizeCertificateSource() {
 		if (trustedListsCertificateSource != null) {
 			// Returns valid and not expired depending of configuration
 			List<TSLValidationModel> tslValidationModels = getTSLValidationModels();
@@ -301,11 +404,11 @@ public class TSLRepository {
 						for (TSLServiceProvider serviceProvider : serviceProviders) {
 							for (TSLService service : serviceProvider.getServices()) {
 								for (CertificateToken certificate : service.getCertificates()) {
-									trustedListsCertificateSource.addCertificate(certificate, getServiceInfo(serviceProvider, service, tlWellSigned));
+									trustedListsCertificateSource.addCertificate(certificate, getServiceInfo(serviceProvider, service, parseResult.getSequenceNumber(), tlWellSigned));
 								}
 
 								for (X500Principal x500Principal : service.getX500Principals()) {
-									trustedListsCertificateSource.addX500Principal(x500Principal, getServiceInfo(serviceProvider, service, tlWellSigned));
+									trustedListsCertificateSource.addX500Principal(x500Principal, getServiceInfo(serviceProvider, service, parseResult.getSequenceNumber(), tlWellSigned));
 								}
 							}
 						}
@@ -345,7 +448,7 @@ public class TSLRepository {
 		}
 	}
 
-	private ServiceInfo getServiceInfo(TSLServiceProvider serviceProvider, TSLService service, boolean tlWellSigned) {
+	private ServiceInfo getServiceInfo(TSLServiceProvider serviceProvider, TSLService service, int tlSequenceNumber, boolean tlWellSigned) {
 		ServiceInfo serviceInfo = new ServiceInfo();
 
 		serviceInfo.setTspName(serviceProvider.getName());
@@ -375,6 +478,7 @@ public class TSLRepository {
 		// TODO
 		// service.setExpiredCertsRevocationInfo(expiredCertsRevocationInfo);
 
+		serviceInfo.setTlSequenceNumber(tlSequenceNumber);
 		serviceInfo.setTlWellSigned(tlWellSigned);
 		return serviceInfo;
 	}
@@ -0,0 +1,490 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.apache.commons.io.IOUtils;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.tsl.CompositeCondition;
+import eu.europa.esig.dss.tsl.Condition;
+import eu.europa.esig.dss.tsl.CriteriaListCondition;
+import eu.europa.esig.dss.tsl.KeyUsageCondition;
+import eu.europa.esig.dss.tsl.MatchingCriteriaIndicator;
+import eu.europa.esig.dss.tsl.PolicyIdCondition;
+import eu.europa.esig.dss.tsl.QcStatementCondition;
+import eu.europa.esig.dss.tsl.TSLConditionsForQualifiers;
+import eu.europa.esig.dss.tsl.TSLParserResult;
+import eu.europa.esig.dss.tsl.TSLPointer;
+import eu.europa.esig.dss.tsl.TSLService;
+import eu.europa.esig.dss.tsl.TSLServiceExtension;
+import eu.europa.esig.dss.tsl.TSLServiceProvider;
+import eu.europa.esig.dss.tsl.TSLValidationModel;
+import eu.europa.esig.dss.tsl.TSLValidationResult;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+/**
+ * This class writes and reads a binary snapshot of the TSL repository : the parsing and validation results of each TSL with the SHA-256 of
+ * the cached file they come from. The certificates are stored in their encoded form, so that the restored tokens do not carry any state of
+ * the previous trusted certificate source. The file is written with plain data streams : the conditions of the qualifiers are encoded
+ * explicitly and no object is deserialized when the snapshot is read.
+ */
+class TSLRepositorySnapshot {
+
+	private static final int MAGIC = 0x54534c53;
+
+	private static final int VERSION = 2;
+
+	private static final byte NO_CONDITION = 0;
+
+	private static final byte POLICY_ID_CONDITION = 1;
+
+	private static final byte KEY_USAGE_CONDITION = 2;
+
+	private static final byte QC_STATEMENT_CONDITION = 3;
+
+	private static final byte CRITERIA_LIST_CONDITION = 4;
+
+	private static final byte COMPOSITE_CONDITION = 5;
+
+	private TSLRepositorySnapshot() {
+	}
+
+	static void write(File file, Map<String, TSLValidationModel> models) {
+		File tmpFile = new File(file.getPath() + ".tmp");
+		DataOutputStream dos = null;
+		try {
+			dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			dos.writeInt(MAGIC);
+			dos.writeInt(VERSION);
+			dos.writeInt(models.size());
+			for (Entry<String, TSLValidationModel> entry : models.entrySet()) {
+				TSLValidationModel model = entry.getValue();
+				dos.writeUTF(entry.getKey());
+				writeString(dos, model.getSha256FileContent());
+				writeString(dos, model.getUrl());
+				writeString(dos, model.getETag());
+				writeString(dos, model.getLastModified());
+				writeDate(dos, model.getLoadedDate());
+				writeParseResult(dos, model.getParseResult());
+				writeValidationResult(dos, model.getValidationResult());
+			}
+			dos.close();
+			dos = null;
+		} catch (IOException e) {
+			throw new DSSException("Unable to write the TSL snapshot : " + e.getMessage(), e);
+		} finally {
+			IOUtils.closeQuietly(dos);
+		}
+		if (file.exists() && !file.delete()) {
+			throw new DSSException("Unable to replace the TSL snapshot " + file.getAbsolutePath());
+		}
+		if (!tmpFile.renameTo(file)) {
+			throw new DSSException("Unable to rename the TSL snapshot " + tmpFile.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * @return the models by country code (their file path is not set), an empty map if there is no snapshot
+	 */
+	static Map<String, TSLValidationModel> read(File file) {
+		Map<String, TSLValidationModel> models = new HashMap<String, TSLValidationModel>();
+		if (!file.exists()) {
+			return models;
+		}
+		DataInputStream dis = null;
+		try {
+			dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if ((dis.readInt() != MAGIC) || (dis.readInt() != VERSION)) {
+				throw new DSSException("Unsupported TSL snapshot " + file.getAbsolutePath());
+			}
+			int size = dis.readInt();
+			for (int i = 0; i < size; i++) {
+				String countryCode = dis.readUTF();
+				TSLValidationModel model = new TSLValidationModel();
+				model.setSha256FileContent(readString(dis));
+				model.setUrl(readString(dis));
+				model.setETag(readString(dis));
+				model.setLastModified(readString(dis));
+				model.setLoadedDate(readDate(dis));
+				model.setParseResult(readParseResult(dis));
+				model.setValidationResult(readValidationResult(dis));
+				models.put(countryCode, model);
+			}
+			return models;
+		} catch (IOException e) {
+			throw new DSSException("Unable to read the TSL snapshot : " + e.getMessage(), e);
+		} finally {
+			IOUtils.closeQuietly(dis);
+		}
+	}
+
+	private static void writeParseResult(DataOutputStream dos, TSLParserResult parseResult) throws IOException {
+		dos.writeBoolean(parseResult != null);
+		if (parseResult == null) {
+			return;
+		}
+		dos.writeInt(parseResult.getSequenceNumber());
+		writeString(dos, parseResult.getTerritory());
+		writeDate(dos, parseResult.getIssueDate());
+		writeDate(dos, parseResult.getNextUpdateDate());
+		writeStrings(dos, parseResult.getDistributionPoints());
+
+		List<TSLPointer> pointers = parseResult.getPointers();
+		dos.writeInt(pointers == null ? -1 : pointers.size());
+		if (pointers != null) {
+			for (TSLPointer pointer : pointers) {
+				writeString(dos, pointer.getUrl());
+				writeString(dos, pointer.getTerritory());
+				writeString(dos, pointer.getMimeType());
+				writeCertificates(dos, pointer.getPotentialSigners());
+			}
+		}
+
+		List<TSLServiceProvider> serviceProviders = parseResult.getServiceProviders();
+		dos.writeInt(serviceProviders == null ? -1 : serviceProviders.size());
+		if (serviceProviders != null) {
+			for (TSLServiceProvider serviceProvider : serviceProviders) {
+				writeString(dos, serviceProvider.getName());
+				writeString(dos, serviceProvider.getTradeName());
+				writeString(dos, serviceProvider.getPostalAddress());
+				writeString(dos, serviceProvider.getElectronicAddress());
+				List<TSLService> services = serviceProvider.getServices();
+				dos.writeInt(services == null ? -1 : services.size());
+				if (services != null) {
+					for (TSLService service : services) {
+						writeService(dos, service);
+					}
+				}
+			}
+		}
+	}
+
+	private static TSLParserResult readParseResult(DataInputStream dis) throws IOException {
+		if (!dis.readBoolean()) {
+			return null;
+		}
+		TSLParserResult parseResult = new TSLParserResult();
+		parseResult.setSequenceNumber(dis.readInt());
+		parseResult.setTerritory(readString(dis));
+		parseResult.setIssueDate(readDate(dis));
+		parseResult.setNextUpdateDate(readDate(dis));
+		parseResult.setDistributionPoints(readStrings(dis));
+
+		int nbPointers = dis.readInt();
+		if (nbPointers >= 0) {
+			List<TSLPointer> pointers = new ArrayList<TSLPointer>(nbPointers);
+			for (int i = 0; i < nbPointers; i++) {
+				TSLPointer pointer = new TSLPointer();
+				pointer.setUrl(readString(dis));
+				pointer.setTerritory(readString(dis));
+				pointer.setMimeType(readString(dis));
+				pointer.setPotentialSigners(readCertificates(dis));
+				pointers.add(pointer);
+			}
+			parseResult.setPointers(pointers);
+		}
+
+		int nbServiceProviders = dis.readInt();
+		if (nbServiceProviders >= 0) {
+			List<TSLServiceProvider> serviceProviders = new ArrayList<TSLServiceProvider>(nbServiceProviders);
+			for (int i = 0; i < nbServiceProviders; i++) {
+				TSLServiceProvider serviceProvider = new TSLServiceProvider();
+				serviceProvider.setName(readString(dis));
+				serviceProvider.setTradeName(readString(dis));
+				serviceProvider.setPostalAddress(readString(dis));
+				serviceProvider.setElectronicAddress(readString(dis));
+				int nbServices = dis.readInt();
+				if (nbServices >= 0) {
+					List<TSLService> services = new ArrayList<TSLService>(nbServices);
+					for (int j = 0; j < nbServices; j++) {
+						services.add(readService(dis));
+					}
+					serviceProvider.setServices(services);
+				}
+				serviceProviders.add(serviceProvider);
+			}
+			parseResult.setServiceProviders(serviceProviders);
+		}
+		return parseResult;
+	}
+
+	private static void writeService(DataOutputStream dos, TSLService service) throws IOException {
+		writeString(dos, service.getName());
+		writeString(dos, service.getStatus());
+		writeString(dos, service.getType());
+		writeDate(dos, service.getStartDate());
+		writeDate(dos, service.getEndDate());
+		writeStrings(dos, service.getCertificateUrls());
+		writeCertificates(dos, service.getCertificates());
+
+		List<X500Principal> x500Principals = service.getX500Principals();
+		dos.writeInt(x500Principals == null ? -1 : x500Principals.size());
+		if (x500Principals != null) {
+			for (X500Principal x500Principal : x500Principals) {
+				writeBytes(dos, x500Principal.getEncoded());
+			}
+		}
+
+		List<TSLServiceExtension> extensions = service.getExtensions();
+		dos.writeInt(extensions == null ? -1 : extensions.size());
+		if (extensions != null) {
+			for (TSLServiceExtension extension : extensions) {
+				dos.writeBoolean(extension.isCritical());
+				List<TSLConditionsForQualifiers> conditionsForQualifiers = extension.getConditionsForQualifiers();
+				dos.writeInt(conditionsForQualifiers == null ? -1 : conditionsForQualifiers.size());
+				if (conditionsForQualifiers != null) {
+					for (TSLConditionsForQualifiers conditionForQualifiers : conditionsForQualifiers) {
+						writeStrings(dos, conditionForQualifiers.getQualifiers());
+						writeCondition(dos, conditionForQualifiers.getCondition());
+					}
+				}
+			}
+		}
+	}
+
+	private static TSLService readService(DataInputStream dis) throws IOException {
+		TSLService service = new TSLService();
+		service.setName(readString(dis));
+		service.setStatus(readString(dis));
+		service.setType(readString(dis));
+		service.setStartDate(readDate(dis));
+		service.setEndDate(readDate(dis));
+		service.setCertificateUrls(readStrings(dis));
+		service.setCertificates(readCertificates(dis));
+
+		int nbX500Principals = dis.readInt();
+		if (nbX500Principals >= 0) {
+			List<X500Principal> x500Principals = new ArrayList<X500Principal>(nbX500Principals);
+			for (int i = 0; i < nbX500Principals; i++) {
+				x500Principals.add(new X500Principal(readBytes(dis)));
+			}
+			service.setX500Principals(x500Principals);
+		}
+
+		int nbExtensions = dis.readInt();
+		if (nbExtensions >= 0) {
+			List<TSLServiceExtension> extensions = new ArrayList<TSLServiceExtension>(nbExtensions);
+			for (int i = 0; i < nbExtensions; i++) {
+				TSLServiceExtension extension = new TSLServiceExtension();
+				extension.setCritical(dis.readBoolean());
+				int nbConditions = dis.readInt();
+				if (nbConditions >= 0) {
+					List<TSLConditionsForQualifiers> conditionsForQualifiers = new ArrayList<TSLConditionsForQualifiers>(nbConditions);
+					for (int j = 0; j < nbConditions; j++) {
+						List<String> qualifiers = readStrings(dis);
+						Condition condition = readCondition(dis);
+						conditionsForQualifiers.add(new TSLConditionsForQualifiers(qualifiers, condition));
+					}
+					extension.setConditionsForQualifiers(conditionsForQualifiers);
+				}
+				extensions.add(extension);
+			}
+			service.setExtensions(extensions);
+		}
+		return service;
+	}
+
+	private static void writeCondition(DataOutputStream dos, Condition condition) throws IOException {
+		if (condition == null) {
+			dos.writeByte(NO_CONDITION);
+		} else if (condition instanceof PolicyIdCondition) {
+			dos.writeByte(POLICY_ID_CONDITION);
+			writeString(dos, ((PolicyIdCondition) condition).getPolicyOid());
+		} else if (condition instanceof KeyUsageCondition) {
+			KeyUsageCondition keyUsageCondition = (KeyUsageCondition) condition;
+			dos.writeByte(KEY_USAGE_CONDITION);
+			writeString(dos, keyUsageCondition.getBit().name());
+			dos.writeBoolean(keyUsageCondition.getValue());
+		} else if (condition instanceof QcStatementCondition) {
+			dos.writeByte(QC_STATEMENT_CONDITION);
+			writeString(dos, ((QcStatementCondition) condition).getQcStatementASN1Id());
+		} else if (condition instanceof CriteriaListCondition) {
+			CriteriaListCondition criteriaListCondition = (CriteriaListCondition) condition;
+			dos.writeByte(CRITERIA_LIST_CONDITION);
+			writeString(dos, criteriaListCondition.getMatchingCriteriaIndicator().name());
+			writeChildConditions(dos, criteriaListCondition);
+		} else if (condition.getClass() == CompositeCondition.class) {
+			dos.writeByte(COMPOSITE_CONDITION);
+			writeChildConditions(dos, (CompositeCondition) condition);
+		} else {
+			throw new DSSException("Unsupported condition " + condition.getClass().getName());
+		}
+	}
+
+	private static void writeChildConditions(DataOutputStream dos, CompositeCondition condition) throws IOException {
+		List<Condition> children = condition.getChildren();
+		dos.writeInt(children == null ? -1 : children.size());
+		if (children != null) {
+			for (Condition child : children) {
+				writeCondition(dos, child);
+			}
+		}
+	}
+
+	private static Condition readCondition(DataInputStream dis) throws IOException {
+		byte type = dis.readByte();
+		switch (type) {
+			case NO_CONDITION:
+				return null;
+			case POLICY_ID_CONDITION:
+				return new PolicyIdCondition(readString(dis));
+			case KEY_USAGE_CONDITION:
+				String bit = readString(dis);
+				return new KeyUsageCondition(bit, dis.readBoolean());
+			case QC_STATEMENT_CONDITION:
+				return new QcStatementCondition(readString(dis));
+			case CRITERIA_LIST_CONDITION:
+				MatchingCriteriaIndicator matchingCriteriaIndicator = MatchingCriteriaIndicator.valueOf(readString(dis));
+				return readChildConditions(dis, new CriteriaListCondition(matchingCriteriaIndicator));
+			case COMPOSITE_CONDITION:
+				return readChildConditions(dis, new CompositeCondition());
+			default:
+				throw new DSSException("Unsupported condition type " + type + " in the TSL snapshot");
+		}
+	}
+
+	private static CompositeCondition readChildConditions(DataInputStream dis, CompositeCondition condition) throws IOException {
+		int nbChildren = dis.readInt();
+		for (int i = 0; i < nbChildren; i++) {
+			condition.addChild(readCondition(dis));
+		}
+		return condition;
+	}
+
+	private static void writeValidationResult(DataOutputStream dos, TSLValidationResult validationResult) throws IOException {
+		dos.writeBoolean(validationResult != null);
+		if (validationResult != null) {
+			writeString(dos, validationResult.getCountryCode());
+			writeString(dos, validationResult.getIndication());
+			writeString(dos, validationResult.getSubIndication());
+		}
+	}
+
+	private static TSLValidationResult readValidationResult(DataInputStream dis) throws IOException {
+		if (!dis.readBoolean()) {
+			return null;
+		}
+		TSLValidationResult validationResult = new TSLValidationResult();
+		validationResult.setCountryCode(readString(dis));
+		validationResult.setIndication(readString(dis));
+		validationResult.setSubIndication(readString(dis));
+		return validationResult;
+	}
+
+	private static void writeCertificates(DataOutputStream dos, List<CertificateToken> certificates) throws IOException {
+		dos.writeInt(certificates == null ? -1 : certificates.size());
+		if (certificates != null) {
+			for (CertificateToken certificate : certificates) {
+				writeBytes(dos, certificate.getEncoded());
+			}
+		}
+	}
+
+	private static List<CertificateToken> readCertificates(DataInputStream dis) throws IOException {
+		int size = dis.readInt();
+		if (size < 0) {
+			return null;
+		}
+		List<CertificateToken> certificates = new ArrayList<CertificateToken>(size);
+		for (int i = 0; i < size; i++) {
+			certificates.add(DSSUtils.loadCertificate(readBytes(dis)));
+		}
+		return certificates;
+	}
+
+	private static void writeStrings(DataOutputStream dos, List<String> strings) throws IOException {
+		dos.writeInt(strings == null ? -1 : strings.size());
+		if (strings != null) {
+			for (String string : strings) {
+				writeString(dos, string);
+			}
+		}
+	}
+
+	private static List<String> readStrings(DataInputStream dis) throws IOException {
+		int size = dis.readInt();
+		if (size < 0) {
+			return null;
+		}
+		List<String> strings = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			strings.add(readString(dis));
+		}
+		return strings;
+	}
+
+	private static void writeString(DataOutputStream dos, String string) throws IOException {
+		// writeUTF is limited to 64KB, which is not enough for some postal addresses lists
+		writeBytes(dos, string == null ? null : string.getBytes("UTF-8"));
+	}
+
+	private static String readString(DataInputStream dis) throws IOException {
+		byte[] bytes = readBytes(dis);
+		return bytes == null ? null : new String(bytes, "UTF-8");
+	}
+
+	private static void writeDate(DataOutputStream dos, Date date) throws IOException {
+		dos.writeBoolean(date != null);
+		if (date != null) {
+			dos.writeLong(date.getTime());
+		}
+	}
+
+	private static Date readDate(DataInputStream dis) throws IOException {
+		return dis.readBoolean() ? new Date(dis.readLong()) : null;
+	}
+
+	private static void writeBytes(DataOutputStream dos, byte[] bytes) throws IOException {
+		dos.writeInt(bytes == null ? -1 : bytes.length);
+		if (bytes != null) {
+			dos.write(bytes);
+		}
+	}
+
+	private static byte[] readBytes(DataInputStream dis) throws IOException {
+		int length = dis.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		dis.readFully(bytes);
+		return bytes;
+	}
+
+}
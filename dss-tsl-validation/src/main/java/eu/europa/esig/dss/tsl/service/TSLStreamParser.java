@@ -0,0 +1,704 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl.service;
+
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import javax.security.auth.x500.X500Principal;
+import javax.xml.XMLConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.tsl.CompositeCondition;
+import eu.europa.esig.dss.tsl.Condition;
+import eu.europa.esig.dss.tsl.CriteriaListCondition;
+import eu.europa.esig.dss.tsl.KeyUsageCondition;
+import eu.europa.esig.dss.tsl.MatchingCriteriaIndicator;
+import eu.europa.esig.dss.tsl.PolicyIdCondition;
+import eu.europa.esig.dss.tsl.TSLConditionsForQualifiers;
+import eu.europa.esig.dss.tsl.TSLParserResult;
+import eu.europa.esig.dss.tsl.TSLPointer;
+import eu.europa.esig.dss.tsl.TSLService;
+import eu.europa.esig.dss.tsl.TSLServiceExtension;
+import eu.europa.esig.dss.tsl.TSLServiceProvider;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+/**
+ * This class parses a TSL in one forward pass with a StAX reader and fills the DTO's directly. Unlike {@code TSLParser}, no JAXB
+ * model of the TSL is built: the elements which are not needed are skipped. It can be executed as a Callable.
+ *
+ * The input stream is closed once parsed.
+ */
+public class TSLStreamParser implements Callable<TSLParserResult> {
+
+	private static final Logger logger = LoggerFactory.getLogger(TSLStreamParser.class);
+
+	private static final String TSL_MIME_TYPE = "application/vnd.etsi.tsl+xml";
+
+	private static final String TSL_NAMESPACE = "http://uri.etsi.org/02231/v2#";
+
+	private static final String ADDITIONAL_TYPES_NAMESPACE = "http://uri.etsi.org/02231/v2/additionaltypes#";
+
+	private static final String ECC_NAMESPACE = "http://uri.etsi.org/TrstSvc/SvcInfoExt/eSigDir-1999-93-EC-TrustedList/#";
+
+	private InputStream inputStream;
+
+	private DatatypeFactory datatypeFactory;
+
+	public TSLStreamParser(InputStream inputStream) {
+		this.inputStream = inputStream;
+	}
+
+	@Override
+	public TSLParserResult call() throws Exception {
+		XMLStreamReader reader = null;
+		try {
+			datatypeFactory = DatatypeFactory.newInstance();
+			reader = createReader();
+			while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+				// prolog: comments, processing instructions
+			}
+			if (!"TrustServiceStatusList".equals(reader.getLocalName())) {
+				throw new DSSException("Unexpected root element : " + reader.getName());
+			}
+			return parseTrustStatusList(reader);
+		} catch (Exception e) {
+			throw new DSSException("Unable to parse inputstream : " + e.getMessage(), e);
+		} finally {
+			closeQuietly(reader);
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
+	private XMLStreamReader createReader() throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory.createXMLStreamReader(inputStream);
+	}
+
+	private TSLParserResult parseTrustStatusList(XMLStreamReader reader) throws XMLStreamException {
+		TSLParserResult tslModel = new TSLParserResult();
+		tslModel.setSequenceNumber(-1);
+		tslModel.setDistributionPoints(new ArrayList<String>());
+		tslModel.setPointers(new ArrayList<TSLPointer>());
+		tslModel.setServiceProviders(new ArrayList<TSLServiceProvider>());
+		while (nextChildElement(reader)) {
+			String localName = reader.getLocalName();
+			if ("SchemeInformation".equals(localName)) {
+				parseSchemeInformation(reader, tslModel);
+			} else if ("TrustServiceProviderList".equals(localName)) {
+				parseServiceProviders(reader, tslModel.getServiceProviders());
+			} else {
+				// ds:Signature
+				skipElement(reader);
+			}
+		}
+		return tslModel;
+	}
+
+	private void parseSchemeInformation(XMLStreamReader reader, TSLParserResult tslModel) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			String localName = reader.getLocalName();
+			if ("TSLSequenceNumber".equals(localName)) {
+				tslModel.setSequenceNumber(new BigInteger(reader.getElementText().trim()).intValue());
+			} else if ("SchemeTerritory".equals(localName)) {
+				tslModel.setTerritory(reader.getElementText());
+			} else if ("ListIssueDateTime".equals(localName)) {
+				tslModel.setIssueDate(convertToDate(reader.getElementText()));
+			} else if ("NextUpdate".equals(localName)) {
+				tslModel.setNextUpdateDate(parseNextUpdate(reader));
+			} else if ("DistributionPoints".equals(localName)) {
+				parseURIs(reader, tslModel.getDistributionPoints());
+			} else if ("PointersToOtherTSL".equals(localName)) {
+				parsePointers(reader, tslModel.getPointers());
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	private Date parseNextUpdate(XMLStreamReader reader) throws XMLStreamException {
+		Date nextUpdate = null;
+		while (nextChildElement(reader)) {
+			if ("dateTime".equals(reader.getLocalName())) {
+				nextUpdate = convertToDate(reader.getElementText());
+			} else {
+				skipElement(reader);
+			}
+		}
+		return nextUpdate;
+	}
+
+	private Date convertToDate(String dateTime) {
+		if (StringUtils.isNotBlank(dateTime)) {
+			return datatypeFactory.newXMLGregorianCalendar(dateTime.trim()).toGregorianCalendar().getTime();
+		}
+		return null;
+	}
+
+	private void parseURIs(XMLStreamReader reader, List<String> uris) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			if ("URI".equals(reader.getLocalName())) {
+				uris.add(reader.getElementText());
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	/**
+	 * Only the machine processable pointers are kept
+	 */
+	private void parsePointers(XMLStreamReader reader, List<TSLPointer> pointers) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			if ("OtherTSLPointer".equals(reader.getLocalName())) {
+				TSLPointer pointer = parsePointer(reader);
+				if (TSL_MIME_TYPE.equals(pointer.getMimeType())) {
+					pointers.add(pointer);
+				}
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	private TSLPointer parsePointer(XMLStreamReader reader) throws XMLStreamException {
+		TSLPointer pointer = new TSLPointer();
+		List<CertificateToken> potentialSigners = new ArrayList<CertificateToken>();
+		while (nextChildElement(reader)) {
+			String localName = reader.getLocalName();
+			if ("ServiceDigitalIdentities".equals(localName)) {
+				while (nextChildElement(reader)) {
+					if ("ServiceDigitalIdentity".equals(reader.getLocalName())) {
+						parseDigitalIdentities(reader, potentialSigners, null);
+					} else {
+						skipElement(reader);
+					}
+				}
+			} else if ("TSLLocation".equals(localName)) {
+				pointer.setUrl(reader.getElementText());
+			} else if ("AdditionalInformation".equals(localName)) {
+				while (nextChildElement(reader)) {
+					if ("OtherInformation".equals(reader.getLocalName())) {
+						parseOtherInformation(reader, pointer);
+					} else {
+						skipElement(reader);
+					}
+				}
+			} else {
+				skipElement(reader);
+			}
+		}
+		pointer.setPotentialSigners(potentialSigners);
+		return pointer;
+	}
+
+	private void parseOtherInformation(XMLStreamReader reader, TSLPointer pointer) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			String namespaceURI = reader.getNamespaceURI();
+			String localName = reader.getLocalName();
+			if (ADDITIONAL_TYPES_NAMESPACE.equals(namespaceURI) && "MimeType".equals(localName)) {
+				pointer.setMimeType(reader.getElementText());
+			} else if (TSL_NAMESPACE.equals(namespaceURI) && "SchemeTerritory".equals(localName)) {
+				pointer.setTerritory(reader.getElementText());
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	/**
+	 * Reads the digital identities of a service
+	 *
+	 * @param reader
+	 *            the reader positioned on the list of digital identities
+	 * @param certificates
+	 *            the list to be filled with the certificates
+	 * @param x500Principals
+	 *            the list to be filled with the subject names (can be null when the subject names are not needed)
+	 */
+	private void parseDigitalIdentities(XMLStreamReader reader, List<CertificateToken> certificates, List<X500Principal> x500Principals)
+			throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			if (!"DigitalId".equals(reader.getLocalName())) {
+				skipElement(reader);
+				continue;
+			}
+			while (nextChildElement(reader)) {
+				String localName = reader.getLocalName();
+				if ("X509Certificate".equals(localName)) {
+					String base64Certificate = reader.getElementText();
+					try {
+						certificates.add(DSSUtils.loadCertificate(Base64.decodeBase64(base64Certificate)));
+					} catch (Exception e) {
+						logger.warn("Unable to load certificate : " + e.getMessage(), e);
+					}
+				} else if ("X509SubjectName".equals(localName) && (x500Principals != null)) {
+					String subjectName = reader.getElementText();
+					try {
+						x500Principals.add(DSSUtils.getX500Principal(subjectName));
+					} catch (Exception e) {
+						logger.warn("Unable to load X500Principal : " + e.getMessage());
+					}
+				} else {
+					skipElement(reader);
+				}
+			}
+		}
+	}
+
+	private void parseServiceProviders(XMLStreamReader reader, List<TSLServiceProvider> serviceProviders) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			if ("TrustServiceProvider".equals(reader.getLocalName())) {
+				serviceProviders.add(parseServiceProvider(reader));
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	private TSLServiceProvider parseServiceProvider(XMLStreamReader reader) throws XMLStreamException {
+		TSLServiceProvider serviceProvider = new TSLServiceProvider();
+		List<TSLService> services = new ArrayList<TSLService>();
+		while (nextChildElement(reader)) {
+			String localName = reader.getLocalName();
+			if ("TSPInformation".equals(localName)) {
+				parseServiceProviderInformation(reader, serviceProvider);
+			} else if ("TSPServices".equals(localName)) {
+				parseServices(reader, services);
+			} else {
+				skipElement(reader);
+			}
+		}
+		serviceProvider.setServices(services);
+		return serviceProvider;
+	}
+
+	private void parseServiceProviderInformation(XMLStreamReader reader, TSLServiceProvider serviceProvider) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			String localName = reader.getLocalName();
+			if ("TSPName".equals(localName)) {
+				serviceProvider.setName(parseEnglishOrFirst(reader));
+			} else if ("TSPTradeName".equals(localName)) {
+				serviceProvider.setTradeName(parseEnglishOrFirst(reader));
+			} else if ("TSPAddress".equals(localName)) {
+				parseAddress(reader, serviceProvider);
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	private void parseAddress(XMLStreamReader reader, TSLServiceProvider serviceProvider) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			String localName = reader.getLocalName();
+			if ("PostalAddresses".equals(localName)) {
+				serviceProvider.setPostalAddress(parsePostalAddresses(reader));
+			} else if ("ElectronicAddress".equals(localName)) {
+				List<String> uris = new ArrayList<String>();
+				parseURIs(reader, uris);
+				if (CollectionUtils.isNotEmpty(uris)) {
+					serviceProvider.setElectronicAddress(uris.get(0));
+				}
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	private String parsePostalAddresses(XMLStreamReader reader) throws XMLStreamException {
+		String postalAddress = null;
+		boolean english = false;
+		while (nextChildElement(reader)) {
+			if ("PostalAddress".equals(reader.getLocalName())) {
+				boolean currentEnglish = "en".equalsIgnoreCase(getLang(reader));
+				String currentPostalAddress = parsePostalAddress(reader);
+				if ((postalAddress == null) || (currentEnglish && !english)) {
+					postalAddress = currentPostalAddress;
+					english = currentEnglish;
+				}
+			} else {
+				skipElement(reader);
+			}
+		}
+		return postalAddress;
+	}
+
+	private String parsePostalAddress(XMLStreamReader reader) throws XMLStreamException {
+		String streetAddress = null;
+		String locality = null;
+		String stateOrProvince = null;
+		String postalCode = null;
+		String countryName = null;
+		while (nextChildElement(reader)) {
+			String localName = reader.getLocalName();
+			if ("StreetAddress".equals(localName)) {
+				streetAddress = reader.getElementText();
+			} else if ("Locality".equals(localName)) {
+				locality = reader.getElementText();
+			} else if ("StateOrProvince".equals(localName)) {
+				stateOrProvince = reader.getElementText();
+			} else if ("PostalCode".equals(localName)) {
+				postalCode = reader.getElementText();
+			} else if ("CountryName".equals(localName)) {
+				countryName = reader.getElementText();
+			} else {
+				skipElement(reader);
+			}
+		}
+
+		StringBuffer sb = new StringBuffer();
+		if (StringUtils.isNotEmpty(streetAddress)) {
+			sb.append(streetAddress);
+			sb.append(", ");
+		}
+		if (StringUtils.isNotEmpty(postalCode)) {
+			sb.append(postalCode);
+			sb.append(", ");
+		}
+		if (StringUtils.isNotEmpty(locality)) {
+			sb.append(locality);
+			sb.append(", ");
+		}
+		if (StringUtils.isNotEmpty(stateOrProvince)) {
+			sb.append(stateOrProvince);
+			sb.append(", ");
+		}
+		if (StringUtils.isNotEmpty(countryName)) {
+			sb.append(countryName);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * The history instances of a service end when the next (more recent) status starts
+	 */
+	private void parseServices(XMLStreamReader reader, List<TSLService> services) throws XMLStreamException {
+		Date previousStartDate = null;
+		while (nextChildElement(reader)) {
+			if (!"TSPService".equals(reader.getLocalName())) {
+				skipElement(reader);
+				continue;
+			}
+			while (nextChildElement(reader)) {
+				String localName = reader.getLocalName();
+				if ("ServiceInformation".equals(localName)) {
+					TSLService service = parseService(reader);
+					previousStartDate = service.getStartDate();
+					services.add(service);
+				} else if ("ServiceHistory".equals(localName)) {
+					while (nextChildElement(reader)) {
+						if ("ServiceHistoryInstance".equals(reader.getLocalName())) {
+							TSLService service = parseService(reader);
+							service.setEndDate(previousStartDate);
+							previousStartDate = service.getStartDate();
+							services.add(service);
+						} else {
+							skipElement(reader);
+						}
+					}
+				} else {
+					skipElement(reader);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a ServiceInformation or a ServiceHistoryInstance element
+	 */
+	private TSLService parseService(XMLStreamReader reader) throws XMLStreamException {
+		TSLService service = new TSLService();
+		Set<String> certificateUrls = new HashSet<String>();
+		List<CertificateToken> certificates = new ArrayList<CertificateToken>();
+		List<X500Principal> x500Principals = new ArrayList<X500Principal>();
+		while (nextChildElement(reader)) {
+			String localName = reader.getLocalName();
+			if ("ServiceTypeIdentifier".equals(localName)) {
+				service.setType(reader.getElementText());
+			} else if ("ServiceName".equals(localName)) {
+				service.setName(parseEnglishOrFirst(reader));
+			} else if ("ServiceDigitalIdentity".equals(localName)) {
+				parseDigitalIdentities(reader, certificates, x500Principals);
+			} else if ("ServiceStatus".equals(localName)) {
+				service.setStatus(reader.getElementText());
+			} else if ("StatusStartingTime".equals(localName)) {
+				service.setStartDate(convertToDate(reader.getElementText()));
+			} else if ("SchemeServiceDefinitionURI".equals(localName)) {
+				List<String> uris = new ArrayList<String>();
+				parseURIs(reader, uris);
+				for (String uri : uris) {
+					if (isCertificateURI(uri)) {
+						certificateUrls.add(uri);
+					}
+				}
+			} else if ("ServiceInformationExtensions".equals(localName)) {
+				service.setExtensions(parseExtensions(reader));
+			} else {
+				skipElement(reader);
+			}
+		}
+		service.setCertificateUrls(new ArrayList<String>(certificateUrls));
+		service.setCertificates(certificates);
+		service.setX500Principals(x500Principals);
+		return service;
+	}
+
+	private boolean isCertificateURI(String value) {
+		return StringUtils.endsWithIgnoreCase(value, ".crt");
+	}
+
+	/**
+	 * @return the extensions holding conditions for qualifiers, or null if the service does not have any extension
+	 */
+	private List<TSLServiceExtension> parseExtensions(XMLStreamReader reader) throws XMLStreamException {
+		List<TSLServiceExtension> extensions = null;
+		while (nextChildElement(reader)) {
+			if (!"Extension".equals(reader.getLocalName())) {
+				skipElement(reader);
+				continue;
+			}
+			if (extensions == null) {
+				extensions = new ArrayList<TSLServiceExtension>();
+			}
+			boolean critical = parseBoolean(reader.getAttributeValue(null, "Critical"));
+			List<TSLConditionsForQualifiers> conditionsForQualifiers = new ArrayList<TSLConditionsForQualifiers>();
+			while (nextChildElement(reader)) {
+				if (ECC_NAMESPACE.equals(reader.getNamespaceURI()) && "Qualifications".equals(reader.getLocalName())) {
+					parseQualifications(reader, conditionsForQualifiers);
+				} else {
+					skipElement(reader);
+				}
+			}
+			if (CollectionUtils.isNotEmpty(conditionsForQualifiers)) {
+				TSLServiceExtension extension = new TSLServiceExtension();
+				extension.setCritical(critical);
+				extension.setConditionsForQualifiers(conditionsForQualifiers);
+				extensions.add(extension);
+			}
+		}
+		return extensions;
+	}
+
+	private void parseQualifications(XMLStreamReader reader, List<TSLConditionsForQualifiers> conditionsForQualifiers) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			if (!"QualificationElement".equals(reader.getLocalName())) {
+				skipElement(reader);
+				continue;
+			}
+			List<String> qualifiers = new ArrayList<String>();
+			Condition condition = null;
+			while (nextChildElement(reader)) {
+				String localName = reader.getLocalName();
+				if ("Qualifiers".equals(localName)) {
+					while (nextChildElement(reader)) {
+						if ("Qualifier".equals(reader.getLocalName())) {
+							qualifiers.add(reader.getAttributeValue(null, "uri"));
+						}
+						skipElement(reader);
+					}
+				} else if ("CriteriaList".equals(localName)) {
+					condition = parseCriteriaList(reader);
+				} else {
+					skipElement(reader);
+				}
+			}
+			if (CollectionUtils.isNotEmpty(qualifiers) && (condition != null)) {
+				conditionsForQualifiers.add(new TSLConditionsForQualifiers(qualifiers, condition));
+			}
+		}
+	}
+
+	/**
+	 * The key usage and policy conditions are added first, the nested criteria lists are grouped in a composite condition
+	 */
+	private Condition parseCriteriaList(XMLStreamReader reader) throws XMLStreamException {
+		MatchingCriteriaIndicator matchingCriteriaIndicator = MatchingCriteriaIndicator.valueOf(reader.getAttributeValue(null, "assert"));
+		CompositeCondition condition = new CriteriaListCondition(matchingCriteriaIndicator);
+		List<Condition> policyIdConditions = new ArrayList<Condition>();
+		List<Condition> criteriaListConditions = new ArrayList<Condition>();
+		while (nextChildElement(reader)) {
+			String localName = reader.getLocalName();
+			if ("KeyUsage".equals(localName)) {
+				while (nextChildElement(reader)) {
+					if ("KeyUsageBit".equals(reader.getLocalName())) {
+						String name = reader.getAttributeValue(null, "name");
+						condition.addChild(new KeyUsageCondition(name, parseBoolean(reader.getElementText())));
+					} else {
+						skipElement(reader);
+					}
+				}
+			} else if ("PolicySet".equals(localName)) {
+				parsePolicySet(reader, policyIdConditions);
+			} else if ("CriteriaList".equals(localName)) {
+				criteriaListConditions.add(parseCriteriaList(reader));
+			} else {
+				skipElement(reader);
+			}
+		}
+		for (Condition policyIdCondition : policyIdConditions) {
+			condition.addChild(policyIdCondition);
+		}
+		if (CollectionUtils.isNotEmpty(criteriaListConditions)) {
+			CompositeCondition compositeConditions = new CompositeCondition();
+			for (Condition criteriaListCondition : criteriaListConditions) {
+				compositeConditions.addChild(criteriaListCondition);
+			}
+			condition.addChild(compositeConditions);
+		}
+		return condition;
+	}
+
+	private void parsePolicySet(XMLStreamReader reader, List<Condition> policyIdConditions) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			if (!"PolicyIdentifier".equals(reader.getLocalName())) {
+				skipElement(reader);
+				continue;
+			}
+			while (nextChildElement(reader)) {
+				if ("Identifier".equals(reader.getLocalName())) {
+					String id = reader.getElementText();
+
+					// ES TSL :  <ns4:Identifier Qualifier="OIDAsURN">urn:oid:1.3.6.1.4.1.36035.1.3.1</ns4:Identifier>
+					if (id.indexOf(':') >= 0) {
+						id = id.substring(id.lastIndexOf(':') + 1);
+					}
+
+					policyIdConditions.add(new PolicyIdCondition(id));
+				} else {
+					skipElement(reader);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a list of multilingual names
+	 *
+	 * @return the english name if present, the first one otherwise
+	 */
+	private String parseEnglishOrFirst(XMLStreamReader reader) throws XMLStreamException {
+		String first = null;
+		String english = null;
+		while (nextChildElement(reader)) {
+			if ("Name".equals(reader.getLocalName())) {
+				boolean currentEnglish = "en".equalsIgnoreCase(getLang(reader));
+				String name = normalize(reader.getElementText());
+				if (first == null) {
+					first = name;
+				}
+				if (currentEnglish && (english == null)) {
+					english = name;
+				}
+			} else {
+				skipElement(reader);
+			}
+		}
+		return english != null ? english : first;
+	}
+
+	private String getLang(XMLStreamReader reader) {
+		return reader.getAttributeValue(XMLConstants.XML_NS_URI, "lang");
+	}
+
+	/**
+	 * Same as the xsd:normalizedString processing : the tabulations and the line breaks are replaced by spaces
+	 */
+	private String normalize(String value) {
+		return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+	}
+
+	/**
+	 * Same as the xsd:boolean processing
+	 */
+	private boolean parseBoolean(String value) {
+		if (value == null) {
+			return false;
+		}
+		String trimmed = value.trim();
+		return "true".equals(trimmed) || "1".equals(trimmed);
+	}
+
+	/**
+	 * Moves the reader to the next child of the current element
+	 *
+	 * @return true if the reader is positioned on the start of a child element, false if the end of the current element is
+	 *         reached
+	 */
+	private boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				return true;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Moves the reader from the start of the current element to its end, ignoring its content
+	 */
+	private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while ((depth > 0) && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	private void closeQuietly(XMLStreamReader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				logger.warn("Unable to close the XMLStreamReader : " + e.getMessage());
+			}
+		}
+	}
+
+}
@@ -22,11 +22,15 @@ package eu.europa.esig.dss.tsl.service;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -67,6 +71,7 @@ public class TSLValidationJob {
 	private boolean checkLOTLSignature = true;
 	private boolean checkTSLSignatures = true;
 	private List<String> filterTerritories;
+	private boolean streamParsing = false;
 
 	public void setExecutorService(ExecutorService executorService) {
 		this.executorService = executorService;
@@ -104,17 +109,39 @@ public class TSLValidationJob {
 		this.filterTerritories = filterTerritories;
 	}
 
+	/**
+	 * This method allows to parse the lists with the StAX parser ({@code TSLStreamParser}) instead of the JAXB one ({@code TSLParser}).
+	 * The StAX parser does not build the whole JAXB model of each list. It is disabled by default until {@code TSLStreamParserTest} (same
+	 * results as the JAXB parser on the LOTL and the test lists) has passed; {@code TSLParserBenchmark} measures the difference.
+	 *
+	 * @param streamParsing
+	 *            true to use the StAX parser
+	 */
+	public void setStreamParsing(boolean streamParsing) {
+		this.streamParsing = streamParsing;
+	}
+
 	@PostConstruct
 	public void initRepository() {
 		logger.info("Initialization of the TSL repository ...");
 		int loadedTSL = 0;
 		List<File> cachedFiles = repository.getStoredFiles();
 		if (CollectionUtils.isNotEmpty(cachedFiles)) {
+			// The country files which did not change since the last snapshot are not parsed/validated again (the LOTL is always verified)
+			Map<String, TSLValidationModel> snapshot = repository.readSnapshot();
+			Set<String> restoredCountries = new HashSet<String>();
 			List<Future<TSLParserResult>> futureParseResults = new ArrayList<Future<TSLParserResult>>();
 			for (File file : cachedFiles) {
+				String countryCode = repository.getCountryCode(file);
+				TSLValidationModel snapshotModel = snapshot.get(countryCode);
+				if ((snapshotModel != null) && repository.restoreFromSnapshot(countryCode, snapshotModel)) {
+					restoredCountries.add(countryCode);
+					loadedTSL++;
+					continue;
+				}
 				try {
 					FileInputStream fis = new FileInputStream(file);
-					futureParseResults.add(executorService.submit(new TSLParser(fis)));
+					futureParseResults.add(executorService.submit(newParser(fis)));
 				} catch (Exception e) {
 					logger.error("Unable to parse file '" + file.getAbsolutePath() + "' : " + e.getMessage(), e);
 				}
@@ -131,7 +158,23 @@ public class TSLValidationJob {
 				}
 			}
 
+			logger.info(restoredCountries.size() + " TSL restored from the snapshot");
+
+			// The snapshot is not trusted for the LOTL : it is parsed again and its signature is always verified against the key store
+			TSLValidationModel snapshotLOTL = snapshot.get(lotlCode);
+			List<TSLPointer> snapshotPointers = ((snapshotLOTL == null) || (snapshotLOTL.getParseResult() == null)) ? null : snapshotLOTL.getParseResult().getPointers();
 			TSLValidationModel europeanModel = repository.getByCountry(lotlCode);
+			if (europeanModel != null) {
+				europeanModel.setValidationResult(null);
+				if (restoredCountries.contains(lotlCode)) {
+					europeanModel.setParseResult(null);
+					try {
+						europeanModel.setParseResult(parseLOTL(europeanModel));
+					} catch (Exception e) {
+						logger.error("Unable to parse the LOTL : " + e.getMessage(), e);
+					}
+				}
+			}
 			if (checkLOTLSignature && (europeanModel != null)) {
 				try {
 					TSLValidationResult europeanValidationResult = validateLOTL(europeanModel);
@@ -141,14 +184,27 @@ public class TSLValidationJob {
 				}
 			}
 
+			// The restored validation results of the countries are only kept if the LOTL is trusted and announces the same signers
+			boolean lotlTrusted = (europeanModel != null) && (europeanModel.getParseResult() != null)
+					&& (!checkLOTLSignature || ((europeanModel.getValidationResult() != null) && europeanModel.getValidationResult().isValid()));
+			for (String countryCode : restoredCountries) {
+				if (lotlCode.equals(countryCode)) {
+					continue;
+				}
+				if (!lotlTrusted || (snapshotPointers == null)
+						|| !haveSameSigners(snapshotPointers, europeanModel.getParseResult().getPointers(), countryCode)) {
+					repository.getByCountry(countryCode).setValidationResult(null);
+				}
+			}
+
 			if (checkTSLSignatures && ((europeanModel != null) && (europeanModel.getParseResult() != null))) {
 				List<TSLPointer> pointers = europeanModel.getParseResult().getPointers();
 				List<Future<TSLValidationResult>> futureValidationResults = new ArrayList<Future<TSLValidationResult>>();
 				Map<String, TSLValidationModel> map = repository.getAllMapTSLValidationModels();
 				for (Entry<String, TSLValidationModel> entry : map.entrySet()) {
 					String countryCode = entry.getKey();
-					if (!lotlCode.equals(countryCode)) {
-						TSLValidationModel countryModel = entry.getValue();
+					TSLValidationModel countryModel = entry.getValue();
+					if (!lotlCode.equals(countryCode) && (countryModel.getValidationResult() == null)) {
 						TSLValidator tslValidator = new TSLValidator(new File(countryModel.getFilepath()), countryCode, dssKeyStore, getPotentialSigners(pointers, countryCode));
 						futureValidationResults.add(executorService.submit(tslValidator));
 					}
@@ -158,6 +214,7 @@ public class TSLValidationJob {
 			}
 
 			repository.synchronize();
+			repository.writeSnapshot();
 		}
 		logger.info(loadedTSL + " loaded TSL from cached files in the repository");
 	}
@@ -165,7 +222,7 @@ public class TSLValidationJob {
 	public void refresh() {
 		logger.debug("TSL Validation Job is starting ...");
 		TSLLoaderResult resultLoaderLOTL = null;
-		Future<TSLLoaderResult> result = executorService.submit(new TSLLoader(dataLoader, lotlCode, lotlUrl));
+		Future<TSLLoaderResult> result = executorService.submit(getTSLLoader(lotlCode, lotlUrl));
 		try {
 			resultLoaderLOTL = result.get();
 		} catch (Exception e) {
@@ -203,6 +260,7 @@ public class TSLValidationJob {
 		analyzeCountryPointers(parseResult.getPointers());
 
 		repository.synchronize();
+		repository.writeSnapshot();
 
 		logger.debug("TSL Validation Job is finishing ...");
 	}
@@ -211,8 +269,7 @@ public class TSLValidationJob {
 		List<Future<TSLLoaderResult>> futureLoaderResults = new ArrayList<Future<TSLLoaderResult>>();
 		for (TSLPointer tslPointer : pointers) {
 			if (CollectionUtils.isEmpty(filterTerritories) || filterTerritories.contains(tslPointer.getTerritory())) {
-				TSLLoader tslLoader = new TSLLoader(dataLoader, tslPointer.getTerritory(), tslPointer.getUrl());
-				futureLoaderResults.add(executorService.submit(tslLoader));
+				futureLoaderResults.add(executorService.submit(getTSLLoader(tslPointer.getTerritory(), tslPointer.getUrl())));
 			}
 		}
 
@@ -231,7 +288,7 @@ public class TSLValidationJob {
 				TSLParserResult countryParseResult = countryModel.getParseResult();
 				if (countryParseResult == null) {
 					FileInputStream fis = new FileInputStream(countryModel.getFilepath());
-					futureParseResults.add(executorService.submit(new TSLParser(fis)));
+					futureParseResults.add(executorService.submit(newParser(fis)));
 				}
 
 				if (checkTSLSignatures && (countryModel.getValidationResult() == null)) {
@@ -257,6 +314,17 @@ public class TSLValidationJob {
 		storeValidationResults(futureValidationResults);
 	}
 
+	/**
+	 * The loader sends the validators of the cached version (if any) to allow a conditional download
+	 */
+	private TSLLoader getTSLLoader(String countryCode, String url) {
+		TSLValidationModel cachedModel = repository.getByCountry(countryCode);
+		if ((cachedModel != null) && StringUtils.equals(url, cachedModel.getUrl())) {
+			return new TSLLoader(dataLoader, countryCode, url, cachedModel.getETag(), cachedModel.getLastModified());
+		}
+		return new TSLLoader(dataLoader, countryCode, url);
+	}
+
 	private void storeValidationResults(List<Future<TSLValidationResult>> futureValidationResults) {
 		for (Future<TSLValidationResult> futureValidationResult : futureValidationResults) {
 			try {
@@ -311,6 +379,12 @@ public class TSLValidationJob {
 		return Collections.emptyList();
 	}
 
+	private boolean haveSameSigners(List<TSLPointer> previousPointers, List<TSLPointer> pointers, String countryCode) {
+		Set<CertificateToken> previousSigners = new HashSet<CertificateToken>(getPotentialSigners(previousPointers, countryCode));
+		Set<CertificateToken> signers = new HashSet<CertificateToken>(getPotentialSigners(pointers, countryCode));
+		return previousSigners.equals(signers);
+	}
+
 	private TSLValidationResult validateLOTL(TSLValidationModel validationModel) throws Exception {
 		TSLValidator tslValidator = new TSLValidator(new File(validationModel.getFilepath()), lotlCode, dssKeyStore);
 		Future<TSLValidationResult> future = executorService.submit(tslValidator);
@@ -319,8 +393,15 @@ public class TSLValidationJob {
 
 	private TSLParserResult parseLOTL(TSLValidationModel validationModel) throws Exception {
 		FileInputStream fis = new FileInputStream(validationModel.getFilepath());
-		Future<TSLParserResult> future = executorService.submit(new TSLParser(fis));
+		Future<TSLParserResult> future = executorService.submit(newParser(fis));
 		return future.get();
 	}
 
+	private Callable<TSLParserResult> newParser(InputStream inputStream) {
+		if (streamParsing) {
+			return new TSLStreamParser(inputStream);
+		}
+		return new TSLParser(inputStream);
+	}
+
 }
@@ -21,29 +21,47 @@
 package eu.europa.esig.dss.tsl.service;
 
 import java.io.File;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.concurrent.Callable;
 
+import javax.xml.bind.DatatypeConverter;
+
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.xml.security.exceptions.XMLSecurityException;
+import org.apache.xml.security.keys.KeyInfo;
+import org.apache.xml.security.signature.Reference;
+import org.apache.xml.security.signature.SignedInfo;
+import org.apache.xml.security.signature.XMLSignature;
+import org.apache.xml.security.signature.XMLSignatureException;
+import org.apache.xml.security.utils.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 
-import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSXMLUtils;
 import eu.europa.esig.dss.FileDocument;
-import eu.europa.esig.dss.XPathQueryHolder;
 import eu.europa.esig.dss.tsl.TSLValidationResult;
-import eu.europa.esig.dss.validation.CertificateVerifier;
-import eu.europa.esig.dss.validation.CommonCertificateVerifier;
 import eu.europa.esig.dss.validation.policy.rules.Indication;
-import eu.europa.esig.dss.validation.report.Reports;
-import eu.europa.esig.dss.validation.report.SimpleReport;
+import eu.europa.esig.dss.validation.policy.rules.SubIndication;
 import eu.europa.esig.dss.x509.CertificateToken;
-import eu.europa.esig.dss.x509.CommonTrustedCertificateSource;
 import eu.europa.esig.dss.x509.KeyStoreCertificateSource;
-import eu.europa.esig.dss.xades.validation.XMLDocumentValidator;
 
 /**
  * This class allows to validate TSL or LOTL. It can be executed as a Callable.
+ *
+ * Only the enveloped signature of the list is verified: the signature must cover the whole list and must be created with one of the
+ * trusted certificates (the potential signers announced by the LOTL, or the certificates of the key store for the LOTL). The signing
+ * certificate must be valid at the issue date of the list (ListIssueDateTime); its validity at the current time is not checked. No
+ * certificate chain is built, no revocation data is fetched and no validation policy is applied.
  */
 public class TSLValidator implements Callable<TSLValidationResult> {
 
@@ -91,48 +109,188 @@ public class TSLValidator implements Callable<TSLValidationResult> {
 
 	@Override
 	public TSLValidationResult call() throws Exception {
-		CertificateVerifier certificateVerifier = new CommonCertificateVerifier(true);
-		certificateVerifier.setTrustedCertSource(buildTrustedCertificateSource(dssKeyStore, potentialSigners));
-
-		DSSDocument dssDocument = new FileDocument(file);
-		XMLDocumentValidator xmlDocumentValidator = new XMLDocumentValidator(dssDocument);
-		xmlDocumentValidator.setCertificateVerifier(certificateVerifier);
-		// To increase the security: the default {@code XPathQueryHolder} is used.
-		List<XPathQueryHolder> xPathQueryHolders = xmlDocumentValidator.getXPathQueryHolder();
-		xPathQueryHolders.clear();
-		xPathQueryHolders.add(new XPathQueryHolder());
-
-		Reports reports = xmlDocumentValidator.validateDocument();
-		SimpleReport simpleReport = reports.getSimpleReport();
-		String indication = simpleReport.getIndication(simpleReport.getFirstSignatureId());
-		boolean isValid = Indication.VALID.equals(indication);
-
 		TSLValidationResult result = new TSLValidationResult();
 		result.setCountryCode(countryCode);
+		verifySignature(result);
+		if (!result.isValid()) {
+			logger.info("The TSL signature is not valid : " + countryCode + " " + result.getIndication() + " / " + result.getSubIndication());
+		}
+		return result;
+	}
+
+	private void verifySignature(TSLValidationResult result) {
+		Document document = DSSXMLUtils.buildDOM(new FileDocument(file));
+		Element rootElement = document.getDocumentElement();
+		Element signatureElement = getEnvelopedSignature(rootElement);
+		if (signatureElement == null) {
+			setResult(result, Indication.INVALID, SubIndication.FORMAT_FAILURE);
+			return;
+		}
+
+		// Only the identifiers of the list and of the signature (signed properties) are registered
+		DSSXMLUtils.setIDIdentifier(rootElement);
+		DSSXMLUtils.recursiveIdBrowse(signatureElement);
+
+		Date issueDate = getIssueDate(rootElement);
+		if (issueDate == null) {
+			setResult(result, Indication.INVALID, SubIndication.FORMAT_FAILURE);
+			return;
+		}
+
+		try {
+			XMLSignature santuarioSignature = new XMLSignature(signatureElement, "", true);
+			SignedInfo signedInfo = santuarioSignature.getSignedInfo();
+			if (!isListSigned(signedInfo, rootElement)) {
+				setResult(result, Indication.INVALID, SubIndication.FORMAT_FAILURE);
+				return;
+			}
+
+			List<CertificateToken> trustedCertificates = getTrustedCertificates();
+			CertificateToken signingCertificate;
+			X509Certificate keyInfoCertificate = getKeyInfoCertificate(santuarioSignature);
+			if (keyInfoCertificate != null) {
+				signingCertificate = getTrustedCertificate(trustedCertificates, keyInfoCertificate);
+				if (signingCertificate == null) {
+					setResult(result, Indication.INDETERMINATE, SubIndication.NO_CERTIFICATE_CHAIN_FOUND);
+					return;
+				}
+				if (!santuarioSignature.checkSignatureValue(signingCertificate.getPublicKey())) {
+					// the references are only checked again to report the failure
+					setResult(result, Indication.INVALID, areReferencesIntact(signedInfo) ? SubIndication.SIG_CRYPTO_FAILURE : SubIndication.HASH_FAILURE);
+					return;
+				}
+			} else {
+				// The signing certificate is not provided with the signature
+				signingCertificate = findSigningCertificate(santuarioSignature, trustedCertificates);
+				if (signingCertificate == null) {
+					if (areReferencesIntact(signedInfo)) {
+						setResult(result, Indication.INDETERMINATE, SubIndication.NO_CERTIFICATE_CHAIN_FOUND);
+					} else {
+						setResult(result, Indication.INVALID, SubIndication.HASH_FAILURE);
+					}
+					return;
+				}
+			}
+
+			if (signingCertificate.isValidOn(issueDate)) {
+				setResult(result, Indication.VALID, null);
+			} else {
+				logger.info("The TSL signing certificate is not valid at the issue date " + issueDate + " : " + signingCertificate.getAbbreviation());
+				setResult(result, Indication.INDETERMINATE, SubIndication.OUT_OF_BOUNDS_NO_POE);
+			}
+		} catch (XMLSecurityException e) {
+			logger.warn("Unable to verify the TSL signature : " + e.getMessage());
+			setResult(result, Indication.INVALID, SubIndication.FORMAT_FAILURE);
+		}
+	}
+
+	/**
+	 * @return the trusted certificate which verifies the signature value and the references, or null
+	 */
+	private CertificateToken findSigningCertificate(XMLSignature santuarioSignature, List<CertificateToken> trustedCertificates) {
+		for (CertificateToken trustedCertificate : trustedCertificates) {
+			try {
+				if (santuarioSignature.checkSignatureValue(trustedCertificate.getPublicKey())) {
+					return trustedCertificate;
+				}
+			} catch (XMLSignatureException e) {
+				// e.g. a key of another type than the signature algorithm
+				logger.debug("The TSL signature cannot be verified with " + trustedCertificate.getAbbreviation() + " : " + e.getMessage());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if the digests of all the references match the signed content
+	 */
+	private boolean areReferencesIntact(SignedInfo signedInfo) throws XMLSecurityException {
+		return signedInfo.verify(false);
+	}
+
+	/**
+	 * @return the issue date of the list (ListIssueDateTime), or null if it is missing or malformed
+	 */
+	private Date getIssueDate(Element rootElement) {
+		NodeList issueDates = rootElement.getElementsByTagNameNS(rootElement.getNamespaceURI(), "ListIssueDateTime");
+		if (issueDates.getLength() == 0) {
+			return null;
+		}
+		try {
+			return DatatypeConverter.parseDateTime(issueDates.item(0).getTextContent().trim()).getTime();
+		} catch (IllegalArgumentException e) {
+			logger.warn("Unable to parse the ListIssueDateTime : " + e.getMessage());
+			return null;
+		}
+	}
+
+	private void setResult(TSLValidationResult result, String indication, String subIndication) {
 		result.setIndication(indication);
-		result.setSubIndication(simpleReport.getSubIndication(simpleReport.getFirstSignatureId()));
+		result.setSubIndication(subIndication);
+	}
 
-		if (!isValid) {
-			logger.info("The TSL signature is not valid : \n" + simpleReport.toString());
+	/**
+	 * The signature of a TSL is a child of the root element
+	 */
+	private Element getEnvelopedSignature(Element rootElement) {
+		for (Node node = rootElement.getFirstChild(); node != null; node = node.getNextSibling()) {
+			if ((node.getNodeType() == Node.ELEMENT_NODE) && Constants.SignatureSpecNS.equals(node.getNamespaceURI()) && "Signature".equals(node.getLocalName())) {
+				return (Element) node;
+			}
 		}
+		return null;
+	}
 
-		return result;
+	/**
+	 * @return true if one of the references covers the whole list (the document or the root element)
+	 */
+	private boolean isListSigned(SignedInfo signedInfo, Element rootElement) throws XMLSecurityException {
+		String rootId = DSSXMLUtils.getIDIdentifier(rootElement);
+		for (int ii = 0; ii < signedInfo.getLength(); ii++) {
+			Reference reference = signedInfo.item(ii);
+			String uri = reference.getURI();
+			if (StringUtils.isEmpty(uri) || ((rootId != null) && uri.equals("#" + rootId))) {
+				return true;
+			}
+		}
+		return false;
 	}
 
-	private CommonTrustedCertificateSource buildTrustedCertificateSource(KeyStoreCertificateSource dssKeyStore, List<CertificateToken> potentialSigners) {
-		CommonTrustedCertificateSource commonTrustedCertificateSource = new CommonTrustedCertificateSource();
-		if (CollectionUtils.isNotEmpty(potentialSigners)) {
-			for (CertificateToken potentialSigner : potentialSigners) {
-				commonTrustedCertificateSource.addCertificate(potentialSigner);
+	private X509Certificate getKeyInfoCertificate(XMLSignature santuarioSignature) {
+		KeyInfo keyInfo = santuarioSignature.getKeyInfo();
+		if (keyInfo != null) {
+			try {
+				return keyInfo.getX509Certificate();
+			} catch (XMLSecurityException e) {
+				logger.warn("Unable to read the certificate from the KeyInfo : " + e.getMessage());
 			}
 		}
-		if ((dssKeyStore != null) && CollectionUtils.isNotEmpty(dssKeyStore.getCertificatesFromKeyStore())) {
-			List<CertificateToken> trustedCertificatesFromKeyStore = dssKeyStore.getCertificatesFromKeyStore();
-			for (CertificateToken certificateToken : trustedCertificatesFromKeyStore) {
-				commonTrustedCertificateSource.addCertificate(certificateToken);
+		return null;
+	}
+
+	private CertificateToken getTrustedCertificate(List<CertificateToken> trustedCertificates, X509Certificate certificate) {
+		try {
+			byte[] encoded = certificate.getEncoded();
+			for (CertificateToken trustedCertificate : trustedCertificates) {
+				if (Arrays.equals(encoded, trustedCertificate.getEncoded())) {
+					return trustedCertificate;
+				}
 			}
+		} catch (CertificateEncodingException e) {
+			logger.warn("Unable to encode the certificate from the KeyInfo : " + e.getMessage());
+		}
+		return null;
+	}
+
+	private List<CertificateToken> getTrustedCertificates() {
+		List<CertificateToken> trustedCertificates = new ArrayList<CertificateToken>();
+		if (CollectionUtils.isNotEmpty(potentialSigners)) {
+			trustedCertificates.addAll(potentialSigners);
+		}
+		if ((dssKeyStore != null) && CollectionUtils.isNotEmpty(dssKeyStore.getCertificatesFromKeyStore())) {
+			trustedCertificates.addAll(dssKeyStore.getCertificatesFromKeyStore());
 		}
-		return commonTrustedCertificateSource;
+		return trustedCertificates;
 	}
 
 }
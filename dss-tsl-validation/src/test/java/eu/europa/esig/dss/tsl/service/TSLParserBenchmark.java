@@ -0,0 +1,109 @@
+package eu.europa.esig.dss.tsl.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import eu.europa.esig.dss.tsl.TSLParserResult;
+
+/**
+ * Compares the JAXB parser ({@code TSLParser}) and the StAX parser ({@code TSLStreamParser}) on the LOTL and the trusted
+ * lists of the test resources : time per pass and bytes allocated by the parsing thread (when the JVM can measure them).
+ *
+ * This is not a unit test (it is not run by the build), it is launched manually from the dss-tsl-validation folder :
+ * {@code java -cp <test classpath> eu.europa.esig.dss.tsl.service.TSLParserBenchmark [iterations]}
+ */
+public class TSLParserBenchmark {
+
+	private static final int WARM_UP_ITERATIONS = 5;
+
+	private static final int DEFAULT_ITERATIONS = 20;
+
+	public static void main(String[] args) throws Exception {
+		int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+
+		List<byte[]> lists = new ArrayList<byte[]>();
+		lists.add(FileUtils.readFileToByteArray(new File("src/test/resources/LOTL.xml")));
+		Collection<File> files = FileUtils.listFiles(new File("src/test/resources/tsls"), new String[] {
+				"xml"
+		}, true);
+		for (File file : files) {
+			lists.add(FileUtils.readFileToByteArray(file));
+		}
+
+		run("JAXB (TSLParser)", new JaxbParsing(), lists, WARM_UP_ITERATIONS);
+		run("StAX (TSLStreamParser)", new StreamParsing(), lists, WARM_UP_ITERATIONS);
+
+		print("JAXB (TSLParser)", run("JAXB (TSLParser)", new JaxbParsing(), lists, iterations), lists.size(), iterations);
+		print("StAX (TSLStreamParser)", run("StAX (TSLStreamParser)", new StreamParsing(), lists, iterations), lists.size(), iterations);
+	}
+
+	private static long[] run(String name, Parsing parsing, List<byte[]> lists, int iterations) throws Exception {
+		long allocatedBefore = getAllocatedBytes();
+		long start = System.nanoTime();
+		for (int ii = 0; ii < iterations; ii++) {
+			for (byte[] list : lists) {
+				TSLParserResult result = parsing.parse(list);
+				if (result == null) {
+					throw new IllegalStateException(name + " : no result");
+				}
+			}
+		}
+		long duration = System.nanoTime() - start;
+		long allocatedAfter = getAllocatedBytes();
+		return new long[] {
+				duration, ((allocatedBefore < 0) || (allocatedAfter < 0)) ? -1 : allocatedAfter - allocatedBefore
+		};
+	}
+
+	private static void print(String name, long[] measures, int numberOfLists, int iterations) {
+		long passes = (long) numberOfLists * iterations;
+		StringBuilder sb = new StringBuilder(name).append(" : ");
+		sb.append(measures[0] / passes / 1000).append(" us per list");
+		if (measures[1] >= 0) {
+			sb.append(", ").append(measures[1] / passes / 1024).append(" KiB allocated per list");
+		}
+		System.out.println(sb);
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread, or -1 if the JVM does not measure them
+	 */
+	private static long getAllocatedBytes() {
+		java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+			if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+				return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	private interface Parsing {
+
+		TSLParserResult parse(byte[] list) throws Exception;
+	}
+
+	private static class JaxbParsing implements Parsing {
+
+		@Override
+		public TSLParserResult parse(byte[] list) throws Exception {
+			return new TSLParser(new ByteArrayInputStream(list)).call();
+		}
+	}
+
+	private static class StreamParsing implements Parsing {
+
+		@Override
+		public TSLParserResult parse(byte[] list) throws Exception {
+			return new TSLStreamParser(new ByteArrayInputStream(list)).call();
+		}
+	}
+
+}
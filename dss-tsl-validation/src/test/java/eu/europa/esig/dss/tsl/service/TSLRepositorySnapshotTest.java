@@ -0,0 +1,130 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.tsl.PolicyIdCondition;
+import eu.europa.esig.dss.tsl.TSLConditionsForQualifiers;
+import eu.europa.esig.dss.tsl.TSLParserResult;
+import eu.europa.esig.dss.tsl.TSLService;
+import eu.europa.esig.dss.tsl.TSLServiceExtension;
+import eu.europa.esig.dss.tsl.TSLServiceProvider;
+import eu.europa.esig.dss.tsl.TSLValidationModel;
+import eu.europa.esig.dss.tsl.TSLValidationResult;
+import eu.europa.esig.dss.validation.policy.rules.Indication;
+
+public class TSLRepositorySnapshotTest {
+
+	@Test
+	public void writeAndRead() throws Exception {
+		TSLParser parser = new TSLParser(new FileInputStream(new File("src/test/resources/tsls/621C7723265CA33AAD0607B3C612B313872E7514.xml")));
+		TSLParserResult parseResult = parser.call();
+
+		TSLValidationResult validationResult = new TSLValidationResult();
+		validationResult.setCountryCode(parseResult.getTerritory());
+		validationResult.setIndication(Indication.VALID);
+
+		TSLValidationModel model = new TSLValidationModel();
+		model.setUrl("http://www.example.com/tsl.xml");
+		model.setSha256FileContent("sha256");
+		model.setETag("\"1234\"");
+		model.setParseResult(parseResult);
+		model.setValidationResult(validationResult);
+
+		Map<String, TSLValidationModel> models = new HashMap<String, TSLValidationModel>();
+		models.put(parseResult.getTerritory(), model);
+
+		File file = File.createTempFile("tsl-snapshot", ".bin");
+		file.deleteOnExit();
+		TSLRepositorySnapshot.write(file, models);
+
+		Map<String, TSLValidationModel> restoredModels = TSLRepositorySnapshot.read(file);
+		TSLValidationModel restored = restoredModels.get(parseResult.getTerritory());
+		assertNotNull(restored);
+		assertEquals(model.getUrl(), restored.getUrl());
+		assertEquals(model.getSha256FileContent(), restored.getSha256FileContent());
+		assertEquals(model.getETag(), restored.getETag());
+		assertEquals(null, restored.getLastModified());
+		assertTrue(restored.getValidationResult().isValid());
+
+		TSLParserResult restoredParseResult = restored.getParseResult();
+		assertEquals(parseResult.getSequenceNumber(), restoredParseResult.getSequenceNumber());
+		assertEquals(parseResult.getNextUpdateDate(), restoredParseResult.getNextUpdateDate());
+		assertEquals(parseResult.getServiceProviders().size(), restoredParseResult.getServiceProviders().size());
+		for (int i = 0; i < parseResult.getServiceProviders().size(); i++) {
+			TSLServiceProvider serviceProvider = parseResult.getServiceProviders().get(i);
+			TSLServiceProvider restoredServiceProvider = restoredParseResult.getServiceProviders().get(i);
+			assertEquals(serviceProvider.getName(), restoredServiceProvider.getName());
+			for (int j = 0; j < serviceProvider.getServices().size(); j++) {
+				TSLService service = serviceProvider.getServices().get(j);
+				TSLService restoredService = restoredServiceProvider.getServices().get(j);
+				assertEquals(service.getStatus(), restoredService.getStatus());
+				assertEquals(service.getCertificates(), restoredService.getCertificates());
+				assertEquals(service.getX500Principals(), restoredService.getX500Principals());
+				assertEquals(getConditions(service), getConditions(restoredService));
+			}
+		}
+	}
+
+	private String getConditions(TSLService service) {
+		StringBuilder builder = new StringBuilder();
+		if (service.getExtensions() != null) {
+			for (TSLServiceExtension extension : service.getExtensions()) {
+				if (extension.getConditionsForQualifiers() == null) {
+					continue;
+				}
+				for (TSLConditionsForQualifiers conditionsForQualifiers : extension.getConditionsForQualifiers()) {
+					builder.append(conditionsForQualifiers.getQualifiers()).append(conditionsForQualifiers.getCondition());
+				}
+			}
+		}
+		return builder.toString();
+	}
+
+	@Test(expected = DSSException.class)
+	public void serializedObjectsAreRejected() throws Exception {
+		File file = File.createTempFile("tsl-snapshot", ".bin");
+		file.deleteOnExit();
+		ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file));
+		oos.writeObject(new PolicyIdCondition("0.4.0.1456.1.1"));
+		oos.close();
+		TSLRepositorySnapshot.read(file);
+	}
+
+	@Test
+	public void readMissingFile() {
+		assertTrue(TSLRepositorySnapshot.read(new File("target/missing-snapshot.bin")).isEmpty());
+	}
+
+}
@@ -0,0 +1,123 @@
+package eu.europa.esig.dss.tsl.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import eu.europa.esig.dss.tsl.TSLConditionsForQualifiers;
+import eu.europa.esig.dss.tsl.TSLParserResult;
+import eu.europa.esig.dss.tsl.TSLPointer;
+import eu.europa.esig.dss.tsl.TSLService;
+import eu.europa.esig.dss.tsl.TSLServiceExtension;
+import eu.europa.esig.dss.tsl.TSLServiceProvider;
+
+/**
+ * The StAX parser must produce the same result as the JAXB one
+ */
+@RunWith(Parameterized.class)
+public class TSLStreamParserTest {
+
+	@Parameters(name = "TSL to parse {index} : {0}")
+	public static Collection<Object[]> data() {
+		File folder = new File("src/test/resources/tsls");
+		Collection<File> listFiles = FileUtils.listFiles(folder, new String[] {
+				"xml"
+		}, true);
+		Collection<Object[]> dataToRun = new ArrayList<Object[]>();
+		dataToRun.add(new Object[] {
+				new File("src/test/resources/LOTL.xml")
+		});
+		for (File file : listFiles) {
+			dataToRun.add(new Object[] {
+					file
+			});
+		}
+		return dataToRun;
+	}
+
+	private File fileToTest;
+
+	public TSLStreamParserTest(File fileToTest) {
+		this.fileToTest = fileToTest;
+	}
+
+	@Test
+	public void sameResultAsJaxbParser() throws Exception {
+		TSLParserResult expected = new TSLParser(new FileInputStream(fileToTest)).call();
+		TSLParserResult result = new TSLStreamParser(new FileInputStream(fileToTest)).call();
+
+		assertEquals(expected.getTerritory(), result.getTerritory());
+		assertEquals(expected.getSequenceNumber(), result.getSequenceNumber());
+		assertEquals(expected.getIssueDate(), result.getIssueDate());
+		assertEquals(expected.getNextUpdateDate(), result.getNextUpdateDate());
+		assertEquals(expected.getDistributionPoints(), result.getDistributionPoints());
+
+		assertEquals(expected.getPointers().size(), result.getPointers().size());
+		for (int i = 0; i < expected.getPointers().size(); i++) {
+			TSLPointer expectedPointer = expected.getPointers().get(i);
+			TSLPointer pointer = result.getPointers().get(i);
+			assertEquals(expectedPointer.getUrl(), pointer.getUrl());
+			assertEquals(expectedPointer.getTerritory(), pointer.getTerritory());
+			assertEquals(expectedPointer.getMimeType(), pointer.getMimeType());
+			assertEquals(expectedPointer.getPotentialSigners(), pointer.getPotentialSigners());
+		}
+
+		assertEquals(expected.getServiceProviders().size(), result.getServiceProviders().size());
+		for (int i = 0; i < expected.getServiceProviders().size(); i++) {
+			TSLServiceProvider expectedProvider = expected.getServiceProviders().get(i);
+			TSLServiceProvider provider = result.getServiceProviders().get(i);
+			assertEquals(expectedProvider.getName(), provider.getName());
+			assertEquals(expectedProvider.getTradeName(), provider.getTradeName());
+			assertEquals(expectedProvider.getPostalAddress(), provider.getPostalAddress());
+			assertEquals(expectedProvider.getElectronicAddress(), provider.getElectronicAddress());
+
+			assertEquals(expectedProvider.getServices().size(), provider.getServices().size());
+			for (int j = 0; j < expectedProvider.getServices().size(); j++) {
+				assertSameService(expectedProvider.getServices().get(j), provider.getServices().get(j));
+			}
+		}
+	}
+
+	private void assertSameService(TSLService expected, TSLService service) {
+		assertEquals(expected.getName(), service.getName());
+		assertEquals(expected.getType(), service.getType());
+		assertEquals(expected.getStatus(), service.getStatus());
+		assertEquals(expected.getStartDate(), service.getStartDate());
+		assertEquals(expected.getEndDate(), service.getEndDate());
+		assertEquals(expected.getCertificateUrls(), service.getCertificateUrls());
+		assertEquals(expected.getCertificates(), service.getCertificates());
+		assertEquals(expected.getX500Principals(), service.getX500Principals());
+
+		List<TSLServiceExtension> expectedExtensions = expected.getExtensions();
+		List<TSLServiceExtension> extensions = service.getExtensions();
+		if (expectedExtensions == null) {
+			assertNull(extensions);
+			return;
+		}
+		assertEquals(expectedExtensions.size(), extensions.size());
+		for (int i = 0; i < expectedExtensions.size(); i++) {
+			TSLServiceExtension expectedExtension = expectedExtensions.get(i);
+			TSLServiceExtension extension = extensions.get(i);
+			assertEquals(expectedExtension.isCritical(), extension.isCritical());
+			assertEquals(expectedExtension.getConditionsForQualifiers().size(), extension.getConditionsForQualifiers().size());
+			for (int j = 0; j < expectedExtension.getConditionsForQualifiers().size(); j++) {
+				TSLConditionsForQualifiers expectedConditions = expectedExtension.getConditionsForQualifiers().get(j);
+				TSLConditionsForQualifiers conditions = extension.getConditionsForQualifiers().get(j);
+				assertEquals(expectedConditions.getQualifiers(), conditions.getQualifiers());
+				assertEquals(expectedConditions.getCondition().toString(), conditions.getCondition().toString());
+			}
+		}
+	}
+
+}
@@ -4,22 +4,32 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.DatatypeConverter;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.client.http.commons.CommonsDataLoader;
 import eu.europa.esig.dss.tsl.TSLParserResult;
 import eu.europa.esig.dss.tsl.TSLService;
 import eu.europa.esig.dss.tsl.TSLServiceProvider;
 import eu.europa.esig.dss.tsl.TSLValidationModel;
+import eu.europa.esig.dss.tsl.TSLValidationResult;
 import eu.europa.esig.dss.tsl.TrustedListsCertificateSource;
+import eu.europa.esig.dss.validation.policy.rules.Indication;
 import eu.europa.esig.dss.x509.KeyStoreCertificateSource;
 
 public class TSLValidationJobTest {
@@ -123,4 +133,44 @@ public class TSLValidationJobTest {
 		logger.info("***************** Second load *****************");
 		job.refresh();
 	}
+
+	@Test
+	public void snapshotValidationOfLOTLIsNotTrusted() throws Exception {
+		File cacheDirectory = new File("target/tsl-cache-snapshot");
+		FileUtils.deleteQuietly(cacheDirectory);
+		cacheDirectory.mkdirs();
+
+		// a modified LOTL with a VALID result stored in the snapshot
+		String content = FileUtils.readFileToString(new File("src/test/resources/LOTL.xml"), "UTF-8");
+		byte[] modifiedLOTL = content.replace("<TSLSequenceNumber>115<", "<TSLSequenceNumber>116<").getBytes("UTF-8");
+		FileUtils.writeByteArrayToFile(new File(cacheDirectory, "EU.xml"), modifiedLOTL);
+
+		TSLValidationResult validationResult = new TSLValidationResult();
+		validationResult.setCountryCode("EU");
+		validationResult.setIndication(Indication.VALID);
+		TSLValidationModel model = new TSLValidationModel();
+		model.setSha256FileContent(DatatypeConverter.printBase64Binary(DSSUtils.digest(DigestAlgorithm.SHA256, modifiedLOTL)));
+		model.setParseResult(new TSLParser(new ByteArrayInputStream(modifiedLOTL)).call());
+		model.setValidationResult(validationResult);
+		Map<String, TSLValidationModel> models = new HashMap<String, TSLValidationModel>();
+		models.put("EU", model);
+		TSLRepositorySnapshot.write(new File(cacheDirectory, "snapshot.bin"), models);
+
+		TSLRepository repository = new TSLRepository();
+		repository.setCacheDirectoryPath(cacheDirectory.getAbsolutePath() + File.separator);
+		repository.setTrustedListsCertificateSource(new TrustedListsCertificateSource());
+
+		TSLValidationJob job = new TSLValidationJob();
+		job.setCheckLOTLSignature(true);
+		job.setCheckTSLSignatures(false);
+		job.setLotlCode("EU");
+		job.setDssKeyStore(dssKeyStore);
+		job.setRepository(repository);
+		job.initRepository();
+
+		TSLValidationModel lotl = repository.getByCountry("EU");
+		assertNotNull(lotl);
+		assertTrue(lotl.getValidationResult().isInvalid());
+	}
+
 }
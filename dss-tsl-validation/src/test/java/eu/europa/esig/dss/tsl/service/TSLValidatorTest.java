@@ -0,0 +1,64 @@
+package eu.europa.esig.dss.tsl.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.europa.esig.dss.tsl.TSLParserResult;
+import eu.europa.esig.dss.tsl.TSLPointer;
+import eu.europa.esig.dss.tsl.TSLValidationResult;
+import eu.europa.esig.dss.validation.policy.rules.SubIndication;
+import eu.europa.esig.dss.x509.CertificateToken;
+
+public class TSLValidatorTest {
+
+	private static final File LOTL = new File("src/test/resources/LOTL.xml");
+
+	private List<CertificateToken> lotlSigners;
+
+	@Before
+	public void init() throws Exception {
+		TSLParserResult lotl = new TSLStreamParser(new FileInputStream(LOTL)).call();
+		for (TSLPointer pointer : lotl.getPointers()) {
+			if ("EU".equals(pointer.getTerritory())) {
+				lotlSigners = pointer.getPotentialSigners();
+			}
+		}
+		assertNotNull(lotlSigners);
+	}
+
+	@Test
+	public void validLOTL() throws Exception {
+		TSLValidationResult result = new TSLValidator(LOTL, "EU", null, lotlSigners).call();
+		assertEquals("EU", result.getCountryCode());
+		assertTrue(result.isValid());
+	}
+
+	@Test
+	public void untrustedSigner() throws Exception {
+		TSLValidationResult result = new TSLValidator(LOTL, "EU", null, new ArrayList<CertificateToken>()).call();
+		assertTrue(result.isIndeterminate());
+		assertEquals(SubIndication.NO_CERTIFICATE_CHAIN_FOUND, result.getSubIndication());
+	}
+
+	@Test
+	public void modifiedLOTL() throws Exception {
+		String content = FileUtils.readFileToString(LOTL, "UTF-8");
+		File modified = new File("target/LOTL-modified.xml");
+		FileUtils.writeStringToFile(modified, content.replace("<TSLSequenceNumber>115<", "<TSLSequenceNumber>116<"), "UTF-8");
+
+		TSLValidationResult result = new TSLValidator(modified, "EU", null, lotlSigners).call();
+		assertTrue(result.isInvalid());
+		assertEquals(SubIndication.HASH_FAILURE, result.getSubIndication());
+	}
+
+}
@@ -43,6 +43,7 @@ import eu.europa.esig.dss.SignatureLevel;
 import eu.europa.esig.dss.SignaturePackaging;
 import eu.europa.esig.dss.SignatureValue;
 import eu.europa.esig.dss.SignerLocation;
+import eu.europa.esig.dss.TemporaryFileDocument;
 import eu.europa.esig.dss.ToBeSigned;
 import eu.europa.esig.dss.asic.ASiCSignatureParameters;
 import eu.europa.esig.dss.cades.CAdESSignatureParameters;
@@ -338,6 +339,7 @@ public class SignatureServiceImpl implements SignatureService {
 	@Override
 	public WSDocument signDocument(final WSDocument wsDocument, final WSParameters wsParameters, final byte[] signatureValue) throws DSSException {
 		String exceptionMessage;
+		DSSDocument signatureDssDocument = null;
 		try {
 			if (LOG.isInfoEnabled()) {
 				LOG.info("WsSignDocument: begin");
@@ -348,7 +350,7 @@ public class SignatureServiceImpl implements SignatureService {
 
 			SignatureValue value = new SignatureValue();
 			value.setValue(signatureValue);
-			final DSSDocument signatureDssDocument = service.signDocument(dssDocument, params, value);
+			signatureDssDocument = service.signDocument(dssDocument, params, value);
 
 			WSDocument SignatureWsDocument = new WSDocument(signatureDssDocument);
 			if (LOG.isInfoEnabled()) {
@@ -359,12 +361,15 @@ public class SignatureServiceImpl implements SignatureService {
 			exceptionMessage = e.getMessage();
 			LOG.error("WsSignDocument: ended with exception", e);
 			throw new DSSException(exceptionMessage);
+		} finally {
+			deleteTemporaryFile(signatureDssDocument);
 		}
 	}
 
 	@Override
 	public WSDocument extendSignature(final WSDocument wsDocument, final WSParameters wsParameters) throws DSSException {
 		String exceptionMessage;
+		DSSDocument signatureDssDocument = null;
 		try {
 			if (LOG.isInfoEnabled()) {
 				LOG.info("WsExtendSignature: begin");
@@ -372,7 +377,7 @@ public class SignatureServiceImpl implements SignatureService {
 			final AbstractSignatureParameters params = createParameters(wsParameters);
 			final DSSDocument dssDocument = DSSWSUtils.createDssDocument(wsDocument);
 			final DocumentSignatureService service = getServiceForSignatureLevel(params.getSignatureLevel());
-			final DSSDocument signatureDssDocument = service.extendDocument(dssDocument, params);
+			signatureDssDocument = service.extendDocument(dssDocument, params);
 			final WSDocument signatureWsDocument = new WSDocument(signatureDssDocument);
 			if (LOG.isInfoEnabled()) {
 				LOG.info("WsExtendSignature: end");
@@ -382,6 +387,18 @@ public class SignatureServiceImpl implements SignatureService {
 			exceptionMessage = e.getMessage();
 			LOG.error("WsExtendSignature: end with exception", e);
 			throw new DSSException(exceptionMessage);
+		} finally {
+			deleteTemporaryFile(signatureDssDocument);
+		}
+	}
+
+	/**
+	 * The signed or extended ASiC containers are stored in temporary files : the bytes are copied into the {@code WSDocument}, the
+	 * temporary file is deleted.
+	 */
+	private void deleteTemporaryFile(final DSSDocument document) {
+		if (document instanceof TemporaryFileDocument) {
+			((TemporaryFileDocument) document).delete();
 		}
 	}
 }
\ No newline at end of file
@@ -21,7 +21,6 @@
 package eu.europa.esig.dss.xades.signature;
 
 import eu.europa.esig.dss.DSSException;
-import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.TimestampParameters;
 import eu.europa.esig.dss.validation.CertificateVerifier;
@@ -58,9 +57,8 @@ public class XAdESLevelA extends XAdESLevelXL {
 
 		final TimestampParameters archiveTimestampParameters = params.getArchiveTimestampParameters();
 		final String canonicalizationMethod = archiveTimestampParameters.getCanonicalizationMethod();
-		final byte[] data = xadesSignature.getArchiveTimestampData(null, canonicalizationMethod);
 		final DigestAlgorithm timestampDigestAlgorithm = archiveTimestampParameters.getDigestAlgorithm();
-		final byte[] digestBytes = DSSUtils.digest(timestampDigestAlgorithm, data);
+		final byte[] digestBytes = xadesSignature.getArchiveTimestampDigest(timestampDigestAlgorithm, null, canonicalizationMethod);
 		createXAdESTimeStampType(TimestampType.ARCHIVE_TIMESTAMP, canonicalizationMethod, digestBytes);
 	}
 }
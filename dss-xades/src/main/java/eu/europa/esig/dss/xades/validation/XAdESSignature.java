@@ -27,8 +27,11 @@ import static eu.europa.esig.dss.XPathQueryHolder.XMLE_SIG_AND_REFS_TIME_STAMP;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.math.BigInteger;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -45,15 +48,17 @@ import javax.xml.transform.stream.StreamSource;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.xml.security.Init;
 import org.apache.xml.security.algorithms.JCEMapper;
+import org.apache.xml.security.c14n.CanonicalizationException;
 import org.apache.xml.security.keys.KeyInfo;
 import org.apache.xml.security.keys.keyresolver.KeyResolverException;
 import org.apache.xml.security.signature.Reference;
-import org.apache.xml.security.signature.ReferenceNotInitializedException;
 import org.apache.xml.security.signature.SignedInfo;
 import org.apache.xml.security.signature.XMLSignature;
 import org.apache.xml.security.signature.XMLSignatureException;
+import org.apache.xml.security.signature.XMLSignatureInput;
 import org.bouncycastle.asn1.ASN1InputStream;
 import org.bouncycastle.asn1.ASN1Integer;
 import org.bouncycastle.asn1.ASN1Sequence;
@@ -145,6 +150,12 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 	 */
 	private transient List<Reference> references = new ArrayList<Reference>();
 
+	/**
+	 * This map contains, per digest algorithm, the state of the digest after the referenced data. This data is the first part of all archive
+	 * timestamps: it is digested only once.
+	 */
+	private transient Map<DigestAlgorithm, MessageDigest> referencesDigests = new HashMap<DigestAlgorithm, MessageDigest>();
+
 	/**
 	 * This list represents all digest algorithms used to calculate the digest values of certificates.
 	 */
@@ -487,7 +498,7 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 				 * continue with step 2. If the last element is reached without finding any match, the validation of this property shall be taken as
 				 * failed and INVALID/FORMAT_FAILURE is returned.
 				 */
-				final byte[] digest = DSSUtils.digest(digestAlgorithm, certificateToken.getEncoded());
+				final byte[] digest = certificateToken.getDigest(digestAlgorithm);
 				final byte[] recalculatedBase64DigestValue = Base64.encodeBase64(digest);
 				certificateValidity.setDigestEqual(false);
 				BigInteger serialNumber = new BigInteger("0");
@@ -982,6 +993,13 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 	 */
 	public byte[] getIndividualDataObjectsTimestampData(final TimestampToken timestampToken) {
 
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		writeIndividualDataObjectsTimestampData(timestampToken, outputStream);
+		return outputStream.toByteArray();
+	}
+
+	private void writeIndividualDataObjectsTimestampData(final TimestampToken timestampToken, final OutputStream outputStream) {
+
 		// TODO: check whether a warning would be more appropriate
 		if (!checkTimestampTokenIncludes(timestampToken)) {
 			throw new DSSException("The Included referencedData attribute is either not present or set to false!");
@@ -1008,8 +1026,6 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		// get include elements from signature
 		List<TimestampInclude> includes = timestampToken.getTimestampIncludes();
 
-		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
 		for (TimestampInclude include : includes) {
 			// retrieve reference element
 			// -> go through references and check for one whose URI matches the
@@ -1018,21 +1034,10 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 				String id = include.getURI();
 
 				if (reference.getId().equals(id)) {
-					try {
-						final byte[] referencedBytes = reference.getReferencedBytes();
-						outputStream.write(referencedBytes);
-					} catch (IOException e) {
-						throw new DSSException(e);
-					} catch (ReferenceNotInitializedException e) {
-						throw new DSSException(e);
-					} catch (XMLSignatureException e) {
-						throw new DSSException(e);
-					}
+					writeReferencedContent(reference, outputStream);
 				}
 			}
 		}
-		byte[] octetStream = outputStream.toByteArray();
-		return octetStream;
 	}
 
 	/**
@@ -1045,6 +1050,21 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 	 */
 	public byte[] getAllDataObjectsTimestampData(final TimestampToken timestampToken) {
 
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		writeAllDataObjectsTimestampData(timestampToken, outputStream);
+		// compute digest of resulting octet stream using algorithm indicated in
+		// the time-stamp token
+		// -> digest is computed in TimestampToken verification/match
+		// return the computed digest
+		byte[] toTimestampBytes = outputStream.toByteArray();
+		if (LOG.isTraceEnabled()) {
+			LOG.trace("AllDataObjectsTimestampData bytes: " + new String(toTimestampBytes));
+		}
+		return toTimestampBytes;
+	}
+
+	private void writeAllDataObjectsTimestampData(final TimestampToken timestampToken, final OutputStream outputStream) {
+
 		// TODO: check whether a warning would be more appropriate
 		if (!checkTimestampTokenIncludes(timestampToken)) {
 			throw new DSSException("The Included referencedData attribute is either not present or set to false!");
@@ -1052,7 +1072,6 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		if (references.size() == 0) {
 			throw new DSSException("The method 'checkSignatureIntegrity' must be invoked first!");
 		}
-		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 		for (final Reference reference : references) {
 
 			// Take, the first ds:Reference element within ds:SignedInfo if and
@@ -1060,28 +1079,52 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 			// have the value "http://uri.etsi.org/01903#SignedProperties".
 			if (!xPathQueryHolder.XADES_SIGNED_PROPERTIES.equals(reference.getType())) {
 
-				try {
-
-					final byte[] referencedBytes = reference.getReferencedBytes();
-					outputStream.write(referencedBytes);
-				} catch (IOException e) {
-					throw new DSSException(e);
-				} catch (ReferenceNotInitializedException e) {
-					throw new DSSException(e);
-				} catch (XMLSignatureException e) {
-					throw new DSSException(e);
-				}
+				writeReferencedContent(reference, outputStream);
 			}
 		}
-		// compute digest of resulting octet stream using algorithm indicated in
-		// the time-stamp token
-		// -> digest is computed in TimestampToken verification/match
-		// return the computed digest
-		byte[] toTimestampBytes = outputStream.toByteArray();
-		if (LOG.isTraceEnabled()) {
-			LOG.trace("AllDataObjectsTimestampData bytes: " + new String(toTimestampBytes));
+	}
+
+	@Override
+	protected void matchContentTimestampData(final TimestampToken timestampToken) {
+
+		final MessageDigest messageDigest = DSSUtils.getMessageDigest(timestampToken.getSignedDataDigestAlgo());
+		final OutputStream digestOutputStream = new DigestOutputStream(new NullOutputStream(), messageDigest);
+		switch (timestampToken.getTimeStampType()) {
+			case INDIVIDUAL_DATA_OBJECTS_TIMESTAMP:
+				writeIndividualDataObjectsTimestampData(timestampToken, digestOutputStream);
+				break;
+			case ALL_DATA_OBJECTS_TIMESTAMP:
+				writeAllDataObjectsTimestampData(timestampToken, digestOutputStream);
+				break;
+			default:
+				super.matchContentTimestampData(timestampToken);
+				return;
+		}
+		timestampToken.matchDigest(messageDigest.digest());
+	}
+
+	/**
+	 * This method writes the data referenced by a {@code Reference}, after transformation, to the given stream. Contrary to
+	 * {@code Reference#getReferencedBytes()}, the octets of a detached document are copied from its stream without being loaded in memory.
+	 *
+	 * @param reference
+	 *            the {@code Reference} to dereference
+	 * @param outputStream
+	 *            the stream to write to
+	 */
+	private void writeReferencedContent(final Reference reference, final OutputStream outputStream) {
+
+		try {
+
+			final XMLSignatureInput referencedContent = reference.getContentsAfterTransformation();
+			referencedContent.updateOutputStream(outputStream);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} catch (CanonicalizationException e) {
+			throw new DSSException(e);
+		} catch (XMLSignatureException e) {
+			throw new DSSException(e);
 		}
-		return toTimestampBytes;
 	}
 
 	private List<TimestampReference> getSignatureTimestampedReferences() {
@@ -1703,6 +1746,93 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("--->Get archive timestamp data:" + (timestampToken == null ? "--> CREATION" : "--> VALIDATION"));
 		}
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		writeReferencesData(buffer);
+		writeArchiveTimestampData(timestampToken, canonicalizationMethod, buffer);
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Computes the digest of the data to be used to calculate the hash value sent to the TSA (messageImprint), without gathering this data in
+	 * memory. The digest of the referenced data is computed only once per digest algorithm for all archive timestamps of the signature.
+	 *
+	 * @param digestAlgorithm
+	 *            the {@code DigestAlgorithm} of the messageImprint
+	 * @param timestampToken
+	 *            {@code TimestampToken} to validate, or {@code null} when adding a new archive timestamp
+	 * @param canonicalizationMethod
+	 * @return the digest of the canonicalized and concatenated timestamped data
+	 */
+	public byte[] getArchiveTimestampDigest(final DigestAlgorithm digestAlgorithm, final TimestampToken timestampToken, final String canonicalizationMethod) {
+
+		final MessageDigest messageDigest = getReferencesDigest(digestAlgorithm);
+		writeArchiveTimestampData(timestampToken, canonicalizationMethod, new DigestOutputStream(new NullOutputStream(), messageDigest));
+		return messageDigest.digest();
+	}
+
+	@Override
+	protected void matchArchiveTimestampData(final TimestampToken timestampToken) {
+
+		final byte[] digest = getArchiveTimestampDigest(timestampToken.getSignedDataDigestAlgo(), timestampToken, null);
+		timestampToken.matchDigest(digest);
+	}
+
+	/**
+	 * @param digestAlgorithm
+	 *            the {@code DigestAlgorithm} to use
+	 * @return a new {@code MessageDigest} already updated with the referenced data
+	 */
+	private MessageDigest getReferencesDigest(final DigestAlgorithm digestAlgorithm) {
+
+		MessageDigest referencesDigest = referencesDigests.get(digestAlgorithm);
+		if (referencesDigest == null) {
+
+			referencesDigest = DSSUtils.getMessageDigest(digestAlgorithm);
+			writeReferencesData(new DigestOutputStream(new NullOutputStream(), referencesDigest));
+			if (references.isEmpty()) {
+				// checkSignatureIntegrity was not invoked yet
+				return referencesDigest;
+			}
+			referencesDigests.put(digestAlgorithm, referencesDigest);
+		}
+		try {
+			return (MessageDigest) referencesDigest.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	/**
+	 * 2) Take all the ds:Reference elements in their order of appearance within ds:SignedInfo referencing whatever the signer wants to sign
+	 * including the SignedProperties element. Process each one as indicated below:<br>
+	 * - Process the retrieved ds:Reference element according to the reference processing model of XMLDSIG.<br>
+	 * - If the result is a XML node set, canonicalize it. If ds:Canonicalization is present, the algorithm indicated by this element is used.
+	 * If not, the standard canonicalization method specified by XMLDSIG is used.<br>
+	 * - Concatenate the resulting octets to the final octet stream.
+	 *
+	 * The references are already calculated {@see #checkSignatureIntegrity()}
+	 *
+	 * @param outputStream
+	 *            the stream to write to
+	 */
+	private void writeReferencesData(final OutputStream outputStream) {
+
+		for (final Reference reference : references) {
+			writeReferencedContent(reference, outputStream);
+		}
+	}
+
+	/**
+	 * Writes the archive timestamp data which follows the referenced data (steps 3 to 5).
+	 *
+	 * @param timestampToken
+	 *            {@code TimestampToken} to validate, or {@code null} when adding a new archive timestamp
+	 * @param canonicalizationMethod
+	 * @param buffer
+	 *            the stream to write to
+	 */
+	private void writeArchiveTimestampData(final TimestampToken timestampToken, String canonicalizationMethod, final OutputStream buffer) {
+
 		canonicalizationMethod = timestampToken != null ? timestampToken.getCanonicalizationMethod() : canonicalizationMethod;
 		/**
 		 * 8.2.1 Not distributed case<br>
@@ -1715,36 +1845,16 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 
 			/**
 			 * 1) Initialize the final octet stream as an empty octet stream.
-			 */
-			final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-
-			/**
-			 * 2) Take all the ds:Reference elements in their order of appearance within ds:SignedInfo referencing whatever the signer wants to sign
-			 * including the SignedProperties element. Process each one as indicated below:<br>
-			 * - Process the retrieved ds:Reference element according to the reference processing model of XMLDSIG.<br>
-			 * - If the result is a XML node set, canonicalize it. If ds:Canonicalization is present, the algorithm indicated by this element is used.
-			 * If not, the standard canonicalization method specified by XMLDSIG is used.<br>
-			 * - Concatenate the resulting octets to the final octet stream.
-			 */
-
-			/**
-			 * The references are already calculated {@see #checkSignatureIntegrity()}
+			 * 2) The referenced data is already written {@see #writeReferencesData(OutputStream)}
 			 */
 			final Set<String> referenceURIs = new HashSet<String>();
 			for (final Reference reference : references) {
 
-				try {
-
-					String uri = reference.getURI();
-					if (uri.startsWith("#")) {
-						uri = uri.substring(1);
-					}
-					referenceURIs.add(uri);
-					final byte[] bytes = reference.getReferencedBytes();
-					DSSUtils.write(bytes, buffer);
-				} catch (XMLSignatureException e) {
-					throw new DSSException(e);
+				String uri = reference.getURI();
+				if (uri.startsWith("#")) {
+					uri = uri.substring(1);
 				}
+				referenceURIs.add(uri);
 			}
 			/**
 			 * 3) Take the following XMLDSIG elements in the order they are listed below, canonicalize each one and concatenate each resulting octet
@@ -1878,14 +1988,12 @@ public class XAdESSignature extends DefaultAdvancedSignature {
 				byte[] canonicalizedValue = DSSXMLUtils.canonicalizeSubtree(canonicalizationMethod, node);
 				buffer.write(canonicalizedValue);
 			}
-			final byte[] bytes = buffer.toByteArray();
-			return bytes;
 		} catch (IOException e) {
 			throw new DSSException("Error when computing the archive data", e);
 		}
 	}
 
-	private void writeCanonicalizedValue(final String xPathString, final String canonicalizationMethod, final ByteArrayOutputStream buffer)
+	private void writeCanonicalizedValue(final String xPathString, final String canonicalizationMethod, final OutputStream buffer)
 			throws IOException {
 
 		final Element element = DSSXMLUtils.getElement(signatureElement, xPathString);
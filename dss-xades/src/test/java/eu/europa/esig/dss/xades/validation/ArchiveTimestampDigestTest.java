@@ -0,0 +1,63 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.validation.AdvancedSignature;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.TimestampToken;
+
+public class ArchiveTimestampDigestTest {
+
+	@Test
+	public void digestMatchesArchiveTimestampData() {
+		DSSDocument doc = new FileDocument("src/test/resources/plugtest/esig2014/ESIG-XAdES/ES/Signature-X-ES-90.xml");
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(doc);
+		validator.setCertificateVerifier(new CommonCertificateVerifier());
+
+		List<AdvancedSignature> signatures = validator.getSignatures();
+		assertFalse(signatures.isEmpty());
+		XAdESSignature signature = (XAdESSignature) signatures.get(0);
+		signature.checkSignatureIntegrity();
+
+		List<TimestampToken> archiveTimestamps = signature.getArchiveTimestamps();
+		assertFalse(archiveTimestamps.isEmpty());
+		for (TimestampToken timestampToken : archiveTimestamps) {
+			DigestAlgorithm digestAlgorithm = timestampToken.getSignedDataDigestAlgo();
+			byte[] expectedDigest = DSSUtils.digest(digestAlgorithm, signature.getArchiveTimestampData(timestampToken, null));
+			assertArrayEquals(expectedDigest, signature.getArchiveTimestampDigest(digestAlgorithm, timestampToken, null));
+			// second computation reuses the digest of the referenced data
+			assertArrayEquals(expectedDigest, signature.getArchiveTimestampDigest(digestAlgorithm, timestampToken, null));
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.xades.validation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.report.DiagnosticData;
+
+public class ConcurrentValidationContextTest {
+
+	@Test
+	public void sameResultWithExecutor() {
+		DSSDocument doc = new FileDocument("src/test/resources/validation/valid-xades.xml");
+
+		DiagnosticData sequential = validate(doc, new CommonCertificateVerifier(true));
+
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		try {
+			CommonCertificateVerifier certificateVerifier = new CommonCertificateVerifier(true);
+			certificateVerifier.setExecutorService(executorService);
+			certificateVerifier.setValidationTimeout(60000);
+			DiagnosticData concurrent = validate(doc, certificateVerifier);
+
+			String signatureId = sequential.getFirstSignatureId();
+			assertEquals(signatureId, concurrent.getFirstSignatureId());
+			assertEquals(sequential.getSignatureCertificateChain(signatureId), concurrent.getSignatureCertificateChain(signatureId));
+			assertEquals(sequential.isBLevelTechnicallyValid(signatureId), concurrent.isBLevelTechnicallyValid(signatureId));
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	private DiagnosticData validate(DSSDocument doc, CommonCertificateVerifier certificateVerifier) {
+		SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(doc);
+		validator.setCertificateVerifier(certificateVerifier);
+		return validator.validateDocument().getDiagnosticData();
+	}
+
+}
@@ -21,16 +21,15 @@
 package eu.europa.esig.dss.validation.policy;
 
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.w3c.dom.Document;
 
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
-import eu.europa.esig.dss.XmlDom;
 import eu.europa.esig.dss.validation.policy.rules.AttributeName;
 
 /**
@@ -49,7 +48,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	private Long maxRevocationFreshness;
 
 	private Long timestampDelayTime;
-	private Map<String, Date> algorithmExpirationDate = new HashMap<String, Date>();
+	private Map<String, Date> algorithmExpirationDate = new ConcurrentHashMap<String, Date>();
 
 	public EtsiValidationPolicy(Document document) {
 
@@ -59,11 +58,11 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public boolean isRevocationFreshnessToBeChecked() {
 
-		return null != getElement("/ConstraintsParameters/Revocation/RevocationFreshness/");
+		return exists("/ConstraintsParameters/Revocation/RevocationFreshness/");
 	}
 
 	@Override
-	public String getFormatedMaxRevocationFreshness() {
+	public synchronized String getFormatedMaxRevocationFreshness() {
 
 		if (maxRevocationFreshness == null) {
 
@@ -73,14 +72,13 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	}
 
 	@Override
-	public Long getMaxRevocationFreshness() {
+	public synchronized Long getMaxRevocationFreshness() {
 
 		if (maxRevocationFreshness == null) {
 
 			maxRevocationFreshness = Long.MAX_VALUE;
 
-			final XmlDom revocationFreshness = getElement("/ConstraintsParameters/Revocation/RevocationFreshness");
-			if (revocationFreshness != null) {
+			if (exists("/ConstraintsParameters/Revocation/RevocationFreshness")) {
 
 				maxRevocationFreshnessString = getLongValue("/ConstraintsParameters/Revocation/RevocationFreshness/text()");
 				maxRevocationFreshnessUnit = getValue("/ConstraintsParameters/Revocation/RevocationFreshness/@Unit");
@@ -100,18 +98,17 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 		Date date = algorithmExpirationDate.get(algorithm);
 		if (date == null) {
 
-			final XmlDom algoExpirationDateDom = getElement("/ConstraintsParameters/Timestamp/Cryptographic/AlgoExpirationDate");
-			if (algoExpirationDateDom == null) {
+			if (!exists("/ConstraintsParameters/Timestamp/Cryptographic/AlgoExpirationDate")) {
 
 				return null;
 			}
-			String expirationDateFormat = algoExpirationDateDom.getValue("./@Format");
+			String expirationDateFormat = getValue("/ConstraintsParameters/Timestamp/Cryptographic/AlgoExpirationDate/@Format");
 			if (expirationDateFormat.isEmpty()) {
 
 				expirationDateFormat = "yyyy-MM-dd";
 			}
 
-			final String expirationDateString = algoExpirationDateDom.getValue("./Algo[@Name='%s']/text()", algorithm);
+			final String expirationDateString = getValue("/ConstraintsParameters/Timestamp/Cryptographic/AlgoExpirationDate/Algo[@Name='%s']/text()", algorithm);
 			if (expirationDateString.isEmpty()) {
 
 				throw new DSSException(String.format("The the expiration date is not defined for '%s' algorithm!", algorithm));
@@ -130,8 +127,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 
 			final SignaturePolicyConstraint constraint = new SignaturePolicyConstraint(level);
 
-			final List<XmlDom> policyList = getElements("/ConstraintsParameters/MainSignature/AcceptablePolicies/Id");
-			final List<String> identifierList = XmlDom.convertToStringList(policyList);
+			final List<String> identifierList = getValues("/ConstraintsParameters/MainSignature/AcceptablePolicies/Id");
 			constraint.setIdentifiers(identifierList);
 			constraint.setExpectedValue(identifierList.toString());
 			return constraint;
@@ -182,8 +178,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 		if (StringUtils.isNotBlank(level)) {
 
 			final Constraint constraint = new Constraint(level);
-			final List<XmlDom> commitmentTypeIndications = getElements("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CommitmentTypeIndication/Identifier");
-			final List<String> identifierList = XmlDom.convertToStringList(commitmentTypeIndications);
+			final List<String> identifierList = getValues("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CommitmentTypeIndication/Identifier");
 			constraint.setExpectedValue(identifierList.toString());
 			constraint.setIdentifiers(identifierList);
 			return constraint;
@@ -222,8 +217,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 		if (StringUtils.isNotBlank(level)) {
 
 			final Constraint constraint = new Constraint(level);
-			final List<XmlDom> claimedRoles = getElements("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/Role");
-			final List<String> claimedRoleList = XmlDom.convertToStringList(claimedRoles);
+			final List<String> claimedRoleList = getValues("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/Role");
 			constraint.setExpectedValue(claimedRoleList.toString());
 			constraint.setIdentifiers(claimedRoleList);
 			return constraint;
@@ -234,8 +228,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public List<String> getClaimedRoles() {
 
-		final List<XmlDom> list = getElements("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/Role");
-		final List<String> claimedRoles = XmlDom.convertToStringList(list);
+		final List<String> claimedRoles = getValues("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/ClaimedRoles/Role");
 		return claimedRoles;
 	}
 
@@ -249,8 +242,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	@Override
 	public List<String> getCertifiedRoles() {
 
-		final List<XmlDom> list = getElements("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CertifiedRoles/Role");
-		final List<String> claimedRoles = XmlDom.convertToStringList(list);
+		final List<String> claimedRoles = getValues("/ConstraintsParameters/MainSignature/MandatedSignedQProperties/CertifiedRoles/Role");
 		return claimedRoles;
 	}
 
@@ -269,12 +261,11 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 	}
 
 	@Override
-	public Long getTimestampDelayTime() {
+	public synchronized Long getTimestampDelayTime() {
 
 		if (timestampDelayTime == null) {
 
-			final XmlDom timestampDelayPresent = getElement("/ConstraintsParameters/Timestamp/TimestampDelay");
-			if (timestampDelayPresent == null) {
+			if (!exists("/ConstraintsParameters/Timestamp/TimestampDelay")) {
 
 				return null;
 			}
@@ -314,20 +305,16 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 
 			final SignatureCryptographicConstraint constraint = new SignatureCryptographicConstraint(level, context, subContext);
 
-			final List<XmlDom> encryptionAlgoList = getElements(rootXPathQuery + "/AcceptableEncryptionAlgo/Algo");
-			final List<String> encryptionAlgoStringList = XmlDom.convertToStringList(encryptionAlgoList);
+			final List<String> encryptionAlgoStringList = getValues(rootXPathQuery + "/AcceptableEncryptionAlgo/Algo");
 			constraint.setEncryptionAlgorithms(encryptionAlgoStringList);
 
-			final List<XmlDom> digestAlgoList = getElements(rootXPathQuery + "/AcceptableDigestAlgo/Algo");
-			final List<String> digestAlgoStringList = XmlDom.convertToStringList(digestAlgoList);
+			final List<String> digestAlgoStringList = getValues(rootXPathQuery + "/AcceptableDigestAlgo/Algo");
 			constraint.setDigestAlgorithms(digestAlgoStringList);
 
-			final List<XmlDom> miniPublicKeySizeList = getElements(rootXPathQuery + "/MiniPublicKeySize/Algo");
-			final Map<String, String> miniPublicKeySizeStringMap = XmlDom.convertToStringMap(miniPublicKeySizeList, AttributeName.SIZE);
+			final Map<String, String> miniPublicKeySizeStringMap = getValueMap(rootXPathQuery + "/MiniPublicKeySize/Algo", AttributeName.SIZE);
 			constraint.setMinimumPublicKeySizes(miniPublicKeySizeStringMap);
 
-			final List<XmlDom> algoExpirationDateList = getElements("/ConstraintsParameters/Cryptographic/AlgoExpirationDate/Algo");
-			final Map<String, Date> algoExpirationDateStringMap = XmlDom.convertToStringDateMap(algoExpirationDateList, AttributeName.DATE);
+			final Map<String, Date> algoExpirationDateStringMap = getDateMap("/ConstraintsParameters/Cryptographic/AlgoExpirationDate/Algo", AttributeName.DATE);
 			constraint.setAlgorithmExpirationDates(algoExpirationDateStringMap);
 
 			return constraint;
@@ -342,8 +329,7 @@ public class EtsiValidationPolicy extends ValidationPolicy {
 		if (StringUtils.isNotBlank(level)) {
 
 			final Constraint constraint = new Constraint(level);
-			final List<XmlDom> keyUsages = getElements("/ConstraintsParameters/%s/SigningCertificate/KeyUsage/Identifier", context);
-			final List<String> identifierList = XmlDom.convertToStringList(keyUsages);
+			final List<String> identifierList = getValues("/ConstraintsParameters/%s/SigningCertificate/KeyUsage/Identifier", context);
 			constraint.setExpectedValue(identifierList.toString());
 			constraint.setIdentifiers(identifierList);
 			return constraint;
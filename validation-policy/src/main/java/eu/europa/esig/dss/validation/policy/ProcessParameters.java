@@ -21,6 +21,8 @@
 package eu.europa.esig.dss.validation.policy;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.XmlDom;
@@ -126,6 +128,11 @@ public class ProcessParameters {
 
 	private XmlDom certPool;
 
+	/**
+	 * The certificates of the {@code certPool} indexed by their SD-DSS identifier, built on the first lookup.
+	 */
+	private Map<String, XmlDom> certificatesById;
+
 	private POEExtraction poe;
 
 	/**
@@ -403,6 +410,7 @@ public class ProcessParameters {
 
 	public void setCertPool(final XmlDom certPool) {
 		this.certPool = certPool;
+		this.certificatesById = null;
 	}
 
 	/**
@@ -422,7 +430,22 @@ public class ProcessParameters {
 
 	public XmlDom getCertificate(final String id) {
 
-		return certPool == null ? certPool : certPool.getElement("./Certificate[@Id='%s']", id);
+		if (certPool == null) {
+			return null;
+		}
+		if (certificatesById == null) {
+
+			final Map<String, XmlDom> index = new HashMap<String, XmlDom>();
+			for (final XmlDom certificate : certPool.getElements("./Certificate")) {
+
+				final String certificateId = certificate.getAttribute("Id");
+				if (!index.containsKey(certificateId)) {
+					index.put(certificateId, certificate);
+				}
+			}
+			certificatesById = index;
+		}
+		return certificatesById.get(id);
 	}
 
 	public POEExtraction getPOE() {
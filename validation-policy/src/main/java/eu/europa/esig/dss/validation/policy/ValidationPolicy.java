@@ -20,8 +20,13 @@
  */
 package eu.europa.esig.dss.validation.policy;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.w3c.dom.Document;
 
@@ -30,13 +35,140 @@ import eu.europa.esig.dss.XmlDom;
 /**
  * This class encapsulates the constraint file that controls the policy to be used during the validation process. This is the base class used to implement a specific validation
  * policy
+ *
+ * The results of the queries on the constraint file are kept: each query is executed once on the DOM, under a lock. An instance can be
+ * shared between the validations running in parallel, as long as the underlying document is not modified.
  */
 public abstract class ValidationPolicy extends XmlDom {
 
+	private final ConcurrentMap<String, Object> queryResults = new ConcurrentHashMap<String, Object>();
+
 	public ValidationPolicy(final Document document) {
 
 		super(document);
 	}
+
+	private static String getKey(final String type, final String xPath, final Object... params) {
+
+		final StringBuilder key = new StringBuilder(type).append('|').append(xPath);
+		for (final Object param : params) {
+			key.append('|').append(param);
+		}
+		return key.toString();
+	}
+
+	@Override
+	public String getValue(final String xPath, final Object... params) {
+
+		final String key = getKey("value", xPath, params);
+		String value = (String) queryResults.get(key);
+		if (value == null) {
+
+			synchronized (this) {
+				value = super.getValue(xPath, params);
+			}
+			queryResults.put(key, value);
+		}
+		return value;
+	}
+
+	@Override
+	public boolean exists(final String xPath, final Object... params) {
+
+		final String key = getKey("exists", xPath, params);
+		Boolean exists = (Boolean) queryResults.get(key);
+		if (exists == null) {
+
+			synchronized (this) {
+				exists = super.exists(xPath, params);
+			}
+			queryResults.put(key, exists);
+		}
+		return exists;
+	}
+
+	@Override
+	public long getCountValue(final String xPath, final Object... params) {
+
+		final String key = getKey("count", xPath, params);
+		Long count = (Long) queryResults.get(key);
+		if (count == null) {
+
+			synchronized (this) {
+				count = super.getCountValue(xPath, params);
+			}
+			queryResults.put(key, count);
+		}
+		return count;
+	}
+
+	/**
+	 * This method returns the text content of the elements corresponding to the XPath query (see {@link XmlDom#convertToStringList(List)}).
+	 *
+	 * @param xPath  XPath query
+	 * @param params the parameters of the query
+	 * @return a new modifiable {@code List} of {@code String}
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<String> getValues(final String xPath, final Object... params) {
+
+		final String key = getKey("values", xPath, params);
+		List<String> values = (List<String>) queryResults.get(key);
+		if (values == null) {
+
+			synchronized (this) {
+				values = convertToStringList(getElements(xPath, params));
+			}
+			queryResults.put(key, values);
+		}
+		return new ArrayList<String>(values);
+	}
+
+	/**
+	 * This method returns the text content and the given attribute of the elements corresponding to the XPath query (see
+	 * {@link XmlDom#convertToStringMap(List, String)}).
+	 *
+	 * @param xPath         XPath query
+	 * @param attributeName the name of the attribute to use as value
+	 * @return a new modifiable {@code Map}
+	 */
+	@SuppressWarnings("unchecked")
+	protected Map<String, String> getValueMap(final String xPath, final String attributeName) {
+
+		final String key = getKey("map", xPath, attributeName);
+		Map<String, String> values = (Map<String, String>) queryResults.get(key);
+		if (values == null) {
+
+			synchronized (this) {
+				values = convertToStringMap(getElements(xPath), attributeName);
+			}
+			queryResults.put(key, values);
+		}
+		return new HashMap<String, String>(values);
+	}
+
+	/**
+	 * This method returns the text content and the given date attribute of the elements corresponding to the XPath query (see
+	 * {@link XmlDom#convertToStringDateMap(List, String)}).
+	 *
+	 * @param xPath         XPath query
+	 * @param attributeName the name of the attribute to use as value
+	 * @return a new modifiable {@code Map}
+	 */
+	@SuppressWarnings("unchecked")
+	protected Map<String, Date> getDateMap(final String xPath, final String attributeName) {
+
+		final String key = getKey("dates", xPath, attributeName);
+		Map<String, Date> values = (Map<String, Date>) queryResults.get(key);
+		if (values == null) {
+
+			synchronized (this) {
+				values = convertToStringDateMap(getElements(xPath), attributeName);
+			}
+			queryResults.put(key, values);
+		}
+		return new HashMap<String, Date>(values);
+	}
 	/**
 	 * @return
 	 */
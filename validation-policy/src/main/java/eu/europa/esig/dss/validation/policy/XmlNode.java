@@ -30,6 +30,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import javax.xml.XMLConstants;
+
 import org.apache.commons.lang.StringEscapeUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -340,11 +342,61 @@ public class XmlNode {
 	 */
 	public Document toDocument() {
 
-		final InputStream inputStream = getInputStream();
-		final Document document = DSSXMLUtils.buildDOM(inputStream);
+		// The DOM is built directly from the nodes: the serialization into a string followed by its parsing is avoided.
+		final XmlNode savedParentNode = getParent();
+		if (savedParentNode != null) {
+
+			setNameSpace(savedParentNode.getNameSpace());
+		}
+		final Document document = DSSXMLUtils.buildDOM();
+		final XmlNode masterNode = new XmlNode("__Master__");
+		masterNode.children.add(this);
+		writeElements(document, document, masterNode, "", null);
 		return document;
 	}
 
+	/**
+	 * This method is the DOM counterpart of {@link #writeNodes(XmlNode, StringBuilder, StringBuilder, String)}: the same namespace declarations
+	 * are applied.
+	 *
+	 * @param document     the {@code Document} owning the elements
+	 * @param parentDom    the DOM node to which the elements are added
+	 * @param node         the {@code XmlNode} whose children are converted
+	 * @param nameSpace    the last declared namespace
+	 * @param inheritedNameSpace the namespace in scope of the parent element
+	 */
+	private static void writeElements(final Document document, final Node parentDom, final XmlNode node, String nameSpace, final String inheritedNameSpace) {
+
+		for (final XmlNode node_ : node.children) {
+
+			String elementNameSpace = inheritedNameSpace;
+			boolean declareNameSpace = false;
+			if (!node_.nameSpace.isEmpty() && !nameSpace.equals(node_.nameSpace)) {
+
+				elementNameSpace = node_.nameSpace;
+				nameSpace = node_.nameSpace;
+				declareNameSpace = true;
+			}
+			final Element element = document.createElementNS(elementNameSpace, node_.name);
+			if (declareNameSpace) {
+
+				element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE, elementNameSpace);
+			}
+			for (final Entry<String, String> entry : node_.attributes.entrySet()) {
+
+				element.setAttribute(entry.getKey(), entry.getValue());
+			}
+			parentDom.appendChild(element);
+			if (node_.children.size() > 0) {
+
+				writeElements(document, element, node_, nameSpace, elementNameSpace);
+			} else if (node_.value != null) {
+
+				element.appendChild(document.createTextNode(node_.value));
+			}
+		}
+	}
+
 	/**
 	 * This method returns {@code XmlDom} representation of the current {@code XmlNode}.
 	 *
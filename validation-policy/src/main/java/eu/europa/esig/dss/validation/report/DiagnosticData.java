@@ -22,7 +22,9 @@ package eu.europa.esig.dss.validation.report;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
@@ -46,10 +48,73 @@ public class DiagnosticData extends XmlDom {
 
 	private List<String> signatureIdList;
 
+	/**
+	 * The signatures, timestamps and certificates indexed by their identifier. The indexes are built on the first access, this avoids to
+	 * look for the same elements through the whole document with each query.
+	 */
+	private Map<String, XmlDom> signaturesById;
+	private Map<String, XmlDom> timestampsById;
+	private Map<String, XmlDom> certificatesById;
+
+	/**
+	 * Element without content which is returned for an unknown identifier: the queries return the same default values as when they are
+	 * executed against the whole document.
+	 */
+	private XmlDom emptyElement;
+
 	public DiagnosticData(final Document document) {
 		super(document);
 	}
 
+	private XmlDom getSignatureDom(final Object signatureId) {
+
+		if (signaturesById == null) {
+			signaturesById = indexById("/DiagnosticData/Signature");
+		}
+		return getIndexedDom(signaturesById, signatureId);
+	}
+
+	private XmlDom getTimestampDom(final Object timestampId) {
+
+		if (timestampsById == null) {
+			timestampsById = indexById("/DiagnosticData/Signature/Timestamps/Timestamp");
+		}
+		return getIndexedDom(timestampsById, timestampId);
+	}
+
+	private XmlDom getCertificateDom(final Object dssCertificateId) {
+
+		if (certificatesById == null) {
+			certificatesById = indexById("/DiagnosticData/UsedCertificates/Certificate");
+		}
+		return getIndexedDom(certificatesById, dssCertificateId);
+	}
+
+	private Map<String, XmlDom> indexById(final String xPath) {
+
+		final Map<String, XmlDom> index = new HashMap<String, XmlDom>();
+		for (final XmlDom element : getElements(xPath)) {
+
+			final String id = element.getAttribute("Id");
+			if (!index.containsKey(id)) {
+				index.put(id, element);
+			}
+		}
+		return index;
+	}
+
+	private XmlDom getIndexedDom(final Map<String, XmlDom> index, final Object id) {
+
+		final XmlDom element = index.get(String.valueOf(id));
+		if (element != null) {
+			return element;
+		}
+		if (emptyElement == null) {
+			emptyElement = new XmlDom(rootElement.getOwnerDocument().createElementNS(NAMESPACE, "Empty"));
+		}
+		return emptyElement;
+	}
+
 	/**
 	 * This method returns the list of the signature id. The result is stored in the local variable.
 	 *
@@ -103,7 +168,7 @@ public class DiagnosticData extends XmlDom {
 
 		Date signatureDate = null;
 		try {
-			signatureDate = getTimeValue("/DiagnosticData/Signature[@Id='%s']/DateTime/text()", signatureId);
+			signatureDate = getSignatureDom(signatureId).getTimeValue("./DateTime/text()");
 		} catch (DSSException e) {
 
 			// returns null if not found
@@ -119,7 +184,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getSignatureFormat(final String signatureId) {
 
-		String signatureFormat = getValue("/DiagnosticData/Signature[@Id='%s']/SignatureFormat/text()", signatureId);
+		String signatureFormat = getSignatureDom(signatureId).getValue("./SignatureFormat/text()");
 		return signatureFormat;
 	}
 
@@ -143,7 +208,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public DigestAlgorithm getSignatureDigestAlgorithm(final String signatureId) {
 
-		final String signatureDigestAlgorithmName = getValue("/DiagnosticData/Signature[@Id='%s']/BasicSignature/DigestAlgoUsedToSignThisToken/text()", signatureId);
+		final String signatureDigestAlgorithmName = getSignatureDom(signatureId).getValue("./BasicSignature/DigestAlgoUsedToSignThisToken/text()");
 		final DigestAlgorithm signatureDigestAlgorithm = DigestAlgorithm.forName(signatureDigestAlgorithmName);
 		return signatureDigestAlgorithm;
 	}
@@ -168,7 +233,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public EncryptionAlgorithm getSignatureEncryptionAlgorithm(final String signatureId) {
 
-		final String signatureEncryptionAlgorithmName = getValue("/DiagnosticData/Signature[@Id='%s']/BasicSignature/EncryptionAlgoUsedToSignThisToken/text()", signatureId);
+		final String signatureEncryptionAlgorithmName = getSignatureDom(signatureId).getValue("./BasicSignature/EncryptionAlgoUsedToSignThisToken/text()");
 		final EncryptionAlgorithm signatureEncryptionAlgorithm = EncryptionAlgorithm.forName(signatureEncryptionAlgorithmName);
 		return signatureEncryptionAlgorithm;
 	}
@@ -192,7 +257,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getSigningCertificateId(final String signatureId) {
 
-		final String signingCertificateId = getValue("/DiagnosticData/Signature[@Id='%s']/SigningCertificate/@Id", signatureId);
+		final String signingCertificateId = getSignatureDom(signatureId).getValue("./SigningCertificate/@Id");
 		return signingCertificateId;
 	}
 
@@ -204,8 +269,8 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isSigningCertificateIdentified(final String signatureId) {
 
-		final boolean digestValueMatch = getBoolValue("/DiagnosticData/Signature[@Id='%s']/SigningCertificate/DigestValueMatch/text()", signatureId);
-		final boolean issuerSerialMatch = getBoolValue("/DiagnosticData/Signature[@Id='%s']/SigningCertificate/IssuerSerialMatch/text()", signatureId);
+		final boolean digestValueMatch = getSignatureDom(signatureId).getBoolValue("./SigningCertificate/DigestValueMatch/text()");
+		final boolean issuerSerialMatch = getSignatureDom(signatureId).getBoolValue("./SigningCertificate/IssuerSerialMatch/text()");
 		return digestValueMatch && issuerSerialMatch;
 	}
 
@@ -218,7 +283,7 @@ public class DiagnosticData extends XmlDom {
 	public List<String> getSignatureCertificateChain(final String signatureId) {
 
 		final ArrayList<String> certificateChain = new ArrayList<String>();
-		final List<XmlDom> certificateId = getElements("/DiagnosticData/Signature[@Id='%s']/CertificateChain/ChainCertificate", signatureId);
+		final List<XmlDom> certificateId = getSignatureDom(signatureId).getElements("./CertificateChain/ChainCertificate");
 		for (final XmlDom xmlDom : certificateId) {
 
 			final String id = xmlDom.getAttribute("Id");
@@ -241,7 +306,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getPolicyId(final String signatureId) {
 
-		final String policyId = getValue("/DiagnosticData/Signature[@Id='%s']/Policy/Id/text()", signatureId);
+		final String policyId = getSignatureDom(signatureId).getValue("./Policy/Id/text()");
 		return policyId;
 	}
 
@@ -255,7 +320,7 @@ public class DiagnosticData extends XmlDom {
 
 		final List<String> timestampIdList = new ArrayList<String>();
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp", signatureId);
+		final List<XmlDom> timestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp");
 		for (final XmlDom timestamp : timestamps) {
 
 			final String timestampId = timestamp.getAttribute("Id");
@@ -275,7 +340,7 @@ public class DiagnosticData extends XmlDom {
 
 		final List<String> timestampIdList = new ArrayList<String>();
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, timestampType.name());
+		final List<XmlDom> timestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp[@Type='%s']", timestampType.name());
 		for (final XmlDom timestamp : timestamps) {
 
 			final String timestampId = timestamp.getAttribute("Id");
@@ -292,7 +357,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isBLevelTechnicallyValid(final String signatureId) {
 
-		final boolean signatureValueValid = getBoolValue("/DiagnosticData/Signature[@Id='%s']/BasicSignature/SignatureValid/text()", signatureId);
+		final boolean signatureValueValid = getSignatureDom(signatureId).getBoolValue("./BasicSignature/SignatureValid/text()");
 		return signatureValueValid;
 	}
 
@@ -304,7 +369,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isThereTLevel(final String signatureId) {
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, TimestampType.SIGNATURE_TIMESTAMP.name());
+		final List<XmlDom> timestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp[@Type='%s']", TimestampType.SIGNATURE_TIMESTAMP.name());
 		return timestamps.size() > 0;
 	}
 
@@ -316,7 +381,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isTLevelTechnicallyValid(final String signatureId) {
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, TimestampType.SIGNATURE_TIMESTAMP.name());
+		final List<XmlDom> timestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp[@Type='%s']", TimestampType.SIGNATURE_TIMESTAMP.name());
 		for (final XmlDom timestamp : timestamps) {
 
 			final boolean signatureValid = timestamp.getBoolValue("./BasicSignature/SignatureValid/text()");
@@ -336,10 +401,8 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isThereXLevel(final String signatureId) {
 
-		final List<XmlDom> vdroTimestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId,
-				TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP.name());
-		final List<XmlDom> vdTimestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId,
-				TimestampType.VALIDATION_DATA_TIMESTAMP.name());
+		final List<XmlDom> vdroTimestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp[@Type='%s']", TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP.name());
+		final List<XmlDom> vdTimestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp[@Type='%s']", TimestampType.VALIDATION_DATA_TIMESTAMP.name());
 		return (vdroTimestamps.size() > 0) || (vdTimestamps.size() > 0);
 	}
 
@@ -351,10 +414,8 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isXLevelTechnicallyValid(final String signatureId) {
 
-		final List<XmlDom> vdroTimestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId,
-				TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP.name());
-		final List<XmlDom> vdTimestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId,
-				TimestampType.VALIDATION_DATA_TIMESTAMP.name());
+		final List<XmlDom> vdroTimestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp[@Type='%s']", TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP.name());
+		final List<XmlDom> vdTimestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp[@Type='%s']", TimestampType.VALIDATION_DATA_TIMESTAMP.name());
 		final List<XmlDom> timestamps = new ArrayList<XmlDom>(vdroTimestamps);
 		timestamps.addAll(vdTimestamps);
 		for (final XmlDom timestamp : timestamps) {
@@ -376,7 +437,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isThereALevel(final String signatureId) {
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, TimestampType.ARCHIVE_TIMESTAMP.name());
+		final List<XmlDom> timestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp[@Type='%s']", TimestampType.ARCHIVE_TIMESTAMP.name());
 		return timestamps.size() > 0;
 	}
 
@@ -388,7 +449,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isALevelTechnicallyValid(final String signatureId) {
 
-		final List<XmlDom> timestamps = getElements("/DiagnosticData/Signature[@Id='%s']/Timestamps/Timestamp[@Type='%s']", signatureId, TimestampType.ARCHIVE_TIMESTAMP.name());
+		final List<XmlDom> timestamps = getSignatureDom(signatureId).getElements("./Timestamps/Timestamp[@Type='%s']", TimestampType.ARCHIVE_TIMESTAMP.name());
 		for (final XmlDom timestamp : timestamps) {
 
 			final boolean signatureValid = timestamp.getBoolValue("./BasicSignature/SignatureValid/text()");
@@ -408,7 +469,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getTimestampSigningCertificateId(final String timestampId) {
 
-		final String signingCertificateId = getValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/SigningCertificate/@Id", timestampId);
+		final String signingCertificateId = getTimestampDom(timestampId).getValue("./SigningCertificate/@Id");
 		return signingCertificateId;
 	}
 
@@ -420,7 +481,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public Date getTimestampProductionTime(final String timestampId) {
 
-		final Date productionTime = getTimeValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/ProductionTime/text()", timestampId);
+		final Date productionTime = getTimestampDom(timestampId).getTimeValue("./ProductionTime/text()");
 		return productionTime;
 	}
 
@@ -432,7 +493,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getTimestampDigestAlgorithm(final String timestampId) {
 
-		final String digestAlgorithm = getValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/SignedDataDigestAlgo/text()", timestampId);
+		final String digestAlgorithm = getTimestampDom(timestampId).getValue("./SignedDataDigestAlgo/text()");
 		return digestAlgorithm;
 	}
 
@@ -444,7 +505,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isTimestampMessageImprintIntact(final String timestampId) {
 
-		final boolean messageImprintIntact = getBoolValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/MessageImprintDataIntact/text()", timestampId);
+		final boolean messageImprintIntact = getTimestampDom(timestampId).getBoolValue("./MessageImprintDataIntact/text()");
 		return messageImprintIntact;
 	}
 
@@ -456,7 +517,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isTimestampSignatureValid(final String timestampId) {
 
-		final boolean signatureValid = getBoolValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/BasicSignature/SignatureValid/text()", timestampId);
+		final boolean signatureValid = getTimestampDom(timestampId).getBoolValue("./BasicSignature/SignatureValid/text()");
 		return signatureValid;
 	}
 
@@ -468,13 +529,13 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getTimestampType(final String timestampId) {
 
-		final String timestampType = getValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/@Type", timestampId);
+		final String timestampType = getTimestampDom(timestampId).getValue("./@Type");
 		return timestampType;
 	}
 
 	public String getTimestampCanonicalizationMethod(final String timestampId) {
 
-		final String canonicalizationMethod = getValue("/DiagnosticData/Signature/Timestamps/Timestamp[@Id='%s']/CanonicalizationMethod/text()", timestampId);
+		final String canonicalizationMethod = getTimestampDom(timestampId).getValue("./CanonicalizationMethod/text()");
 		return canonicalizationMethod;
 	}
 
@@ -486,7 +547,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isValidCertificate(final int dssCertificateId) {
 
-		final XmlDom certificate = getElement("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']", dssCertificateId);
+		final XmlDom certificate = getCertificateDom(dssCertificateId);
 		final boolean signatureValid = certificate.getBoolValue("./BasicSignature/SignatureValid/text()");
 		final boolean revocationValid = certificate.getBoolValue("./Revocation/Status/text()");
 		final boolean trusted = certificate.getBoolValue("./Trusted/text()");
@@ -503,8 +564,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateDN(final String dssCertificateId) {
 
-		final String subjectDistinguishedName = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/SubjectDistinguishedName[@Format='RFC2253']/text()",
-				dssCertificateId);
+		final String subjectDistinguishedName = getCertificateDom(dssCertificateId).getValue("./SubjectDistinguishedName[@Format='RFC2253']/text()");
 		return subjectDistinguishedName;
 	}
 
@@ -516,8 +576,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateIssuerDN(final String dssCertificateId) {
 
-		final String issuerDistinguishedName = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/IssuerDistinguishedName[@Format='RFC2253']/text()",
-				dssCertificateId);
+		final String issuerDistinguishedName = getCertificateDom(dssCertificateId).getValue("./IssuerDistinguishedName[@Format='RFC2253']/text()");
 		return issuerDistinguishedName;
 	}
 
@@ -529,7 +588,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateSerialNumber(final String dssCertificateId) {
 
-		final String serialNumber = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/SerialNumber/text()", dssCertificateId);
+		final String serialNumber = getCertificateDom(dssCertificateId).getValue("./SerialNumber/text()");
 		return serialNumber;
 	}
 
@@ -541,7 +600,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateValidAtValidationTime(final String dssCertificateId) {
 
-		final boolean validityAtValidationTime = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/ValidityAtValidationTime/text()", dssCertificateId);
+		final boolean validityAtValidationTime = getCertificateDom(dssCertificateId).getBoolValue("./ValidityAtValidationTime/text()");
 		return validityAtValidationTime;
 	}
 
@@ -553,7 +612,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateQCP(final int dssCertificateId) {
 
-		final boolean qcp = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/QCStatement/QCP/text()", dssCertificateId);
+		final boolean qcp = getCertificateDom(dssCertificateId).getBoolValue("./QCStatement/QCP/text()");
 		return qcp;
 	}
 
@@ -565,7 +624,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateQCPPlus(final int dssCertificateId) {
 
-		final boolean qcpPlus = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/QCStatement/QCPPlus/text()", dssCertificateId);
+		final boolean qcpPlus = getCertificateDom(dssCertificateId).getBoolValue("./QCStatement/QCPPlus/text()");
 		return qcpPlus;
 	}
 
@@ -577,7 +636,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateQCC(final int dssCertificateId) {
 
-		final boolean qcc = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/QCStatement/QCC/text()", dssCertificateId);
+		final boolean qcc = getCertificateDom(dssCertificateId).getBoolValue("./QCStatement/QCC/text()");
 		return qcc;
 	}
 
@@ -589,7 +648,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateQCSSCD(final int dssCertificateId) {
 
-		final boolean qcsscd = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/QCStatement/QCSSCD/text()", dssCertificateId);
+		final boolean qcsscd = getCertificateDom(dssCertificateId).getBoolValue("./QCStatement/QCSSCD/text()");
 		return qcsscd;
 	}
 
@@ -603,8 +662,7 @@ public class DiagnosticData extends XmlDom {
 	public boolean hasCertificateQCWithSSCDQualification(final int dssCertificateId) {
 
 		final String condition = "contains('" + TSLConstant.QC_WITH_SSCD + "', '" + TSLConstant.QC_WITH_SSCD_119612 + "')";
-		final String qualification = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()",
-				dssCertificateId);
+		final String qualification = getCertificateDom(dssCertificateId).getValue("./TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()");
 		return !qualification.isEmpty();
 	}
 
@@ -617,8 +675,7 @@ public class DiagnosticData extends XmlDom {
 	public boolean hasCertificateQCNoSSCDQualification(final int dssCertificateId) {
 
 		final String condition = "contains('" + TSLConstant.QC_NO_SSCD + "', '" + TSLConstant.QC_NO_SSCD_119612 + "')";
-		final String qualification = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()",
-				dssCertificateId);
+		final String qualification = getCertificateDom(dssCertificateId).getValue("./TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()");
 		return !qualification.isEmpty();
 	}
 
@@ -631,8 +688,7 @@ public class DiagnosticData extends XmlDom {
 	public boolean hasCertificateQCSSCDStatusAsInCertQualification(final int dssCertificateId) {
 
 		final String condition = "contains('" + TSLConstant.QCSSCD_STATUS_AS_IN_CERT + "', '" + TSLConstant.QCSSCD_STATUS_AS_IN_CERT_119612 + "')";
-		final String qualification = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()",
-				dssCertificateId);
+		final String qualification = getCertificateDom(dssCertificateId).getValue("./TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()");
 		return !qualification.isEmpty();
 	}
 
@@ -645,8 +701,7 @@ public class DiagnosticData extends XmlDom {
 	public boolean hasCertificateQCForLegalPersonQualification(final int dssCertificateId) {
 
 		final String condition = "contains('" + TSLConstant.QC_FOR_LEGAL_PERSON + "', '" + TSLConstant.QC_FOR_LEGAL_PERSON_119612 + "')";
-		final String qualification = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()",
-				dssCertificateId);
+		final String qualification = getCertificateDom(dssCertificateId).getValue("./TrustedServiceProvider/Qualifiers/Qualifier[" + condition + "]/text()");
 		return !qualification.isEmpty();
 	}
 
@@ -658,27 +713,26 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateTSPServiceName(final int dssCertificateId) {
 
-		final String tspServiceName = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/TSPServiceName/text()", dssCertificateId);
+		final String tspServiceName = getCertificateDom(dssCertificateId).getValue("./TrustedServiceProvider/TSPServiceName/text()");
 		return tspServiceName;
 	}
 
 	public String getCertificateTSPServiceStatus(final int dssCertificateId) {
 
-		final String TSPServiceStatus = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Status/text()", dssCertificateId);
+		final String TSPServiceStatus = getCertificateDom(dssCertificateId).getValue("./TrustedServiceProvider/Status/text()");
 		return TSPServiceStatus;
 	}
 
 	public String getCertificateTSPServiceStartDate(final int dssCertificateId) {
 
-		final String TSPServiceStartDate = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/StartDate/text()", dssCertificateId);
+		final String TSPServiceStartDate = getCertificateDom(dssCertificateId).getValue("./TrustedServiceProvider/StartDate/text()");
 		return TSPServiceStartDate;
 	}
 
 	public List<String> getCertificateTSPServiceQualifiers(final int dssCertificateId) {
 
 		List<String> tspServiceQualifiers = new ArrayList<String>();
-		final List<XmlDom> TSPServiceQualifiers = getElements("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/Qualifiers/Qualifier",
-				dssCertificateId);
+		final List<XmlDom> TSPServiceQualifiers = getCertificateDom(dssCertificateId).getElements("./TrustedServiceProvider/Qualifiers/Qualifier");
 
 		for (XmlDom tspServiceQualifier : TSPServiceQualifiers) {
 			tspServiceQualifiers.add(tspServiceQualifier.getText());
@@ -694,7 +748,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean isCertificateRelatedTSLWellSigned(final int dssCertificateId) {
 
-		final boolean wellSigned = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/TrustedServiceProvider/WellSigned/text()", dssCertificateId);
+		final boolean wellSigned = getCertificateDom(dssCertificateId).getBoolValue("./TrustedServiceProvider/WellSigned/text()");
 		return wellSigned;
 	}
 
@@ -706,7 +760,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateRevocationSource(final String dssCertificateId) {
 
-		final String certificateRevocationSource = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/Revocation/Source/text()", dssCertificateId);
+		final String certificateRevocationSource = getCertificateDom(dssCertificateId).getValue("./Revocation/Source/text()");
 		return certificateRevocationSource;
 	}
 
@@ -718,7 +772,7 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public boolean getCertificateRevocationStatus(final String dssCertificateId) {
 
-		final boolean certificateRevocationStatus = getBoolValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/Revocation/Status/text()", dssCertificateId);
+		final boolean certificateRevocationStatus = getCertificateDom(dssCertificateId).getBoolValue("./Revocation/Status/text()");
 		return certificateRevocationStatus;
 	}
 
@@ -730,13 +784,13 @@ public class DiagnosticData extends XmlDom {
 	 */
 	public String getCertificateRevocationReason(String dssCertificateId) {
 
-		final String revocationReason = getValue("/DiagnosticData/UsedCertificates/Certificate[@Id='%s']/Revocation/Reason/text()", dssCertificateId);
+		final String revocationReason = getCertificateDom(dssCertificateId).getValue("./Revocation/Reason/text()");
 		return revocationReason;
 	}
 
 	public String getErrorMessage(final String signatureId) {
 
-		final String errorMessage = getValue("/DiagnosticData/Signature[@Id='%s']/ErrorMessage/text()", signatureId);
+		final String errorMessage = getSignatureDom(signatureId).getValue("./ErrorMessage/text()");
 		return errorMessage;
 	}
 
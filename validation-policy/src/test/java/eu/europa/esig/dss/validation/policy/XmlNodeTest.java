@@ -0,0 +1,31 @@
+package eu.europa.esig.dss.validation.policy;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import eu.europa.esig.dss.XmlDom;
+
+public class XmlNodeTest {
+
+	@Test
+	public void toXmlDom() throws Exception {
+
+		XmlNode root = new XmlNode("ValidationData");
+		root.setNameSpace(XmlDom.NAMESPACE);
+		XmlNode signature = root.addChild("Signature");
+		signature.setAttribute("Id", "S-1");
+		signature.addChild("Status", "VALID");
+		XmlNode certificate = signature.addChild("Certificate");
+		certificate.setAttribute("Id", "12");
+		certificate.addChild("Info", "a < b & c");
+
+		XmlDom direct = root.toXmlDom();
+		assertEquals("VALID", direct.getValue("/ValidationData/Signature[@Id='%s']/Status/text()", "S-1"));
+		assertEquals("12", direct.getValue("/ValidationData/Signature/Certificate/@Id"));
+		assertEquals("a < b & c", direct.getValue("/ValidationData/Signature/Certificate/Info/text()"));
+		// the children inherit the namespace of the root element
+		assertEquals(XmlDom.NAMESPACE, direct.getElement("/ValidationData/Signature/Certificate").getRootElement().getNamespaceURI());
+	}
+
+}